@@ -117,6 +117,37 @@ public class ArtifactsIT {
         () -> modelCatalogReader.retrieveArtifactFile(modelId, artifactId));
   }
 
+  @Test
+  public void client_shouldUploadArtifactFileStreamedInRequestBody() throws IOException {
+    ModelDTO model = modelCatalogWriter.addModel(
+            TestModelParamsBuilder.exemplaryParamsDTO(), DEFAULT_ORG_ID);
+    File f = testFile();
+    ArtifactDTO addedArtifact = modelCatalogWriter.uploadArtifact(
+        model.getId(),
+        Collections.singleton(ArtifactActionDTO.PUBLISH_JAR_SCORING_ENGINE),
+        new FileInputStream(f),
+        f.getName());
+    assertThat(addedArtifact.getFilename()).isEqualTo(f.getName());
+    assertThat(addedArtifact.getSize()).isEqualTo(f.length());
+    assertThat(addedArtifact.getDigest()).hasSize(64);
+    assertThat(addedArtifact.getAddedOn()).isNotNull();
+    assertThat(addedArtifact.getActions())
+        .containsOnly(ArtifactActionDTO.PUBLISH_JAR_SCORING_ENGINE.name());
+
+    HttpFileResource retrievedFile =
+        modelCatalogReader.retrieveArtifactFile(model.getId(), addedArtifact.getId());
+    assertThat(readAllBytes(retrievedFile.getInputStream()))
+        .isEqualTo(Files.readAllBytes(f.toPath()));
+  }
+
+  @Test
+  public void uploadArtifact_shouldReturn404WhenModelNotFound() throws FileNotFoundException {
+    expectModelCatalogExceptionWithStatus(thrown, HttpStatus.NOT_FOUND);
+    File f = testFile();
+    modelCatalogWriter.uploadArtifact(
+        UUID.randomUUID(), Collections.emptySet(), new FileInputStream(f), f.getName());
+  }
+
   @Test
   public void addArtifact_shouldReturn404WhenModelNotFound() throws FileNotFoundException {
     expectModelCatalogExceptionWithStatus(thrown, HttpStatus.NOT_FOUND);
@@ -0,0 +1,126 @@
+/**
+ * Copyright (c) 2016 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.trustedanalytics.modelcatalog;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.trustedanalytics.modelcatalog.TestFileProvider.testFile;
+
+import org.trustedanalytics.modelcatalog.rest.client.ModelCatalogClientBuilder;
+import org.trustedanalytics.modelcatalog.rest.client.ModelCatalogClientException;
+import org.trustedanalytics.modelcatalog.rest.client.ModelCatalogReaderClient;
+import org.trustedanalytics.modelcatalog.rest.client.ModelCatalogWriterClient;
+import org.trustedanalytics.modelcatalog.rest.entities.ArtifactActionDTO;
+import org.trustedanalytics.modelcatalog.rest.entities.CatalogStatisticsDTO;
+import org.trustedanalytics.modelcatalog.rest.entities.ModelDTO;
+import org.trustedanalytics.modelcatalog.rest.entities.ModelModificationParametersDTO;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.IntegrationTest;
+import org.springframework.boot.test.SpringApplicationConfiguration;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.context.web.WebAppConfiguration;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.util.Collections;
+import javax.annotation.PostConstruct;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@SpringApplicationConfiguration(classes = {Application.class, FongoConfig.class})
+@WebAppConfiguration
+// Every request starts a recomputation, so that added models show up without waiting a minute
+@IntegrationTest("statistics.maxAgeMs=0")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+@ActiveProfiles({"integration-test", "in-memory"})
+public class CatalogStatisticsIT {
+
+  @Value("http://localhost:${local.server.port}")
+  private String url;
+
+  private ModelCatalogReaderClient modelCatalogReader;
+  private ModelCatalogWriterClient modelCatalogWriter;
+
+  private final ModelModificationParametersDTO PARAMS = TestModelParamsBuilder.exemplaryParamsDTO();
+  private static final String DEFAULT_ORG_ID = "defaultorg";
+  private static final String OTHER_ORG_ID = "otherorg";
+
+  @PostConstruct
+  public void init() {
+    modelCatalogReader = new ModelCatalogClientBuilder(url).buildReader();
+    modelCatalogWriter = new ModelCatalogClientBuilder(url).buildWriter();
+  }
+
+  @Before
+  public void setUp() throws FileNotFoundException {
+    ModelDTO model = modelCatalogWriter.addModel(PARAMS, DEFAULT_ORG_ID);
+    modelCatalogWriter.addModel(PARAMS, DEFAULT_ORG_ID);
+    modelCatalogWriter.addModel(PARAMS, OTHER_ORG_ID);
+    File f = testFile();
+    modelCatalogWriter.addArtifact(model.getId(),
+            Collections.singleton(ArtifactActionDTO.PUBLISH_TAP_SCORING_ENGINE),
+            new FileInputStream(f), f.getName());
+  }
+
+  @Test
+  public void client_shouldRetrieveStatisticsOfAllOrganizations() throws InterruptedException {
+    // when
+    CatalogStatisticsDTO statistics = awaitStatisticsOfModels(3);
+    // then
+    assertThat(statistics.isEstimated()).isFalse();
+    assertThat(statistics.getArtifacts()).isEqualTo(1);
+    assertThat(statistics.getModelsPerOrg())
+            .containsEntry(DEFAULT_ORG_ID, 2L)
+            .containsEntry(OTHER_ORG_ID, 1L);
+    assertThat(statistics.getModelsPerOrg().keySet()).startsWith(DEFAULT_ORG_ID);
+    assertThat(statistics.getModelsPerAlgorithm()).containsEntry(PARAMS.getAlgorithm(), 3L);
+    assertThat(statistics.getArtifactsPerAction())
+            .containsEntry(ArtifactActionDTO.PUBLISH_TAP_SCORING_ENGINE.name(), 1L);
+  }
+
+  @Test
+  public void client_shouldRetrieveEstimatedTotals() {
+    // when
+    CatalogStatisticsDTO statistics = modelCatalogReader.retrieveStatistics(true);
+    // then
+    assertThat(statistics.isEstimated()).isTrue();
+    assertThat(statistics.getModels()).isEqualTo(3);
+    assertThat(statistics.getArtifacts()).isEqualTo(1);
+    assertThat(statistics.getModelsPerOrg()).isNull();
+  }
+
+  // Statistics are computed in the background, a request gets the previous result
+  private CatalogStatisticsDTO awaitStatisticsOfModels(long models)
+          throws InterruptedException {
+    CatalogStatisticsDTO statistics = null;
+    for (int i = 0; i < 100; i++) {
+      try {
+        statistics = modelCatalogReader.retrieveStatistics(false);
+        if (statistics.getModels() == models) {
+          return statistics;
+        }
+      } catch (ModelCatalogClientException e) {
+        // Not computed yet
+      }
+      Thread.sleep(50);
+    }
+    return statistics;
+  }
+
+}
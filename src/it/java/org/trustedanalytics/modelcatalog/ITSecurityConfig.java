@@ -13,6 +13,7 @@
  */
 package org.trustedanalytics.modelcatalog;
 
+import org.trustedanalytics.modelcatalog.security.AuthorityChecker;
 import org.trustedanalytics.modelcatalog.security.UsernameExtractor;
 
 import org.springframework.context.annotation.Bean;
@@ -30,4 +31,9 @@ public class ITSecurityConfig {
     return () -> USERNAME;
   }
 
+  @Bean
+  protected AuthorityChecker authorityChecker() {
+    return authority -> true;
+  }
+
 }
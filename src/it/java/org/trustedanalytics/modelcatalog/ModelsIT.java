@@ -22,14 +22,20 @@ import org.trustedanalytics.modelcatalog.rest.ModelCatalogPaths;
 import org.trustedanalytics.modelcatalog.rest.client.ModelCatalogClientBuilder;
 import org.trustedanalytics.modelcatalog.rest.client.ModelCatalogReaderClient;
 import org.trustedanalytics.modelcatalog.rest.client.ModelCatalogWriterClient;
+import org.trustedanalytics.modelcatalog.rest.entities.ModelBulkItemDTO;
 import org.trustedanalytics.modelcatalog.rest.entities.ModelDTO;
+import org.trustedanalytics.modelcatalog.rest.entities.ModelFilterDTO;
 import org.trustedanalytics.modelcatalog.rest.entities.ModelModificationParametersDTO;
+import org.trustedanalytics.modelcatalog.rest.entities.ModelSearchResultDTO;
+import org.trustedanalytics.modelcatalog.rest.entities.ModelsPageDTO;
 import org.trustedanalytics.modelcatalog.rest.service.InstantFormatter;
+import org.trustedanalytics.modelcatalog.service.ModelSearchIndex;
 
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.test.IntegrationTest;
 import org.springframework.boot.test.SpringApplicationConfiguration;
@@ -43,6 +49,11 @@ import org.springframework.web.client.RestTemplate;
 
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
 import java.util.UUID;
 import javax.annotation.PostConstruct;
 
@@ -60,6 +71,9 @@ public class ModelsIT {
   private ModelCatalogReaderClient modelCatalogReader;
   private ModelCatalogWriterClient modelCatalogWriter;
 
+  @Autowired
+  private ModelSearchIndex searchIndex;
+
   private static final String DEFAULT_ORG_ID = "defaultorg";
   private final ModelModificationParametersDTO PARAMS = TestModelParamsBuilder.exemplaryParamsDTO();
   private ModelDTO addedModel;
@@ -83,6 +97,89 @@ public class ModelsIT {
     checkThatThereAreNoModelsInDb();
   }
 
+  @Test
+  public void client_shouldIterateOverAllModelsPageByPage() {
+    // given
+    Set<UUID> addedIds = new HashSet<>();
+    for (int i = 0; i < 5; i++) {
+      addedIds.add(modelCatalogWriter.addModel(PARAMS, DEFAULT_ORG_ID).getId());
+    }
+    // when
+    Set<UUID> iteratedIds = new HashSet<>();
+    Iterator<ModelDTO> models = modelCatalogReader.iterateModels(DEFAULT_ORG_ID, 2);
+    while (models.hasNext()) {
+      iteratedIds.add(models.next().getId());
+    }
+    // then
+    assertThat(iteratedIds).isEqualTo(addedIds);
+  }
+
+  @Test
+  public void listModelsPage_shouldReturnNextCursor_whenMoreModelsAvailable() {
+    // given
+    addExemplaryModel();
+    addExemplaryModel();
+    // when
+    ModelsPageDTO page = modelCatalogReader.listModels(DEFAULT_ORG_ID, 1, null);
+    // then
+    assertThat(page.getModels()).hasSize(1);
+    assertThat(page.getNextCursor()).isNotNull();
+  }
+
+  @Test
+  public void listModelsPage_shouldPageThroughModelsMatchingFilter() {
+    // given
+    ModelDTO first = modelCatalogWriter.addModel(PARAMS, DEFAULT_ORG_ID);
+    ModelModificationParametersDTO otherAlgorithm = TestModelParamsBuilder.exemplaryParamsDTO();
+    otherAlgorithm.setAlgorithm("other algorithm");
+    modelCatalogWriter.addModel(otherAlgorithm, DEFAULT_ORG_ID);
+    ModelDTO second = modelCatalogWriter.addModel(PARAMS, DEFAULT_ORG_ID);
+    ModelFilterDTO filter = ModelFilterDTO.builder().algorithm(PARAMS.getAlgorithm()).build();
+    // when
+    ModelsPageDTO firstPage = modelCatalogReader.listModels(DEFAULT_ORG_ID, filter, "addedOn", 1,
+            null);
+    ModelsPageDTO secondPage = modelCatalogReader.listModels(DEFAULT_ORG_ID, filter, "addedOn", 1,
+            firstPage.getNextCursor());
+    // then
+    assertThat(firstPage.getModels()).hasSize(1);
+    assertThat(secondPage.getModels()).hasSize(1);
+    assertThat(secondPage.getNextCursor()).isNull();
+    Set<UUID> listedIds = new HashSet<>(Arrays.asList(
+            firstPage.getModels().get(0).getId(), secondPage.getModels().get(0).getId()));
+    assertThat(listedIds).containsOnly(first.getId(), second.getId());
+  }
+
+  @Test
+  public void listModelsPage_shouldReturn400_whenSortIsUnknown() {
+    expectModelCatalogExceptionWithStatusAndReason(thrown, HttpStatus.BAD_REQUEST);
+    modelCatalogReader.listModels(DEFAULT_ORG_ID, null, "-name", 1, null);
+  }
+
+  @Test
+  public void client_shouldFindAddedModelBySearch() throws InterruptedException {
+    // given
+    awaitSearchIndex();
+    ModelDTO added = modelCatalogWriter.addModel(PARAMS, DEFAULT_ORG_ID);
+    // when
+    ModelSearchResultDTO result =
+            modelCatalogReader.searchModels(DEFAULT_ORG_ID, PARAMS.getName(), 10);
+    // then
+    assertThat(result.getModels()).extracting(ModelDTO::getId).containsExactly(added.getId());
+    assertThat(result.getAlgorithms()).containsEntry(PARAMS.getAlgorithm(), 1);
+  }
+
+  @Test
+  public void searchModels_shouldReturn400_whenQueryIsBlank() {
+    expectModelCatalogExceptionWithStatusAndReason(thrown, HttpStatus.BAD_REQUEST);
+    modelCatalogReader.searchModels(DEFAULT_ORG_ID, " ", 10);
+  }
+
+  @Test
+  public void listModelsPage_shouldReturn400_whenCursorIsMalformed() {
+    expectModelCatalogExceptionWithStatusAndReason(thrown, HttpStatus.BAD_REQUEST);
+    modelCatalogReader.listModels(DEFAULT_ORG_ID, 1, "malformed");
+  }
+
   @Test
   public void addModel_shouldReturn400_whenRequiredFieldsNotProvided() {
     expectModelCatalogExceptionWithStatusAndReason(thrown, HttpStatus.BAD_REQUEST);
@@ -191,6 +288,26 @@ public class ModelsIT {
     modelCatalogWriter.deleteModel(UUID.randomUUID());
   }
 
+  @Test
+  public void shouldAddManyModelsAtOnce_reportingInvalidOnes() {
+    Collection<ModelBulkItemDTO> items = modelCatalogWriter.addModels(
+        Arrays.asList(PARAMS, TestModelParamsBuilder.emptyParamsDTO(), PARAMS), DEFAULT_ORG_ID);
+    assertThat(items).extracting(ModelBulkItemDTO::getStatus).containsExactly(
+        HttpStatus.CREATED.value(), HttpStatus.BAD_REQUEST.value(), HttpStatus.CREATED.value());
+    assertThat(modelCatalogReader.listModels(DEFAULT_ORG_ID)).hasSize(2);
+  }
+
+  @Test
+  public void shouldDeleteManyModelsAtOnce_reportingMissingOnes() {
+    addExemplaryModel();
+    UUID missingId = UUID.randomUUID();
+    Collection<ModelBulkItemDTO> items =
+        modelCatalogWriter.deleteModels(Arrays.asList(addedModel.getId(), missingId));
+    assertThat(items).extracting(ModelBulkItemDTO::getStatus).containsExactly(
+        HttpStatus.OK.value(), HttpStatus.NOT_FOUND.value());
+    checkThatThereAreNoModelsInDb();
+  }
+
   private void addModelAndCheckThatItWasProperlyInitialized() {
     Instant before = currentTimeWithPrecisionToSeconds();
     addExemplaryModel();
@@ -225,6 +342,13 @@ public class ModelsIT {
   }
 
   //because of Dates in ModelDTO being formetted with InstantFormatter.DATE_FORMAT
+  // The index is built in the background once the application has started
+  private void awaitSearchIndex() throws InterruptedException {
+    for (int i = 0; i < 100 && !searchIndex.isReady(); i++) {
+      Thread.sleep(50);
+    }
+  }
+
   private Instant currentTimeWithPrecisionToSeconds() {
     Instant now = Instant.now();
     return now.truncatedTo(ChronoUnit.SECONDS);
@@ -16,6 +16,7 @@ package org.trustedanalytics.modelcatalog.domain;
 import lombok.Getter;
 import lombok.experimental.Builder;
 
+import java.time.Instant;
 import java.util.Set;
 import java.util.UUID;
 
@@ -27,6 +28,11 @@ public class Artifact {
   private final String filename;
   private final String location;
   private final Set<ArtifactAction> actions;
+  // Null for artifacts added by older versions
+  private final Long size;
+  // Hex-encoded SHA-256 of the file
+  private final String digest;
+  private final Instant addedOn;
 
   @Override
   public boolean equals(Object o) {
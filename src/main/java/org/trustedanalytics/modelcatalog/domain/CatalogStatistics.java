@@ -0,0 +1,36 @@
+/**
+ * Copyright (c) 2016 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.trustedanalytics.modelcatalog.domain;
+
+import lombok.Getter;
+import lombok.experimental.Builder;
+
+import java.time.Instant;
+import java.util.Map;
+
+// Counts of models and artifacts across all organizations, as of computedOn. Estimated
+// statistics come from collection metadata and have no breakdowns.
+@Getter
+@Builder
+public class CatalogStatistics {
+
+  private final long models;
+  private final long artifacts;
+  private final Map<String, Long> modelsPerOrg;
+  private final Map<String, Long> modelsPerAlgorithm;
+  private final Map<String, Long> artifactsPerAction;
+  private final boolean estimated;
+  private final Instant computedOn;
+
+}
@@ -15,6 +15,7 @@ package org.trustedanalytics.modelcatalog.domain;
 
 import lombok.Getter;
 import lombok.experimental.Builder;
+import lombok.experimental.Wither;
 
 import java.time.Instant;
 import java.util.Set;
@@ -25,6 +26,7 @@ import java.util.UUID;
 public class Model {
 
   private final UUID id;
+  private final String orgId;
   private final String name;
   private final String revision;
   private final String algorithm;
@@ -34,6 +36,7 @@ public class Model {
   private final Instant addedOn;
   private final String modifiedBy;
   private final Instant modifiedOn;
+  @Wither
   private final Set<Artifact> artifacts;
 
 }
\ No newline at end of file
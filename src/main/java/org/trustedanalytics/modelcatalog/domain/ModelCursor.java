@@ -0,0 +1,37 @@
+/**
+ * Copyright (c) 2016 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.trustedanalytics.modelcatalog.domain;
+
+import lombok.Getter;
+import lombok.experimental.Builder;
+
+import java.time.Instant;
+import java.util.UUID;
+
+// Position in a model list ordered by the sort key of its ModelSort, then by id
+@Getter
+@Builder
+public class ModelCursor {
+
+  private final Instant sortKey;
+  private final UUID id;
+
+  public static ModelCursor after(Model model, ModelSort sort) {
+    return ModelCursor.builder()
+            .sortKey(sort.getSortKey().apply(model))
+            .id(model.getId())
+            .build();
+  }
+
+}
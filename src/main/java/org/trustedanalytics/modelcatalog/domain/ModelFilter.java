@@ -0,0 +1,36 @@
+/**
+ * Copyright (c) 2016 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.trustedanalytics.modelcatalog.domain;
+
+import lombok.Getter;
+import lombok.experimental.Builder;
+
+import java.time.Instant;
+
+// Conditions a listed model must meet; null ones are not checked. Time ranges are exclusive.
+@Getter
+@Builder
+public class ModelFilter {
+
+  public static final ModelFilter NONE = ModelFilter.builder().build();
+
+  private final String algorithm;
+  private final String creationTool;
+  private final String addedBy;
+  private final Instant addedAfter;
+  private final Instant addedBefore;
+  private final Instant modifiedAfter;
+  private final Instant modifiedBefore;
+
+}
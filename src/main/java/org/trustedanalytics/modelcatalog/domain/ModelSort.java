@@ -0,0 +1,51 @@
+/**
+ * Copyright (c) 2016 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.trustedanalytics.modelcatalog.domain;
+
+import lombok.Getter;
+
+import java.time.Instant;
+import java.util.function.Function;
+
+// Orders of model lists. Models with the same sort key are ordered by id, in the same direction.
+@Getter
+public enum ModelSort {
+  MODIFIED_ON_DESC("modifiedOn", false, Model::getModifiedOn),
+  MODIFIED_ON_ASC("modifiedOn", true, Model::getModifiedOn),
+  ADDED_ON_DESC("addedOn", false, Model::getAddedOn),
+  ADDED_ON_ASC("addedOn", true, Model::getAddedOn);
+
+  public static final ModelSort DEFAULT = MODIFIED_ON_DESC;
+
+  private final String property;
+  private final boolean ascending;
+  private final Function<Model, Instant> sortKey;
+
+  ModelSort(String property, boolean ascending, Function<Model, Instant> sortKey) {
+    this.property = property;
+    this.ascending = ascending;
+    this.sortKey = sortKey;
+  }
+
+  // Returns null when models cannot be sorted by given property
+  public static ModelSort of(String property, boolean ascending) {
+    for (ModelSort sort : values()) {
+      if (sort.property.equals(property) && sort.ascending == ascending) {
+        return sort;
+      }
+    }
+    return null;
+  }
+
+}
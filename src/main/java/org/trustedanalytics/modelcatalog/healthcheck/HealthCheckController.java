@@ -25,16 +25,19 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.Optional;
+
 @RestController
 public class HealthCheckController {
   
   private static final Logger LOGGER = LoggerFactory.getLogger(HealthCheckController.class);
 
-  private final HealthCheckMongoTester healthCheckMongoTester;
+  // Absent when models are not kept in MongoDB
+  private final Optional<HealthCheckMongoTester> healthCheckMongoTester;
   private final HealthCheckFileStorageTester healthCheckFileStorageTester;
 
   @Autowired
-  public HealthCheckController(HealthCheckMongoTester healthCheckMongoTester,
+  public HealthCheckController(Optional<HealthCheckMongoTester> healthCheckMongoTester,
                                HealthCheckFileStorageTester healthCheckFileStorageTester) {
     this.healthCheckMongoTester = healthCheckMongoTester;
     this.healthCheckFileStorageTester = healthCheckFileStorageTester;
@@ -50,7 +53,7 @@ public class HealthCheckController {
       method = RequestMethod.GET
   )
   public void checkHealth() throws FileStoreException{
-    healthCheckMongoTester.verifyMongo();
+    healthCheckMongoTester.ifPresent(HealthCheckMongoTester::verifyMongo);
     try {
       healthCheckFileStorageTester.verifyFileStore();
     } catch (FileStoreException e) {
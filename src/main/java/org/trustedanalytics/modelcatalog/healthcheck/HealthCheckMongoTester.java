@@ -14,21 +14,25 @@
 
 package org.trustedanalytics.modelcatalog.healthcheck;
 
+import org.trustedanalytics.modelcatalog.storage.db.ConditionalOnMongoStore;
+import org.trustedanalytics.modelcatalog.storage.db.MongoWriteRouter;
+
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.mongodb.core.MongoOperations;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.stereotype.Service;
 
 @Service
+@ConditionalOnMongoStore
 public class HealthCheckMongoTester {
 
   private static final String ID = "_id";
-  private final MongoOperations mongoOperations;
+  private static final String HEALTH_CHECK = "healthCheck";
+  private final MongoWriteRouter writeRouter;
 
   @Autowired
-  public HealthCheckMongoTester(MongoOperations mongoOperations) {
-    this.mongoOperations = mongoOperations;
+  public HealthCheckMongoTester(MongoWriteRouter writeRouter) {
+    this.writeRouter = writeRouter;
   }
 
   public void verifyMongo() {
@@ -37,12 +41,15 @@ public class HealthCheckMongoTester {
   }
 
   private HealthCheckTestObject addHealthCheckTestObject(HealthCheckTestObject healthCheckTestObject) {
-    mongoOperations.insert(healthCheckTestObject);
-    return healthCheckTestObject;
+    return writeRouter.write(HEALTH_CHECK, operations -> {
+      operations.insert(healthCheckTestObject);
+      return healthCheckTestObject;
+    });
   }
 
   private void deleteHealthCheckTestObject(String id) {
-    mongoOperations.remove(matchHealthCheckTestObject(id), HealthCheckTestObject.class);
+    writeRouter.write(HEALTH_CHECK, operations ->
+            operations.remove(matchHealthCheckTestObject(id), HealthCheckTestObject.class));
   }
 
   private Query matchHealthCheckTestObject(String objectId) {
@@ -0,0 +1,53 @@
+/**
+ * Copyright (c) 2016 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.trustedanalytics.modelcatalog.healthcheck;
+
+import org.trustedanalytics.modelcatalog.storage.db.MongoMetrics;
+
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiResponse;
+import io.swagger.annotations.ApiResponses;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+public class MongoMetricsController {
+
+  private final MongoMetrics mongoMetrics;
+
+  @Autowired
+  public MongoMetricsController(MongoMetrics mongoMetrics) {
+    this.mongoMetrics = mongoMetrics;
+  }
+
+  @ApiOperation(
+      value = "Returns MongoDB command latencies and connection pool usage.",
+      notes = "Privilege level: Consumer of this endpoint must have a valid access token"
+  )
+  @ApiResponses(value = {
+      @ApiResponse(code = 200, message = "SUCCESS")
+  })
+  @RequestMapping(
+      value = "/metrics/mongo",
+      method = RequestMethod.GET,
+      produces = "application/json"
+  )
+  public Map<String, Object> getMongoMetrics() {
+    return mongoMetrics.snapshot();
+  }
+}
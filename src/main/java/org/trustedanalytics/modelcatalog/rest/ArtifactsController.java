@@ -13,22 +13,28 @@
  */
 package org.trustedanalytics.modelcatalog.rest;
 
+import org.trustedanalytics.modelcatalog.domain.Artifact;
 import org.trustedanalytics.modelcatalog.rest.entities.ArtifactDTO;
 import org.trustedanalytics.modelcatalog.rest.service.ArtifactsRestService;
+import org.trustedanalytics.modelcatalog.service.ArtifactFile;
+import org.trustedanalytics.modelcatalog.service.ModelServiceException;
+import org.trustedanalytics.modelcatalog.service.ModelServiceExceptionCode;
+import org.trustedanalytics.modelcatalog.service.SizeLimitedInputStream;
 
 import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiParam;
 import io.swagger.annotations.ApiResponse;
 import io.swagger.annotations.ApiResponses;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.io.InputStreamResource;
-import org.springframework.core.io.Resource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.embedded.MultipartConfigFactory;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RequestPart;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
@@ -39,16 +45,27 @@ import java.io.InputStream;
 import java.net.URI;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
 @RestController
 public class ArtifactsController {
 
   private final ArtifactsRestService service;
+  private final long maxFileSize;
+  private final boolean compressedFiles;
 
   @Autowired
-  public ArtifactsController(ArtifactsRestService service) {
+  public ArtifactsController(ArtifactsRestService service,
+                             @Value("${multipart.maxFileSize:-1}") String maxFileSize,
+                             @Value("${storage.compression.type:none}") String compression) {
     this.service = service;
+    this.compressedFiles = "gzip".equals(compression);
+    // Parsed the same way as for multipart uploads, e.g. 2048Mb; negative means no limit
+    MultipartConfigFactory multipartConfig = new MultipartConfigFactory();
+    multipartConfig.setMaxFileSize(maxFileSize);
+    this.maxFileSize = multipartConfig.createMultipartConfig().getMaxFileSize();
   }
 
   @ApiOperation(
@@ -79,6 +96,42 @@ public class ArtifactsController {
     return new ResponseEntity<>(addedArtifact, httpHeaders, HttpStatus.CREATED);
   }
 
+  @ApiOperation(
+          value = "Uploads model artifact file streamed in the request body",
+          notes = "Privilege level: Consumer of this endpoint must have a valid access token. "
+                  + "The body is written to the file storage as it arrives, without being "
+                  + "buffered in a temporary file, which suits large artifacts. The file is "
+                  + "limited to the same size as multipart uploads."
+  )
+  @ApiResponses(value = {
+          @ApiResponse(code = 201, message = "Created"),
+          @ApiResponse(code = 400, message = "Artifact filename missing"),
+          @ApiResponse(code = 404, message = "Model not found"),
+          @ApiResponse(code = 413, message = "Artifact file too large"),
+          @ApiResponse(code = 500, message =
+                  "Internal server error, e.g. error saving artifact file"),
+  })
+  @RequestMapping(
+          value = ModelCatalogPaths.ARTIFACTS,
+          method = RequestMethod.POST,
+          consumes = RequestParams.CONTENT_TYPE_APP_OCTET_STREAM,
+          produces = RequestParams.CONTENT_TYPE_APP_JSON_UTF)
+  @ResponseStatus(HttpStatus.CREATED)
+  public ResponseEntity<ArtifactDTO> uploadArtifactAndReturnWithLocationHeader(
+          @ApiParam(value = "Model id", required = true) @PathVariable UUID modelId,
+          @ApiParam(value = "Artifact actions", required = false)
+          @RequestParam(value = RequestParams.ARTIFACT_ACTIONS, required = false)
+          Set<String> artifactActions,
+          @ApiParam(value = "Artifact file name", required = true)
+          @RequestParam(RequestParams.FILENAME) String filename,
+          HttpServletRequest request) throws IOException {
+    ArtifactDTO addedArtifact =
+            service.addArtifact(modelId, artifactActions, filename, limitedBody(request));
+    HttpHeaders httpHeaders = new HttpHeaders();
+    addArtifactLocation(modelId, addedArtifact, httpHeaders);
+    return new ResponseEntity<>(addedArtifact, httpHeaders, HttpStatus.CREATED);
+  }
+
   @ApiOperation(
           value = "Returns artifact metadata",
           notes = "Privilege level: Consumer of this endpoint must have a valid access token"
@@ -88,25 +141,32 @@ public class ArtifactsController {
           @ApiResponse(code = 404, message = "Model or artifact not Found"),
           @ApiResponse(code = 500, message =
                   "Internal server error, e.g. error getting artifact metadata"),
+          @ApiResponse(code = 503, message = "Too many reads waiting for the database"),
   })
   @RequestMapping(
           value = ModelCatalogPaths.ARTIFACT,
           method = RequestMethod.GET,
           produces = RequestParams.CONTENT_TYPE_APP_JSON_UTF
   )
-  public ArtifactDTO retrieveArtifact(
+  public CompletableFuture<ArtifactDTO> retrieveArtifact(
           @ApiParam(value = "Model id", required = true) @PathVariable UUID modelId,
           @ApiParam(value = "Artifact id", required = true) @PathVariable UUID artifactId) {
-    return service.retrieveArtifact(modelId, artifactId);
+    return service.retrieveArtifactAsync(modelId, artifactId);
   }
 
   @ApiOperation(
           value = "Downloads artifact file",
-          notes = "Privilege level: Consumer of this endpoint must have a valid access token"
+          notes = "Privilege level: Consumer of this endpoint must have a valid access token. "
+                  + "Parts of the file can be requested with Range and If-Range headers. "
+                  + "Files are tagged with their SHA-256 in ETag and Digest headers, a client "
+                  + "sending the tag of its copy in If-None-Match gets 304 when it is current."
   )
   @ApiResponses(value = {
           @ApiResponse(code = 200, message = "SUCCESS"),
+          @ApiResponse(code = 206, message = "Requested ranges of the file"),
+          @ApiResponse(code = 304, message = "File has the tag given in If-None-Match"),
           @ApiResponse(code = 404, message = "Model or artifact not Found"),
+          @ApiResponse(code = 416, message = "Requested ranges are beyond the end of the file"),
           @ApiResponse(code = 500, message =
                   "Internal server error, e.g. error getting artifact file"),
   })
@@ -118,18 +178,21 @@ public class ArtifactsController {
               RequestParams.CONTENT_TYPE_APP_OCTET_STREAM,
           }
   )
-  public Resource retrieveArtifactFile(
+  public void retrieveArtifactFile(
           @ApiParam(value = "Model id", required = true) @PathVariable UUID modelId,
           @ApiParam(value = "Artifact id", required = true) @PathVariable UUID artifactId,
+          HttpServletRequest request,
           HttpServletResponse response) throws IOException {
-    // Get file's input stream
-    InputStream istream = service.retrieveArtifactFile(modelId, artifactId);
-
-    // Set response headers
-    ArtifactDTO artifact = service.retrieveArtifact(modelId, artifactId);
+    Artifact artifact = service.retrieveArtifactOfFile(modelId, artifactId);
+    // The file store is not touched for a 304, which must carry the Vary of the file as it
+    // would be sent, so that comes from whether files are stored compressed
+    if (FileDownloads.checkNotModified(artifact.getDigest(), compressedFiles, request,
+            response)) {
+      return;
+    }
+    ArtifactFile file = service.retrieveArtifactFile(artifact);
     response.addHeader("Content-disposition", "attachment; filename=" + artifact.getFilename());
-
-    return new InputStreamResource(istream);
+    FileDownloads.send(file.getContent(), artifact.getDigest(), request, response);
   }
 
   @ApiOperation(
@@ -152,6 +215,19 @@ public class ArtifactsController {
     return service.deleteArtifact(modelId, artifactId);
   }
 
+  // Multipart uploads are limited by the servlet container, a raw body is limited here, up front
+  // when its length is declared and while it is read otherwise
+  private InputStream limitedBody(HttpServletRequest request) throws IOException {
+    if (maxFileSize < 0) {
+      return request.getInputStream();
+    }
+    if (request.getContentLengthLong() > maxFileSize) {
+      throw new ModelServiceException(ModelServiceExceptionCode.ARTIFACT_TOO_LARGE,
+              "Artifact file exceeds the limit of " + maxFileSize + " bytes.");
+    }
+    return new SizeLimitedInputStream(request.getInputStream(), maxFileSize);
+  }
+
   private void addArtifactLocation(UUID modelId, ArtifactDTO artifact, HttpHeaders httpHeaders) {
     String locationString = ModelCatalogPaths.pathToModelArtifact(modelId, artifact.getId());
     URI location = URI.create(locationString);
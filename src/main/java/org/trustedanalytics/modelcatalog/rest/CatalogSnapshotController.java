@@ -0,0 +1,80 @@
+/**
+ * Copyright (c) 2016 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.trustedanalytics.modelcatalog.rest;
+
+import org.trustedanalytics.modelcatalog.rest.entities.CatalogSnapshotDTO;
+import org.trustedanalytics.modelcatalog.rest.service.CatalogSnapshotRestService;
+
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiResponse;
+import io.swagger.annotations.ApiResponses;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+public class CatalogSnapshotController {
+
+  private final CatalogSnapshotRestService service;
+
+  @Autowired
+  public CatalogSnapshotController(CatalogSnapshotRestService service) {
+    this.service = service;
+  }
+
+  @ApiOperation(
+          value = "Exports all models with their artifact metadata to the catalog snapshot file",
+          notes = "Privilege level: Consumer of this endpoint must have a valid access token "
+                  + "with the authority set by STORE_SNAPSHOT_AUTHORITY. The file is replaced "
+                  + "once the export is complete, instances serving it pick it up on reload."
+  )
+  @ApiResponses(value = {
+          @ApiResponse(code = 200, message = "SUCCESS"),
+          @ApiResponse(code = 403, message = "Token lacks the snapshot authority"),
+          @ApiResponse(code = 500, message = "Internal server error, e.g. error writing file")
+  })
+  @RequestMapping(
+          value = ModelCatalogPaths.SNAPSHOT,
+          method = RequestMethod.POST,
+          produces = RequestParams.CONTENT_TYPE_APP_JSON_UTF
+  )
+  public CatalogSnapshotDTO exportSnapshot() {
+    return service.exportSnapshot();
+  }
+
+  @ApiOperation(
+          value = "Starts serving the current catalog snapshot file",
+          notes = "Privilege level: Consumer of this endpoint must have a valid access token "
+                  + "with the authority set by STORE_SNAPSHOT_AUTHORITY. Only for instances "
+                  + "serving a snapshot, see STORE_TYPE. Search results are unavailable until "
+                  + "the new snapshot is indexed."
+  )
+  @ApiResponses(value = {
+          @ApiResponse(code = 200, message = "SUCCESS"),
+          @ApiResponse(code = 403, message = "Token lacks the snapshot authority"),
+          @ApiResponse(code = 409, message = "Catalog is not served from a snapshot"),
+          @ApiResponse(code = 500, message = "Internal server error, e.g. file is not a valid "
+                  + "snapshot; the previous one is still served")
+  })
+  @RequestMapping(
+          value = ModelCatalogPaths.SNAPSHOT_RELOAD,
+          method = RequestMethod.POST,
+          produces = RequestParams.CONTENT_TYPE_APP_JSON_UTF
+  )
+  public CatalogSnapshotDTO reloadSnapshot() {
+    return service.reloadSnapshot();
+  }
+
+}
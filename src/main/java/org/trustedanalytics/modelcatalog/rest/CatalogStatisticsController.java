@@ -0,0 +1,66 @@
+/**
+ * Copyright (c) 2016 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.trustedanalytics.modelcatalog.rest;
+
+import org.trustedanalytics.modelcatalog.rest.entities.CatalogStatisticsDTO;
+import org.trustedanalytics.modelcatalog.rest.service.CatalogStatisticsRestService;
+
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiParam;
+import io.swagger.annotations.ApiResponse;
+import io.swagger.annotations.ApiResponses;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+public class CatalogStatisticsController {
+
+  private final CatalogStatisticsRestService service;
+
+  @Autowired
+  public CatalogStatisticsController(CatalogStatisticsRestService service) {
+    this.service = service;
+  }
+
+  @ApiOperation(
+          value = "Returns numbers of models and artifacts, per organization, algorithm and "
+                  + "artifact action",
+          notes = "Privilege level: Consumer of this endpoint must have a valid access token. "
+                  + "Statistics are recomputed in the background and may be up to a minute "
+                  + "old, see computedOn. Estimated statistics hold only total numbers, read "
+                  + "from database metadata without counting."
+  )
+  @ApiResponses(value = {
+          @ApiResponse(code = 200, message = "SUCCESS"),
+          @ApiResponse(code = 500, message = "Internal server error, e.g. error estimating "
+                  + "statistics"),
+          @ApiResponse(code = 503, message = "Statistics are still being computed after startup")
+  })
+  @RequestMapping(
+          value = ModelCatalogPaths.STATISTICS,
+          method = RequestMethod.GET,
+          produces = RequestParams.CONTENT_TYPE_APP_JSON_UTF
+  )
+  public CatalogStatisticsDTO retrieveStatistics(
+          @ApiParam(value = "Whether only fast estimates of total numbers are wanted",
+                  required = false)
+          @RequestParam(value = RequestParams.ESTIMATED, required = false, defaultValue = "false")
+          boolean estimated) {
+    return service.retrieveStatistics(estimated);
+  }
+
+}
@@ -0,0 +1,374 @@
+/**
+ * Copyright (c) 2016 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.trustedanalytics.modelcatalog.rest;
+
+import org.trustedanalytics.modelcatalog.storage.files.GzipCompressedResource;
+
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+// Writes file downloads without copying files on the local disk through the heap. Tomcat
+// connectors that support sendfile are handed the file to send it themselves, as Tomcat's
+// DefaultServlet does, otherwise the file channel is transferred to the response. Byte ranges
+// are served as 206 Partial Content, several of them as multipart/byteranges. Files with a known
+// SHA-256 are tagged with it, as a strong ETag, and as a Digest when sent without content coding,
+// since the digest is that of the decompressed bytes. Files stored gzip-compressed are sent as
+// they are to clients that accept gzip, and decompressed for the others.
+final class FileDownloads {
+
+  static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+  static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+  static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+  static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+  static final String DIGEST = "Digest";
+
+  // More ranges than that are rather an attack than a download, they are ignored
+  static final int MAX_RANGES = 100;
+
+  private static final String BYTES = "bytes";
+  private static final String WEAK_PREFIX = "W/";
+  private static final String GZIP = "gzip";
+  private static final String GZIP_TAG_SUFFIX = "-" + GZIP;
+  private static final String CRLF = "\r\n";
+  private static final int BUFFER_SIZE = 8192;
+
+  private FileDownloads() {
+  }
+
+  // Sets the tag of a file with the given SHA-256, which may be unknown, and sends 304 Not
+  // Modified when the client has the file already. Tells whether the response is complete.
+  // Files that may be stored compressed vary by Accept-Encoding, and so does a 304 for them.
+  static boolean checkNotModified(String sha256, boolean mayBeCompressed,
+                                  HttpServletRequest request, HttpServletResponse response) {
+    if (mayBeCompressed) {
+      response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+    }
+    String etag = etagOf(sha256);
+    if (etag == null) {
+      return false;
+    }
+    response.setHeader(HttpHeaders.ETAG, etag);
+    String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+    String matchingTag = ifNoneMatch == null ? null : matchingTag(ifNoneMatch, sha256);
+    if (matchingTag == null) {
+      return false;
+    }
+    response.setHeader(HttpHeaders.ETAG, matchingTag);
+    response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+    return true;
+  }
+
+  static void send(Resource content, String sha256, HttpServletRequest request,
+                   HttpServletResponse response) throws IOException {
+    long length = content.contentLength();
+    long lastModified = lastModifiedOf(content);
+    response.setHeader(HttpHeaders.ACCEPT_RANGES, BYTES);
+    if (lastModified >= 0) {
+      response.setDateHeader(HttpHeaders.LAST_MODIFIED, lastModified);
+    }
+    if (content instanceof GzipCompressedResource) {
+      response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+      // Ranges are served from the decompressed file
+      if (acceptsGzip(request) && request.getHeader(HttpHeaders.RANGE) == null) {
+        sendCompressed(((GzipCompressedResource) content).getCompressed(), sha256, request,
+                response);
+        return;
+      }
+    }
+    if (sha256 != null) {
+      response.setHeader(DIGEST,
+              "SHA-256=" + Base64.getEncoder().encodeToString(fromHex(sha256)));
+    }
+
+    List<Range> ranges;
+    try {
+      ranges = requestedRanges(request, length, lastModified, etagOf(sha256));
+    } catch (IllegalArgumentException e) {
+      response.setHeader(HttpHeaders.CONTENT_RANGE, BYTES + " */" + length);
+      response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE,
+              "Requested range not satisfiable: " + e.getMessage());
+      return;
+    }
+
+    if (ranges.isEmpty()) {
+      response.setContentType(MediaType.APPLICATION_OCTET_STREAM_VALUE);
+      setContentLength(response, length);
+      sendRange(content, 0, length, request, response);
+    } else if (ranges.size() == 1) {
+      Range range = ranges.get(0);
+      response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+      response.setContentType(MediaType.APPLICATION_OCTET_STREAM_VALUE);
+      response.setHeader(HttpHeaders.CONTENT_RANGE, range.contentRange(length));
+      setContentLength(response, range.count);
+      sendRange(content, range.start, range.count, request, response);
+    } else {
+      sendRanges(content, length, ranges, response);
+    }
+  }
+
+  // Ranges are ignored, and the whole file sent, when the file changed since If-Range and when
+  // the header is malformed, as RFC 7233 requires. Only well-formed ranges that all start past
+  // the end fail the request.
+  private static List<Range> requestedRanges(HttpServletRequest request, long length,
+                                             long lastModified, String etag) {
+    String header = request.getHeader(HttpHeaders.RANGE);
+    List<Range> ranges = new ArrayList<>();
+    if (header == null || !ifRangeMatches(request, lastModified, etag)) {
+      return ranges;
+    }
+    List<HttpRange> httpRanges;
+    try {
+      httpRanges = HttpRange.parseRanges(header);
+    } catch (IllegalArgumentException e) {
+      return ranges;
+    }
+    if (httpRanges.size() > MAX_RANGES) {
+      return ranges;
+    }
+    for (HttpRange httpRange : httpRanges) {
+      long start = httpRange.getRangeStart(length);
+      long end = httpRange.getRangeEnd(length);
+      // Ranges starting past the end are left out, the request fails if none is left
+      if (start < length && start <= end) {
+        ranges.add(new Range(start, end - start + 1));
+      }
+    }
+    if (ranges.isEmpty()) {
+      throw new IllegalArgumentException(header);
+    }
+    return ranges;
+  }
+
+  private static boolean ifRangeMatches(HttpServletRequest request, long lastModified,
+                                        String etag) {
+    String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+    if (ifRange == null) {
+      return true;
+    }
+    if (ifRange.startsWith("\"") || ifRange.startsWith(WEAK_PREFIX)) {
+      // Only strong tags can match here
+      return ifRange.equals(etag);
+    }
+    try {
+      // HTTP dates have second precision
+      long ifRangeDate = request.getDateHeader(HttpHeaders.IF_RANGE);
+      return lastModified >= 0 && ifRangeDate / 1000 == lastModified / 1000;
+    } catch (IllegalArgumentException e) {
+      return false;
+    }
+  }
+
+  private static void sendCompressed(Resource compressed, String sha256,
+                                     HttpServletRequest request, HttpServletResponse response)
+          throws IOException {
+    long length = compressed.contentLength();
+    if (sha256 != null) {
+      response.setHeader(HttpHeaders.ETAG, gzipEtagOf(sha256));
+    }
+    response.setHeader(HttpHeaders.CONTENT_ENCODING, GZIP);
+    response.setContentType(MediaType.APPLICATION_OCTET_STREAM_VALUE);
+    setContentLength(response, length);
+    sendRange(compressed, 0, length, request, response);
+  }
+
+  // gzip is accepted when listed without q=0
+  private static boolean acceptsGzip(HttpServletRequest request) {
+    String header = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+    if (header == null) {
+      return false;
+    }
+    for (String coding : header.split(",")) {
+      String[] parts = coding.split(";");
+      String name = parts[0].trim();
+      if (GZIP.equalsIgnoreCase(name) || ("x-" + GZIP).equalsIgnoreCase(name)) {
+        return parts.length < 2 || !isZeroQuality(parts[1].trim());
+      }
+    }
+    return false;
+  }
+
+  private static boolean isZeroQuality(String parameter) {
+    if (!parameter.startsWith("q=")) {
+      return false;
+    }
+    try {
+      return Double.parseDouble(parameter.substring(2)) == 0;
+    } catch (NumberFormatException e) {
+      return false;
+    }
+  }
+
+  // If-None-Match compares tags weakly. The tags of the file as it is and gzip-compressed
+  // both match, the one that does is returned.
+  private static String matchingTag(String header, String sha256) {
+    String etag = etagOf(sha256);
+    String gzipEtag = gzipEtagOf(sha256);
+    for (String tag : header.split(",")) {
+      String trimmed = tag.trim();
+      if (trimmed.startsWith(WEAK_PREFIX)) {
+        trimmed = trimmed.substring(WEAK_PREFIX.length());
+      }
+      if ("*".equals(trimmed)) {
+        return etag;
+      }
+      if (trimmed.equals(etag) || trimmed.equals(gzipEtag)) {
+        return trimmed;
+      }
+    }
+    return null;
+  }
+
+  private static String etagOf(String sha256) {
+    return sha256 == null ? null : "\"" + sha256 + "\"";
+  }
+
+  // Representations differing in content coding have different strong tags
+  private static String gzipEtagOf(String sha256) {
+    return "\"" + sha256 + GZIP_TAG_SUFFIX + "\"";
+  }
+
+  private static byte[] fromHex(String hex) {
+    byte[] bytes = new byte[hex.length() / 2];
+    for (int i = 0; i < bytes.length; i++) {
+      bytes[i] = (byte) Integer.parseInt(hex.substring(2 * i, 2 * i + 2), 16);
+    }
+    return bytes;
+  }
+
+  private static void sendRange(Resource content, long start, long count,
+                                HttpServletRequest request, HttpServletResponse response)
+          throws IOException {
+    if (content instanceof FileSystemResource
+            && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+      request.setAttribute(SENDFILE_FILENAME, content.getFile().getAbsolutePath());
+      request.setAttribute(SENDFILE_START, start);
+      request.setAttribute(SENDFILE_END, start + count);
+      return;
+    }
+    writeRange(content, start, count, response.getOutputStream());
+  }
+
+  private static void sendRanges(Resource content, long length, List<Range> ranges,
+                                 HttpServletResponse response) throws IOException {
+    String boundary = UUID.randomUUID().toString().replace("-", "");
+    List<byte[]> partHeaders = new ArrayList<>(ranges.size());
+    byte[] end = (CRLF + "--" + boundary + "--" + CRLF).getBytes(StandardCharsets.US_ASCII);
+    long contentLength = end.length;
+    for (Range range : ranges) {
+      byte[] partHeader = (CRLF + "--" + boundary + CRLF
+              + HttpHeaders.CONTENT_TYPE + ": " + MediaType.APPLICATION_OCTET_STREAM_VALUE + CRLF
+              + HttpHeaders.CONTENT_RANGE + ": " + range.contentRange(length) + CRLF
+              + CRLF).getBytes(StandardCharsets.US_ASCII);
+      partHeaders.add(partHeader);
+      contentLength += partHeader.length + range.count;
+    }
+
+    response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+    response.setContentType("multipart/byteranges; boundary=" + boundary);
+    setContentLength(response, contentLength);
+    OutputStream out = response.getOutputStream();
+    for (int i = 0; i < ranges.size(); i++) {
+      out.write(partHeaders.get(i));
+      writeRange(content, ranges.get(i).start, ranges.get(i).count, out);
+    }
+    out.write(end);
+  }
+
+  // Files are read from the start of the range on, other resources are skipped to it, which
+  // costs nothing for the in-memory ones
+  private static void writeRange(Resource content, long start, long count, OutputStream out)
+          throws IOException {
+    if (content instanceof FileSystemResource) {
+      try (FileChannel channel = FileChannel.open(content.getFile().toPath(),
+              StandardOpenOption.READ)) {
+        WritableByteChannel target = Channels.newChannel(out);
+        long position = start;
+        long end = start + count;
+        while (position < end) {
+          long transferred = channel.transferTo(position, end - position, target);
+          if (transferred <= 0) {
+            throw new IOException("File ended at " + position + " before " + end + " bytes.");
+          }
+          position += transferred;
+        }
+      }
+      return;
+    }
+    try (InputStream in = content.getInputStream()) {
+      skipFully(in, start);
+      byte[] buffer = new byte[BUFFER_SIZE];
+      long remaining = count;
+      while (remaining > 0) {
+        int read = in.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+        if (read < 0) {
+          throw new IOException("Content ended " + remaining + " bytes before range end.");
+        }
+        out.write(buffer, 0, read);
+        remaining -= read;
+      }
+    }
+  }
+
+  private static void skipFully(InputStream in, long count) throws IOException {
+    long remaining = count;
+    while (remaining > 0) {
+      long skipped = in.skip(remaining);
+      if (skipped <= 0) {
+        throw new IOException("Content ended " + remaining + " bytes before range start.");
+      }
+      remaining -= skipped;
+    }
+  }
+
+  private static void setContentLength(HttpServletResponse response, long length) {
+    response.setHeader(HttpHeaders.CONTENT_LENGTH, Long.toString(length));
+  }
+
+  private static long lastModifiedOf(Resource content) throws IOException {
+    return content instanceof FileSystemResource ? content.lastModified() : -1;
+  }
+
+  private static final class Range {
+    private final long start;
+    private final long count;
+
+    private Range(long start, long count) {
+      this.start = start;
+      this.count = count;
+    }
+
+    private String contentRange(long length) {
+      return BYTES + " " + start + "-" + (start + count - 1) + "/" + length;
+    }
+  }
+
+}
@@ -29,6 +29,7 @@ import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 
 import java.io.IOException;
+import java.util.concurrent.CompletionException;
 import javax.servlet.http.HttpServletResponse;
 
 @ControllerAdvice
@@ -52,6 +53,9 @@ public class ModelCatalogExceptionHandler {
       case ARTIFACT_NOT_FOUND:
         status = HttpStatus.NOT_FOUND;
         break;
+      case ARTIFACT_RETRIEVE_FAILED:
+        status = HttpStatus.NOT_FOUND;
+        break;
       case MODEL_NOTHING_TO_UPDATE:
         status = HttpStatus.NOT_MODIFIED;
         break;
@@ -61,6 +65,48 @@ public class ModelCatalogExceptionHandler {
       case ARTIFACT_INVALID_ACTION:
         status = HttpStatus.BAD_REQUEST;
         break;
+      case ARTIFACT_TOO_LARGE:
+        status = HttpStatus.PAYLOAD_TOO_LARGE;
+        break;
+      case INVALID_PAGING_PARAMETERS:
+        status = HttpStatus.BAD_REQUEST;
+        break;
+      case INVALID_MODEL_VIEW:
+        status = HttpStatus.BAD_REQUEST;
+        break;
+      case INVALID_BULK_SIZE:
+        status = HttpStatus.BAD_REQUEST;
+        break;
+      case INVALID_FILTER:
+        status = HttpStatus.BAD_REQUEST;
+        break;
+      case INVALID_SORT:
+        status = HttpStatus.BAD_REQUEST;
+        break;
+      case INVALID_SEARCH_QUERY:
+        status = HttpStatus.BAD_REQUEST;
+        break;
+      case SEARCH_INDEX_NOT_READY:
+        status = HttpStatus.SERVICE_UNAVAILABLE;
+        break;
+      case SEARCH_DISABLED:
+        status = HttpStatus.NOT_IMPLEMENTED;
+        break;
+      case STATISTICS_NOT_READY:
+        status = HttpStatus.SERVICE_UNAVAILABLE;
+        break;
+      case SNAPSHOT_NOT_SERVED:
+        status = HttpStatus.CONFLICT;
+        break;
+      case CATALOG_READ_ONLY:
+        status = HttpStatus.METHOD_NOT_ALLOWED;
+        break;
+      case STORE_OVERLOADED:
+        status = HttpStatus.SERVICE_UNAVAILABLE;
+        break;
+      case ACCESS_DENIED:
+        status = HttpStatus.FORBIDDEN;
+        break;
       default:
         status = HttpStatus.INTERNAL_SERVER_ERROR;
         break;
@@ -69,6 +115,18 @@ public class ModelCatalogExceptionHandler {
     ErrorLogger.logAndSendErrorResponse(LOGGER, response, status, message, e);
   }
 
+  // Asynchronous results fail with the exception of the failed stage wrapped
+  @ExceptionHandler(CompletionException.class)
+  void handleCompletionException(CompletionException e, HttpServletResponse response)
+          throws IOException {
+    if (e.getCause() instanceof ModelServiceException) {
+      handleModelServiceException((ModelServiceException) e.getCause(), response);
+      return;
+    }
+    ErrorLogger.logAndSendErrorResponse(
+            LOGGER, response, HttpStatus.INTERNAL_SERVER_ERROR, e.getMessage(), e);
+  }
+
   @ExceptionHandler(MissingServletRequestParameterException.class)
   void handleMissingServletRequestParameterException(MissingServletRequestParameterException e,
                                                      HttpServletResponse response) throws IOException {
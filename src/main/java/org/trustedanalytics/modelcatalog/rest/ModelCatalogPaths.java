@@ -13,6 +13,12 @@
  */
 package org.trustedanalytics.modelcatalog.rest;
 
+import org.trustedanalytics.modelcatalog.rest.entities.ModelFilterDTO;
+
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
 import java.util.UUID;
 
 public class ModelCatalogPaths {
@@ -30,10 +36,16 @@ public class ModelCatalogPaths {
 
   public static final String MODELS        = PREFIX + "/models";
   public static final String MODELS_ORG    = PREFIX + "/models?orgId=" + ORG_ID;
+  public static final String MODELS_SEARCH = PREFIX + "/models/search";
+  public static final String MODELS_BULK   = PREFIX + "/models/bulk";
+  public static final String MODELS_BULK_DELETE = PREFIX + "/models/bulk/delete";
   public static final String MODEL         = PREFIX + "/models/" + MODEL_ID;
   public static final String ARTIFACTS     = PREFIX + "/models/" + MODEL_ID + "/artifacts";
   public static final String ARTIFACT      = PREFIX + "/models/" + MODEL_ID + "/artifacts/" + ARTIFACT_ID;
   public static final String ARTIFACT_FILE = PREFIX + "/models/" + MODEL_ID + "/artifacts/" + ARTIFACT_ID + "/file";
+  public static final String STATISTICS    = PREFIX + "/statistics";
+  public static final String SNAPSHOT      = PREFIX + "/snapshot";
+  public static final String SNAPSHOT_RELOAD = PREFIX + "/snapshot/reload";
 
   private ModelCatalogPaths() {}
 
@@ -43,6 +55,57 @@ public class ModelCatalogPaths {
     return MODELS_ORG.replace(ORG_ID, orgId.toString());
   }
 
+  public static String pathToModelsBulkByOrg(String orgId) {
+    return MODELS_BULK + "?orgId=" + orgId;
+  }
+
+  public static String pathToModelsPage(String orgId, Integer limit, String cursor) {
+    return pathToModelsPage(orgId, limit, cursor, null);
+  }
+
+  public static String pathToModelsPage(
+          String orgId, Integer limit, String cursor, String view) {
+    return pathToModelsPage(orgId, limit, cursor, view, null, null);
+  }
+
+  public static String pathToModelsPage(String orgId, Integer limit, String cursor, String view,
+                                        String sort, ModelFilterDTO filter) {
+    StringBuilder path = new StringBuilder(pathToModelsByOrg(orgId));
+    if (limit != null) {
+      path.append('&').append(RequestParams.LIMIT).append('=').append(limit);
+    }
+    if (cursor != null) {
+      path.append('&').append(RequestParams.CURSOR).append('=').append(cursor);
+    }
+    if (view != null) {
+      path.append('&').append(RequestParams.VIEW).append('=').append(view);
+    }
+    appendParam(path, RequestParams.SORT, sort);
+    if (filter != null) {
+      appendParam(path, "algorithm", filter.getAlgorithm());
+      appendParam(path, "creationTool", filter.getCreationTool());
+      appendParam(path, "addedBy", filter.getAddedBy());
+      appendParam(path, "addedAfter", filter.getAddedAfter());
+      appendParam(path, "addedBefore", filter.getAddedBefore());
+      appendParam(path, "modifiedAfter", filter.getModifiedAfter());
+      appendParam(path, "modifiedBefore", filter.getModifiedBefore());
+    }
+    return path.toString();
+  }
+
+  public static String pathToModelsSearch(String orgId, String query, Integer limit) {
+    StringBuilder path = new StringBuilder(MODELS_SEARCH).append("?orgId=").append(orgId);
+    appendParam(path, RequestParams.QUERY, query);
+    if (limit != null) {
+      path.append('&').append(RequestParams.LIMIT).append('=').append(limit);
+    }
+    return path.toString();
+  }
+
+  public static String pathToStatistics(boolean estimated) {
+    return STATISTICS + "?" + RequestParams.ESTIMATED + "=" + estimated;
+  }
+
   public static String pathToModel(UUID modelId) {
     return MODEL.replace(MODEL_ID, modelId.toString());
   }
@@ -51,6 +114,17 @@ public class ModelCatalogPaths {
     return ARTIFACTS.replace(MODEL_ID, modelId.toString());
   }
 
+  // Target of a streamed upload, which carries the file name and actions as query parameters
+  public static String pathToModelArtifactsUpload(UUID modelId, String filename,
+                                                  Collection<String> actions) {
+    StringBuilder path = new StringBuilder(pathToModelArtifacts(modelId))
+            .append('?').append(RequestParams.FILENAME).append('=').append(encode(filename));
+    for (String action : actions) {
+      appendParam(path, RequestParams.ARTIFACT_ACTIONS, action);
+    }
+    return path.toString();
+  }
+
   public static String pathToModelArtifact(UUID modelId, UUID artifactId) {
     return ARTIFACT.replace(MODEL_ID, modelId.toString())
             .replace(ARTIFACT_ID, artifactId.toString());
@@ -60,4 +134,19 @@ public class ModelCatalogPaths {
     return ARTIFACT_FILE.replace(MODEL_ID, modelId.toString())
         .replace(ARTIFACT_ID, artifactId.toString());
   }
+
+  private static void appendParam(StringBuilder path, String name, String value) {
+    if (value == null) {
+      return;
+    }
+    path.append('&').append(name).append('=').append(encode(value));
+  }
+
+  private static String encode(String value) {
+    try {
+      return URLEncoder.encode(value, StandardCharsets.UTF_8.name());
+    } catch (UnsupportedEncodingException e) {
+      throw new IllegalStateException(e);
+    }
+  }
 }
@@ -13,10 +13,18 @@
  */
 package org.trustedanalytics.modelcatalog.rest;
 
+import org.trustedanalytics.modelcatalog.rest.entities.ModelBulkItemDTO;
 import org.trustedanalytics.modelcatalog.rest.entities.ModelDTO;
+import org.trustedanalytics.modelcatalog.rest.entities.ModelFilterDTO;
 import org.trustedanalytics.modelcatalog.rest.entities.ModelModificationParametersDTO;
+import org.trustedanalytics.modelcatalog.rest.entities.ModelSearchResultDTO;
+import org.trustedanalytics.modelcatalog.rest.entities.ModelsPageDTO;
 import org.trustedanalytics.modelcatalog.rest.service.ModelsRestService;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiParam;
 import io.swagger.annotations.ApiResponse;
@@ -24,7 +32,9 @@ import io.swagger.annotations.ApiResponses;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -32,38 +42,136 @@ import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.net.URI;
 import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
 
 @RestController
 public class ModelsController {
 
+  private static final String LINK_HEADER = "Link";
+  private static final String SORT_DESCRIPTION = "Sort order: addedOn or modifiedOn, prefixed "
+          + "with '-' for descending order. Default: -modifiedOn";
+
   private final ModelsRestService service;
+  private final ObjectMapper objectMapper;
+  private final ObjectWriter modelWriter;
 
   @Autowired
-  public ModelsController(ModelsRestService service) {
+  public ModelsController(ModelsRestService service, ObjectMapper objectMapper) {
     this.service = service;
+    this.objectMapper = objectMapper;
+    // Flushing after every model would send each one in a separate chunk
+    this.modelWriter = objectMapper.writerFor(ModelDTO.class)
+            .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
   }
 
   @ApiOperation(
-          value = "Returns all models in given organization.",
+          value = "Returns all models in given organization matching given filter, most recently "
+                  + "modified first unless sorted otherwise.",
           notes = "Privilege level: Consumer of this endpoint must have a valid access token"
   )
   @ApiResponses(value = {
           @ApiResponse(code = 200, message = "SUCCESS"),
+          @ApiResponse(code = 400, message = "Bad request, e.g. invalid view, filter or sort"),
           @ApiResponse(code = 500, message = "Internal server error, e.g. error getting model " +
                   "metadata")
   })
   @RequestMapping(
           value = ModelCatalogPaths.MODELS,
           method = RequestMethod.GET,
+          params = {"!" + RequestParams.LIMIT, "!" + RequestParams.CURSOR},
           produces = RequestParams.CONTENT_TYPE_APP_JSON_UTF
   )
-  public Collection<ModelDTO> listModels(
-          @ApiParam(value = "Organization id", required = true) @RequestParam String orgId) {
-    return service.listModels(orgId);
+  public ResponseEntity<StreamingResponseBody> listModels(
+          @ApiParam(value = "Organization id", required = true) @RequestParam String orgId,
+          @ApiParam(value = "Model view: full (default) or summary, which omits artifacts",
+                  required = false)
+          @RequestParam(value = RequestParams.VIEW, required = false) String view,
+          @ApiParam(value = SORT_DESCRIPTION, required = false)
+          @RequestParam(value = RequestParams.SORT, required = false) String sort,
+          @ModelAttribute ModelFilterDTO filter) {
+    // The cursor is opened here, so that query errors are still reported with a proper status
+    Stream<ModelDTO> models = service.streamModels(orgId, filter, sort, view);
+    HttpHeaders httpHeaders = new HttpHeaders();
+    httpHeaders.setContentType(MediaType.parseMediaType(RequestParams.CONTENT_TYPE_APP_JSON_UTF));
+    return new ResponseEntity<>(
+            outputStream -> writeJsonArray(models, outputStream), httpHeaders, HttpStatus.OK);
+  }
+
+  @ApiOperation(
+          value = "Returns a page of models in given organization matching given filter, most "
+                  + "recently modified first unless sorted otherwise.",
+          notes = "Privilege level: Consumer of this endpoint must have a valid access token. " +
+                  "The cursor of the next page is sent in the " +
+                  RequestParams.NEXT_CURSOR_HEADER + " and Link headers."
+  )
+  @ApiResponses(value = {
+          @ApiResponse(code = 200, message = "SUCCESS"),
+          @ApiResponse(code = 400, message = "Bad request, e.g. invalid limit, cursor, view, "
+                  + "filter or sort"),
+          @ApiResponse(code = 500, message = "Internal server error, e.g. error getting model " +
+                  "metadata"),
+          @ApiResponse(code = 503, message = "Too many reads waiting for the database")
+  })
+  @RequestMapping(
+          value = ModelCatalogPaths.MODELS,
+          method = RequestMethod.GET,
+          produces = RequestParams.CONTENT_TYPE_APP_JSON_UTF
+  )
+  public CompletableFuture<ResponseEntity<Collection<ModelDTO>>> listModelsPage(
+          @ApiParam(value = "Organization id", required = true) @RequestParam String orgId,
+          @ApiParam(value = "Maximum number of models in a page", required = false)
+          @RequestParam(value = RequestParams.LIMIT, required = false) Integer limit,
+          @ApiParam(value = "Cursor of the page to return, accepted only with the sort it was "
+                  + "returned for", required = false)
+          @RequestParam(value = RequestParams.CURSOR, required = false) String cursor,
+          @ApiParam(value = "Model view: full (default) or summary, which omits artifacts",
+                  required = false)
+          @RequestParam(value = RequestParams.VIEW, required = false) String view,
+          @ApiParam(value = SORT_DESCRIPTION, required = false)
+          @RequestParam(value = RequestParams.SORT, required = false) String sort,
+          @ModelAttribute ModelFilterDTO filter) {
+    return service.listModelsAsync(orgId, filter, sort, limit, cursor, view).thenApply(page -> {
+      HttpHeaders httpHeaders = new HttpHeaders();
+      addNextPageHeaders(orgId, limit, view, sort, filter, page, httpHeaders);
+      return new ResponseEntity<>(page.getModels(), httpHeaders, HttpStatus.OK);
+    });
+  }
+
+  @ApiOperation(
+          value = "Searches name, description, algorithm and creation tool of models in given "
+                  + "organization.",
+          notes = "Privilege level: Consumer of this endpoint must have a valid access token. "
+                  + "Models matching any of the query words are returned, most relevant first, "
+                  + "with the number of all matching models per algorithm and creation tool."
+  )
+  @ApiResponses(value = {
+          @ApiResponse(code = 200, message = "SUCCESS"),
+          @ApiResponse(code = 400, message = "Bad request, e.g. empty query or invalid limit"),
+          @ApiResponse(code = 501, message = "Search is disabled on this instance"),
+          @ApiResponse(code = 503, message = "Models are still being indexed after startup")
+  })
+  @RequestMapping(
+          value = ModelCatalogPaths.MODELS_SEARCH,
+          method = RequestMethod.GET,
+          produces = RequestParams.CONTENT_TYPE_APP_JSON_UTF
+  )
+  public ModelSearchResultDTO searchModels(
+          @ApiParam(value = "Organization id", required = true) @RequestParam String orgId,
+          @ApiParam(value = "Words to search for", required = true)
+          @RequestParam(value = RequestParams.QUERY) String query,
+          @ApiParam(value = "Maximum number of models returned", required = false)
+          @RequestParam(value = RequestParams.LIMIT, required = false) Integer limit) {
+    return service.searchModels(orgId, query, limit);
   }
 
   @ApiOperation(
@@ -72,18 +180,23 @@ public class ModelsController {
   )
   @ApiResponses(value = {
           @ApiResponse(code = 200, message = "SUCCESS"),
+          @ApiResponse(code = 400, message = "Bad request, e.g. invalid view"),
           @ApiResponse(code = 404, message = "Not Found"),
           @ApiResponse(code = 500, message = "Internal server error, e.g. error getting model " +
                   "metadata"),
+          @ApiResponse(code = 503, message = "Too many reads waiting for the database"),
   })
   @RequestMapping(
           value = ModelCatalogPaths.MODEL,
           method = RequestMethod.GET,
           produces = RequestParams.CONTENT_TYPE_APP_JSON_UTF
   )
-  public ModelDTO retrieveModel(
-          @ApiParam(value = "Model id", required = true) @PathVariable UUID modelId) {
-    return service.retrieveModel(modelId);
+  public CompletableFuture<ModelDTO> retrieveModel(
+          @ApiParam(value = "Model id", required = true) @PathVariable UUID modelId,
+          @ApiParam(value = "Model view: full (default) or summary, which omits artifacts",
+                  required = false)
+          @RequestParam(value = RequestParams.VIEW, required = false) String view) {
+    return service.retrieveModelAsync(modelId, view);
   }
 
   @ApiOperation(
@@ -111,6 +224,51 @@ public class ModelsController {
     return new ResponseEntity<>(addedModel, httpHeaders, HttpStatus.CREATED);
   }
 
+  @ApiOperation(
+          value = "Inserts many new model entities in given organization at once.",
+          notes = "Privilege level: Consumer of this endpoint must have a valid access token. " +
+                  "The result of every model is reported in the order of the request: " +
+                  "its status, and the added model or an error message."
+  )
+  @ApiResponses(value = {
+          @ApiResponse(code = 200, message = "SUCCESS"),
+          @ApiResponse(code = 400, message = "Bad request, e.g. too many models"),
+          @ApiResponse(code = 500, message = "Internal server error, e.g. error saving model " +
+                  "metadata"),
+  })
+  @RequestMapping(
+          value = ModelCatalogPaths.MODELS_BULK,
+          method = RequestMethod.POST,
+          produces = RequestParams.CONTENT_TYPE_APP_JSON_UTF)
+  public Collection<ModelBulkItemDTO> addModels(
+          @ApiParam(value = "Model entities containing only modifiable fields", required = true)
+          @RequestBody List<ModelModificationParametersDTO> models,
+          @ApiParam(value = "Organization id", required = true) @RequestParam String orgId) {
+    return service.addModels(models, orgId);
+  }
+
+  @ApiOperation(
+          value = "Deletes many models, with their artifacts, at once.",
+          notes = "Privilege level: Consumer of this endpoint must have a valid access token. " +
+                  "The result of every model is reported in the order of the request: " +
+                  "its status, and the deleted model or an error message."
+  )
+  @ApiResponses(value = {
+          @ApiResponse(code = 200, message = "SUCCESS"),
+          @ApiResponse(code = 400, message = "Bad request, e.g. too many models"),
+          @ApiResponse(code = 500, message = "Internal server error, e.g. error deleting model " +
+                  "metadata"),
+  })
+  @RequestMapping(
+          value = ModelCatalogPaths.MODELS_BULK_DELETE,
+          method = RequestMethod.POST,
+          produces = RequestParams.CONTENT_TYPE_APP_JSON_UTF)
+  public Collection<ModelBulkItemDTO> deleteModels(
+          @ApiParam(value = "Ids of models to delete", required = true)
+          @RequestBody List<UUID> modelIds) {
+    return service.deleteModels(modelIds);
+  }
+
   @ApiOperation(
           value = "Updates model",
           notes = "Privilege level: Consumer of this endpoint must have a valid access token"
@@ -174,6 +332,31 @@ public class ModelsController {
     return service.deleteModel(modelId);
   }
 
+  private void writeJsonArray(Stream<ModelDTO> models, OutputStream outputStream)
+          throws IOException {
+    try (Stream<ModelDTO> closeableModels = models;
+         JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+      generator.writeStartArray();
+      Iterator<ModelDTO> iterator = closeableModels.iterator();
+      while (iterator.hasNext()) {
+        modelWriter.writeValue(generator, iterator.next());
+      }
+      generator.writeEndArray();
+    }
+  }
+
+  private void addNextPageHeaders(String orgId, Integer limit, String view, String sort,
+                                  ModelFilterDTO filter, ModelsPageDTO page,
+                                  HttpHeaders httpHeaders) {
+    String nextCursor = page.getNextCursor();
+    if (nextCursor == null) {
+      return;
+    }
+    httpHeaders.add(RequestParams.NEXT_CURSOR_HEADER, nextCursor);
+    httpHeaders.add(LINK_HEADER, String.format("<%s>; rel=\"next\"",
+            ModelCatalogPaths.pathToModelsPage(orgId, limit, nextCursor, view, sort, filter)));
+  }
+
   private void addModelLocation(ModelDTO addedModel, HttpHeaders httpHeaders) {
     String locationString = ModelCatalogPaths.pathToModel(addedModel.getId());
     URI location = URI.create(locationString);
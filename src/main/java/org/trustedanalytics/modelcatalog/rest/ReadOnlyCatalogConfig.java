@@ -0,0 +1,59 @@
+/**
+ * Copyright (c) 2016 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.trustedanalytics.modelcatalog.rest;
+
+import org.trustedanalytics.modelcatalog.service.ModelServiceException;
+import org.trustedanalytics.modelcatalog.service.ModelServiceExceptionCode;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurerAdapter;
+import org.springframework.web.servlet.handler.HandlerInterceptorAdapter;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+// Changes to a catalog served from a snapshot are refused before anything is done, since
+// artifact files are stored and deleted before the store would refuse the change
+@Configuration
+@ConditionalOnProperty(prefix = "services.store", name = "type", havingValue = "snapshot")
+public class ReadOnlyCatalogConfig extends WebMvcConfigurerAdapter {
+
+  private static final Set<String> READ_METHODS =
+          new HashSet<>(Arrays.asList("GET", "HEAD", "OPTIONS"));
+
+  @Override
+  public void addInterceptors(InterceptorRegistry registry) {
+    registry.addInterceptor(new ReadOnlyInterceptor())
+            .addPathPatterns(ModelCatalogPaths.API_PREFIX + "/**")
+            .excludePathPatterns(ModelCatalogPaths.SNAPSHOT, ModelCatalogPaths.SNAPSHOT_RELOAD);
+  }
+
+  private static class ReadOnlyInterceptor extends HandlerInterceptorAdapter {
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response,
+                             Object handler) {
+      if (!READ_METHODS.contains(request.getMethod())) {
+        throw new ModelServiceException(ModelServiceExceptionCode.CATALOG_READ_ONLY,
+                "Catalog is served read-only from a snapshot.");
+      }
+      return true;
+    }
+  }
+
+}
@@ -17,6 +17,15 @@ public class RequestParams {
 
   public static final String ARTIFACT_ACTIONS = "artifactActions";
   public static final String ARTIFACT_FILE = "artifactFile";
+  public static final String FILENAME = "filename";
+  public static final String LIMIT = "limit";
+  public static final String CURSOR = "cursor";
+  public static final String VIEW = "view";
+  public static final String SORT = "sort";
+  public static final String QUERY = "q";
+  public static final String ESTIMATED = "estimated";
+
+  public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
 
   public static final String CONTENT_TYPE_APP_JSON_UTF = "application/json; charset=UTF-8";
   public static final String CONTENT_TYPE_APP_OCTET_STREAM = "application/octet-stream";
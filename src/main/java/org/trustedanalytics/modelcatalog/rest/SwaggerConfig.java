@@ -16,23 +16,39 @@ package org.trustedanalytics.modelcatalog.rest;
 import static com.google.common.base.Predicates.or;
 import static springfox.documentation.builders.PathSelectors.regex;
 
+import com.fasterxml.classmate.TypeResolver;
 import com.google.common.base.Predicate;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.ResponseEntity;
 import springfox.documentation.builders.ApiInfoBuilder;
+import springfox.documentation.schema.AlternateTypeRules;
+import springfox.documentation.schema.WildcardType;
 import springfox.documentation.service.ApiInfo;
 import springfox.documentation.spi.DocumentationType;
 import springfox.documentation.spring.web.plugins.Docket;
 import springfox.documentation.swagger2.annotations.EnableSwagger2;
 
+import java.util.concurrent.CompletableFuture;
+
 @Configuration
 @EnableSwagger2
 public class SwaggerConfig {
 
+  @Autowired
+  private TypeResolver typeResolver;
+
   @Bean
   public Docket orgsApi() {
     return new Docket(DocumentationType.SWAGGER_2)
             .apiInfo(buildApiInfo())
+            // Asynchronous endpoints are documented with the type they complete with
+            .genericModelSubstitutes(CompletableFuture.class)
+            .alternateTypeRules(AlternateTypeRules.newRule(
+                    typeResolver.resolve(CompletableFuture.class,
+                            typeResolver.resolve(ResponseEntity.class, WildcardType.class)),
+                    typeResolver.resolve(WildcardType.class)))
             .select()
             .paths(orgsPaths())
             .build()
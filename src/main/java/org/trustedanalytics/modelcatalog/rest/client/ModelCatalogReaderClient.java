@@ -14,18 +14,27 @@
 package org.trustedanalytics.modelcatalog.rest.client;
 
 import org.trustedanalytics.modelcatalog.rest.ModelCatalogPaths;
+import org.trustedanalytics.modelcatalog.rest.RequestParams;
 import org.trustedanalytics.modelcatalog.rest.client.http.HttpClientWrapper;
 import org.trustedanalytics.modelcatalog.rest.client.http.HttpFileResource;
 import org.trustedanalytics.modelcatalog.rest.client.http.HttpRequestFactory;
 import org.trustedanalytics.modelcatalog.rest.client.mapper.DtoJsonMapper;
 import org.trustedanalytics.modelcatalog.rest.entities.ArtifactDTO;
+import org.trustedanalytics.modelcatalog.rest.entities.CatalogStatisticsDTO;
 import org.trustedanalytics.modelcatalog.rest.entities.ModelDTO;
+import org.trustedanalytics.modelcatalog.rest.entities.ModelFilterDTO;
+import org.trustedanalytics.modelcatalog.rest.entities.ModelSearchResultDTO;
+import org.trustedanalytics.modelcatalog.rest.entities.ModelsPageDTO;
 
+import org.apache.http.Header;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpRequestBase;
 import org.springframework.http.HttpStatus;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
 import java.util.UUID;
 import java.util.function.Function;
 
@@ -49,6 +58,40 @@ public class ModelCatalogReaderClient {
         ModelCatalogPaths.pathToModelsByOrg(orgId), dtoJsonMapper::toModelDTOCollection);
   }
 
+  public ModelsPageDTO listModels(String orgId, int limit, String cursor) {
+    return listModels(orgId, null, null, limit, cursor);
+  }
+
+  // Filter and sort are applied by the service; sort is e.g. "-addedOn"
+  public ModelsPageDTO listModels(
+      String orgId, ModelFilterDTO filter, String sort, int limit, String cursor) {
+    HttpRequestBase request = requestFactory.prepareGet(
+        ModelCatalogPaths.pathToModelsPage(orgId, limit, cursor, null, sort, filter));
+    return httpClientWrapper.executeAndMapWithResponse(request, HttpStatus.OK,
+        (body, response) -> {
+          Header nextCursor = response.getFirstHeader(RequestParams.NEXT_CURSOR_HEADER);
+          return ModelsPageDTO.builder()
+              .models(new ArrayList<>(dtoJsonMapper.toModelDTOCollection(body)))
+              .nextCursor(nextCursor == null ? null : nextCursor.getValue())
+              .build();
+        });
+  }
+
+  public ModelSearchResultDTO searchModels(String orgId, String query, int limit) {
+    return executeGetAndMapResult(ModelCatalogPaths.pathToModelsSearch(orgId, query, limit),
+        dtoJsonMapper::toModelSearchResultDTO);
+  }
+
+  public CatalogStatisticsDTO retrieveStatistics(boolean estimated) {
+    return executeGetAndMapResult(ModelCatalogPaths.pathToStatistics(estimated),
+        dtoJsonMapper::toCatalogStatisticsDTO);
+  }
+
+  // Fetches models lazily, so only one page is held in memory at a time
+  public Iterator<ModelDTO> iterateModels(String orgId, int pageSize) {
+    return new ModelsIterator(orgId, pageSize);
+  }
+
   public ModelDTO retrieveModel(UUID modelId) {
     return executeGetAndMapResult(
         ModelCatalogPaths.pathToModel(modelId), dtoJsonMapper::toModelDTO);
@@ -70,4 +113,37 @@ public class ModelCatalogReaderClient {
     HttpRequestBase request = requestFactory.prepareGet(relativeUri);
     return httpClientWrapper.executeAndMap(request, HttpStatus.OK, mapperFunc);
   }
+
+  private class ModelsIterator implements Iterator<ModelDTO> {
+
+    private final String orgId;
+    private final int pageSize;
+    private Iterator<ModelDTO> currentPage;
+    private String nextCursor;
+    private boolean lastPageFetched;
+
+    ModelsIterator(String orgId, int pageSize) {
+      this.orgId = orgId;
+      this.pageSize = pageSize;
+    }
+
+    @Override
+    public boolean hasNext() {
+      while ((currentPage == null || !currentPage.hasNext()) && !lastPageFetched) {
+        ModelsPageDTO page = listModels(orgId, pageSize, nextCursor);
+        currentPage = page.getModels().iterator();
+        nextCursor = page.getNextCursor();
+        lastPageFetched = nextCursor == null;
+      }
+      return currentPage.hasNext();
+    }
+
+    @Override
+    public ModelDTO next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      return currentPage.next();
+    }
+  }
 }
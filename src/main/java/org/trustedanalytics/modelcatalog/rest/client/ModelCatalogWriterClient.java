@@ -20,6 +20,7 @@ import org.trustedanalytics.modelcatalog.rest.client.http.MultipartRequestsSende
 import org.trustedanalytics.modelcatalog.rest.client.mapper.DtoJsonMapper;
 import org.trustedanalytics.modelcatalog.rest.entities.ArtifactActionDTO;
 import org.trustedanalytics.modelcatalog.rest.entities.ArtifactDTO;
+import org.trustedanalytics.modelcatalog.rest.entities.ModelBulkItemDTO;
 import org.trustedanalytics.modelcatalog.rest.entities.ModelDTO;
 import org.trustedanalytics.modelcatalog.rest.entities.ModelModificationParametersDTO;
 
@@ -29,13 +30,17 @@ import org.apache.http.client.methods.HttpPatch;
 import org.apache.http.client.methods.HttpPost;
 import org.apache.http.client.methods.HttpPut;
 import org.apache.http.entity.ContentType;
+import org.apache.http.entity.InputStreamEntity;
 import org.apache.http.entity.StringEntity;
 import org.springframework.http.HttpStatus;
 
 import java.io.InputStream;
+import java.util.Collection;
+import java.util.List;
 import java.util.Set;
 import java.util.UUID;
 import java.util.function.Function;
+import java.util.stream.Collectors;
 
 public class ModelCatalogWriterClient {
 
@@ -60,6 +65,14 @@ public class ModelCatalogWriterClient {
         request, HttpStatus.CREATED, params, dtoJsonMapper::toModelDTO);
   }
 
+  // Results are in the order of given parameters
+  public Collection<ModelBulkItemDTO> addModels(
+      List<ModelModificationParametersDTO> params, String orgId) {
+    HttpPost request = requestFactory.preparePost(ModelCatalogPaths.pathToModelsBulkByOrg(orgId));
+    return executeWithParams(
+        request, HttpStatus.OK, params, dtoJsonMapper::toModelBulkItemDTOCollection);
+  }
+
   public ModelDTO updateModel(UUID modelId, ModelModificationParametersDTO params) {
     HttpPut request = requestFactory.preparePut(ModelCatalogPaths.pathToModel(modelId));
     return executeWithParams(
@@ -78,6 +91,13 @@ public class ModelCatalogWriterClient {
         request, HttpStatus.OK, dtoJsonMapper::toModelDTO);
   }
 
+  // Results are in the order of given ids
+  public Collection<ModelBulkItemDTO> deleteModels(List<UUID> modelIds) {
+    HttpPost request = requestFactory.preparePost(ModelCatalogPaths.MODELS_BULK_DELETE);
+    return executeWithParams(
+        request, HttpStatus.OK, modelIds, dtoJsonMapper::toModelBulkItemDTOCollection);
+  }
+
   public ArtifactDTO addArtifact(UUID modelId,
                                  Set<ArtifactActionDTO> artifactActions,
                                  InputStream artifactStream,
@@ -86,6 +106,21 @@ public class ModelCatalogWriterClient {
         modelId, artifactActions, artifactStream, artifactFilename);
   }
 
+  // Sends the file as a raw request body, so that the service writes it to storage as it arrives
+  public ArtifactDTO uploadArtifact(UUID modelId,
+                                    Set<ArtifactActionDTO> artifactActions,
+                                    InputStream artifactStream,
+                                    String artifactFilename) {
+    List<String> actions = artifactActions.stream()
+        .map(ArtifactActionDTO::name)
+        .collect(Collectors.toList());
+    HttpPost request = requestFactory.preparePost(
+        ModelCatalogPaths.pathToModelArtifactsUpload(modelId, artifactFilename, actions));
+    request.setEntity(new InputStreamEntity(artifactStream, ContentType.APPLICATION_OCTET_STREAM));
+    return httpClientWrapper.executeAndMap(
+        request, HttpStatus.CREATED, dtoJsonMapper::toArtifactDTO);
+  }
+
   public ArtifactDTO deleteArtifact(UUID modelId, UUID artifactId) {
     HttpDelete request =
         requestFactory.prepareDelete(ModelCatalogPaths.pathToModelArtifact(modelId, artifactId));
@@ -28,6 +28,7 @@ import org.springframework.http.HttpStatus;
 
 import java.io.IOException;
 import java.lang.invoke.MethodHandles;
+import java.util.function.BiFunction;
 import java.util.function.Function;
 
 public class HttpClientWrapper {
@@ -81,6 +82,14 @@ public class HttpClientWrapper {
 
   public <T> T executeAndMap(
       HttpRequestBase request, HttpStatus expectedStatus, Function<String, T> mapperFunc) {
+    return executeAndMapWithResponse(
+        request, expectedStatus, (body, response) -> mapperFunc.apply(body));
+  }
+
+  public <T> T executeAndMapWithResponse(
+      HttpRequestBase request,
+      HttpStatus expectedStatus,
+      BiFunction<String, HttpResponse, T> mapperFunc) {
     CloseableHttpResponse response = execute(request, expectedStatus);
     try {
       HttpEntity entity = response.getEntity();
@@ -88,7 +97,7 @@ public class HttpClientWrapper {
         throw new ModelCatalogClientException("Empty response entity");
       }
 
-      return mapperFunc.apply(EntityUtils.toString(entity));
+      return mapperFunc.apply(EntityUtils.toString(entity), response);
     } catch (IOException e) {
       throw new ModelCatalogClientException("Unable to parse HTTP entity", e);
     } finally {
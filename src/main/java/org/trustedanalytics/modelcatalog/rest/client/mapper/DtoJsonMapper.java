@@ -15,10 +15,12 @@ package org.trustedanalytics.modelcatalog.rest.client.mapper;
 
 import org.trustedanalytics.modelcatalog.rest.client.ModelCatalogClientException;
 import org.trustedanalytics.modelcatalog.rest.entities.ArtifactDTO;
+import org.trustedanalytics.modelcatalog.rest.entities.CatalogStatisticsDTO;
+import org.trustedanalytics.modelcatalog.rest.entities.ModelBulkItemDTO;
 import org.trustedanalytics.modelcatalog.rest.entities.ModelDTO;
+import org.trustedanalytics.modelcatalog.rest.entities.ModelSearchResultDTO;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import java.io.IOException;
@@ -34,13 +36,25 @@ public class DtoJsonMapper {
   }
 
   public Collection<ModelDTO> toModelDTOCollection(String json) {
-    return extractDTOCollectionFromEntity(json);
+    return extractDTOCollectionFromEntity(json, ModelDTO.class);
+  }
+
+  public Collection<ModelBulkItemDTO> toModelBulkItemDTOCollection(String json) {
+    return extractDTOCollectionFromEntity(json, ModelBulkItemDTO.class);
   }
 
   public ModelDTO toModelDTO(String json) {
     return extractDTOFromEntity(json, ModelDTO.class);
   }
 
+  public ModelSearchResultDTO toModelSearchResultDTO(String json) {
+    return extractDTOFromEntity(json, ModelSearchResultDTO.class);
+  }
+
+  public CatalogStatisticsDTO toCatalogStatisticsDTO(String json) {
+    return extractDTOFromEntity(json, CatalogStatisticsDTO.class);
+  }
+
   public ArtifactDTO toArtifactDTO(String json) {
     return extractDTOFromEntity(json, ArtifactDTO.class);
   }
@@ -64,10 +78,11 @@ public class DtoJsonMapper {
     return dto;
   }
 
-  private <T> Collection<T> extractDTOCollectionFromEntity(String json) {
+  private <T> Collection<T> extractDTOCollectionFromEntity(String json, Class<T> entityClass) {
     Collection<T> dto;
     try {
-      dto = objectMapper.readValue(json, new TypeReference<List<T>>(){});
+      dto = objectMapper.readValue(json,
+          objectMapper.getTypeFactory().constructCollectionType(List.class, entityClass));
     } catch (IOException e) {
       throw new ModelCatalogClientException("Cannot parse response entity", e);
     }
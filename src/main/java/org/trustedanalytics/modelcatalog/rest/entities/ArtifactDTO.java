@@ -35,5 +35,8 @@ public class ArtifactDTO {
   private String filename;
   private String location;
   private Set<String> actions;
+  private Long size;
+  private String digest;
+  private String addedOn;
 
 }
\ No newline at end of file
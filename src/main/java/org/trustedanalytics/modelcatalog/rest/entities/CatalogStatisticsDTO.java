@@ -0,0 +1,42 @@
+/**
+ * Copyright (c) 2016 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.trustedanalytics.modelcatalog.rest.entities;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.experimental.Builder;
+
+import java.util.Map;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonSerialize(include = JsonSerialize.Inclusion.NON_NULL)
+public class CatalogStatisticsDTO {
+
+  private long models;
+  private long artifacts;
+  // Most frequent first, left out of estimated statistics
+  private Map<String, Long> modelsPerOrg;
+  private Map<String, Long> modelsPerAlgorithm;
+  private Map<String, Long> artifactsPerAction;
+  private boolean estimated;
+  private String computedOn;
+
+}
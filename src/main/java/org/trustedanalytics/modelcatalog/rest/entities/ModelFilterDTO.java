@@ -0,0 +1,47 @@
+/**
+ * Copyright (c) 2016 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.trustedanalytics.modelcatalog.rest.entities;
+
+import io.swagger.annotations.ApiParam;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.experimental.Builder;
+
+// Query parameters narrowing down a model list. Times are in ISO-8601 (e.g.
+// 2016-10-17T10:15:30Z) or in the format of model timestamps.
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ModelFilterDTO {
+
+  @ApiParam(value = "Only models with given algorithm")
+  private String algorithm;
+  @ApiParam(value = "Only models with given creation tool")
+  private String creationTool;
+  @ApiParam(value = "Only models added by given user")
+  private String addedBy;
+  @ApiParam(value = "Only models added after given time")
+  private String addedAfter;
+  @ApiParam(value = "Only models added before given time")
+  private String addedBefore;
+  @ApiParam(value = "Only models modified after given time")
+  private String modifiedAfter;
+  @ApiParam(value = "Only models modified before given time")
+  private String modifiedBefore;
+
+}
@@ -35,6 +35,9 @@ class ArtifactMapper {
             .filename(artifact.getFilename())
             .location(artifact.getLocation())
             .actions(toArtifactActionStrings(artifact.getActions()))
+            .size(artifact.getSize())
+            .digest(artifact.getDigest())
+            .addedOn(InstantFormatter.format(artifact.getAddedOn()))
             .build();
   }
 
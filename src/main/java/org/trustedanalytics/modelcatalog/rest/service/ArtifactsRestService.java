@@ -13,9 +13,14 @@
  */
 package org.trustedanalytics.modelcatalog.rest.service;
 
+import org.trustedanalytics.modelcatalog.domain.Artifact;
 import org.trustedanalytics.modelcatalog.rest.entities.ArtifactDTO;
+import org.trustedanalytics.modelcatalog.service.ArtifactFile;
 import org.trustedanalytics.modelcatalog.service.ArtifactService;
+import org.trustedanalytics.modelcatalog.service.ModelServiceException;
+import org.trustedanalytics.modelcatalog.service.ModelServiceExceptionCode;
 
+import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
@@ -23,6 +28,7 @@ import org.springframework.web.multipart.MultipartFile;
 import java.io.InputStream;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 public class ArtifactsRestService {
@@ -40,13 +46,35 @@ public class ArtifactsRestService {
                     modelId, ArtifactMapper.toArtifactActionSet(actions), file));
   }
 
+  public ArtifactDTO addArtifact(UUID modelId, Set<String> actions, String filename,
+                                 InputStream content) {
+    if (StringUtils.isBlank(filename)) {
+      throw new ModelServiceException(ModelServiceExceptionCode.REQUIRED_FIELDS_MISSING,
+              "Non-empty value is required for artifact filename");
+    }
+    return ArtifactMapper.toArtifactDTO(
+            artifactService.addArtifact(
+                    modelId, ArtifactMapper.toArtifactActionSet(actions), filename, content));
+  }
+
   public ArtifactDTO retrieveArtifact(UUID modelId, UUID artifactId) {
     return ArtifactMapper.toArtifactDTO(
             artifactService.retrieveArtifact(modelId, artifactId));
   }
 
-  public InputStream retrieveArtifactFile(UUID modelId, UUID artifactId) {
-    return artifactService.retrieveArtifactFile(modelId, artifactId);
+  public CompletableFuture<ArtifactDTO> retrieveArtifactAsync(UUID modelId, UUID artifactId) {
+    return artifactService.retrieveArtifactAsync(modelId, artifactId)
+            .thenApply(ArtifactMapper::toArtifactDTO);
+  }
+
+  // Artifact whose file is to be sent, looked up first so that a client holding the file
+  // already can be answered without reading it
+  public Artifact retrieveArtifactOfFile(UUID modelId, UUID artifactId) {
+    return artifactService.retrieveArtifact(modelId, artifactId);
+  }
+
+  public ArtifactFile retrieveArtifactFile(Artifact artifact) {
+    return artifactService.retrieveArtifactFile(artifact);
   }
 
   public ArtifactDTO deleteArtifact(UUID modelId, UUID artifactId) {
@@ -0,0 +1,49 @@
+/**
+ * Copyright (c) 2016 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.trustedanalytics.modelcatalog.rest.service;
+
+import org.trustedanalytics.modelcatalog.domain.CatalogSnapshotInfo;
+import org.trustedanalytics.modelcatalog.rest.entities.CatalogSnapshotDTO;
+import org.trustedanalytics.modelcatalog.service.CatalogSnapshotService;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+@Service
+public class CatalogSnapshotRestService {
+
+  private final CatalogSnapshotService snapshotService;
+
+  @Autowired
+  public CatalogSnapshotRestService(CatalogSnapshotService snapshotService) {
+    this.snapshotService = snapshotService;
+  }
+
+  public CatalogSnapshotDTO exportSnapshot() {
+    return toCatalogSnapshotDTO(snapshotService.exportSnapshot());
+  }
+
+  public CatalogSnapshotDTO reloadSnapshot() {
+    return toCatalogSnapshotDTO(snapshotService.reloadSnapshot());
+  }
+
+  private static CatalogSnapshotDTO toCatalogSnapshotDTO(CatalogSnapshotInfo info) {
+    return CatalogSnapshotDTO.builder()
+            .models(info.getModels())
+            .artifacts(info.getArtifacts())
+            .createdOn(InstantFormatter.format(info.getCreatedOn()))
+            .build();
+  }
+
+}
@@ -0,0 +1,50 @@
+/**
+ * Copyright (c) 2016 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.trustedanalytics.modelcatalog.rest.service;
+
+import org.trustedanalytics.modelcatalog.domain.CatalogStatistics;
+import org.trustedanalytics.modelcatalog.rest.entities.CatalogStatisticsDTO;
+import org.trustedanalytics.modelcatalog.service.CatalogStatisticsService;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+@Service
+public class CatalogStatisticsRestService {
+
+  private final CatalogStatisticsService statisticsService;
+
+  @Autowired
+  public CatalogStatisticsRestService(CatalogStatisticsService statisticsService) {
+    this.statisticsService = statisticsService;
+  }
+
+  public CatalogStatisticsDTO retrieveStatistics(boolean estimated) {
+    return toCatalogStatisticsDTO(estimated
+            ? statisticsService.estimateStatistics() : statisticsService.getStatistics());
+  }
+
+  private static CatalogStatisticsDTO toCatalogStatisticsDTO(CatalogStatistics statistics) {
+    return CatalogStatisticsDTO.builder()
+            .models(statistics.getModels())
+            .artifacts(statistics.getArtifacts())
+            .modelsPerOrg(statistics.getModelsPerOrg())
+            .modelsPerAlgorithm(statistics.getModelsPerAlgorithm())
+            .artifactsPerAction(statistics.getArtifactsPerAction())
+            .estimated(statistics.isEstimated())
+            .computedOn(InstantFormatter.format(statistics.getComputedOn()))
+            .build();
+  }
+
+}
@@ -0,0 +1,77 @@
+/**
+ * Copyright (c) 2016 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.trustedanalytics.modelcatalog.rest.service;
+
+import org.trustedanalytics.modelcatalog.domain.ModelCursor;
+import org.trustedanalytics.modelcatalog.domain.ModelSort;
+import org.trustedanalytics.modelcatalog.service.ModelServiceException;
+import org.trustedanalytics.modelcatalog.service.ModelServiceExceptionCode;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.UUID;
+
+// Cursors name the sort they were issued for, since a position in one order means nothing in
+// another. A cursor is only accepted with the same sort and direction.
+class ModelCursorFormatter {
+
+  private static final String SEPARATOR = ":";
+
+  private ModelCursorFormatter() {
+  }
+
+  public static String format(ModelCursor cursor, ModelSort sort) {
+    if (null == cursor) {
+      return null;
+    }
+    String txt = sort.name() + SEPARATOR + cursor.getSortKey().toEpochMilli() + SEPARATOR
+            + cursor.getId();
+    return Base64.getUrlEncoder().withoutPadding()
+            .encodeToString(txt.getBytes(StandardCharsets.UTF_8));
+  }
+
+  public static ModelCursor parse(String cursor, ModelSort sort) {
+    if (null == cursor) {
+      return null;
+    }
+    String[] parts;
+    try {
+      String txt = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+      parts = txt.split(SEPARATOR, 3);
+    } catch (IllegalArgumentException e) {
+      throw invalidCursorException("Invalid cursor.", e);
+    }
+    if (parts.length != 3) {
+      throw invalidCursorException("Invalid cursor.", null);
+    }
+    if (!sort.name().equals(parts[0])) {
+      throw invalidCursorException("Cursor does not match the requested sort.", null);
+    }
+    try {
+      return ModelCursor.builder()
+              .sortKey(Instant.ofEpochMilli(Long.parseLong(parts[1])))
+              .id(UUID.fromString(parts[2]))
+              .build();
+    } catch (IllegalArgumentException e) {
+      throw invalidCursorException("Invalid cursor.", e);
+    }
+  }
+
+  private static ModelServiceException invalidCursorException(String message, Throwable cause) {
+    return new ModelServiceException(
+            ModelServiceExceptionCode.INVALID_PAGING_PARAMETERS, message, cause);
+  }
+
+}
@@ -15,6 +15,7 @@ package org.trustedanalytics.modelcatalog.rest.service;
 
 import org.trustedanalytics.modelcatalog.domain.Artifact;
 import org.trustedanalytics.modelcatalog.domain.Model;
+import org.trustedanalytics.modelcatalog.domain.ModelView;
 import org.trustedanalytics.modelcatalog.rest.entities.ArtifactDTO;
 import org.trustedanalytics.modelcatalog.rest.entities.ModelDTO;
 
@@ -30,11 +31,15 @@ class ModelMapper {
   }
 
   public static ModelDTO toModelDTO(Model model) {
+    return toModelDTO(model, ModelView.FULL);
+  }
+
+  public static ModelDTO toModelDTO(Model model, ModelView view) {
     return ModelDTO.builder()
             .addedBy(model.getAddedBy())
             .addedOn(format(model.getAddedOn()))
             .algorithm(model.getAlgorithm())
-            .artifacts(toArtifactDTOSet(model.getArtifacts()))
+            .artifacts(view == ModelView.SUMMARY ? null : toArtifactDTOSet(model.getArtifacts()))
             .creationTool(model.getCreationTool())
             .description(model.getDescription())
             .id(model.getId())
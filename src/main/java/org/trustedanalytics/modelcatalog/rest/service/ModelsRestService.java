@@ -16,21 +16,54 @@ package org.trustedanalytics.modelcatalog.rest.service;
 import static org.trustedanalytics.modelcatalog.rest.service.ModelMapper.toModelDTO;
 import static org.trustedanalytics.modelcatalog.rest.service.ParamsMapper.toParameters;
 
-import java.util.Collection;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.apache.commons.lang3.EnumUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.trustedanalytics.modelcatalog.domain.Model;
+import org.trustedanalytics.modelcatalog.domain.ModelFilter;
+import org.trustedanalytics.modelcatalog.domain.ModelSort;
+import org.trustedanalytics.modelcatalog.domain.ModelView;
+import org.trustedanalytics.modelcatalog.rest.entities.ModelBulkItemDTO;
 import org.trustedanalytics.modelcatalog.rest.entities.ModelDTO;
+import org.trustedanalytics.modelcatalog.rest.entities.ModelFilterDTO;
 import org.trustedanalytics.modelcatalog.rest.entities.ModelModificationParametersDTO;
+import org.trustedanalytics.modelcatalog.rest.entities.ModelSearchResultDTO;
+import org.trustedanalytics.modelcatalog.rest.entities.ModelsPageDTO;
+import org.trustedanalytics.modelcatalog.service.ModelModificationParameters;
+import org.trustedanalytics.modelcatalog.service.ModelSearchResult;
 import org.trustedanalytics.modelcatalog.service.ModelService;
 import org.trustedanalytics.modelcatalog.service.ModelServiceException;
 import org.trustedanalytics.modelcatalog.service.ModelServiceExceptionCode;
+import org.trustedanalytics.modelcatalog.service.ModelsBulkAddResult;
+import org.trustedanalytics.modelcatalog.service.ModelsBulkDeleteResult;
+import org.trustedanalytics.modelcatalog.service.ModelsPage;
 
 @Service
 public class ModelsRestService {
 
+  static final int DEFAULT_PAGE_LIMIT = 100;
+  static final int MAX_PAGE_LIMIT = 1000;
+  static final int MAX_BULK_SIZE = 1000;
+  static final int DEFAULT_SEARCH_LIMIT = 20;
+  static final int MAX_SEARCH_LIMIT = 100;
+
+  private static final String DESCENDING = "-";
+
   private final ModelService modelService;
 
   @Autowired
@@ -38,14 +71,47 @@ public class ModelsRestService {
     this.modelService = modelService;
   }
 
-  public Collection<ModelDTO> listModels(String orgId) {
-    return modelService.listModels(orgId).stream()
-            .map(ModelMapper::toModelDTO)
-            .collect(Collectors.toSet());
+  public Stream<ModelDTO> streamModels(
+          String orgId, ModelFilterDTO filter, String sort, String view) {
+    ModelView modelView = toModelView(view);
+    return modelService.streamModels(orgId, toModelFilter(filter), toModelSort(sort), modelView)
+            .map(model -> toModelDTO(model, modelView));
+  }
+
+  public CompletableFuture<ModelsPageDTO> listModelsAsync(String orgId, ModelFilterDTO filter,
+          String sort, Integer limit, String cursor, String view) {
+    ModelView modelView = toModelView(view);
+    ModelSort modelSort = toModelSort(sort);
+    return modelService.listModelsAsync(orgId, toModelFilter(filter), modelSort,
+            ModelCursorFormatter.parse(cursor, modelSort), checkPageLimit(limit), modelView)
+            .thenApply(page -> toModelsPageDTO(page, modelSort, modelView));
   }
 
-  public ModelDTO retrieveModel(UUID modelId) {
-    return toModelDTO(modelService.retrieveModel(modelId));
+  public ModelSearchResultDTO searchModels(String orgId, String query, Integer limit) {
+    if (StringUtils.isBlank(query)) {
+      throw new ModelServiceException(ModelServiceExceptionCode.INVALID_SEARCH_QUERY,
+              "Search query must not be empty");
+    }
+    int searchLimit = limit == null ? DEFAULT_SEARCH_LIMIT : limit;
+    if (searchLimit < 1 || searchLimit > MAX_SEARCH_LIMIT) {
+      throw new ModelServiceException(ModelServiceExceptionCode.INVALID_SEARCH_QUERY,
+              "Limit must be between 1 and " + MAX_SEARCH_LIMIT);
+    }
+    ModelSearchResult result = modelService.searchModels(orgId, query, searchLimit);
+    return ModelSearchResultDTO.builder()
+            .models(result.getModels().stream()
+                    .map(model -> toModelDTO(model, ModelView.SUMMARY))
+                    .collect(Collectors.toList()))
+            .total(result.getTotal())
+            .algorithms(result.getAlgorithms())
+            .creationTools(result.getCreationTools())
+            .build();
+  }
+
+  public CompletableFuture<ModelDTO> retrieveModelAsync(UUID modelId, String view) {
+    ModelView modelView = toModelView(view);
+    return modelService.retrieveModelAsync(modelId, modelView)
+            .thenApply(model -> toModelDTO(model, modelView));
   }
 
   public ModelDTO addModel(ModelModificationParametersDTO paramsDTO, String orgId) {
@@ -53,6 +119,34 @@ public class ModelsRestService {
     return toModelDTO(modelService.addModel(toParameters(paramsDTO), orgId));
   }
 
+  // Invalid models are reported without being added, the rest are added in one batch
+  public List<ModelBulkItemDTO> addModels(
+          List<ModelModificationParametersDTO> paramsDTOs, String orgId) {
+    checkBulkSize(paramsDTOs);
+    ModelBulkItemDTO[] items = new ModelBulkItemDTO[paramsDTOs.size()];
+    List<Integer> validIndexes = new ArrayList<>();
+    List<ModelModificationParameters> validParams = new ArrayList<>();
+    for (int i = 0; i < paramsDTOs.size(); i++) {
+      try {
+        checkRequiredFields(paramsDTOs.get(i));
+        validParams.add(toParameters(paramsDTOs.get(i)));
+        validIndexes.add(i);
+      } catch (ModelServiceException e) {
+        items[i] = bulkItem(HttpStatus.BAD_REQUEST, null, e.getMessage());
+      }
+    }
+    if (!validParams.isEmpty()) {
+      ModelsBulkAddResult result = modelService.addModels(validParams, orgId);
+      for (int i = 0; i < validIndexes.size(); i++) {
+        Model model = result.getModels().get(i);
+        items[validIndexes.get(i)] = result.isAdded(model)
+                ? bulkItem(HttpStatus.CREATED, toModelDTO(model), null)
+                : bulkItem(HttpStatus.INTERNAL_SERVER_ERROR, null, "Model add failed.");
+      }
+    }
+    return Arrays.asList(items);
+  }
+
   public ModelDTO updateModel(UUID modelId, ModelModificationParametersDTO paramsDTO) {
     checkRequiredFields(paramsDTO);
     return toModelDTO(modelService.updateModel(modelId, toParameters(paramsDTO)));
@@ -66,7 +160,123 @@ public class ModelsRestService {
     return toModelDTO(modelService.deleteModel(modelId));
   }
 
+  private ModelsPageDTO toModelsPageDTO(ModelsPage page, ModelSort sort, ModelView modelView) {
+    return ModelsPageDTO.builder()
+            .models(page.getModels().stream()
+                    .map(model -> toModelDTO(model, modelView))
+                    .collect(Collectors.toList()))
+            .nextCursor(ModelCursorFormatter.format(page.getNextCursor(), sort))
+            .build();
+  }
+
+  private int checkPageLimit(Integer limit) {
+    if (limit == null) {
+      return DEFAULT_PAGE_LIMIT;
+    }
+    if (limit < 1 || limit > MAX_PAGE_LIMIT) {
+      throw new ModelServiceException(ModelServiceExceptionCode.INVALID_PAGING_PARAMETERS,
+              "Limit must be between 1 and " + MAX_PAGE_LIMIT);
+    }
+    return limit;
+  }
+
+  public List<ModelBulkItemDTO> deleteModels(List<UUID> modelIds) {
+    checkBulkSize(modelIds);
+    ModelsBulkDeleteResult result = modelService.deleteModels(new LinkedHashSet<>(modelIds));
+    Map<UUID, Model> foundModels = result.getModels().stream()
+            .collect(Collectors.toMap(Model::getId, Function.identity()));
+    return modelIds.stream()
+            .map(modelId -> {
+              Model model = foundModels.get(modelId);
+              if (model == null) {
+                return bulkItem(HttpStatus.NOT_FOUND, null, "Model with given ID not found.");
+              }
+              return bulkItem(HttpStatus.OK, toModelDTO(model), null);
+            })
+            .collect(Collectors.toList());
+  }
+
+  private void checkBulkSize(List<?> items) {
+    if (items.isEmpty() || items.size() > MAX_BULK_SIZE) {
+      throw new ModelServiceException(ModelServiceExceptionCode.INVALID_BULK_SIZE,
+              "Number of models must be between 1 and " + MAX_BULK_SIZE);
+    }
+  }
+
+  private ModelBulkItemDTO bulkItem(HttpStatus status, ModelDTO model, String message) {
+    return ModelBulkItemDTO.builder()
+            .status(status.value())
+            .model(model)
+            .message(message)
+            .build();
+  }
+
+  private ModelView toModelView(String view) {
+    if (view == null) {
+      return ModelView.FULL;
+    }
+    String viewName = view.toUpperCase(Locale.ROOT);
+    if (!EnumUtils.isValidEnum(ModelView.class, viewName)) {
+      throw new ModelServiceException(ModelServiceExceptionCode.INVALID_MODEL_VIEW,
+              "Invalid model view " + view + ". Acceptable views: "
+              + EnumUtils.getEnumList(ModelView.class));
+    }
+    return ModelView.valueOf(viewName);
+  }
+
+  private ModelFilter toModelFilter(ModelFilterDTO filter) {
+    if (filter == null) {
+      return ModelFilter.NONE;
+    }
+    return ModelFilter.builder()
+            .algorithm(filter.getAlgorithm())
+            .creationTool(filter.getCreationTool())
+            .addedBy(filter.getAddedBy())
+            .addedAfter(toInstant(filter.getAddedAfter()))
+            .addedBefore(toInstant(filter.getAddedBefore()))
+            .modifiedAfter(toInstant(filter.getModifiedAfter()))
+            .modifiedBefore(toInstant(filter.getModifiedBefore()))
+            .build();
+  }
+
+  // Accepts ISO-8601 as well as the format timestamps of models are sent in
+  private Instant toInstant(String time) {
+    if (time == null) {
+      return null;
+    }
+    try {
+      return Instant.parse(time);
+    } catch (DateTimeException e) {
+      try {
+        return InstantFormatter.parse(time);
+      } catch (DateTimeException ignored) {
+        throw new ModelServiceException(ModelServiceExceptionCode.INVALID_FILTER,
+                "Invalid time " + time + ". Expected e.g. 2016-10-17T10:15:30Z", e);
+      }
+    }
+  }
+
+  // Sort is given as a property name, prefixed with '-' for descending order
+  private ModelSort toModelSort(String sort) {
+    if (sort == null) {
+      return ModelSort.DEFAULT;
+    }
+    boolean descending = sort.startsWith(DESCENDING);
+    String property = descending ? sort.substring(DESCENDING.length()) : sort;
+    ModelSort modelSort = ModelSort.of(property, !descending);
+    if (modelSort == null) {
+      throw new ModelServiceException(ModelServiceExceptionCode.INVALID_SORT,
+              "Invalid sort " + sort + ". Acceptable sorts: addedOn, -addedOn, modifiedOn, "
+              + "-modifiedOn");
+    }
+    return modelSort;
+  }
+
   private void checkRequiredFields(ModelModificationParametersDTO paramsDTO) {
+    if (paramsDTO == null) {
+      throw new ModelServiceException(ModelServiceExceptionCode.REQUIRED_FIELDS_MISSING,
+              "Model parameters are required");
+    }
     if (StringUtils.isBlank(paramsDTO.getName())) {
       throw new ModelServiceException(ModelServiceExceptionCode.REQUIRED_FIELDS_MISSING,
               "Non-empty value is required for model name field");
@@ -26,4 +26,9 @@ public class SecurityConfig {
     return new AuthTokenExtractor();
   }
 
+  @Bean
+  public AuthorityChecker authorityChecker() {
+    return new AuthTokenAuthorityChecker();
+  }
+
 }
@@ -16,46 +16,90 @@ package org.trustedanalytics.modelcatalog.service;
 import org.trustedanalytics.modelcatalog.domain.Artifact;
 import org.trustedanalytics.modelcatalog.domain.ArtifactAction;
 import org.trustedanalytics.modelcatalog.domain.Model;
+import org.trustedanalytics.modelcatalog.domain.ModelView;
+import org.trustedanalytics.modelcatalog.storage.db.AsyncModelStore;
 import org.trustedanalytics.modelcatalog.storage.db.ModelStore;
 import org.trustedanalytics.modelcatalog.storage.db.ModelStoreException;
 import org.trustedanalytics.modelcatalog.storage.files.FileStore;
 import org.trustedanalytics.modelcatalog.storage.files.FileStoreException;
 
+import com.google.common.base.Throwables;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.time.Instant;
+import java.util.Collection;
 import java.util.Objects;
-import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
 
 @Service
 public class ArtifactService {
 
+  private static final Logger LOGGER = LoggerFactory.getLogger(ArtifactService.class);
+
   private final ModelStore modelStore;
+  private final AsyncModelStore asyncModelStore;
   private final FileStore fileStore;
+  private final ContentAddressedFiles contentAddressedFiles;
+  private final ExecutorService fileRemovalExecutor;
 
   @Autowired
-  public ArtifactService(ModelStore modelStore, FileStore fileStore) {
+  public ArtifactService(ModelStore modelStore, AsyncModelStore asyncModelStore,
+                         FileStore fileStore, ContentAddressedFiles contentAddressedFiles,
+                         @Qualifier("fileRemovalExecutor") ExecutorService fileRemovalExecutor) {
     this.modelStore = modelStore;
+    this.asyncModelStore = asyncModelStore;
     this.fileStore = fileStore;
+    this.contentAddressedFiles = contentAddressedFiles;
+    this.fileRemovalExecutor = fileRemovalExecutor;
   }
 
   public Artifact addArtifact(UUID modelId, Set<ArtifactAction> actions, MultipartFile file) {
-    tryToRetrieveModel(modelId);
+    tryToRetrieveModel(modelId, ModelView.SUMMARY);
+    InputStream content;
     try {
-      Artifact artifact = createArtifact(modelId, actions, file);
-      fileStore.addFile(artifact.getLocation(), file.getInputStream());
-      modelStore.addArtifact(modelId, artifact);
-      return artifact;
+      content = file.getInputStream();
     } catch (IOException e) {
       throw new ModelServiceException(
               ModelServiceExceptionCode.ARTIFACT_ADD_FAILED, "Artifact add failed: unable to read" +
               " file input stream.", e);
+    }
+    return storeArtifact(modelId, actions, file.getOriginalFilename(), content);
+  }
+
+  // Content is read straight into the file store, so it is written to disk only once
+  public Artifact addArtifact(UUID modelId, Set<ArtifactAction> actions, String filename,
+                              InputStream content) {
+    tryToRetrieveModel(modelId, ModelView.SUMMARY);
+    return storeArtifact(modelId, actions, filename, content);
+  }
+
+  private Artifact storeArtifact(UUID modelId, Set<ArtifactAction> actions, String filename,
+                                 InputStream content) {
+    try {
+      Artifact artifact = createArtifact(actions, filename, contentAddressedFiles.add(content));
+      try {
+        modelStore.addArtifact(modelId, artifact);
+      } catch (ModelStoreException e) {
+        deleteArtifactFile(artifact);
+        throw e;
+      }
+      return artifact;
     } catch (FileStoreException e) {
+      if (Throwables.getCausalChain(e).stream()
+              .anyMatch(cause -> cause instanceof SizeLimitedInputStream.LimitExceededException)) {
+        throw new ModelServiceException(
+                ModelServiceExceptionCode.ARTIFACT_TOO_LARGE, "Artifact file is too large.", e);
+      }
       throw new ModelServiceException(
               ModelServiceExceptionCode.ARTIFACT_ADD_FAILED, "Artifact file add failed.", e);
     } catch (ModelStoreException e) {
@@ -65,21 +109,45 @@ public class ArtifactService {
   }
 
   public Artifact retrieveArtifact(UUID modelId, UUID artifactId) {
-    Model model = tryToRetrieveModel(modelId);
-    Set<Artifact> artifacts = model.getArtifacts();
-    if (Objects.isNull(artifacts)) {
+    Artifact artifact;
+    try {
+      artifact = modelStore.retrieveArtifact(modelId, artifactId);
+    } catch (ModelStoreException e) {
+      throw new ModelServiceException(
+              ModelServiceExceptionCode.ARTIFACT_RETRIEVE_FAILED, "Artifact retrieve failed.", e);
+    }
+    if (Objects.isNull(artifact)) {
+      // Missing model is reported in preference to missing artifact
+      tryToRetrieveModel(modelId, ModelView.SUMMARY);
       throw artifactNotFoundException();
     }
-    Optional<Artifact> artifact = artifacts.stream()
-            .filter(a -> a.getId().equals(artifactId))
-            .findFirst();
-    return artifact.orElseThrow(() -> artifactNotFoundException());
+    return artifact;
   }
 
-  public InputStream retrieveArtifactFile(UUID modelId, UUID artifactId) {
+  public CompletableFuture<Artifact> retrieveArtifactAsync(UUID modelId, UUID artifactId) {
+    return asyncModelStore.retrieveArtifact(modelId, artifactId)
+            .handle((artifact, e) -> {
+              if (e != null) {
+                throw StoreFailures.toServiceException(e,
+                        ModelServiceExceptionCode.ARTIFACT_RETRIEVE_FAILED,
+                        "Artifact retrieve failed.");
+              }
+              return artifact;
+            })
+            .thenCompose(artifact -> Objects.isNull(artifact)
+                    ? artifactNotFoundAsync(modelId) : CompletableFuture.completedFuture(artifact));
+  }
+
+  public ArtifactFile retrieveArtifactFile(UUID modelId, UUID artifactId) {
+    return retrieveArtifactFile(retrieveArtifact(modelId, artifactId));
+  }
+
+  public ArtifactFile retrieveArtifactFile(Artifact artifact) {
     try {
-      Artifact artifact = retrieveArtifact(modelId, artifactId);
-      return fileStore.retrieveFile(artifact.getLocation());
+      return ArtifactFile.builder()
+              .artifact(artifact)
+              .content(fileStore.retrieveFileResource(artifact.getLocation()))
+              .build();
     } catch (FileStoreException e) {
       throw new ModelServiceException(
               ModelServiceExceptionCode.ARTIFACT_FILE_RETRIEVE_FAILED, "Artifact file retrieve " +
@@ -90,21 +158,41 @@ public class ArtifactService {
   public Artifact deleteArtifact(UUID modelId, UUID artifactId) {
     try {
       Artifact artifact = retrieveArtifact(modelId, artifactId);
-      fileStore.deleteFile(artifact.getLocation());
+      // The record goes first, a file left behind by a failure only takes up space
       modelStore.deleteArtifact(modelId, artifactId);
+      deleteArtifactFile(artifact);
       return artifact;
-    } catch (FileStoreException e) {
-      throw new ModelServiceException(
-              ModelServiceExceptionCode.ARTIFACT_DELETE_FAILED, "Artifact file delete failed.", e);
     } catch (ModelStoreException e) {
       throw new ModelServiceException(
               ModelServiceExceptionCode.ARTIFACT_DELETE_FAILED, "Artifact delete failed.", e);
     }
   }
 
-  private Model tryToRetrieveModel(UUID modelId) {
+  // Removes artifact files of all given models in parallel, once their records are deleted.
+  // Files that cannot be removed are logged and left behind.
+  public void deleteArtifactFiles(Collection<Model> models) {
+    CompletableFuture<?>[] removals = models.stream()
+            .filter(model -> model.getArtifacts() != null)
+            .flatMap(model -> model.getArtifacts().stream()
+                    .map(artifact -> CompletableFuture.runAsync(
+                            () -> deleteArtifactFile(artifact), fileRemovalExecutor)))
+            .toArray(CompletableFuture[]::new);
+    CompletableFuture.allOf(removals).join();
+  }
+
+  private boolean deleteArtifactFile(Artifact artifact) {
+    try {
+      contentAddressedFiles.remove(artifact.getLocation());
+      return true;
+    } catch (FileStoreException | ModelStoreException e) {
+      LOGGER.warn("Unable to delete file of artifact " + artifact.getId(), e);
+      return false;
+    }
+  }
+
+  private Model tryToRetrieveModel(UUID modelId, ModelView view) {
     try {
-      Model model = modelStore.retrieveModel(modelId);
+      Model model = modelStore.retrieveModel(modelId, view);
       if (Objects.isNull(model)) {
         throw new ModelServiceException(
                 ModelServiceExceptionCode.MODEL_NOT_FOUND, "Model with given ID not found.");
@@ -116,12 +204,32 @@ public class ArtifactService {
     }
   }
 
-  private Artifact createArtifact(UUID modelId, Set<ArtifactAction> actions, MultipartFile file) {
-    UUID artifactId = UUID.randomUUID();
+  private CompletableFuture<Artifact> artifactNotFoundAsync(UUID modelId) {
+    // Missing model is reported in preference to missing artifact
+    return asyncModelStore.retrieveModel(modelId, ModelView.SUMMARY)
+            .handle((model, e) -> {
+              if (e != null) {
+                throw StoreFailures.toServiceException(e,
+                        ModelServiceExceptionCode.MODEL_RETRIEVE_FAILED,
+                        "Model retrieve failed.");
+              }
+              if (Objects.isNull(model)) {
+                throw new ModelServiceException(
+                        ModelServiceExceptionCode.MODEL_NOT_FOUND,
+                        "Model with given ID not found.");
+              }
+              throw artifactNotFoundException();
+            });
+  }
+
+  private Artifact createArtifact(Set<ArtifactAction> actions, String filename, StoredFile file) {
     return Artifact.builder()
-            .id(artifactId)
-            .filename(file.getOriginalFilename())
-            .location(getArtifactLocation(modelId, artifactId))
+            .id(UUID.randomUUID())
+            .filename(filename)
+            .location(file.getLocation())
+            .size(file.getSize())
+            .digest(file.getDigest())
+            .addedOn(Instant.now())
             .actions(actions)
             .build();
   }
@@ -130,8 +238,4 @@ public class ArtifactService {
     return new ModelServiceException(
             ModelServiceExceptionCode.ARTIFACT_NOT_FOUND, "Artifact with given ID not found.");
   }
-
-  private String getArtifactLocation(UUID modelId, UUID artifactId) {
-    return String.format("/%s/%s", modelId, artifactId);
-  }
 }
@@ -0,0 +1,111 @@
+/**
+ * Copyright (c) 2016 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.trustedanalytics.modelcatalog.service;
+
+import org.trustedanalytics.modelcatalog.domain.CatalogSnapshotInfo;
+import org.trustedanalytics.modelcatalog.domain.Model;
+import org.trustedanalytics.modelcatalog.domain.ModelView;
+import org.trustedanalytics.modelcatalog.security.AuthorityChecker;
+import org.trustedanalytics.modelcatalog.storage.db.ModelStore;
+import org.trustedanalytics.modelcatalog.storage.db.ModelStoreException;
+import org.trustedanalytics.modelcatalog.storage.embedded.CatalogSnapshotStore;
+import org.trustedanalytics.modelcatalog.storage.embedded.CatalogSnapshotWriter;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+// Catalog snapshots are exported by instances with a writable store and served by instances
+// started with services.store.type=snapshot, which reload them on request. Both read or replace
+// the whole catalog, so they are left to users with the configured authority.
+@Service
+public class CatalogSnapshotService {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(CatalogSnapshotService.class);
+
+  private final ModelStore modelStore;
+  private final Optional<CatalogSnapshotStore> snapshotStore;
+  private final ModelSearchIndex searchIndex;
+  private final CatalogStatisticsService statisticsService;
+  private final AuthorityChecker authorityChecker;
+  private final Path path;
+  private final String authority;
+
+  @Autowired
+  public CatalogSnapshotService(
+      ModelStore modelStore,
+      Optional<CatalogSnapshotStore> snapshotStore,
+      ModelSearchIndex searchIndex,
+      CatalogStatisticsService statisticsService,
+      AuthorityChecker authorityChecker,
+      @Value("${services.store.snapshot.path}") String path,
+      @Value("${services.store.snapshot.authority}") String authority) {
+    this.modelStore = modelStore;
+    this.snapshotStore = snapshotStore;
+    this.searchIndex = searchIndex;
+    this.statisticsService = statisticsService;
+    this.authorityChecker = authorityChecker;
+    this.path = Paths.get(path);
+    this.authority = authority;
+  }
+
+  public CatalogSnapshotInfo exportSnapshot() {
+    checkAuthority();
+    long start = System.currentTimeMillis();
+    try (Stream<Model> models = modelStore.streamAllModels(ModelView.FULL)) {
+      CatalogSnapshotInfo info = CatalogSnapshotWriter.write(path, models);
+      LOGGER.info("Exported catalog snapshot of {} models to {} in {} ms.",
+          info.getModels(), path, System.currentTimeMillis() - start);
+      return info;
+    } catch (ModelStoreException | IOException | UncheckedIOException e) {
+      throw new ModelServiceException(
+          ModelServiceExceptionCode.SNAPSHOT_EXPORT_FAILED, "Catalog snapshot export failed.", e);
+    }
+  }
+
+  public CatalogSnapshotInfo reloadSnapshot() {
+    checkAuthority();
+    CatalogSnapshotStore store = snapshotStore.orElseThrow(() -> new ModelServiceException(
+        ModelServiceExceptionCode.SNAPSHOT_NOT_SERVED,
+        "Catalog is not served from a snapshot, there is nothing to reload."));
+    CatalogSnapshotInfo info;
+    try {
+      info = store.reload();
+    } catch (IOException e) {
+      throw new ModelServiceException(ModelServiceExceptionCode.SNAPSHOT_RELOAD_FAILED,
+          "Catalog snapshot reload failed, the previous snapshot is still served.", e);
+    }
+    // Both were built from the previous snapshot
+    searchIndex.rebuildInBackground();
+    statisticsService.refreshInBackground();
+    return info;
+  }
+
+  private void checkAuthority() {
+    if (!authorityChecker.hasAuthority(authority)) {
+      throw new ModelServiceException(ModelServiceExceptionCode.ACCESS_DENIED,
+          "Catalog snapshots require the " + authority + " authority.");
+    }
+  }
+
+}
@@ -0,0 +1,110 @@
+/**
+ * Copyright (c) 2016 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.trustedanalytics.modelcatalog.service;
+
+import org.trustedanalytics.modelcatalog.domain.CatalogStatistics;
+import org.trustedanalytics.modelcatalog.storage.db.ModelStore;
+import org.trustedanalytics.modelcatalog.storage.db.ModelStoreException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Statistics are computed by aggregations over the whole catalog, so the last result is kept
+// and served until it is older than the configured age. It is then recomputed in the
+// background while requests keep getting the previous one.
+@Service
+public class CatalogStatisticsService {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(CatalogStatisticsService.class);
+
+  private final ModelStore modelStore;
+  private final Executor statisticsExecutor;
+  private final Duration maxAge;
+  private final AtomicBoolean refreshing = new AtomicBoolean();
+  private volatile CatalogStatistics statistics;
+
+  @Autowired
+  public CatalogStatisticsService(
+      ModelStore modelStore,
+      @Qualifier("statisticsExecutor") Executor statisticsExecutor,
+      @Value("${statistics.maxAgeMs:60000}") long maxAgeMs) {
+    this.modelStore = modelStore;
+    this.statisticsExecutor = statisticsExecutor;
+    this.maxAge = Duration.ofMillis(maxAgeMs);
+  }
+
+  public CatalogStatistics getStatistics() {
+    CatalogStatistics current = statistics;
+    if (Objects.isNull(current) || isStale(current)) {
+      refreshInBackground();
+    }
+    if (Objects.isNull(current)) {
+      throw new ModelServiceException(ModelServiceExceptionCode.STATISTICS_NOT_READY,
+          "Statistics are not available yet, they are being computed.");
+    }
+    return current;
+  }
+
+  public CatalogStatistics estimateStatistics() {
+    try {
+      return modelStore.estimateStatistics();
+    } catch (ModelStoreException e) {
+      throw new ModelServiceException(
+          ModelServiceExceptionCode.STATISTICS_FAILED, "Statistics estimate failed.", e);
+    }
+  }
+
+  // The first computation starts with the application rather than with the first request
+  @EventListener(ApplicationReadyEvent.class)
+  public void refreshInBackground() {
+    if (!refreshing.compareAndSet(false, true)) {
+      return;
+    }
+    try {
+      statisticsExecutor.execute(this::refresh);
+    } catch (RejectedExecutionException e) {
+      refreshing.set(false);
+      LOGGER.warn("Statistics refresh was not scheduled.", e);
+    }
+  }
+
+  void refresh() {
+    try {
+      statistics = modelStore.computeStatistics();
+    } catch (ModelStoreException | RuntimeException e) {
+      // The previous statistics are kept, the next request retries
+      LOGGER.error("Unable to compute statistics.", e);
+    } finally {
+      refreshing.set(false);
+    }
+  }
+
+  private boolean isStale(CatalogStatistics statistics) {
+    return statistics.getComputedOn().plus(maxAge).isBefore(Instant.now());
+  }
+
+}
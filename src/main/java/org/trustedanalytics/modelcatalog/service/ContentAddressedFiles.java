@@ -0,0 +1,147 @@
+/**
+ * Copyright (c) 2016 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.trustedanalytics.modelcatalog.service;
+
+import org.trustedanalytics.modelcatalog.storage.db.FileReferenceStore;
+import org.trustedanalytics.modelcatalog.storage.db.ModelStoreException;
+import org.trustedanalytics.modelcatalog.storage.files.FileStore;
+import org.trustedanalytics.modelcatalog.storage.files.FileStoreException;
+
+import com.google.common.io.CountingInputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.InputStream;
+import java.math.BigInteger;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.UUID;
+
+// Stores artifact files once per distinct content, under the SHA-256 digest of their bytes, and
+// deletes them when the last artifact referring to them is gone. Files that older versions
+// stored per artifact are deleted with their artifact, as before.
+@Component
+public class ContentAddressedFiles {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(ContentAddressedFiles.class);
+
+  static final String BLOBS = "/blobs/";
+  private static final String UPLOADS = "/uploads/";
+  private static final int LOCK_STRIPES = 64;
+
+  private final FileStore fileStore;
+  private final FileReferenceStore referenceStore;
+  // Adding and removing a reference go together with moving and deleting the file. The locks
+  // keep them whole within an instance, claims of the reference store keep a deletion apart
+  // from uploads of the same content to other instances.
+  private final Object[] locks = new Object[LOCK_STRIPES];
+
+  @Autowired
+  public ContentAddressedFiles(FileStore fileStore, FileReferenceStore referenceStore) {
+    this.fileStore = fileStore;
+    this.referenceStore = referenceStore;
+    for (int i = 0; i < locks.length; i++) {
+      locks[i] = new Object();
+    }
+  }
+
+  // The digest and size are taken while the content is written to a temporary location, so it
+  // is read only once
+  public StoredFile add(InputStream content) throws FileStoreException, ModelStoreException {
+    MessageDigest digest = sha256();
+    CountingInputStream counted = new CountingInputStream(content);
+    String upload = UPLOADS + UUID.randomUUID();
+    fileStore.addFile(upload, new DigestInputStream(counted, digest));
+    String hex = toHex(digest.digest());
+    String location = locationOf(hex);
+    try {
+      synchronized (lockFor(location)) {
+        referenceStore.addReference(location);
+        try {
+          // Identical content may be there already, it is replaced in case it was left
+          // incomplete by a failure
+          fileStore.moveFile(upload, location);
+        } catch (FileStoreException e) {
+          if (referenceStore.removeReference(location)) {
+            deleteClaimed(location);
+          }
+          throw e;
+        }
+      }
+    } catch (FileStoreException | ModelStoreException e) {
+      deleteQuietly(upload);
+      throw e;
+    }
+    return StoredFile.builder()
+            .location(location)
+            .size(counted.getCount())
+            .digest(hex)
+            .build();
+  }
+
+  public void remove(String location) throws FileStoreException, ModelStoreException {
+    if (!location.startsWith(BLOBS)) {
+      fileStore.deleteFile(location);
+      return;
+    }
+    synchronized (lockFor(location)) {
+      if (referenceStore.removeReference(location)) {
+        deleteClaimed(location);
+      }
+    }
+  }
+
+  // Uploads of the same content wait for the claim to be released, whether the file could be
+  // deleted or not, and then store it again
+  private void deleteClaimed(String location) throws FileStoreException, ModelStoreException {
+    try {
+      fileStore.deleteFile(location);
+    } finally {
+      referenceStore.releaseLocation(location);
+    }
+  }
+
+  // Digests are spread over directories named after their first two digits
+  static String locationOf(String hexDigest) {
+    return BLOBS + hexDigest.substring(0, 2) + "/" + hexDigest;
+  }
+
+  private static String toHex(byte[] digest) {
+    return String.format("%064x", new BigInteger(1, digest));
+  }
+
+  private Object lockFor(String location) {
+    return locks[Math.floorMod(location.hashCode(), locks.length)];
+  }
+
+  private void deleteQuietly(String location) {
+    try {
+      fileStore.deleteFile(location);
+    } catch (FileStoreException e) {
+      LOGGER.warn("Unable to delete uploaded file: " + location, e);
+    }
+  }
+
+  private static MessageDigest sha256() {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is not supported.", e);
+    }
+  }
+
+}
@@ -0,0 +1,381 @@
+/**
+ * Copyright (c) 2016 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.trustedanalytics.modelcatalog.service;
+
+import org.trustedanalytics.modelcatalog.domain.Model;
+import org.trustedanalytics.modelcatalog.domain.ModelView;
+import org.trustedanalytics.modelcatalog.storage.db.ModelStore;
+import org.trustedanalytics.modelcatalog.storage.db.ModelStoreException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+// In-memory inverted index over name, description, algorithm and creation tool of all models,
+// kept per organization. It is built from a scan of the store once the application has started
+// and kept up to date by ModelService, so models written by other instances of the service are
+// only found after a restart. It holds a summary of every model on the heap, which instances
+// serving a large snapshot may rather do without, so it can be disabled.
+@Component
+public class ModelSearchIndex {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(ModelSearchIndex.class);
+
+  private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+  // Names are short and specific, so a term found there counts more
+  private static final int NAME_WEIGHT = 3;
+  private static final int ALGORITHM_WEIGHT = 2;
+  private static final int CREATION_TOOL_WEIGHT = 2;
+  private static final int DESCRIPTION_WEIGHT = 1;
+
+  private static final long FIRST_RETRY_DELAY_MS = 1000;
+  private static final long MAX_RETRY_DELAY_MS = 60000;
+
+  private static final Comparator<Map.Entry<UUID, Double>> BY_SCORE =
+          Map.Entry.<UUID, Double>comparingByValue()
+                  .thenComparing(Map.Entry.<UUID, Double>comparingByKey());
+
+  private final ModelStore modelStore;
+  private final boolean enabled;
+  private final long firstRetryDelayMs;
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  private final Map<String, OrgIndex> orgIndexes = new HashMap<>();
+  private final Map<UUID, String> modelOrgs = new HashMap<>();
+  // Models indexed or removed by ModelService during the scan, which must not undo that
+  private final Set<UUID> changedDuringBuild = new HashSet<>();
+  // Incremented by every rebuild, builders of earlier ones stop at their next model
+  private long generation;
+  private volatile boolean ready;
+
+  @Autowired
+  public ModelSearchIndex(ModelStore modelStore,
+                          @Value("${search.enabled:true}") boolean enabled) {
+    this(modelStore, enabled, FIRST_RETRY_DELAY_MS);
+  }
+
+  ModelSearchIndex(ModelStore modelStore, boolean enabled, long firstRetryDelayMs) {
+    this.modelStore = modelStore;
+    this.enabled = enabled;
+    this.firstRetryDelayMs = firstRetryDelayMs;
+  }
+
+  // Scanning a large catalog takes a while, so it does not hold up the startup
+  @EventListener(ApplicationReadyEvent.class)
+  public void buildInBackground() {
+    rebuildInBackground();
+  }
+
+  // Drops every indexed model, for when the whole catalog has been replaced at once
+  public void rebuildInBackground() {
+    if (!enabled) {
+      return;
+    }
+    write(() -> {
+      generation++;
+      orgIndexes.clear();
+      modelOrgs.clear();
+      changedDuringBuild.clear();
+      ready = false;
+      long buildGeneration = generation;
+      Thread builder = new Thread(() -> build(buildGeneration), "model-search-index-builder");
+      builder.setDaemon(true);
+      builder.start();
+    });
+  }
+
+  void build() {
+    lock.readLock().lock();
+    long buildGeneration;
+    try {
+      buildGeneration = generation;
+    } finally {
+      lock.readLock().unlock();
+    }
+    build(buildGeneration);
+  }
+
+  // Search is unavailable until a scan succeeds, so a failed one is retried, less and less
+  // often, until one does or a rebuild takes over
+  private void build(long buildGeneration) {
+    long delay = firstRetryDelayMs;
+    while (!scan(buildGeneration)) {
+      try {
+        Thread.sleep(delay);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+      delay = Math.min(delay * 2, MAX_RETRY_DELAY_MS);
+    }
+  }
+
+  // Tells whether the build is over, because it is done or superseded
+  private boolean scan(long buildGeneration) {
+    long start = System.currentTimeMillis();
+    try (Stream<Model> models = modelStore.streamAllModels(ModelView.SUMMARY)) {
+      Iterator<Model> iterator = models.iterator();
+      while (iterator.hasNext()) {
+        Model model = iterator.next();
+        boolean current = writeIfCurrent(buildGeneration, () -> {
+          if (!changedDuringBuild.contains(model.getId())) {
+            put(model);
+          }
+        });
+        if (!current) {
+          return true;
+        }
+      }
+    } catch (ModelStoreException | RuntimeException e) {
+      LOGGER.error("Unable to build model search index, the scan is retried.", e);
+      return !isCurrent(buildGeneration);
+    }
+    boolean current = writeIfCurrent(buildGeneration, () -> {
+      changedDuringBuild.clear();
+      ready = true;
+    });
+    if (current) {
+      LOGGER.info("Indexed {} models for search in {} ms.",
+              modelOrgs.size(), System.currentTimeMillis() - start);
+    }
+    return true;
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public boolean isReady() {
+    return ready;
+  }
+
+  // Concurrent updates of a model may come in other than the order they were written to the
+  // store, so a model modified before the indexed one does not replace it
+  public void index(Model model) {
+    if (!enabled) {
+      return;
+    }
+    write(() -> {
+      if (!ready) {
+        changedDuringBuild.add(model.getId());
+      }
+      if (!isOlderThanIndexed(model)) {
+        put(model);
+      }
+    });
+  }
+
+  public void remove(UUID modelId) {
+    if (!enabled) {
+      return;
+    }
+    write(() -> {
+      if (!ready) {
+        changedDuringBuild.add(modelId);
+      }
+      delete(modelId);
+    });
+  }
+
+  // Models matching any of the query terms, ranked by TF-IDF of the matching terms
+  public ModelSearchResult search(String orgId, String query, int limit) {
+    Set<String> terms = new LinkedHashSet<>(tokenize(query));
+    lock.readLock().lock();
+    try {
+      OrgIndex index = orgIndexes.get(orgId);
+      Map<UUID, Double> scores = new HashMap<>();
+      if (index != null) {
+        for (String term : terms) {
+          Map<UUID, Integer> postings = index.postings.get(term);
+          if (postings == null) {
+            continue;
+          }
+          double idf = Math.log(1.0 + (double) index.models.size() / postings.size());
+          postings.forEach((modelId, frequency) ->
+                  scores.merge(modelId, idf * (1.0 + Math.log(frequency)), Double::sum));
+        }
+      }
+
+      Map<String, Integer> algorithms = new HashMap<>();
+      Map<String, Integer> creationTools = new HashMap<>();
+      PriorityQueue<Map.Entry<UUID, Double>> best = new PriorityQueue<>(limit + 1, BY_SCORE);
+      for (Map.Entry<UUID, Double> score : scores.entrySet()) {
+        Model model = index.models.get(score.getKey());
+        countFacet(algorithms, model.getAlgorithm());
+        countFacet(creationTools, model.getCreationTool());
+        best.add(score);
+        if (best.size() > limit) {
+          best.poll();
+        }
+      }
+      List<Model> models = new ArrayList<>(best.size());
+      while (!best.isEmpty()) {
+        models.add(index.models.get(best.poll().getKey()));
+      }
+      Collections.reverse(models);
+
+      return ModelSearchResult.builder()
+              .models(models)
+              .total(scores.size())
+              .algorithms(mostFrequentFirst(algorithms))
+              .creationTools(mostFrequentFirst(creationTools))
+              .build();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  static List<String> tokenize(String text) {
+    List<String> tokens = new ArrayList<>();
+    if (text == null) {
+      return tokens;
+    }
+    for (String token : SEPARATORS.split(text.toLowerCase(Locale.ROOT))) {
+      if (!token.isEmpty()) {
+        tokens.add(token);
+      }
+    }
+    return tokens;
+  }
+
+  private void write(Runnable change) {
+    lock.writeLock().lock();
+    try {
+      change.run();
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  private boolean isCurrent(long buildGeneration) {
+    lock.readLock().lock();
+    try {
+      return buildGeneration == generation;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  // Tells whether the change was made, which it is not once a later build has started
+  private boolean writeIfCurrent(long buildGeneration, Runnable change) {
+    lock.writeLock().lock();
+    try {
+      if (buildGeneration != generation) {
+        return false;
+      }
+      change.run();
+      return true;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  private void put(Model model) {
+    delete(model.getId());
+    // Models stored without organization are not listed, so they are not searchable either
+    if (model.getOrgId() == null) {
+      return;
+    }
+    Map<String, Integer> frequencies = new HashMap<>();
+    addTerms(frequencies, model.getName(), NAME_WEIGHT);
+    addTerms(frequencies, model.getAlgorithm(), ALGORITHM_WEIGHT);
+    addTerms(frequencies, model.getCreationTool(), CREATION_TOOL_WEIGHT);
+    addTerms(frequencies, model.getDescription(), DESCRIPTION_WEIGHT);
+
+    OrgIndex index = orgIndexes.computeIfAbsent(model.getOrgId(), orgId -> new OrgIndex());
+    // Artifacts are not searched, there is no point in keeping them
+    index.models.put(model.getId(), model.withArtifacts(null));
+    index.terms.put(model.getId(), frequencies.keySet());
+    frequencies.forEach((term, frequency) -> index.postings
+            .computeIfAbsent(term, key -> new HashMap<>())
+            .put(model.getId(), frequency));
+    modelOrgs.put(model.getId(), model.getOrgId());
+  }
+
+  private boolean isOlderThanIndexed(Model model) {
+    String orgId = modelOrgs.get(model.getId());
+    if (orgId == null || model.getModifiedOn() == null) {
+      return false;
+    }
+    Instant indexed = orgIndexes.get(orgId).models.get(model.getId()).getModifiedOn();
+    return indexed != null && indexed.isAfter(model.getModifiedOn());
+  }
+
+  private void delete(UUID modelId) {
+    String orgId = modelOrgs.remove(modelId);
+    if (orgId == null) {
+      return;
+    }
+    OrgIndex index = orgIndexes.get(orgId);
+    index.models.remove(modelId);
+    for (String term : index.terms.remove(modelId)) {
+      Map<UUID, Integer> postings = index.postings.get(term);
+      postings.remove(modelId);
+      if (postings.isEmpty()) {
+        index.postings.remove(term);
+      }
+    }
+  }
+
+  private static void addTerms(Map<String, Integer> frequencies, String text, int weight) {
+    for (String term : tokenize(text)) {
+      frequencies.merge(term, weight, Integer::sum);
+    }
+  }
+
+  private static void countFacet(Map<String, Integer> facet, String value) {
+    if (value != null) {
+      facet.merge(value, 1, Integer::sum);
+    }
+  }
+
+  private static Map<String, Integer> mostFrequentFirst(Map<String, Integer> facet) {
+    Map<String, Integer> sorted = new LinkedHashMap<>();
+    facet.entrySet().stream()
+            .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
+            .forEach(entry -> sorted.put(entry.getKey(), entry.getValue()));
+    return sorted;
+  }
+
+  private static class OrgIndex {
+    private final Map<String, Map<UUID, Integer>> postings = new HashMap<>();
+    private final Map<UUID, Model> models = new HashMap<>();
+    private final Map<UUID, Set<String>> terms = new HashMap<>();
+  }
+
+}
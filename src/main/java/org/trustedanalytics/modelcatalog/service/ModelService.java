@@ -13,9 +13,13 @@
  */
 package org.trustedanalytics.modelcatalog.service;
 
-import org.trustedanalytics.modelcatalog.domain.Artifact;
 import org.trustedanalytics.modelcatalog.domain.Model;
+import org.trustedanalytics.modelcatalog.domain.ModelCursor;
+import org.trustedanalytics.modelcatalog.domain.ModelFilter;
+import org.trustedanalytics.modelcatalog.domain.ModelSort;
+import org.trustedanalytics.modelcatalog.domain.ModelView;
 import org.trustedanalytics.modelcatalog.security.UsernameExtractor;
+import org.trustedanalytics.modelcatalog.storage.db.AsyncModelStore;
 import org.trustedanalytics.modelcatalog.storage.db.ModelStore;
 import org.trustedanalytics.modelcatalog.storage.db.ModelStoreException;
 
@@ -26,10 +30,14 @@ import java.beans.IntrospectionException;
 import java.lang.reflect.InvocationTargetException;
 import java.time.Instant;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class ModelService {
@@ -39,47 +47,95 @@ public class ModelService {
     OVERWRITE,
   }
 
+  private static final int LOCK_STRIPES = 64;
+
   private final ModelStore modelStore;
+  private final AsyncModelStore asyncModelStore;
   private final ArtifactService artifactService;
+  private final ModelSearchIndex searchIndex;
   private final UsernameExtractor usernameExtractor;
+  // Guard changes of the search index only, never store writes. Removals are counted per
+  // stripe, so that an update written before a deletion does not bring the model back.
+  private final Object[] modelLocks = new Object[LOCK_STRIPES];
+  private final long[] removals = new long[LOCK_STRIPES];
 
   @Autowired
   public ModelService(
       ModelStore modelStore,
+      AsyncModelStore asyncModelStore,
       ArtifactService artifactService,
+      ModelSearchIndex searchIndex,
       UsernameExtractor usernameExtractor) {
     this.modelStore = modelStore;
+    this.asyncModelStore = asyncModelStore;
     this.artifactService = artifactService;
+    this.searchIndex = searchIndex;
     this.usernameExtractor = usernameExtractor;
+    for (int i = 0; i < modelLocks.length; i++) {
+      modelLocks[i] = new Object();
+    }
   }
 
-  public Collection<Model> listModels(String orgId) {
+  public Stream<Model> streamModels(
+      String orgId, ModelFilter filter, ModelSort sort, ModelView view) {
     try {
-      return modelStore.listModels(orgId);
+      return modelStore.streamModels(orgId, filter, sort, view);
     } catch (ModelStoreException e) {
       throw new ModelServiceException(
           ModelServiceExceptionCode.MODEL_LIST_FAILED, "Model list failed.", e);
     }
   }
 
+  public CompletableFuture<ModelsPage> listModelsAsync(String orgId, ModelFilter filter,
+      ModelSort sort, ModelCursor after, int limit, ModelView view) {
+    // One extra model tells whether there is a next page
+    return asyncModelStore.listModels(orgId, filter, sort, after, limit + 1, view)
+        .handle((models, e) -> {
+          if (e != null) {
+            throw StoreFailures.toServiceException(
+                e, ModelServiceExceptionCode.MODEL_LIST_FAILED, "Model list failed.");
+          }
+          return toModelsPage(models, limit, sort);
+        });
+  }
+
+  public ModelSearchResult searchModels(String orgId, String query, int limit) {
+    if (!searchIndex.isEnabled()) {
+      throw new ModelServiceException(ModelServiceExceptionCode.SEARCH_DISABLED,
+          "Model search is disabled on this instance.");
+    }
+    if (!searchIndex.isReady()) {
+      throw new ModelServiceException(ModelServiceExceptionCode.SEARCH_INDEX_NOT_READY,
+          "Model search is not available yet, models are being indexed.");
+    }
+    return searchIndex.search(orgId, query, limit);
+  }
+
   public Model retrieveModel(UUID modelId) {
     try {
-      Model model = modelStore.retrieveModel(modelId);
-      if (Objects.isNull(model)) {
-        throw new ModelServiceException(
-            ModelServiceExceptionCode.MODEL_NOT_FOUND, "Model with given ID not found.");
-      }
-      return model;
+      return checkModelFound(modelStore.retrieveModel(modelId));
     } catch (ModelStoreException e) {
       throw new ModelServiceException(
           ModelServiceExceptionCode.MODEL_RETRIEVE_FAILED, "Model retrieve failed.", e);
     }
   }
 
+  public CompletableFuture<Model> retrieveModelAsync(UUID modelId, ModelView view) {
+    return asyncModelStore.retrieveModel(modelId, view)
+        .handle((model, e) -> {
+          if (e != null) {
+            throw StoreFailures.toServiceException(
+                e, ModelServiceExceptionCode.MODEL_RETRIEVE_FAILED, "Model retrieve failed.");
+          }
+          return checkModelFound(model);
+        });
+  }
+
   public Model addModel(ModelModificationParameters params, String orgId) {
     try {
-      Model model = initiateNewModel(params);
+      Model model = initiateNewModel(params, orgId);
       modelStore.addModel(model, orgId);
+      searchIndex.index(model);
       return model;
     } catch (ModelStoreException e) {
       throw new ModelServiceException(
@@ -87,6 +143,24 @@ public class ModelService {
     }
   }
 
+  public ModelsBulkAddResult addModels(
+      List<ModelModificationParameters> paramsList, String orgId) {
+    List<Model> models = paramsList.stream()
+        .map(params -> initiateNewModel(params, orgId))
+        .collect(Collectors.toList());
+    try {
+      ModelsBulkAddResult result = ModelsBulkAddResult.builder()
+          .models(models)
+          .failedIds(modelStore.addModels(models))
+          .build();
+      models.stream().filter(result::isAdded).forEach(searchIndex::index);
+      return result;
+    } catch (ModelStoreException e) {
+      throw new ModelServiceException(
+          ModelServiceExceptionCode.MODEL_ADD_FAILED, "Models add failed.", e);
+    }
+  }
+
   public Model updateModel(UUID modelId, ModelModificationParameters params) {
     return update(modelId, params, UpdateMode.OVERWRITE);
   }
@@ -99,28 +173,100 @@ public class ModelService {
     try {
       Model model = retrieveModel(modelId);
 
-      // Delete dependant artifacts first
-      Set<Artifact> artifacts = model.getArtifacts();
-      if (artifacts != null) {
-        for (Artifact artifact : artifacts) {
-          artifactService.deleteArtifact(model.getId(), artifact.getId());
-        }
-      }
-
-      // Then delete model itself
+      // The records go first, together with the model. Releasing file references before them
+      // would release them again when a failed delete is retried, while a file left behind by
+      // a failure only takes up space.
       modelStore.deleteModel(modelId);
+      removeFromSearchIndex(modelId);
+      artifactService.deleteArtifactFiles(Collections.singletonList(model));
       return model;
-    } catch (ModelServiceException e) {
-      throw e;
     } catch (ModelStoreException e) {
       throw new ModelServiceException(
           ModelServiceExceptionCode.MODEL_DELETE_FAILED, "Model delete failed.", e);
     }
   }
 
-  private Model initiateNewModel(ModelModificationParameters params) {
+  public ModelsBulkDeleteResult deleteModels(Collection<UUID> modelIds) {
+    try {
+      List<Model> models = modelStore.retrieveModels(modelIds);
+      // Records go first, as for a single model
+      List<UUID> foundIds = models.stream()
+          .map(Model::getId)
+          .collect(Collectors.toList());
+      if (!foundIds.isEmpty()) {
+        modelStore.deleteModels(foundIds);
+        foundIds.forEach(this::removeFromSearchIndex);
+      }
+      artifactService.deleteArtifactFiles(models);
+      return ModelsBulkDeleteResult.builder()
+          .models(models)
+          .build();
+    } catch (ModelStoreException e) {
+      throw new ModelServiceException(
+          ModelServiceExceptionCode.MODEL_DELETE_FAILED, "Models delete failed.", e);
+    }
+  }
+
+  private ModelsPage toModelsPage(List<Model> models, int limit, ModelSort sort) {
+    ModelCursor nextCursor = null;
+    if (models.size() > limit) {
+      models = models.subList(0, limit);
+      nextCursor = ModelCursor.after(models.get(limit - 1), sort);
+    }
+    return ModelsPage.builder()
+            .models(models)
+            .nextCursor(nextCursor)
+            .build();
+  }
+
+  private void removeFromSearchIndex(UUID modelId) {
+    int stripe = stripeOf(modelId);
+    synchronized (modelLocks[stripe]) {
+      removals[stripe]++;
+      searchIndex.remove(modelId);
+    }
+  }
+
+  private long removalsOf(UUID modelId) {
+    int stripe = stripeOf(modelId);
+    synchronized (modelLocks[stripe]) {
+      return removals[stripe];
+    }
+  }
+
+  // Updates written out of order are sorted out by the index, from their modifiedOn. A model
+  // of the same stripe removed since the update began may have been this one, which the store
+  // then tells.
+  private void indexUpdated(Model model, long removalsBefore) throws ModelStoreException {
+    int stripe = stripeOf(model.getId());
+    synchronized (modelLocks[stripe]) {
+      if (removals[stripe] == removalsBefore) {
+        searchIndex.index(model);
+        return;
+      }
+      Model stored = modelStore.retrieveModel(model.getId(), ModelView.SUMMARY);
+      if (stored != null) {
+        searchIndex.index(stored);
+      }
+    }
+  }
+
+  private int stripeOf(UUID modelId) {
+    return Math.floorMod(modelId.hashCode(), modelLocks.length);
+  }
+
+  private Model checkModelFound(Model model) {
+    if (Objects.isNull(model)) {
+      throw new ModelServiceException(
+          ModelServiceExceptionCode.MODEL_NOT_FOUND, "Model with given ID not found.");
+    }
+    return model;
+  }
+
+  private Model initiateNewModel(ModelModificationParameters params, String orgId) {
     String user = obtainUserName();
     return Model.builder()
+            .orgId(orgId)
             .addedBy(user)
             .addedOn(Instant.now())
             .algorithm(params.getAlgorithm())
@@ -139,7 +285,6 @@ public class ModelService {
   }
 
   private Model update(UUID modelId, ModelModificationParameters params, UpdateMode updateMode) {
-    retrieveModel(modelId);
     Map<String, Object> propertiesToUpdate;
     try {
       propertiesToUpdate = PropertiesReader.preparePropertiesToUpdateMap(
@@ -156,10 +301,12 @@ public class ModelService {
           "Model update failed (nothing to update).");
     }
 
-    addModifiedOnAndByProperties(propertiesToUpdate);
     try {
-      modelStore.updateModel(modelId, propertiesToUpdate);
-      return retrieveModel(modelId);
+      long removalsBefore = removalsOf(modelId);
+      addModifiedOnAndByProperties(propertiesToUpdate);
+      Model model = checkModelFound(modelStore.updateModel(modelId, propertiesToUpdate));
+      indexUpdated(model, removalsBefore);
+      return model;
     } catch (ModelStoreException e) {
       throw new ModelServiceException(
           ModelServiceExceptionCode.MODEL_UPDATE_FAILED, "Model update failed.", e);
@@ -23,9 +23,27 @@ public enum ModelServiceExceptionCode {
   MODEL_NOTHING_TO_UPDATE,
   MODEL_UPDATE_FAILED,
   ARTIFACT_NOT_FOUND,
+  ARTIFACT_RETRIEVE_FAILED,
   ARTIFACT_FILE_RETRIEVE_FAILED,
   ARTIFACT_ADD_FAILED,
+  ARTIFACT_TOO_LARGE,
   ARTIFACT_DELETE_FAILED,
   ARTIFACT_INVALID_ACTION,
   REQUIRED_FIELDS_MISSING,
+  INVALID_PAGING_PARAMETERS,
+  INVALID_MODEL_VIEW,
+  INVALID_BULK_SIZE,
+  INVALID_FILTER,
+  INVALID_SORT,
+  INVALID_SEARCH_QUERY,
+  SEARCH_INDEX_NOT_READY,
+  SEARCH_DISABLED,
+  STATISTICS_FAILED,
+  STATISTICS_NOT_READY,
+  SNAPSHOT_EXPORT_FAILED,
+  SNAPSHOT_RELOAD_FAILED,
+  SNAPSHOT_NOT_SERVED,
+  CATALOG_READ_ONLY,
+  STORE_OVERLOADED,
+  ACCESS_DENIED,
 }
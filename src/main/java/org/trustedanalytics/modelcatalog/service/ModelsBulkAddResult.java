@@ -0,0 +1,37 @@
+/**
+ * Copyright (c) 2016 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.trustedanalytics.modelcatalog.service;
+
+import org.trustedanalytics.modelcatalog.domain.Model;
+
+import lombok.Getter;
+import lombok.experimental.Builder;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+@Getter
+@Builder
+public class ModelsBulkAddResult {
+
+  // In the order of given parameters
+  private final List<Model> models;
+  private final Set<UUID> failedIds;
+
+  public boolean isAdded(Model model) {
+    return !failedIds.contains(model.getId());
+  }
+
+}
@@ -0,0 +1,86 @@
+/**
+ * Copyright (c) 2016 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.trustedanalytics.modelcatalog.service;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+// Fails the read going past the limit, so that content of unknown length, e.g. a request body
+// without Content-Length, cannot grow without bounds. The failure is an IOException, which file
+// stores already handle by dropping the partly written file.
+public class SizeLimitedInputStream extends FilterInputStream {
+
+  private final long limit;
+  private long count;
+  private long mark;
+
+  public SizeLimitedInputStream(InputStream in, long limit) {
+    super(in);
+    this.limit = limit;
+  }
+
+  @Override
+  public int read() throws IOException {
+    int result = in.read();
+    if (result != -1) {
+      count(1);
+    }
+    return result;
+  }
+
+  @Override
+  public int read(byte[] b, int off, int len) throws IOException {
+    int result = in.read(b, off, len);
+    if (result != -1) {
+      count(result);
+    }
+    return result;
+  }
+
+  @Override
+  public long skip(long n) throws IOException {
+    long result = in.skip(n);
+    count(result);
+    return result;
+  }
+
+  @Override
+  public synchronized void mark(int readlimit) {
+    in.mark(readlimit);
+    mark = count;
+  }
+
+  @Override
+  public synchronized void reset() throws IOException {
+    in.reset();
+    count = mark;
+  }
+
+  private void count(long read) throws LimitExceededException {
+    count += read;
+    if (count > limit) {
+      throw new LimitExceededException(limit);
+    }
+  }
+
+  public static class LimitExceededException extends IOException {
+
+    public LimitExceededException(long limit) {
+      super("Content exceeds the limit of " + limit + " bytes.");
+    }
+
+  }
+
+}
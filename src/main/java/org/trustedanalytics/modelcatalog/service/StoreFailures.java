@@ -0,0 +1,37 @@
+/**
+ * Copyright (c) 2016 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.trustedanalytics.modelcatalog.service;
+
+import org.trustedanalytics.modelcatalog.storage.db.ModelStoreOverloadedException;
+
+import java.util.concurrent.CompletionException;
+
+final class StoreFailures {
+
+  private StoreFailures() {
+  }
+
+  // Failures of asynchronous store reads become the given code, except for reads refused
+  // by an overloaded store, which clients may retry
+  static ModelServiceException toServiceException(Throwable failure,
+      ModelServiceExceptionCode code, String message) {
+    Throwable cause = failure instanceof CompletionException && failure.getCause() != null
+        ? failure.getCause() : failure;
+    if (cause instanceof ModelStoreOverloadedException) {
+      return new ModelServiceException(ModelServiceExceptionCode.STORE_OVERLOADED,
+          "Model store is overloaded, retry later.", cause);
+    }
+    return new ModelServiceException(code, message, cause);
+  }
+}
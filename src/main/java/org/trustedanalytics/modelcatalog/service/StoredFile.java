@@ -0,0 +1,29 @@
+/**
+ * Copyright (c) 2016 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.trustedanalytics.modelcatalog.service;
+
+import lombok.Getter;
+import lombok.experimental.Builder;
+
+// File content as stored by ContentAddressedFiles, measured while it was written
+@Getter
+@Builder
+public class StoredFile {
+
+  private final String location;
+  private final long size;
+  // Hex-encoded SHA-256
+  private final String digest;
+
+}
@@ -13,9 +13,12 @@
  */
 package org.trustedanalytics.modelcatalog.storage.db;
 
+import org.springframework.context.annotation.Bean;
 import org.springframework.core.convert.converter.Converter;
 import org.springframework.data.mongodb.config.AbstractMongoConfiguration;
 import org.springframework.data.mongodb.core.convert.CustomConversions;
+import org.springframework.data.mongodb.core.convert.DefaultDbRefResolver;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
 
 import java.time.Instant;
 import java.util.Arrays;
@@ -29,6 +32,15 @@ public abstract class AbstractMongoConfigurationWithInstantConverters extends
             LongToInstantConverter()));
   }
 
+  @Bean
+  @Override
+  public MappingMongoConverter mappingMongoConverter() throws Exception {
+    MappingMongoConverter converter = new ModelMappingMongoConverter(
+            new DefaultDbRefResolver(mongoDbFactory()), mongoMappingContext());
+    converter.setCustomConversions(customConversions());
+    return converter;
+  }
+
   private static class InstantToLongConverter implements Converter<Instant, Long> {
     @Override
     public Long convert(Instant instant) {
@@ -0,0 +1,69 @@
+/**
+ * Copyright (c) 2016 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.trustedanalytics.modelcatalog.storage.db;
+
+import org.trustedanalytics.modelcatalog.domain.Artifact;
+import org.trustedanalytics.modelcatalog.domain.ArtifactAction;
+
+import lombok.Getter;
+import lombok.experimental.Builder;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+import java.util.Set;
+import java.util.UUID;
+
+// Artifact as stored in its own collection, next to the id of the model it belongs to
+@Getter
+@Builder
+@Document(collection = ArtifactRecord.COLLECTION)
+public class ArtifactRecord {
+
+  public static final String COLLECTION = "artifacts";
+
+  private final UUID id;
+  private final UUID modelId;
+  private final String filename;
+  private final String location;
+  private final Set<ArtifactAction> actions;
+  private final Long size;
+  private final String digest;
+  private final Instant addedOn;
+
+  public static ArtifactRecord of(UUID modelId, Artifact artifact) {
+    return ArtifactRecord.builder()
+            .id(artifact.getId())
+            .modelId(modelId)
+            .filename(artifact.getFilename())
+            .location(artifact.getLocation())
+            .actions(artifact.getActions())
+            .size(artifact.getSize())
+            .digest(artifact.getDigest())
+            .addedOn(artifact.getAddedOn())
+            .build();
+  }
+
+  public Artifact toArtifact() {
+    return Artifact.builder()
+            .id(id)
+            .filename(filename)
+            .location(location)
+            .actions(actions)
+            .size(size)
+            .digest(digest)
+            .addedOn(addedOn)
+            .build();
+  }
+
+}
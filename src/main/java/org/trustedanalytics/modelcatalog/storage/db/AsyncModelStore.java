@@ -0,0 +1,84 @@
+/**
+ * Copyright (c) 2016 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.trustedanalytics.modelcatalog.storage.db;
+
+import org.trustedanalytics.modelcatalog.domain.Artifact;
+import org.trustedanalytics.modelcatalog.domain.Model;
+import org.trustedanalytics.modelcatalog.domain.ModelCursor;
+import org.trustedanalytics.modelcatalog.domain.ModelFilter;
+import org.trustedanalytics.modelcatalog.domain.ModelSort;
+import org.trustedanalytics.modelcatalog.domain.ModelView;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+// Runs ModelStore reads on a bounded pool of their own, so that requests waiting for the
+// database do not hold servlet threads. Futures fail with ModelStoreException or the runtime
+// exception thrown by the store, and with ModelStoreOverloadedException when the pool is full.
+@Component
+public class AsyncModelStore {
+
+  private final ModelStore modelStore;
+  private final Executor executor;
+
+  @Autowired
+  public AsyncModelStore(ModelStore modelStore,
+                         @Qualifier("modelStoreExecutor") Executor executor) {
+    this.modelStore = modelStore;
+    this.executor = executor;
+  }
+
+  public CompletableFuture<List<Model>> listModels(String orgId, ModelFilter filter,
+          ModelSort sort, ModelCursor after, int limit, ModelView view) {
+    return supply(() -> modelStore.listModels(orgId, filter, sort, after, limit, view));
+  }
+
+  public CompletableFuture<Model> retrieveModel(UUID modelId, ModelView view) {
+    return supply(() -> modelStore.retrieveModel(modelId, view));
+  }
+
+  public CompletableFuture<Artifact> retrieveArtifact(UUID modelId, UUID artifactId) {
+    return supply(() -> modelStore.retrieveArtifact(modelId, artifactId));
+  }
+
+  private <T> CompletableFuture<T> supply(ModelStoreCall<T> call) {
+    CompletableFuture<T> future = new CompletableFuture<>();
+    try {
+      executor.execute(() -> {
+        try {
+          future.complete(call.call());
+        } catch (ModelStoreException | RuntimeException e) {
+          future.completeExceptionally(e);
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      future.completeExceptionally(
+          new ModelStoreOverloadedException("Model store is overloaded.", e));
+    }
+    return future;
+  }
+
+  @FunctionalInterface
+  private interface ModelStoreCall<T> {
+    T call() throws ModelStoreException;
+  }
+
+}
@@ -0,0 +1,44 @@
+/**
+ * Copyright (c) 2016 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.trustedanalytics.modelcatalog.storage.db;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutorService;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+public class AsyncModelStoreConfig {
+
+  @Value("${services.store.asyncThreads:32}")
+  private int asyncThreads;
+
+  @Value("${services.store.asyncQueueSize:1000}")
+  private int asyncQueueSize;
+
+  // Calls take the security context of the request along, the current user is needed by
+  // read-your-writes routing
+  @Bean(destroyMethod = "shutdown")
+  public ExecutorService modelStoreExecutor() {
+    return new DelegatingSecurityContextExecutorService(new ThreadPoolExecutor(
+            asyncThreads, asyncThreads, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(asyncQueueSize)));
+  }
+
+}
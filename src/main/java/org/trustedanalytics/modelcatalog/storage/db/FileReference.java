@@ -0,0 +1,39 @@
+/**
+ * Copyright (c) 2016 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.trustedanalytics.modelcatalog.storage.db;
+
+import lombok.Getter;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+
+// Number of artifacts referring to a stored file, kept under the file location. The time of
+// the claim is set while the file is being deleted.
+@Getter
+@Document(collection = FileReference.COLLECTION)
+class FileReference {
+
+  static final String COLLECTION = "fileReferences";
+
+  private final String id;
+  private final long count;
+  private final Date claimedOn;
+
+  FileReference(String id, long count, Date claimedOn) {
+    this.id = id;
+    this.count = count;
+    this.claimedOn = claimedOn;
+  }
+
+}
@@ -0,0 +1,31 @@
+/**
+ * Copyright (c) 2016 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.trustedanalytics.modelcatalog.storage.db;
+
+// Counts artifacts that share one stored file, so that the file is deleted with the last of them.
+// Removing the last reference claims the location for deletion: no reference can be added to it
+// until the claim is released, so that a file stored again meanwhile, by this instance or by
+// another, is not deleted together with the old one.
+public interface FileReferenceStore {
+
+  // Returns the number of references to the location, this one included. Waits while the
+  // location is claimed for deletion.
+  long addReference(String location) throws ModelStoreException;
+
+  // Returns whether no reference is left. The caller then holds the claim on the location and
+  // must release it once the file is deleted.
+  boolean removeReference(String location) throws ModelStoreException;
+
+  void releaseLocation(String location) throws ModelStoreException;
+}
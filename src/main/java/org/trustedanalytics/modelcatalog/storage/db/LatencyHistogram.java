@@ -0,0 +1,76 @@
+/**
+ * Copyright (c) 2016 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.trustedanalytics.modelcatalog.storage.db;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+// Lock-free latency histogram with power-of-two microsecond buckets: bucket i counts values
+// below 2^i us, so percentiles are reported as bucket upper bounds
+public class LatencyHistogram {
+
+  private static final int BUCKETS = 40;
+
+  private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+  private final LongAdder count = new LongAdder();
+  private final LongAdder totalMicros = new LongAdder();
+  private final LongAccumulator maxMicros = new LongAccumulator(Math::max, 0);
+
+  public void record(long duration, TimeUnit unit) {
+    long micros = Math.max(0, unit.toMicros(duration));
+    buckets.incrementAndGet(Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros)));
+    count.increment();
+    totalMicros.add(micros);
+    maxMicros.accumulate(micros);
+  }
+
+  public long getCount() {
+    return count.sum();
+  }
+
+  public long percentileMicros(double percentile) {
+    long total = 0;
+    long[] snapshot = new long[BUCKETS];
+    for (int i = 0; i < BUCKETS; i++) {
+      snapshot[i] = buckets.get(i);
+      total += snapshot[i];
+    }
+    long rank = (long) Math.ceil(total * percentile / 100);
+    long seen = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      seen += snapshot[i];
+      if (seen >= rank && seen > 0) {
+        return Math.min((1L << i) - 1, maxMicros.get());
+      }
+    }
+    return 0;
+  }
+
+  public Map<String, Long> snapshot() {
+    long samples = getCount();
+    Map<String, Long> snapshot = new LinkedHashMap<>();
+    snapshot.put("count", samples);
+    snapshot.put("meanMicros", samples == 0 ? 0 : totalMicros.sum() / samples);
+    snapshot.put("p50Micros", percentileMicros(50));
+    snapshot.put("p90Micros", percentileMicros(90));
+    snapshot.put("p99Micros", percentileMicros(99));
+    snapshot.put("maxMicros", maxMicros.get());
+    return snapshot;
+  }
+
+}
@@ -0,0 +1,227 @@
+/**
+ * Copyright (c) 2016 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.trustedanalytics.modelcatalog.storage.db;
+
+import org.trustedanalytics.modelcatalog.domain.Artifact;
+import org.trustedanalytics.modelcatalog.domain.ArtifactAction;
+import org.trustedanalytics.modelcatalog.domain.Model;
+
+import com.mongodb.BasicDBList;
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBObject;
+import org.springframework.data.mapping.context.MappingContext;
+import org.springframework.data.mongodb.core.convert.DbRefResolver;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentProperty;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.UUID;
+
+// Reads and writes models and artifact records field by field instead of going through
+// reflective, per-property mapping, which takes a noticeable share of CPU when thousands of
+// models are listed. Documents keep the layout the reflective mapping gives them, _class
+// included, so either can read what the other wrote. Everything else is left to
+// MappingMongoConverter.
+public class ModelMappingMongoConverter extends MappingMongoConverter {
+
+  private static final String ID = "_id";
+  private static final String ORG_ID = "orgId";
+  private static final String NAME = "name";
+  private static final String REVISION = "revision";
+  private static final String ALGORITHM = "algorithm";
+  private static final String CREATION_TOOL = "creationTool";
+  private static final String DESCRIPTION = "description";
+  private static final String ADDED_BY = "addedBy";
+  private static final String ADDED_ON = "addedOn";
+  private static final String MODIFIED_BY = "modifiedBy";
+  private static final String MODIFIED_ON = "modifiedOn";
+  private static final String ARTIFACTS = "artifacts";
+  private static final String MODEL_ID = "modelId";
+  private static final String FILENAME = "filename";
+  private static final String LOCATION = "location";
+  private static final String ACTIONS = "actions";
+  private static final String SIZE = "size";
+  private static final String DIGEST = "digest";
+
+  public ModelMappingMongoConverter(DbRefResolver dbRefResolver,
+          MappingContext<? extends MongoPersistentEntity<?>, MongoPersistentProperty> context) {
+    super(dbRefResolver, context);
+  }
+
+  @Override
+  public <S> S read(Class<S> type, DBObject document) {
+    if (type == Model.class && document != null) {
+      return type.cast(readModel(document));
+    }
+    if (type == ArtifactRecord.class && document != null) {
+      return type.cast(readArtifactRecord(document));
+    }
+    return super.read(type, document);
+  }
+
+  @Override
+  public void write(Object source, DBObject document) {
+    if (source instanceof Model) {
+      getTypeMapper().writeType(Model.class, document);
+      writeModel((Model) source, document);
+      return;
+    }
+    if (source instanceof ArtifactRecord) {
+      getTypeMapper().writeType(ArtifactRecord.class, document);
+      writeArtifactRecord((ArtifactRecord) source, document);
+      return;
+    }
+    super.write(source, document);
+  }
+
+  private static void writeModel(Model model, DBObject document) {
+    putIfNotNull(document, ID, model.getId());
+    putIfNotNull(document, ORG_ID, model.getOrgId());
+    putIfNotNull(document, NAME, model.getName());
+    putIfNotNull(document, REVISION, model.getRevision());
+    putIfNotNull(document, ALGORITHM, model.getAlgorithm());
+    putIfNotNull(document, CREATION_TOOL, model.getCreationTool());
+    putIfNotNull(document, DESCRIPTION, model.getDescription());
+    putIfNotNull(document, ADDED_BY, model.getAddedBy());
+    putIfNotNull(document, ADDED_ON, toEpochMilli(model.getAddedOn()));
+    putIfNotNull(document, MODIFIED_BY, model.getModifiedBy());
+    putIfNotNull(document, MODIFIED_ON, toEpochMilli(model.getModifiedOn()));
+    if (model.getArtifacts() != null) {
+      BasicDBList artifacts = new BasicDBList();
+      for (Artifact artifact : model.getArtifacts()) {
+        artifacts.add(writeArtifact(artifact));
+      }
+      document.put(ARTIFACTS, artifacts);
+    }
+  }
+
+  private static DBObject writeArtifact(Artifact artifact) {
+    BasicDBObject document = new BasicDBObject();
+    putIfNotNull(document, ID, artifact.getId());
+    putIfNotNull(document, FILENAME, artifact.getFilename());
+    putIfNotNull(document, LOCATION, artifact.getLocation());
+    putIfNotNull(document, ACTIONS, writeActions(artifact.getActions()));
+    putIfNotNull(document, SIZE, artifact.getSize());
+    putIfNotNull(document, DIGEST, artifact.getDigest());
+    putIfNotNull(document, ADDED_ON, toEpochMilli(artifact.getAddedOn()));
+    return document;
+  }
+
+  private static void writeArtifactRecord(ArtifactRecord artifact, DBObject document) {
+    putIfNotNull(document, ID, artifact.getId());
+    putIfNotNull(document, MODEL_ID, artifact.getModelId());
+    putIfNotNull(document, FILENAME, artifact.getFilename());
+    putIfNotNull(document, LOCATION, artifact.getLocation());
+    putIfNotNull(document, ACTIONS, writeActions(artifact.getActions()));
+    putIfNotNull(document, SIZE, artifact.getSize());
+    putIfNotNull(document, DIGEST, artifact.getDigest());
+    putIfNotNull(document, ADDED_ON, toEpochMilli(artifact.getAddedOn()));
+  }
+
+  private static BasicDBList writeActions(Set<ArtifactAction> actions) {
+    if (actions == null) {
+      return null;
+    }
+    BasicDBList names = new BasicDBList();
+    for (ArtifactAction action : actions) {
+      names.add(action.name());
+    }
+    return names;
+  }
+
+  private static Model readModel(DBObject document) {
+    Object artifacts = document.get(ARTIFACTS);
+    return Model.builder()
+            .id((UUID) document.get(ID))
+            .orgId((String) document.get(ORG_ID))
+            .name((String) document.get(NAME))
+            .revision((String) document.get(REVISION))
+            .algorithm((String) document.get(ALGORITHM))
+            .creationTool((String) document.get(CREATION_TOOL))
+            .description((String) document.get(DESCRIPTION))
+            .addedBy((String) document.get(ADDED_BY))
+            .addedOn(toInstant(document.get(ADDED_ON)))
+            .modifiedBy((String) document.get(MODIFIED_BY))
+            .modifiedOn(toInstant(document.get(MODIFIED_ON)))
+            .artifacts(artifacts == null ? null : readArtifacts((Collection<?>) artifacts))
+            .build();
+  }
+
+  private static Set<Artifact> readArtifacts(Collection<?> documents) {
+    Set<Artifact> artifacts = new LinkedHashSet<>();
+    for (Object document : documents) {
+      artifacts.add(readArtifact((DBObject) document));
+    }
+    return artifacts;
+  }
+
+  private static Artifact readArtifact(DBObject document) {
+    Object actions = document.get(ACTIONS);
+    return Artifact.builder()
+            .id((UUID) document.get(ID))
+            .filename((String) document.get(FILENAME))
+            .location((String) document.get(LOCATION))
+            .actions(actions == null ? null : readActions((Collection<?>) actions))
+            .size(toLong(document.get(SIZE)))
+            .digest((String) document.get(DIGEST))
+            .addedOn(toInstant(document.get(ADDED_ON)))
+            .build();
+  }
+
+  private static ArtifactRecord readArtifactRecord(DBObject document) {
+    Object actions = document.get(ACTIONS);
+    return ArtifactRecord.builder()
+            .id((UUID) document.get(ID))
+            .modelId((UUID) document.get(MODEL_ID))
+            .filename((String) document.get(FILENAME))
+            .location((String) document.get(LOCATION))
+            .actions(actions == null ? null : readActions((Collection<?>) actions))
+            .size(toLong(document.get(SIZE)))
+            .digest((String) document.get(DIGEST))
+            .addedOn(toInstant(document.get(ADDED_ON)))
+            .build();
+  }
+
+  private static Set<ArtifactAction> readActions(Collection<?> names) {
+    Set<ArtifactAction> actions = EnumSet.noneOf(ArtifactAction.class);
+    for (Object name : names) {
+      actions.add(ArtifactAction.valueOf((String) name));
+    }
+    return actions;
+  }
+
+  private static void putIfNotNull(DBObject document, String key, Object value) {
+    if (value != null) {
+      document.put(key, value);
+    }
+  }
+
+  private static Long toLong(Object value) {
+    return value == null ? null : ((Number) value).longValue();
+  }
+
+  private static Long toEpochMilli(Instant instant) {
+    return instant == null ? null : instant.toEpochMilli();
+  }
+
+  private static Instant toInstant(Object epochMilli) {
+    return epochMilli == null ? null : Instant.ofEpochMilli(((Number) epochMilli).longValue());
+  }
+
+}
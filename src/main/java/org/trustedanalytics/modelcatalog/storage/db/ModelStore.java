@@ -14,25 +14,60 @@
 package org.trustedanalytics.modelcatalog.storage.db;
 
 import org.trustedanalytics.modelcatalog.domain.Artifact;
+import org.trustedanalytics.modelcatalog.domain.CatalogStatistics;
 import org.trustedanalytics.modelcatalog.domain.Model;
+import org.trustedanalytics.modelcatalog.domain.ModelCursor;
+import org.trustedanalytics.modelcatalog.domain.ModelFilter;
+import org.trustedanalytics.modelcatalog.domain.ModelSort;
+import org.trustedanalytics.modelcatalog.domain.ModelView;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 public interface ModelStore {
 
-  Collection<Model> listModels(String orgId) throws ModelStoreException;
+  Stream<Model> streamModels(String orgId, ModelFilter filter, ModelSort sort, ModelView view)
+          throws ModelStoreException;
+
+  // Models of all organizations, in no particular order
+  Stream<Model> streamAllModels(ModelView view) throws ModelStoreException;
+
+  List<Model> listModels(String orgId, ModelFilter filter, ModelSort sort, ModelCursor after,
+                         int limit, ModelView view) throws ModelStoreException;
 
   Model retrieveModel(UUID modelId) throws ModelStoreException;
 
+  Model retrieveModel(UUID modelId, ModelView view) throws ModelStoreException;
+
+  List<Model> retrieveModels(Collection<UUID> modelIds) throws ModelStoreException;
+
   void addModel(Model model, String orgId) throws ModelStoreException;
 
-  void updateModel(UUID modelId, Map<String, Object> propertiesToUpdate) throws ModelStoreException;
+  // Returns ids of the models that could not be added
+  Set<UUID> addModels(List<Model> models) throws ModelStoreException;
+
+  // Returns the model as it is after the update, or null when there is no such model
+  Model updateModel(UUID modelId, Map<String, Object> propertiesToUpdate) throws ModelStoreException;
 
   void deleteModel(UUID modelId) throws ModelStoreException;
 
+  // Returns the number of models deleted
+  long deleteModels(Collection<UUID> modelIds) throws ModelStoreException;
+
   void addArtifact(UUID modelId, Artifact artifact) throws ModelStoreException;
 
+  // Returns null when there is no such model or the model has no such artifact
+  Artifact retrieveArtifact(UUID modelId, UUID artifactId) throws ModelStoreException;
+
   void deleteArtifact(UUID modelId, UUID artifactId) throws ModelStoreException;
+
+  // Exact counts with breakdowns, computed by scanning all models and artifacts
+  CatalogStatistics computeStatistics() throws ModelStoreException;
+
+  // Total counts only, read from collection metadata without scanning
+  CatalogStatistics estimateStatistics() throws ModelStoreException;
 }
@@ -0,0 +1,23 @@
+/**
+ * Copyright (c) 2016 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.trustedanalytics.modelcatalog.storage.db;
+
+// Thrown when a store call is refused rather than failed, because too many are waiting
+public class ModelStoreOverloadedException extends ModelStoreException {
+  private static final long serialVersionUID = 2816472340512396187L;
+
+  public ModelStoreOverloadedException(String message, Throwable throwable) {
+    super(message, throwable);
+  }
+}
@@ -0,0 +1,75 @@
+/**
+ * Copyright (c) 2016 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.trustedanalytics.modelcatalog.storage.db;
+
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+public class MongoCommandLatencyListener implements CommandListener {
+
+  // Routed separately from the application log, so slow commands can be kept apart
+  static final String SLOW_QUERY_LOG = "org.trustedanalytics.modelcatalog.slowqueries";
+
+  private static final Logger SLOW_QUERY_LOGGER = LoggerFactory.getLogger(SLOW_QUERY_LOG);
+  private static final int MAX_LOGGED_COMMAND_LENGTH = 1000;
+
+  private final MongoMetrics mongoMetrics;
+  private final long slowQueryThresholdMs;
+  private final ConcurrentMap<Integer, String> runningCommands = new ConcurrentHashMap<>();
+
+  public MongoCommandLatencyListener(MongoMetrics mongoMetrics, long slowQueryThresholdMs) {
+    this.mongoMetrics = mongoMetrics;
+    this.slowQueryThresholdMs = slowQueryThresholdMs;
+  }
+
+  @Override
+  public void commandStarted(CommandStartedEvent event) {
+    // Kept until the command completes, only to describe it in the slow query log
+    runningCommands.put(event.getRequestId(), event.getDatabaseName() + " "
+            + StringUtils.abbreviate(event.getCommand().toJson(), MAX_LOGGED_COMMAND_LENGTH));
+  }
+
+  @Override
+  public void commandSucceeded(CommandSucceededEvent event) {
+    complete(event.getRequestId(), event.getCommandName(),
+            event.getElapsedTime(TimeUnit.MICROSECONDS), "succeeded");
+  }
+
+  @Override
+  public void commandFailed(CommandFailedEvent event) {
+    mongoMetrics.recordFailedCommand();
+    complete(event.getRequestId(), event.getCommandName(),
+            event.getElapsedTime(TimeUnit.MICROSECONDS), "failed");
+  }
+
+  private void complete(int requestId, String commandName, long elapsedMicros, String outcome) {
+    String command = runningCommands.remove(requestId);
+    mongoMetrics.recordCommand(commandName, elapsedMicros, TimeUnit.MICROSECONDS);
+    if (TimeUnit.MICROSECONDS.toMillis(elapsedMicros) >= slowQueryThresholdMs) {
+      mongoMetrics.recordSlowCommand();
+      SLOW_QUERY_LOGGER.warn("Command {} {} in {} ms: {}", commandName, outcome,
+              TimeUnit.MICROSECONDS.toMillis(elapsedMicros), command);
+    }
+  }
+
+}
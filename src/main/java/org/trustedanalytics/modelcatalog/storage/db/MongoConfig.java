@@ -15,8 +15,11 @@ package org.trustedanalytics.modelcatalog.storage.db;
 
 import com.mongodb.Mongo;
 import com.mongodb.MongoClient;
+import com.mongodb.MongoClientOptions;
+import com.mongodb.MongoClientURI;
 import com.mongodb.MongoCredential;
 import com.mongodb.ServerAddress;
+import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -24,15 +27,20 @@ import org.springframework.context.annotation.Profile;
 
 import java.net.UnknownHostException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 @Configuration
 @Profile("default")
+@ConditionalOnMongoStore
 public class MongoConfig extends AbstractMongoConfigurationWithInstantConverters {
 
   @Autowired
   private MongoProperties mongoProperties;
 
+  @Autowired
+  private MongoMetrics mongoMetrics;
+
   @Override
   protected String getDatabaseName() {
     return mongoProperties.getDbName();
@@ -41,8 +49,11 @@ public class MongoConfig extends AbstractMongoConfigurationWithInstantConverters
   @Bean
   @Override
   public Mongo mongo() throws UnknownHostException {
-    ServerAddress serverAddress = new ServerAddress(mongoProperties.getServerName(),
-            mongoProperties.getServerPort());
+    MongoClientOptions.Builder options = mongoClientOptions();
+    if (StringUtils.isNotBlank(mongoProperties.getUri())) {
+      return new MongoClient(new MongoClientURI(mongoProperties.getUri(), options));
+    }
+
     List<MongoCredential> credentialList = new ArrayList<>();
 
     String user = mongoProperties.getUser();
@@ -51,7 +62,42 @@ public class MongoConfig extends AbstractMongoConfigurationWithInstantConverters
               user, mongoProperties.getDbName(), mongoProperties.getPassword().toCharArray()));
     }
 
-    return new MongoClient(serverAddress, credentialList);
+    if (StringUtils.isBlank(mongoProperties.getSeeds())
+            && StringUtils.isBlank(mongoProperties.getReplicaSet())) {
+      ServerAddress serverAddress = new ServerAddress(mongoProperties.getServerName(),
+              mongoProperties.getServerPort());
+      return new MongoClient(serverAddress, credentialList, options.build());
+    }
+    if (StringUtils.isNotBlank(mongoProperties.getReplicaSet())) {
+      options.requiredReplicaSetName(mongoProperties.getReplicaSet());
+    }
+    return new MongoClient(seedList(), credentialList, options.build());
+  }
+
+  private List<ServerAddress> seedList() {
+    if (StringUtils.isBlank(mongoProperties.getSeeds())) {
+      return Collections.singletonList(new ServerAddress(mongoProperties.getServerName(),
+              mongoProperties.getServerPort()));
+    }
+    List<ServerAddress> seeds = new ArrayList<>();
+    for (String seed : StringUtils.split(mongoProperties.getSeeds(), ',')) {
+      seeds.add(new ServerAddress(seed.trim()));
+    }
+    return seeds;
+  }
+
+  private MongoClientOptions.Builder mongoClientOptions() {
+    return MongoClientOptions.builder()
+            .minConnectionsPerHost(mongoProperties.getMinConnectionsPerHost())
+            .connectionsPerHost(mongoProperties.getConnectionsPerHost())
+            .threadsAllowedToBlockForConnectionMultiplier(
+                    mongoProperties.getThreadsAllowedToBlockForConnectionMultiplier())
+            .maxWaitTime(mongoProperties.getMaxWaitTime())
+            .connectTimeout(mongoProperties.getConnectTimeout())
+            .socketTimeout(mongoProperties.getSocketTimeout())
+            .addCommandListener(new MongoCommandLatencyListener(
+                    mongoMetrics, mongoProperties.getSlowQueryThresholdMs()))
+            .addConnectionPoolListener(new MongoPoolListener(mongoMetrics));
   }
 
 }
\ No newline at end of file
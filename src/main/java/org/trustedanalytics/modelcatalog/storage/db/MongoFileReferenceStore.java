@@ -0,0 +1,141 @@
+/**
+ * Copyright (c) 2016 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.trustedanalytics.modelcatalog.storage.db;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Repository;
+
+import java.util.Date;
+
+// Counts and claims are changed atomically in the database, so that instances sharing it agree
+// on them. A claim older than CLAIM_TIMEOUT_MS is taken to be left by an instance that stopped
+// while deleting, and is taken over by the next reference added.
+@Repository
+@ConditionalOnMongoStore
+public class MongoFileReferenceStore implements FileReferenceStore {
+
+  static final long CLAIM_TIMEOUT_MS = 60000;
+  private static final long MAX_WAIT_MS = 10000;
+  private static final long FIRST_PAUSE_MS = 10;
+  private static final long MAX_PAUSE_MS = 500;
+
+  private static final String ID = "_id";
+  private static final String COUNT = "count";
+  private static final String CLAIMED_ON = "claimedOn";
+
+  private final MongoWriteRouter writeRouter;
+
+  @Autowired
+  public MongoFileReferenceStore(MongoWriteRouter writeRouter) {
+    this.writeRouter = writeRouter;
+  }
+
+  @Override
+  public long addReference(String location) throws ModelStoreException {
+    long deadline = System.currentTimeMillis() + MAX_WAIT_MS;
+    long pause = FIRST_PAUSE_MS;
+    while (true) {
+      FileReference reference;
+      try {
+        // References follow the write concern of the artifact records they count
+        reference = writeRouter.write(MongoModelStore.ADD_ARTIFACT,
+                operations -> addUnclaimed(operations, location));
+      } catch (Exception e) {
+        throw new ModelStoreException("Unable to add file reference.", e);
+      }
+      if (reference != null) {
+        return reference.getCount();
+      }
+      if (System.currentTimeMillis() > deadline) {
+        throw new ModelStoreException("File is still being deleted: " + location);
+      }
+      pause(pause);
+      pause = Math.min(pause * 2, MAX_PAUSE_MS);
+    }
+  }
+
+  @Override
+  public boolean removeReference(String location) throws ModelStoreException {
+    try {
+      return writeRouter.write(MongoModelStore.DELETE_ARTIFACT, operations -> {
+        FileReference reference = operations.findAndModify(
+                unclaimed(location).addCriteria(where(COUNT).gt(0)),
+                new Update().inc(COUNT, -1),
+                FindAndModifyOptions.options().returnNew(true), FileReference.class);
+        if (reference != null && reference.getCount() > 0) {
+          return false;
+        }
+        // Only claimed while still unused, a concurrent addReference may have come first
+        try {
+          operations.findAndModify(unclaimed(location).addCriteria(where(COUNT).lte(0)),
+                  new Update().set(COUNT, 0).set(CLAIMED_ON, new Date()),
+                  FindAndModifyOptions.options().upsert(true).returnNew(true),
+                  FileReference.class);
+          return true;
+        } catch (DuplicateKeyException e) {
+          return false;
+        }
+      });
+    } catch (Exception e) {
+      throw new ModelStoreException("Unable to remove file reference.", e);
+    }
+  }
+
+  @Override
+  public void releaseLocation(String location) throws ModelStoreException {
+    try {
+      writeRouter.write(MongoModelStore.DELETE_ARTIFACT, operations ->
+              operations.remove(new Query(where(ID).is(location).and(CLAIMED_ON).exists(true)
+                      .and(COUNT).lte(0)), FileReference.class));
+    } catch (Exception e) {
+      throw new ModelStoreException("Unable to release file location.", e);
+    }
+  }
+
+  // Returns null while the location is claimed by another deletion
+  private static FileReference addUnclaimed(MongoOperations operations, String location) {
+    try {
+      return operations.findAndModify(unclaimed(location), new Update().inc(COUNT, 1),
+              FindAndModifyOptions.options().upsert(true).returnNew(true), FileReference.class);
+    } catch (DuplicateKeyException e) {
+      // The file is stored again by the caller, so an abandoned claim need not be finished
+      Date expired = new Date(System.currentTimeMillis() - CLAIM_TIMEOUT_MS);
+      return operations.findAndModify(
+              new Query(where(ID).is(location).and(CLAIMED_ON).lt(expired)),
+              new Update().set(COUNT, 1).unset(CLAIMED_ON),
+              FindAndModifyOptions.options().returnNew(true), FileReference.class);
+    }
+  }
+
+  private static Query unclaimed(String location) {
+    return new Query(where(ID).is(location).and(CLAIMED_ON).exists(false));
+  }
+
+  private static void pause(long millis) throws ModelStoreException {
+    try {
+      Thread.sleep(millis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new ModelStoreException("Interrupted waiting for file deletion.", e);
+    }
+  }
+
+}
@@ -0,0 +1,107 @@
+/**
+ * Copyright (c) 2016 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.trustedanalytics.modelcatalog.storage.db;
+
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+@Component
+public class MongoMetrics {
+
+  private final ConcurrentMap<String, LatencyHistogram> commandLatencies =
+          new ConcurrentHashMap<>();
+  private final ConcurrentMap<String, LatencyHistogram> writeLatencies = new ConcurrentHashMap<>();
+  private final LongAdder failedCommands = new LongAdder();
+  private final LongAdder slowCommands = new LongAdder();
+
+  private final LatencyHistogram checkoutWait = new LatencyHistogram();
+  private final AtomicInteger maxPoolSize = new AtomicInteger();
+  private final AtomicInteger checkedOutConnections = new AtomicInteger();
+  private final LongAccumulator peakCheckedOutConnections = new LongAccumulator(Math::max, 0);
+  private final AtomicInteger waitingThreads = new AtomicInteger();
+
+  public void recordCommand(String commandName, long elapsed, TimeUnit unit) {
+    commandLatencies.computeIfAbsent(commandName, name -> new LatencyHistogram())
+            .record(elapsed, unit);
+  }
+
+  public void recordWrite(String writeMode, long elapsed, TimeUnit unit) {
+    writeLatencies.computeIfAbsent(writeMode, mode -> new LatencyHistogram())
+            .record(elapsed, unit);
+  }
+
+  public void recordFailedCommand() {
+    failedCommands.increment();
+  }
+
+  public void recordSlowCommand() {
+    slowCommands.increment();
+  }
+
+  public void recordPoolOpened(int maxSize) {
+    maxPoolSize.set(maxSize);
+  }
+
+  public void recordWaitStarted() {
+    waitingThreads.incrementAndGet();
+  }
+
+  public void recordWaitFinished(long waited, TimeUnit unit) {
+    waitingThreads.decrementAndGet();
+    checkoutWait.record(waited, unit);
+  }
+
+  public void recordCheckedOut() {
+    peakCheckedOutConnections.accumulate(checkedOutConnections.incrementAndGet());
+  }
+
+  public void recordCheckedIn() {
+    checkedOutConnections.decrementAndGet();
+  }
+
+  public Map<String, Object> snapshot() {
+    Map<String, Object> commands = new TreeMap<>();
+    commandLatencies.forEach((name, histogram) -> commands.put(name, histogram.snapshot()));
+    Map<String, Object> writes = new TreeMap<>();
+    writeLatencies.forEach((mode, histogram) -> writes.put(mode, histogram.snapshot()));
+
+    Map<String, Object> pool = new LinkedHashMap<>();
+    int maxSize = maxPoolSize.get();
+    int checkedOut = checkedOutConnections.get();
+    pool.put("maxSize", maxSize);
+    pool.put("checkedOut", checkedOut);
+    pool.put("peakCheckedOut", peakCheckedOutConnections.get());
+    pool.put("saturation", maxSize == 0 ? 0.0 : (double) checkedOut / maxSize);
+    pool.put("waitingThreads", waitingThreads.get());
+    pool.put("checkoutWait", checkoutWait.snapshot());
+
+    Map<String, Object> snapshot = new LinkedHashMap<>();
+    snapshot.put("commands", commands);
+    snapshot.put("writes", writes);
+    snapshot.put("failedCommands", failedCommands.sum());
+    snapshot.put("slowCommands", slowCommands.sum());
+    snapshot.put("pool", pool);
+    return snapshot;
+  }
+
+}
@@ -13,40 +13,142 @@
  */
 package org.trustedanalytics.modelcatalog.storage.db;
 
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.group;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.newAggregation;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.sort;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.unwind;
 import static org.springframework.data.mongodb.core.query.Criteria.where;
 
 import org.trustedanalytics.modelcatalog.domain.Artifact;
+import org.trustedanalytics.modelcatalog.domain.CatalogStatistics;
 import org.trustedanalytics.modelcatalog.domain.Model;
+import org.trustedanalytics.modelcatalog.domain.ModelCursor;
+import org.trustedanalytics.modelcatalog.domain.ModelFilter;
+import org.trustedanalytics.modelcatalog.domain.ModelSort;
+import org.trustedanalytics.modelcatalog.domain.ModelView;
 
+import com.google.common.collect.Iterators;
 import com.mongodb.BasicDBObject;
+import com.mongodb.BulkWriteException;
+import com.mongodb.BulkWriteOperation;
+import com.mongodb.DBObject;
+import com.mongodb.WriteConcern;
 import com.mongodb.WriteResult;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
 import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.util.CloseableIterator;
 import org.springframework.stereotype.Repository;
 
+import java.util.Arrays;
 import java.util.Collection;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 @Repository
+@ConditionalOnMongoStore
 public class MongoModelStore implements ModelStore {
 
-  private static final String ID = "_id";
+  static final String ORG_ID = "orgId";
+  static final String MODIFIED_ON = "modifiedOn";
+  static final String ID = "_id";
+  static final String MODEL_ID = "modelId";
+  static final String ALGORITHM = "algorithm";
+  static final String CREATION_TOOL = "creationTool";
+  static final String ADDED_BY = "addedBy";
+  static final String ADDED_ON = "addedOn";
+  static final String ACTIONS = "actions";
+  static final String COUNT = "count";
+
+  // Operation names used to look up configured read preferences and write concerns
+  static final String STREAM_MODELS = "streamModels";
+  static final String STREAM_ALL_MODELS = "streamAllModels";
+  static final String LIST_MODELS = "listModels";
+  static final String RETRIEVE_MODEL = "retrieveModel";
+  static final String RETRIEVE_MODELS = "retrieveModels";
+  static final String RETRIEVE_ARTIFACT = "retrieveArtifact";
+  static final String ADD_MODEL = "addModel";
+  static final String ADD_MODELS = "addModels";
+  static final String UPDATE_MODEL = "updateModel";
+  static final String DELETE_MODEL = "deleteModel";
+  static final String DELETE_MODELS = "deleteModels";
+  static final String ADD_ARTIFACT = "addArtifact";
+  static final String DELETE_ARTIFACT = "deleteArtifact";
+  static final String COMPUTE_STATISTICS = "computeStatistics";
+  static final String ESTIMATE_STATISTICS = "estimateStatistics";
+
   private static final String ARTIFACTS = "artifacts";
+  // Models whose artifacts are looked up in a single query while streaming
+  private static final int STREAM_BATCH_SIZE = 100;
 
-  private final MongoOperations mongoOperations;
+  private final MongoReadRouter readRouter;
+  private final MongoWriteRouter writeRouter;
 
   @Autowired
-  public MongoModelStore(MongoOperations mongoOperations) {
-    this.mongoOperations = mongoOperations;
+  public MongoModelStore(MongoReadRouter readRouter, MongoWriteRouter writeRouter) {
+    this.readRouter = readRouter;
+    this.writeRouter = writeRouter;
+  }
+
+  @Override
+  public Stream<Model> streamModels(String orgId, ModelFilter filter, ModelSort sort,
+                                   ModelView view) throws ModelStoreException {
+    try {
+      Query query = new Query(matchModels(orgId, filter)).with(sortBy(sort));
+      applyView(query, view);
+      return stream(query, view, STREAM_MODELS);
+    } catch (Exception e) {
+      throw new ModelStoreException("Unable to list models.", e);
+    }
+  }
+
+  @Override
+  public Stream<Model> streamAllModels(ModelView view) throws ModelStoreException {
+    try {
+      Query query = new Query();
+      applyView(query, view);
+      return stream(query, view, STREAM_ALL_MODELS);
+    } catch (Exception e) {
+      throw new ModelStoreException("Unable to list models.", e);
+    }
   }
 
   @Override
-  public Collection<Model> listModels(String orgId) throws ModelStoreException {
+  public List<Model> listModels(String orgId, ModelFilter filter, ModelSort sort,
+                                ModelCursor after, int limit, ModelView view)
+          throws ModelStoreException {
     try {
-      return mongoOperations.findAll(Model.class);
+      Criteria criteria = matchModels(orgId, filter);
+      if (after != null) {
+        String sortKey = sort.getProperty();
+        long position = after.getSortKey().toEpochMilli();
+        criteria = criteria.orOperator(
+                beyond(where(sortKey), position, sort),
+                beyond(where(sortKey).is(position).and(ID), after.getId(), sort));
+      }
+      Query query = new Query(criteria)
+              .with(sortBy(sort))
+              .limit(limit);
+      applyView(query, view);
+      return withArtifacts(
+              readRouter.forRead(LIST_MODELS).find(query, Model.class), view, LIST_MODELS);
     } catch (Exception e) {
       throw new ModelStoreException("Unable to list models.", e);
     }
@@ -54,33 +156,95 @@ public class MongoModelStore implements ModelStore {
 
   @Override
   public Model retrieveModel(UUID modelId) throws ModelStoreException {
+    return retrieveModel(modelId, ModelView.FULL);
+  }
+
+  @Override
+  public Model retrieveModel(UUID modelId, ModelView view) throws ModelStoreException {
     try {
-      return mongoOperations.findOne(matchModel(modelId), Model.class);
+      Query query = matchModel(modelId);
+      applyView(query, view);
+      Model model = readRouter.forRead(RETRIEVE_MODEL).findOne(query, Model.class);
+      return withArtifacts(model, view, RETRIEVE_MODEL);
     } catch (Exception e) {
       throw new ModelStoreException("Unable to retrieve model.", e);
     }
   }
 
+  @Override
+  public List<Model> retrieveModels(Collection<UUID> modelIds) throws ModelStoreException {
+    try {
+      List<Model> models = readRouter.forRead(RETRIEVE_MODELS)
+              .find(new Query(where(ID).in(modelIds)), Model.class);
+      return withArtifacts(models, ModelView.FULL, RETRIEVE_MODELS);
+    } catch (Exception e) {
+      throw new ModelStoreException("Unable to retrieve models.", e);
+    }
+  }
+
   @Override
   public void addModel(Model model, String orgId) throws ModelStoreException {
     try {
-      mongoOperations.insert(model);
+      writeRouter.write(ADD_MODEL, operations -> {
+        operations.insert(model);
+        return model;
+      });
     } catch (Exception e) {
       throw new ModelStoreException("Unable to add model.", e);
     }
   }
 
   @Override
-  public void updateModel(UUID modelId, Map<String, Object> propertiesToUpdate)
+  public Set<UUID> addModels(List<Model> models) throws ModelStoreException {
+    if (models.isEmpty()) {
+      return Collections.emptySet();
+    }
+    try {
+      // The driver sends an unordered bulk in as few batches as the server allows, and a failed
+      // insert does not stop the remaining ones
+      WriteConcern writeConcern = writeRouter.writeConcern(ADD_MODELS);
+      return writeRouter.write(ADD_MODELS, operations -> operations.execute(Model.class,
+              collection -> {
+                BulkWriteOperation bulk = collection.initializeUnorderedBulkOperation();
+                for (Model model : models) {
+                  BasicDBObject document = new BasicDBObject();
+                  operations.getConverter().write(model, document);
+                  bulk.insert(document);
+                }
+                try {
+                  if (writeConcern == null) {
+                    bulk.execute();
+                  } else {
+                    bulk.execute(writeConcern);
+                  }
+                  return Collections.<UUID>emptySet();
+                } catch (BulkWriteException e) {
+                  if (e.getWriteConcernError() != null) {
+                    throw e;
+                  }
+                  return e.getWriteErrors().stream()
+                          .map(error -> models.get(error.getIndex()).getId())
+                          .collect(Collectors.toSet());
+                }
+              }));
+    } catch (Exception e) {
+      throw new ModelStoreException("Unable to add models.", e);
+    }
+  }
+
+  @Override
+  public Model updateModel(UUID modelId, Map<String, Object> propertiesToUpdate)
           throws ModelStoreException {
     try {
       Update updateStatement = new Update();
       for (Map.Entry<String, Object> property : propertiesToUpdate.entrySet()) {
         updateStatement.set(property.getKey(), property.getValue());
       }
-      WriteResult updateResult = mongoOperations.updateFirst(
-              new Query(where(ID).is(modelId)), updateStatement, Model.class);
-      verifyWriteResult(updateResult, "No record was updated.");
+      // Existence check, update and read-back in a single atomic round trip
+      Model model = writeRouter.write(UPDATE_MODEL, operations -> operations.findAndModify(
+              matchModel(modelId), updateStatement,
+              FindAndModifyOptions.options().returnNew(true), Model.class));
+      return withArtifacts(model, ModelView.FULL, RETRIEVE_MODEL);
     } catch (Exception e) {
       throw new ModelStoreException("Unable to update model.", e);
     }
@@ -89,39 +253,117 @@ public class MongoModelStore implements ModelStore {
   @Override
   public void deleteModel(UUID modelId) throws ModelStoreException {
     try {
-      WriteResult removeResult = mongoOperations.remove(matchModel(modelId), Model.class);
+      WriteResult removeResult = writeRouter.write(DELETE_MODEL,
+              operations -> operations.remove(matchModel(modelId), Model.class));
       verifyWriteResult(removeResult, "No model record was removed.");
+      writeRouter.write(DELETE_MODEL, operations -> operations.remove(
+              new Query(where(MODEL_ID).is(modelId)), ArtifactRecord.class));
     } catch (Exception e) {
       throw new ModelStoreException("Unable to delete model.", e);
     }
   }
 
+  @Override
+  public long deleteModels(Collection<UUID> modelIds) throws ModelStoreException {
+    try {
+      WriteResult removeResult = writeRouter.write(DELETE_MODELS,
+              operations -> operations.remove(new Query(where(ID).in(modelIds)), Model.class));
+      writeRouter.write(DELETE_MODELS, operations -> operations.remove(
+              new Query(where(MODEL_ID).in(modelIds)), ArtifactRecord.class));
+      return removeResult.getN();
+    } catch (Exception e) {
+      throw new ModelStoreException("Unable to delete models.", e);
+    }
+  }
+
   @Override
   public void addArtifact(UUID modelId, Artifact artifact) throws ModelStoreException {
     try {
-      WriteResult updateResult = mongoOperations.updateFirst(
-              matchModel(modelId),
-              new Update().addToSet(ARTIFACTS, artifact),
-              Model.class);
-      verifyWriteResult(updateResult, "No artifact was added.");
+      // A single small insert, however many artifacts the model already has. The model may be
+      // deleted between the check and the insert, after its artifacts were removed, so it is
+      // checked again and a record left without a model is taken back.
+      boolean added = writeRouter.write(ADD_ARTIFACT, operations -> {
+        if (operations.count(matchModel(modelId), Model.class) == 0) {
+          return false;
+        }
+        operations.insert(ArtifactRecord.of(modelId, artifact));
+        if (operations.count(matchModel(modelId), Model.class) == 0) {
+          operations.remove(matchArtifact(modelId, artifact.getId()), ArtifactRecord.class);
+          return false;
+        }
+        return true;
+      });
+      if (!added) {
+        throw new ModelStoreException("No artifact was added.");
+      }
     } catch (Exception e) {
       throw new ModelStoreException("Unable to add artifact.", e);
     }
   }
 
+  @Override
+  public Artifact retrieveArtifact(UUID modelId, UUID artifactId) throws ModelStoreException {
+    try {
+      ArtifactRecord artifact = readRouter.forRead(RETRIEVE_ARTIFACT)
+              .findOne(matchArtifact(modelId, artifactId), ArtifactRecord.class);
+      return artifact == null ? null : artifact.toArtifact();
+    } catch (Exception e) {
+      throw new ModelStoreException("Unable to retrieve artifact.", e);
+    }
+  }
+
   @Override
   public void deleteArtifact(UUID modelId, UUID artifactId) throws ModelStoreException {
     try {
-      WriteResult updateResult = mongoOperations.updateFirst(
-              matchModel(modelId),
-              new Update().pull(ARTIFACTS, new BasicDBObject(ID, artifactId)),
-              Model.class);
-      verifyWriteResult(updateResult, "No artifact record was removed.");
+      WriteResult removeResult = writeRouter.write(DELETE_ARTIFACT, operations ->
+              operations.remove(matchArtifact(modelId, artifactId), ArtifactRecord.class));
+      verifyWriteResult(removeResult, "No artifact record was removed.");
     } catch (Exception e) {
       throw new ModelStoreException("Unable to delete artifact.", e);
     }
   }
 
+  @Override
+  public CatalogStatistics computeStatistics() throws ModelStoreException {
+    try {
+      MongoOperations operations = readRouter.forRead(COMPUTE_STATISTICS);
+      Map<String, Long> modelsPerOrg =
+              countGroups(operations, Model.class, group(ORG_ID).count().as(COUNT));
+      Map<String, Long> artifactsPerAction = countGroups(operations, ArtifactRecord.class,
+              unwind(ACTIONS), group(ACTIONS).count().as(COUNT));
+      // Every model is counted, like in estimateStatistics, also those left out of modelsPerOrg
+      return CatalogStatistics.builder()
+              .models(operations.count(new Query(), Model.class))
+              .artifacts(operations.count(new Query(), ArtifactRecord.class))
+              .modelsPerOrg(modelsPerOrg)
+              .modelsPerAlgorithm(
+                      countGroups(operations, Model.class, group(ALGORITHM).count().as(COUNT)))
+              .artifactsPerAction(artifactsPerAction)
+              .computedOn(Instant.now())
+              .build();
+    } catch (Exception e) {
+      throw new ModelStoreException("Unable to compute statistics.", e);
+    }
+  }
+
+  @Override
+  public CatalogStatistics estimateStatistics() throws ModelStoreException {
+    try {
+      MongoOperations operations = readRouter.forRead(ESTIMATE_STATISTICS);
+      // A count without query is answered from collection metadata
+      return CatalogStatistics.builder()
+              .models(operations.getCollection(
+                      operations.getCollectionName(Model.class)).getCount())
+              .artifacts(operations.getCollection(
+                      operations.getCollectionName(ArtifactRecord.class)).getCount())
+              .estimated(true)
+              .computedOn(Instant.now())
+              .build();
+    } catch (Exception e) {
+      throw new ModelStoreException("Unable to estimate statistics.", e);
+    }
+  }
+
   private void verifyWriteResult(WriteResult writeResult, String message)
           throws ModelStoreException {
     if (writeResult.getN() <= 0) {
@@ -129,8 +371,108 @@ public class MongoModelStore implements ModelStore {
     }
   }
 
+  // Summaries leave out artifacts. Documents not migrated yet may still embed them.
+  private void applyView(Query query, ModelView view) {
+    if (view == ModelView.SUMMARY) {
+      query.fields().exclude(ARTIFACTS);
+    }
+  }
+
+  private Stream<Model> stream(Query query, ModelView view, String operation) {
+    CloseableIterator<Model> models = readRouter.forRead(operation).stream(query, Model.class);
+    Iterator<List<Model>> batches = Iterators.partition(models, STREAM_BATCH_SIZE);
+    return StreamSupport.stream(
+            Spliterators.spliteratorUnknownSize(batches, Spliterator.ORDERED), false)
+            .flatMap(batch -> withArtifacts(batch, view, operation).stream())
+            .onClose(models::close);
+  }
+
+  // Every filter, with either sort key, can be answered from one of the indexes created by
+  // MongoSchemaInitializer
+  private Criteria matchModels(String orgId, ModelFilter filter) {
+    Criteria criteria = where(ORG_ID).is(orgId);
+    if (filter.getAlgorithm() != null) {
+      criteria.and(ALGORITHM).is(filter.getAlgorithm());
+    }
+    if (filter.getCreationTool() != null) {
+      criteria.and(CREATION_TOOL).is(filter.getCreationTool());
+    }
+    if (filter.getAddedBy() != null) {
+      criteria.and(ADDED_BY).is(filter.getAddedBy());
+    }
+    matchRange(criteria, ADDED_ON, filter.getAddedAfter(), filter.getAddedBefore());
+    matchRange(criteria, MODIFIED_ON, filter.getModifiedAfter(), filter.getModifiedBefore());
+    return criteria;
+  }
+
+  private void matchRange(Criteria criteria, String key, Instant after, Instant before) {
+    if (after == null && before == null) {
+      return;
+    }
+    Criteria range = criteria.and(key);
+    if (after != null) {
+      range.gt(after.toEpochMilli());
+    }
+    if (before != null) {
+      range.lt(before.toEpochMilli());
+    }
+  }
+
+  private Criteria beyond(Criteria criteria, Object value, ModelSort sort) {
+    return sort.isAscending() ? criteria.gt(value) : criteria.lt(value);
+  }
+
+  private Sort sortBy(ModelSort sort) {
+    Sort.Direction direction = sort.isAscending() ? Sort.Direction.ASC : Sort.Direction.DESC;
+    return new Sort(direction, sort.getProperty(), ID);
+  }
+
+  private Model withArtifacts(Model model, ModelView view, String operation) {
+    if (model == null) {
+      return null;
+    }
+    return withArtifacts(Collections.singletonList(model), view, operation).get(0);
+  }
+
+  // Artifacts of all given models are fetched from their own collection in one query
+  private List<Model> withArtifacts(List<Model> models, ModelView view, String operation) {
+    if (view == ModelView.SUMMARY || models.isEmpty()) {
+      return models;
+    }
+    List<UUID> modelIds = models.stream().map(Model::getId).collect(Collectors.toList());
+    Map<UUID, Set<Artifact>> artifacts = readRouter.forRead(operation)
+            .find(new Query(where(MODEL_ID).in(modelIds)), ArtifactRecord.class).stream()
+            .collect(Collectors.groupingBy(ArtifactRecord::getModelId, Collectors.mapping(
+                    ArtifactRecord::toArtifact, Collectors.toCollection(LinkedHashSet::new))));
+    return models.stream()
+            .map(model -> model.withArtifacts(
+                    artifacts.getOrDefault(model.getId(), new LinkedHashSet<>())))
+            .collect(Collectors.toList());
+  }
+
+  // Runs a pipeline ending with a count per group and returns the counts, most frequent first.
+  // Documents without the grouped key are left out.
+  private Map<String, Long> countGroups(MongoOperations operations, Class<?> entityClass,
+                                        AggregationOperation... stages) {
+    AggregationOperation[] pipeline = Arrays.copyOf(stages, stages.length + 1);
+    pipeline[stages.length] = sort(Sort.Direction.DESC, COUNT);
+    Map<String, Long> counts = new LinkedHashMap<>();
+    operations.aggregate(newAggregation(pipeline), operations.getCollectionName(entityClass),
+            DBObject.class)
+            .forEach(result -> {
+              if (result.get(ID) != null) {
+                counts.put(result.get(ID).toString(), ((Number) result.get(COUNT)).longValue());
+              }
+            });
+    return counts;
+  }
+
   private Query matchModel(UUID modelId) {
     return new Query(where(ID).is(modelId));
   }
 
+  private Query matchArtifact(UUID modelId, UUID artifactId) {
+    return new Query(where(ID).is(artifactId).and(MODEL_ID).is(modelId));
+  }
+
 }
@@ -0,0 +1,65 @@
+/**
+ * Copyright (c) 2016 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.trustedanalytics.modelcatalog.storage.db;
+
+import com.mongodb.event.ConnectionCheckedInEvent;
+import com.mongodb.event.ConnectionCheckedOutEvent;
+import com.mongodb.event.ConnectionPoolListenerAdapter;
+import com.mongodb.event.ConnectionPoolOpenedEvent;
+import com.mongodb.event.ConnectionPoolWaitQueueEnteredEvent;
+import com.mongodb.event.ConnectionPoolWaitQueueExitedEvent;
+
+import java.util.concurrent.TimeUnit;
+
+public class MongoPoolListener extends ConnectionPoolListenerAdapter {
+
+  private final MongoMetrics mongoMetrics;
+  // The driver enters and exits the wait queue on the thread asking for a connection
+  private final ThreadLocal<Long> waitStart = new ThreadLocal<>();
+
+  public MongoPoolListener(MongoMetrics mongoMetrics) {
+    this.mongoMetrics = mongoMetrics;
+  }
+
+  @Override
+  public void connectionPoolOpened(ConnectionPoolOpenedEvent event) {
+    mongoMetrics.recordPoolOpened(event.getSettings().getMaxSize());
+  }
+
+  @Override
+  public void waitQueueEntered(ConnectionPoolWaitQueueEnteredEvent event) {
+    waitStart.set(System.nanoTime());
+    mongoMetrics.recordWaitStarted();
+  }
+
+  @Override
+  public void waitQueueExited(ConnectionPoolWaitQueueExitedEvent event) {
+    Long start = waitStart.get();
+    waitStart.remove();
+    if (start != null) {
+      mongoMetrics.recordWaitFinished(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+  }
+
+  @Override
+  public void connectionCheckedOut(ConnectionCheckedOutEvent event) {
+    mongoMetrics.recordCheckedOut();
+  }
+
+  @Override
+  public void connectionCheckedIn(ConnectionCheckedInEvent event) {
+    mongoMetrics.recordCheckedIn();
+  }
+
+}
@@ -19,6 +19,9 @@ import lombok.Setter;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
+import java.util.HashMap;
+import java.util.Map;
+
 @Component
 @ConfigurationProperties(MongoProperties.PREFIX)
 @Getter
@@ -27,10 +30,43 @@ public class MongoProperties {
 
   protected static final String PREFIX = "services.store";
 
+  // Connection string, takes precedence over seeds, serverName and serverPort
+  private String uri;
+  // Comma separated host[:port] list of replica set members
+  private String seeds;
+  private String replicaSet;
   private String serverName;
   private int serverPort;
   private String dbName;
   private String user;
   private String password;
+  private String migrationOrgId;
+  private boolean migrateArtifacts = true;
+
+  // Connection pool, defaults as in the driver
+  private int minConnectionsPerHost;
+  private int connectionsPerHost;
+  private int threadsAllowedToBlockForConnectionMultiplier;
+  private int maxWaitTime;
+  private int connectTimeout;
+  private int socketTimeout;
+
+  private long slowQueryThresholdMs;
+
+  // ModelStore operation name to read preference name, reads not listed go to the primary
+  private Map<String, String> readPreferences = new HashMap<>();
+  private long readYourWritesWindowMs;
+
+  // ModelStore operation name to write concern, writes not listed use the driver default
+  private Map<String, WriteConcernProperties> writeConcerns = new HashMap<>();
+
+  @Getter
+  @Setter
+  public static class WriteConcernProperties {
+    // Number of members or a tag set name such as "majority", blank for the driver default
+    private String w;
+    private boolean journal;
+    private int wtimeoutMs;
+  }
 
 }
@@ -0,0 +1,126 @@
+/**
+ * Copyright (c) 2016 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.trustedanalytics.modelcatalog.storage.db;
+
+import org.trustedanalytics.modelcatalog.security.UsernameExtractor;
+
+import com.mongodb.ReadPreference;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.MongoDbFactory;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Picks the MongoOperations to read with, according to the read preference configured for
+// the ModelStore operation. Callers who have just written read from the primary for a while,
+// so that they see their own writes regardless of replication lag. Writes are remembered by
+// each instance of the service alone, so a read balanced to another instance than the write may
+// still go to a secondary and miss it; deployments of several instances need sticky sessions
+// for that guarantee.
+@Component
+@ConditionalOnMongoStore
+public class MongoReadRouter {
+
+  private final MongoOperations primaryOperations;
+  private final Map<String, MongoOperations> readOperations = new HashMap<>();
+  private final UsernameExtractor usernameExtractor;
+  private final long readYourWritesWindowMs;
+  private final ConcurrentMap<String, Long> lastWrites = new ConcurrentHashMap<>();
+  private final AtomicLong nextPruneAt = new AtomicLong();
+
+  @Autowired
+  public MongoReadRouter(MongoOperations mongoOperations,
+                         MongoDbFactory mongoDbFactory,
+                         MongoConverter mongoConverter,
+                         MongoProperties mongoProperties,
+                         UsernameExtractor usernameExtractor) {
+    this.primaryOperations = mongoOperations;
+    this.usernameExtractor = usernameExtractor;
+    this.readYourWritesWindowMs = mongoProperties.getReadYourWritesWindowMs();
+
+    Map<ReadPreference, MongoOperations> operationsByPreference = new HashMap<>();
+    mongoProperties.getReadPreferences().forEach((operation, preferenceName) -> {
+      ReadPreference preference = ReadPreference.valueOf(preferenceName);
+      if (!ReadPreference.primary().equals(preference)) {
+        readOperations.put(operation, operationsByPreference.computeIfAbsent(preference, p -> {
+          MongoTemplate template = new MongoTemplate(mongoDbFactory, mongoConverter);
+          template.setReadPreference(p);
+          return template;
+        }));
+      }
+    });
+  }
+
+  public MongoOperations forRead(String operation) {
+    MongoOperations operations = readOperations.get(operation);
+    if (operations == null || hasRecentlyWritten()) {
+      return primaryOperations;
+    }
+    return operations;
+  }
+
+  public void recordWrite() {
+    String caller = obtainCaller();
+    if (caller != null) {
+      long now = System.currentTimeMillis();
+      lastWrites.put(caller, now);
+      pruneExpired(now);
+    }
+  }
+
+  // Number of callers whose writes are remembered, for tests
+  public int trackedCallers() {
+    return lastWrites.size();
+  }
+
+  // Callers who wrote and did not read afterwards would be remembered forever, so expired writes
+  // are dropped, at most once per window and by one writer at a time
+  private void pruneExpired(long now) {
+    long pruneAt = nextPruneAt.get();
+    if (now < pruneAt || !nextPruneAt.compareAndSet(pruneAt, now + readYourWritesWindowMs)) {
+      return;
+    }
+    lastWrites.entrySet().removeIf(write -> now - write.getValue() >= readYourWritesWindowMs);
+  }
+
+  private boolean hasRecentlyWritten() {
+    String caller = obtainCaller();
+    Long lastWrite = caller == null ? null : lastWrites.get(caller);
+    if (lastWrite == null) {
+      return false;
+    }
+    if (System.currentTimeMillis() - lastWrite < readYourWritesWindowMs) {
+      return true;
+    }
+    lastWrites.remove(caller, lastWrite);
+    return false;
+  }
+
+  private String obtainCaller() {
+    try {
+      return usernameExtractor.obtainUsername();
+    } catch (RuntimeException e) {
+      // No authenticated caller, e.g. outside of a request
+      return null;
+    }
+  }
+
+}
@@ -0,0 +1,203 @@
+/**
+ * Copyright (c) 2016 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.trustedanalytics.modelcatalog.storage.db;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+import org.trustedanalytics.modelcatalog.domain.Model;
+
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBCollection;
+import com.mongodb.DBCursor;
+import com.mongodb.DBObject;
+import com.mongodb.WriteResult;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.IndexOperations;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.PostConstruct;
+
+@Component
+@Profile("default")
+@ConditionalOnMongoStore
+public class MongoSchemaInitializer {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(MongoSchemaInitializer.class);
+
+  static final String ORG_ID_MODIFIED_ON_INDEX = "orgId_modifiedOn_id";
+  static final String ORG_ID_ADDED_ON_INDEX = "orgId_addedOn_id";
+  static final String ORG_ID_ALGORITHM_INDEX = "orgId_algorithm_modifiedOn_id";
+  static final String ORG_ID_CREATION_TOOL_INDEX = "orgId_creationTool_modifiedOn_id";
+  static final String ORG_ID_ADDED_BY_INDEX = "orgId_addedBy_modifiedOn_id";
+  static final String ORG_ID_ALGORITHM_ADDED_ON_INDEX = "orgId_algorithm_addedOn_id";
+  static final String ORG_ID_CREATION_TOOL_ADDED_ON_INDEX = "orgId_creationTool_addedOn_id";
+  static final String ORG_ID_ADDED_BY_ADDED_ON_INDEX = "orgId_addedBy_addedOn_id";
+  static final String MODEL_ID_INDEX = "modelId_id";
+
+  private static final String ARTIFACTS = "artifacts";
+
+  // One document per data migration, claimed by the instance running it and marked finished
+  private static final String MIGRATIONS = "schemaMigrations";
+  private static final String ARTIFACTS_MIGRATION = "embeddedArtifacts";
+  private static final String FINISHED = "finished";
+  private static final String CLAIMED_ON = "claimedOn";
+  // A claim that old is taken to be left by an instance stopped while migrating
+  private static final long MIGRATION_CLAIM_TIMEOUT_MS = TimeUnit.HOURS.toMillis(1);
+
+  private final MongoOperations mongoOperations;
+  private final MongoProperties mongoProperties;
+
+  @Autowired
+  public MongoSchemaInitializer(MongoOperations mongoOperations, MongoProperties mongoProperties) {
+    this.mongoOperations = mongoOperations;
+    this.mongoProperties = mongoProperties;
+  }
+
+  @PostConstruct
+  public void initialize() {
+    ensureIndexes();
+    backfillOrgIds();
+    if (mongoProperties.isMigrateArtifacts() && claimMigration(ARTIFACTS_MIGRATION)) {
+      migrateArtifacts();
+      finishMigration(ARTIFACTS_MIGRATION);
+    }
+  }
+
+  private void ensureIndexes() {
+    // Org-scoped model lists, sorted by either key in either direction, optionally narrowed down
+    // by one of the equality filters. Time range filters are served by the sort key part of these
+    // indexes.
+    IndexOperations models = mongoOperations.indexOps(Model.class);
+    models.ensureIndex(modelListIndex(ORG_ID_MODIFIED_ON_INDEX, MongoModelStore.MODIFIED_ON));
+    models.ensureIndex(modelListIndex(ORG_ID_ADDED_ON_INDEX, MongoModelStore.ADDED_ON));
+    models.ensureIndex(modelListIndex(ORG_ID_ALGORITHM_INDEX, MongoModelStore.MODIFIED_ON,
+            MongoModelStore.ALGORITHM));
+    models.ensureIndex(modelListIndex(ORG_ID_CREATION_TOOL_INDEX, MongoModelStore.MODIFIED_ON,
+            MongoModelStore.CREATION_TOOL));
+    models.ensureIndex(modelListIndex(ORG_ID_ADDED_BY_INDEX, MongoModelStore.MODIFIED_ON,
+            MongoModelStore.ADDED_BY));
+    models.ensureIndex(modelListIndex(ORG_ID_ALGORITHM_ADDED_ON_INDEX, MongoModelStore.ADDED_ON,
+            MongoModelStore.ALGORITHM));
+    models.ensureIndex(modelListIndex(ORG_ID_CREATION_TOOL_ADDED_ON_INDEX,
+            MongoModelStore.ADDED_ON, MongoModelStore.CREATION_TOOL));
+    models.ensureIndex(modelListIndex(ORG_ID_ADDED_BY_ADDED_ON_INDEX, MongoModelStore.ADDED_ON,
+            MongoModelStore.ADDED_BY));
+    mongoOperations.indexOps(ArtifactRecord.class).ensureIndex(new Index()
+            .on(MongoModelStore.MODEL_ID, Sort.Direction.ASC)
+            .on(MongoModelStore.ID, Sort.Direction.ASC)
+            .named(MODEL_ID_INDEX));
+  }
+
+  private static Index modelListIndex(String name, String sortKey, String... equalityKeys) {
+    Index index = new Index().on(MongoModelStore.ORG_ID, Sort.Direction.ASC);
+    for (String key : equalityKeys) {
+      index.on(key, Sort.Direction.ASC);
+    }
+    return index
+            .on(sortKey, Sort.Direction.DESC)
+            .on(MongoModelStore.ID, Sort.Direction.DESC)
+            .named(name);
+  }
+
+  // Models stored before orgId was persisted are invisible to org-scoped queries; they are
+  // assigned to the organization given in services.store.migrationOrgId, if set.
+  private void backfillOrgIds() {
+    Query modelsWithoutOrg = new Query(where(MongoModelStore.ORG_ID).exists(false));
+    String orgId = mongoProperties.getMigrationOrgId();
+    if (StringUtils.isBlank(orgId)) {
+      long count = mongoOperations.count(modelsWithoutOrg, Model.class);
+      if (count > 0) {
+        LOGGER.warn("Found {} models without organization id. Set services.store.migrationOrgId "
+                + "to assign them to an organization.", count);
+      }
+      return;
+    }
+    WriteResult result = mongoOperations.updateMulti(
+            modelsWithoutOrg, Update.update(MongoModelStore.ORG_ID, orgId), Model.class);
+    if (result.getN() > 0) {
+      LOGGER.info("Assigned {} models without organization id to organization {}.",
+              result.getN(), orgId);
+    }
+  }
+
+  // Instances starting together would otherwise migrate the same documents at once. A finished
+  // migration, or one being run by another instance, is skipped.
+  private boolean claimMigration(String name) {
+    if (mongoOperations.exists(
+            new Query(where(MongoModelStore.ID).is(name).and(FINISHED).is(true)), MIGRATIONS)) {
+      return false;
+    }
+    Date expired = new Date(System.currentTimeMillis() - MIGRATION_CLAIM_TIMEOUT_MS);
+    try {
+      // Inserted when missing; a fresh claim or a finished migration makes the insert fail
+      mongoOperations.upsert(
+              new Query(where(MongoModelStore.ID).is(name).and(FINISHED).is(false)
+                      .and(CLAIMED_ON).lt(expired)),
+              new Update().set(FINISHED, false).set(CLAIMED_ON, new Date()), MIGRATIONS);
+      return true;
+    } catch (DuplicateKeyException e) {
+      LOGGER.info("Migration {} is run by another instance.", name);
+      return false;
+    }
+  }
+
+  private void finishMigration(String name) {
+    mongoOperations.updateFirst(new Query(where(MongoModelStore.ID).is(name)),
+            new Update().set(FINISHED, true).unset(CLAIMED_ON), MIGRATIONS);
+  }
+
+  // Artifacts used to be embedded in model documents. Each one is copied to the artifacts
+  // collection before it is unset on the model, so an interrupted run is simply repeated.
+  private void migrateArtifacts() {
+    DBCollection artifacts = mongoOperations.getCollection(ArtifactRecord.COLLECTION);
+    int migrated = mongoOperations.execute(Model.class, models -> {
+      int count = 0;
+      DBObject legacy = new BasicDBObject(ARTIFACTS, new BasicDBObject("$exists", true));
+      try (DBCursor cursor = models.find(legacy, new BasicDBObject(ARTIFACTS, 1))) {
+        for (DBObject model : cursor) {
+          Object modelId = model.get(MongoModelStore.ID);
+          Object embedded = model.get(ARTIFACTS);
+          if (embedded instanceof Iterable) {
+            for (Object artifact : (Iterable<?>) embedded) {
+              DBObject record = new BasicDBObject(((DBObject) artifact).toMap());
+              record.put(MongoModelStore.MODEL_ID, modelId);
+              artifacts.save(record);
+            }
+          }
+          models.update(new BasicDBObject(MongoModelStore.ID, modelId),
+                  new BasicDBObject("$unset", new BasicDBObject(ARTIFACTS, "")));
+          count++;
+        }
+      }
+      return count;
+    });
+    if (migrated > 0) {
+      LOGGER.info("Moved embedded artifacts of {} models to the {} collection.",
+              migrated, ArtifactRecord.COLLECTION);
+    }
+  }
+
+}
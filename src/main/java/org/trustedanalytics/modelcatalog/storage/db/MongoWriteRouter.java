@@ -0,0 +1,109 @@
+/**
+ * Copyright (c) 2016 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.trustedanalytics.modelcatalog.storage.db;
+
+import com.mongodb.WriteConcern;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.MongoDbFactory;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+// Runs writes with the write concern configured for the ModelStore operation and records
+// their latency per write concern mode.
+@Component
+@ConditionalOnMongoStore
+public class MongoWriteRouter {
+
+  static final String DEFAULT_MODE = "default";
+
+  private final WriteMode defaultMode;
+  private final Map<String, WriteMode> writeModes = new HashMap<>();
+  private final MongoReadRouter readRouter;
+  private final MongoMetrics mongoMetrics;
+
+  @Autowired
+  public MongoWriteRouter(MongoOperations mongoOperations,
+                          MongoDbFactory mongoDbFactory,
+                          MongoConverter mongoConverter,
+                          MongoProperties mongoProperties,
+                          MongoReadRouter readRouter,
+                          MongoMetrics mongoMetrics) {
+    this.defaultMode = new WriteMode(DEFAULT_MODE, null, mongoOperations);
+    this.readRouter = readRouter;
+    this.mongoMetrics = mongoMetrics;
+
+    Map<WriteConcern, WriteMode> modesByConcern = new HashMap<>();
+    mongoProperties.getWriteConcerns().forEach((operation, properties) -> {
+      if (StringUtils.isNotBlank(properties.getW())) {
+        writeModes.put(operation, modesByConcern.computeIfAbsent(toWriteConcern(properties),
+                concern -> {
+                  MongoTemplate template = new MongoTemplate(mongoDbFactory, mongoConverter);
+                  template.setWriteConcern(concern);
+                  return new WriteMode(modeName(properties), concern, template);
+                }));
+      }
+    });
+  }
+
+  public <T> T write(String operation, Function<MongoOperations, T> action) {
+    WriteMode mode = writeModes.getOrDefault(operation, defaultMode);
+    long start = System.nanoTime();
+    try {
+      T result = action.apply(mode.operations);
+      readRouter.recordWrite();
+      return result;
+    } finally {
+      mongoMetrics.recordWrite(mode.name, System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+  }
+
+  // Write concern for writes done outside of MongoOperations (e.g. bulks), null for the default
+  public WriteConcern writeConcern(String operation) {
+    return writeModes.getOrDefault(operation, defaultMode).concern;
+  }
+
+  private static WriteConcern toWriteConcern(MongoProperties.WriteConcernProperties properties) {
+    String w = properties.getW().trim();
+    if (StringUtils.isNumeric(w)) {
+      return new WriteConcern(
+              Integer.parseInt(w), properties.getWtimeoutMs(), false, properties.isJournal());
+    }
+    return new WriteConcern(w, properties.getWtimeoutMs(), false, properties.isJournal());
+  }
+
+  private static String modeName(MongoProperties.WriteConcernProperties properties) {
+    return "w=" + properties.getW().trim() + (properties.isJournal() ? ",journal" : "");
+  }
+
+  private static final class WriteMode {
+    private final String name;
+    private final WriteConcern concern;
+    private final MongoOperations operations;
+
+    private WriteMode(String name, WriteConcern concern, MongoOperations operations) {
+      this.name = name;
+      this.concern = concern;
+      this.operations = operations;
+    }
+  }
+
+}
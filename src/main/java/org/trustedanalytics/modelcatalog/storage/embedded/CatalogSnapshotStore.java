@@ -0,0 +1,222 @@
+/**
+ * Copyright (c) 2016 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.trustedanalytics.modelcatalog.storage.embedded;
+
+import org.trustedanalytics.modelcatalog.domain.Artifact;
+import org.trustedanalytics.modelcatalog.domain.CatalogSnapshotInfo;
+import org.trustedanalytics.modelcatalog.domain.CatalogStatistics;
+import org.trustedanalytics.modelcatalog.domain.Model;
+import org.trustedanalytics.modelcatalog.domain.ModelCursor;
+import org.trustedanalytics.modelcatalog.domain.ModelFilter;
+import org.trustedanalytics.modelcatalog.domain.ModelSort;
+import org.trustedanalytics.modelcatalog.domain.ModelView;
+import org.trustedanalytics.modelcatalog.storage.db.ModelStore;
+import org.trustedanalytics.modelcatalog.storage.db.ModelStoreException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.annotation.PostConstruct;
+
+// Read-only ModelStore serving a catalog snapshot exported by CatalogSnapshotWriter, selected
+// with services.store.type=snapshot. The file is memory-mapped rather than loaded, so startup
+// does not depend on the size of the catalog. A reload maps the file anew and swaps it in at
+// once; reads in progress finish on the snapshot they started with. A new snapshot has to be
+// renamed over the file, since a mapped file that is truncated in place fails its readers.
+@Repository
+@ConditionalOnProperty(prefix = "services.store", name = "type", havingValue = "snapshot")
+public class CatalogSnapshotStore implements ModelStore {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(CatalogSnapshotStore.class);
+
+  private final Path path;
+  private final int chunkSize;
+  private volatile MappedCatalogSnapshot snapshot;
+
+  @Autowired
+  public CatalogSnapshotStore(@Value("${services.store.snapshot.path}") String path) {
+    this(path, MappedCatalogSnapshot.CHUNK_SIZE);
+  }
+
+  // Maps the file in chunks of the given size; small ones exercise reads across chunk boundaries
+  public CatalogSnapshotStore(String path, int chunkSize) {
+    this.path = Paths.get(path);
+    this.chunkSize = chunkSize;
+  }
+
+  @PostConstruct
+  public void open() throws IOException {
+    reload();
+  }
+
+  // Keeps serving the previous snapshot when the file cannot be mapped
+  public synchronized CatalogSnapshotInfo reload() throws IOException {
+    snapshot = MappedCatalogSnapshot.open(path, chunkSize);
+    CatalogSnapshotInfo info = snapshot.getInfo();
+    LOGGER.info("Serving catalog snapshot of {} models created on {}.",
+        info.getModels(), info.getCreatedOn());
+    return info;
+  }
+
+  @Override
+  public Stream<Model> streamModels(String orgId, ModelFilter filter, ModelSort sort,
+                                    ModelView view) {
+    return snapshot.ordered(orgId, sort, null)
+        .filter(ModelQueries.matches(filter))
+        .map(model -> ModelQueries.inView(model, view));
+  }
+
+  @Override
+  public Stream<Model> streamAllModels(ModelView view) {
+    return snapshot.all().map(model -> ModelQueries.inView(model, view));
+  }
+
+  @Override
+  public List<Model> listModels(String orgId, ModelFilter filter, ModelSort sort,
+                                ModelCursor after, int limit, ModelView view)
+      throws ModelStoreException {
+    try {
+      return snapshot.ordered(orgId, sort, after)
+          .filter(ModelQueries.matches(filter))
+          .limit(limit)
+          .map(model -> ModelQueries.inView(model, view))
+          .collect(Collectors.toList());
+    } catch (UncheckedIOException e) {
+      throw new ModelStoreException("Unable to list models.", e.getCause());
+    }
+  }
+
+  @Override
+  public Model retrieveModel(UUID modelId) throws ModelStoreException {
+    return retrieveModel(modelId, ModelView.FULL);
+  }
+
+  @Override
+  public Model retrieveModel(UUID modelId, ModelView view) throws ModelStoreException {
+    Model model = find(modelId);
+    return model == null ? null : ModelQueries.inView(model, view);
+  }
+
+  @Override
+  public List<Model> retrieveModels(Collection<UUID> modelIds) throws ModelStoreException {
+    MappedCatalogSnapshot current = snapshot;
+    try {
+      return modelIds.stream()
+          .map(current::find)
+          .filter(Objects::nonNull)
+          .collect(Collectors.toList());
+    } catch (UncheckedIOException e) {
+      throw new ModelStoreException("Unable to retrieve models.", e.getCause());
+    }
+  }
+
+  @Override
+  public void addModel(Model model, String orgId) throws ModelStoreException {
+    throw readOnly();
+  }
+
+  @Override
+  public Set<UUID> addModels(List<Model> models) throws ModelStoreException {
+    throw readOnly();
+  }
+
+  @Override
+  public Model updateModel(UUID modelId, Map<String, Object> propertiesToUpdate)
+      throws ModelStoreException {
+    throw readOnly();
+  }
+
+  @Override
+  public void deleteModel(UUID modelId) throws ModelStoreException {
+    throw readOnly();
+  }
+
+  @Override
+  public long deleteModels(Collection<UUID> modelIds) throws ModelStoreException {
+    throw readOnly();
+  }
+
+  @Override
+  public void addArtifact(UUID modelId, Artifact artifact) throws ModelStoreException {
+    throw readOnly();
+  }
+
+  @Override
+  public Artifact retrieveArtifact(UUID modelId, UUID artifactId) throws ModelStoreException {
+    Model model = find(modelId);
+    if (model == null || model.getArtifacts() == null) {
+      return null;
+    }
+    return model.getArtifacts().stream()
+        .filter(artifact -> artifact.getId().equals(artifactId))
+        .findFirst()
+        .orElse(null);
+  }
+
+  @Override
+  public void deleteArtifact(UUID modelId, UUID artifactId) throws ModelStoreException {
+    throw readOnly();
+  }
+
+  @Override
+  public CatalogStatistics computeStatistics() throws ModelStoreException {
+    try (Stream<Model> models = snapshot.all()) {
+      return ModelQueries.statistics(models::iterator);
+    } catch (UncheckedIOException e) {
+      throw new ModelStoreException("Unable to compute statistics.", e.getCause());
+    }
+  }
+
+  // Counted when the snapshot was written
+  @Override
+  public CatalogStatistics estimateStatistics() {
+    CatalogSnapshotInfo info = snapshot.getInfo();
+    return CatalogStatistics.builder()
+        .models(info.getModels())
+        .artifacts(info.getArtifacts())
+        .estimated(true)
+        .computedOn(Instant.now())
+        .build();
+  }
+
+  private Model find(UUID modelId) throws ModelStoreException {
+    try {
+      return snapshot.find(modelId);
+    } catch (UncheckedIOException e) {
+      throw new ModelStoreException("Unable to retrieve model.", e.getCause());
+    }
+  }
+
+  private static ModelStoreException readOnly() {
+    return new ModelStoreException("Catalog is served read-only from a snapshot.");
+  }
+
+}
@@ -0,0 +1,190 @@
+/**
+ * Copyright (c) 2016 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.trustedanalytics.modelcatalog.storage.embedded;
+
+import static org.trustedanalytics.modelcatalog.storage.embedded.MappedCatalogSnapshot.HEADER_SIZE;
+import static org.trustedanalytics.modelcatalog.storage.embedded.MappedCatalogSnapshot.ID_ENTRY_SIZE;
+import static org.trustedanalytics.modelcatalog.storage.embedded.MappedCatalogSnapshot.ORDERINGS;
+import static org.trustedanalytics.modelcatalog.storage.embedded.MappedCatalogSnapshot.ORDERING_ENTRY_SIZE;
+
+import org.trustedanalytics.modelcatalog.domain.CatalogSnapshotInfo;
+import org.trustedanalytics.modelcatalog.domain.Model;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+// Exports models into a catalog snapshot file, as described in MappedCatalogSnapshot. The file
+// is written next to the target, under a name of its own so that concurrent exports do not mix,
+// and renamed over it once complete, so a snapshot being replaced stays readable to whoever
+// mapped it. The models themselves are not held in memory meanwhile, only an entry per model
+// with its id, sort keys and position, and each organization's entries are sorted in place for
+// one ordering after another.
+public final class CatalogSnapshotWriter {
+
+  private static final int BUFFER_SIZE = 64 * 1024;
+  private static final Comparator<Entry> BY_ID = (entry, other) -> MappedCatalogSnapshot
+      .compareIds(entry.id.getMostSignificantBits(), entry.id.getLeastSignificantBits(),
+          other.id.getMostSignificantBits(), other.id.getLeastSignificantBits());
+
+  private CatalogSnapshotWriter() {
+  }
+
+  public static CatalogSnapshotInfo write(Path target, Stream<Model> models) throws IOException {
+    Path absolute = target.toAbsolutePath();
+    Path temporary = Files.createTempFile(absolute.getParent(), absolute.getFileName() + ".",
+        ".tmp");
+    try {
+      CatalogSnapshotInfo info = writeFile(temporary, models.iterator());
+      Files.move(temporary, absolute, StandardCopyOption.ATOMIC_MOVE,
+          StandardCopyOption.REPLACE_EXISTING);
+      return info;
+    } catch (IOException | RuntimeException e) {
+      Files.deleteIfExists(temporary);
+      throw e;
+    }
+  }
+
+  private static CatalogSnapshotInfo writeFile(Path path, Iterator<Model> models)
+      throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.TRUNCATE_EXISTING,
+        StandardOpenOption.WRITE)) {
+      DataOutputStream out = new DataOutputStream(
+          new BufferedOutputStream(Channels.newOutputStream(channel), BUFFER_SIZE));
+      // Header is filled in last, once the offsets are known
+      out.write(new byte[HEADER_SIZE]);
+      long position = HEADER_SIZE;
+
+      List<Entry> entries = new ArrayList<>();
+      Map<String, List<Entry>> orgs = new TreeMap<>();
+      long artifacts = 0;
+      while (models.hasNext()) {
+        Model model = models.next();
+        byte[] record = ModelRecords.encodeModel(model);
+        Entry entry = new Entry(model, position);
+        entries.add(entry);
+        if (model.getOrgId() != null) {
+          orgs.computeIfAbsent(model.getOrgId(), orgId -> new ArrayList<>()).add(entry);
+        }
+        if (model.getArtifacts() != null) {
+          artifacts += model.getArtifacts().size();
+        }
+        out.writeInt(record.length);
+        out.write(record);
+        position += Integer.BYTES + record.length;
+      }
+
+      Map<String, long[]> orderings = new TreeMap<>();
+      for (Map.Entry<String, List<Entry>> org : orgs.entrySet()) {
+        long[] offsets = new long[ORDERINGS.size()];
+        for (int i = 0; i < offsets.length; i++) {
+          offsets[i] = position;
+          List<Entry> ordered = org.getValue();
+          ordered.sort(byOrdering(i));
+          for (Entry entry : ordered) {
+            out.writeLong(entry.sortKeys[i]);
+            writeEntry(out, entry);
+          }
+          position += (long) ordered.size() * ORDERING_ENTRY_SIZE;
+        }
+        orderings.put(org.getKey(), offsets);
+      }
+
+      long idIndex = position;
+      entries.sort(BY_ID);
+      for (Entry entry : entries) {
+        writeEntry(out, entry);
+      }
+      position += (long) entries.size() * ID_ENTRY_SIZE;
+
+      long orgTable = position;
+      for (Map.Entry<String, List<Entry>> org : orgs.entrySet()) {
+        byte[] orgId = org.getKey().getBytes(StandardCharsets.UTF_8);
+        out.writeInt(orgId.length);
+        out.write(orgId);
+        out.writeInt(org.getValue().size());
+        for (long offset : orderings.get(org.getKey())) {
+          out.writeLong(offset);
+        }
+      }
+      out.flush();
+
+      CatalogSnapshotInfo info = CatalogSnapshotInfo.builder()
+          .models(entries.size())
+          .artifacts(artifacts)
+          .createdOn(Instant.ofEpochMilli(System.currentTimeMillis()))
+          .build();
+      ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE)
+          .putInt(MappedCatalogSnapshot.MAGIC)
+          .putInt(MappedCatalogSnapshot.VERSION)
+          .putLong(info.getCreatedOn().toEpochMilli())
+          .putInt(info.getModels())
+          .putInt(orgs.size())
+          .putLong(info.getArtifacts())
+          .putLong(idIndex)
+          .putLong(orgTable);
+      header.flip();
+      long headerPosition = 0;
+      while (header.hasRemaining()) {
+        headerPosition += channel.write(header, headerPosition);
+      }
+      channel.force(true);
+      return info;
+    }
+  }
+
+  private static void writeEntry(DataOutputStream out, Entry entry) throws IOException {
+    out.writeLong(entry.id.getMostSignificantBits());
+    out.writeLong(entry.id.getLeastSignificantBits());
+    out.writeLong(entry.offset);
+  }
+
+  private static Comparator<Entry> byOrdering(int ordering) {
+    return Comparator.<Entry>comparingLong(entry -> entry.sortKeys[ordering]).thenComparing(BY_ID);
+  }
+
+  // Where a model was written, with what it is looked up and ordered by
+  private static final class Entry {
+    private final UUID id;
+    private final long[] sortKeys;
+    private final long offset;
+
+    private Entry(Model model, long offset) {
+      this.id = model.getId();
+      this.sortKeys = new long[ORDERINGS.size()];
+      for (int i = 0; i < sortKeys.length; i++) {
+        sortKeys[i] = MappedCatalogSnapshot.sortKeyOf(model, ORDERINGS.get(i));
+      }
+      this.offset = offset;
+    }
+  }
+
+}
@@ -0,0 +1,537 @@
+/**
+ * Copyright (c) 2016 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.trustedanalytics.modelcatalog.storage.embedded;
+
+import org.trustedanalytics.modelcatalog.domain.Artifact;
+import org.trustedanalytics.modelcatalog.domain.CatalogStatistics;
+import org.trustedanalytics.modelcatalog.domain.Model;
+import org.trustedanalytics.modelcatalog.domain.ModelCursor;
+import org.trustedanalytics.modelcatalog.domain.ModelFilter;
+import org.trustedanalytics.modelcatalog.domain.ModelSort;
+import org.trustedanalytics.modelcatalog.domain.ModelView;
+import org.trustedanalytics.modelcatalog.storage.db.ModelStore;
+import org.trustedanalytics.modelcatalog.storage.db.ModelStoreException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+// ModelStore for deployments without MongoDB, selected with services.store.type=embedded.
+// Models live in memory, ordered per organization for listing, so reads never touch the
+// disk. Every change is appended to a ModelLog before it is applied, and the log is compacted
+// into a snapshot in the background once it grows long. Writes are serialized, reads take
+// no locks and may see a write that is in progress partly applied, as with MongoDB.
+@Repository
+@ConditionalOnProperty(prefix = "services.store", name = "type", havingValue = "embedded")
+public class EmbeddedModelStore implements ModelStore {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(EmbeddedModelStore.class);
+
+  private final EmbeddedStoreProperties properties;
+  private final ModelLog log;
+  private final Lock writeLock = new ReentrantLock();
+  private final ConcurrentMap<UUID, Model> models = new ConcurrentHashMap<>();
+  private final ConcurrentMap<String, OrgModels> orgs = new ConcurrentHashMap<>();
+  private final AtomicLong artifactCount = new AtomicLong();
+  private final AtomicBoolean compacting = new AtomicBoolean();
+  private final ExecutorService compactionExecutor = Executors.newSingleThreadExecutor(
+      runnable -> {
+        Thread thread = new Thread(runnable, "embedded-model-store-compaction");
+        thread.setDaemon(true);
+        return thread;
+      });
+
+  @Autowired
+  public EmbeddedModelStore(EmbeddedStoreProperties properties) {
+    this.properties = properties;
+    this.log = new ModelLog(Paths.get(properties.getPath()), properties.isSyncWrites());
+  }
+
+  @PostConstruct
+  public void open() throws IOException {
+    long start = System.currentTimeMillis();
+    long replayed = log.open(new ModelRecords.Handler() {
+      @Override
+      public void put(Model model) {
+        apply(model);
+      }
+
+      @Override
+      public void delete(UUID modelId) {
+        unapply(modelId);
+      }
+    });
+    LOGGER.info("Replayed {} changes into {} models in {} ms.",
+        replayed, models.size(), System.currentTimeMillis() - start);
+    compactIfLogIsLong();
+  }
+
+  @PreDestroy
+  public void close() throws IOException, InterruptedException {
+    // A snapshot being written is finished rather than left for the next start to discard
+    compactionExecutor.shutdown();
+    compactionExecutor.awaitTermination(1, TimeUnit.MINUTES);
+    log.close();
+  }
+
+  @Override
+  public Stream<Model> streamModels(String orgId, ModelFilter filter, ModelSort sort,
+                                    ModelView view) {
+    return ordered(orgId, sort, null).values().stream()
+        .filter(ModelQueries.matches(filter))
+        .map(model -> ModelQueries.inView(model, view));
+  }
+
+  @Override
+  public Stream<Model> streamAllModels(ModelView view) {
+    return models.values().stream().map(model -> ModelQueries.inView(model, view));
+  }
+
+  @Override
+  public List<Model> listModels(String orgId, ModelFilter filter, ModelSort sort,
+                                ModelCursor after, int limit, ModelView view) {
+    return ordered(orgId, sort, after).values().stream()
+        .filter(ModelQueries.matches(filter))
+        .limit(limit)
+        .map(model -> ModelQueries.inView(model, view))
+        .collect(Collectors.toList());
+  }
+
+  @Override
+  public Model retrieveModel(UUID modelId) {
+    return retrieveModel(modelId, ModelView.FULL);
+  }
+
+  @Override
+  public Model retrieveModel(UUID modelId, ModelView view) {
+    Model model = models.get(modelId);
+    return model == null ? null : ModelQueries.inView(model, view);
+  }
+
+  @Override
+  public List<Model> retrieveModels(Collection<UUID> modelIds) {
+    return modelIds.stream()
+        .map(models::get)
+        .filter(Objects::nonNull)
+        .collect(Collectors.toList());
+  }
+
+  @Override
+  public void addModel(Model model, String orgId) throws ModelStoreException {
+    writeLock.lock();
+    try {
+      if (models.containsKey(model.getId())) {
+        throw new ModelStoreException("Model with given ID already exists.");
+      }
+      write(withArtifactSet(model));
+    } catch (IOException e) {
+      throw new ModelStoreException("Unable to add model.", e);
+    } finally {
+      writeLock.unlock();
+    }
+  }
+
+  @Override
+  public Set<UUID> addModels(List<Model> models) throws ModelStoreException {
+    writeLock.lock();
+    try {
+      Set<UUID> failedIds = new HashSet<>();
+      Map<UUID, Model> added = new LinkedHashMap<>();
+      for (Model model : models) {
+        if (this.models.containsKey(model.getId())
+            || added.putIfAbsent(model.getId(), withArtifactSet(model)) != null) {
+          failedIds.add(model.getId());
+        }
+      }
+      write(added.values());
+      return failedIds;
+    } catch (IOException e) {
+      throw new ModelStoreException("Unable to add models.", e);
+    } finally {
+      writeLock.unlock();
+    }
+  }
+
+  @Override
+  public Model updateModel(UUID modelId, Map<String, Object> propertiesToUpdate)
+      throws ModelStoreException {
+    writeLock.lock();
+    try {
+      Model model = models.get(modelId);
+      if (model == null) {
+        return null;
+      }
+      Model updated = withProperties(model, propertiesToUpdate);
+      write(updated);
+      return updated;
+    } catch (IOException e) {
+      throw new ModelStoreException("Unable to update model.", e);
+    } finally {
+      writeLock.unlock();
+    }
+  }
+
+  @Override
+  public void deleteModel(UUID modelId) throws ModelStoreException {
+    writeLock.lock();
+    try {
+      if (!models.containsKey(modelId)) {
+        throw new ModelStoreException("No model record was removed.");
+      }
+      append(ModelRecords.delete(modelId));
+      unapply(modelId);
+    } catch (IOException e) {
+      throw new ModelStoreException("Unable to delete model.", e);
+    } finally {
+      writeLock.unlock();
+    }
+  }
+
+  @Override
+  public long deleteModels(Collection<UUID> modelIds) throws ModelStoreException {
+    writeLock.lock();
+    try {
+      List<UUID> existingIds = modelIds.stream()
+          .distinct()
+          .filter(models::containsKey)
+          .collect(Collectors.toList());
+      if (existingIds.isEmpty()) {
+        return 0;
+      }
+      append(existingIds.stream().map(ModelRecords::delete).toArray(byte[][]::new));
+      existingIds.forEach(this::unapply);
+      return existingIds.size();
+    } catch (IOException e) {
+      throw new ModelStoreException("Unable to delete models.", e);
+    } finally {
+      writeLock.unlock();
+    }
+  }
+
+  @Override
+  public void addArtifact(UUID modelId, Artifact artifact) throws ModelStoreException {
+    writeLock.lock();
+    try {
+      Model model = models.get(modelId);
+      if (model == null) {
+        throw new ModelStoreException("No artifact was added.");
+      }
+      Set<Artifact> artifacts = new LinkedHashSet<>(model.getArtifacts());
+      artifacts.add(artifact);
+      write(model.withArtifacts(Collections.unmodifiableSet(artifacts)));
+    } catch (IOException e) {
+      throw new ModelStoreException("Unable to add artifact.", e);
+    } finally {
+      writeLock.unlock();
+    }
+  }
+
+  @Override
+  public Artifact retrieveArtifact(UUID modelId, UUID artifactId) {
+    Model model = models.get(modelId);
+    if (model == null) {
+      return null;
+    }
+    return model.getArtifacts().stream()
+        .filter(artifact -> artifact.getId().equals(artifactId))
+        .findFirst()
+        .orElse(null);
+  }
+
+  @Override
+  public void deleteArtifact(UUID modelId, UUID artifactId) throws ModelStoreException {
+    writeLock.lock();
+    try {
+      Model model = models.get(modelId);
+      Set<Artifact> artifacts = model == null
+          ? Collections.emptySet() : new LinkedHashSet<>(model.getArtifacts());
+      if (!artifacts.removeIf(artifact -> artifact.getId().equals(artifactId))) {
+        throw new ModelStoreException("No artifact record was removed.");
+      }
+      write(model.withArtifacts(Collections.unmodifiableSet(artifacts)));
+    } catch (IOException e) {
+      throw new ModelStoreException("Unable to delete artifact.", e);
+    } finally {
+      writeLock.unlock();
+    }
+  }
+
+  @Override
+  public CatalogStatistics computeStatistics() {
+    return ModelQueries.statistics(models.values());
+  }
+
+  @Override
+  public CatalogStatistics estimateStatistics() {
+    return CatalogStatistics.builder()
+        .models(models.size())
+        .artifacts(artifactCount.get())
+        .estimated(true)
+        .computedOn(Instant.now())
+        .build();
+  }
+
+  // Called with the write lock held
+  private void write(Model model) throws IOException {
+    append(ModelRecords.put(model));
+    apply(model);
+  }
+
+  // Called with the write lock held
+  private void write(Collection<Model> changed) throws IOException {
+    if (changed.isEmpty()) {
+      return;
+    }
+    append(changed.stream().map(ModelRecords::put).toArray(byte[][]::new));
+    changed.forEach(this::apply);
+  }
+
+  // Compaction waits for the write lock, so it only starts once the change is applied
+  private void append(byte[]... records) throws IOException {
+    log.append(records);
+    compactIfLogIsLong();
+  }
+
+  private void apply(Model model) {
+    Model previous = models.put(model.getId(), model);
+    artifactCount.addAndGet(model.getArtifacts().size()
+        - (previous == null ? 0 : previous.getArtifacts().size()));
+    if (model.getOrgId() != null) {
+      orgs.computeIfAbsent(model.getOrgId(), orgId -> new OrgModels()).put(previous, model);
+    }
+  }
+
+  private void unapply(UUID modelId) {
+    Model previous = models.remove(modelId);
+    if (previous == null) {
+      return;
+    }
+    artifactCount.addAndGet(-previous.getArtifacts().size());
+    if (previous.getOrgId() != null) {
+      orgs.get(previous.getOrgId()).remove(previous);
+    }
+  }
+
+  private void compactIfLogIsLong() {
+    if (log.recordsSinceSnapshot() < properties.getCompactAfterRecords()
+        || !compacting.compareAndSet(false, true)) {
+      return;
+    }
+    compactionExecutor.execute(() -> {
+      try {
+        compact();
+      } catch (IOException | RuntimeException e) {
+        LOGGER.error("Unable to compact the model log, it is kept as it is.", e);
+      } finally {
+        compacting.set(false);
+      }
+    });
+  }
+
+  private void compact() throws IOException {
+    long generation;
+    List<Model> state;
+    // Models are immutable, copying references is enough for a consistent snapshot
+    writeLock.lock();
+    try {
+      generation = log.rotate();
+      state = new ArrayList<>(models.values());
+    } finally {
+      writeLock.unlock();
+    }
+    long start = System.currentTimeMillis();
+    log.writeSnapshot(generation, state);
+    LOGGER.info("Compacted the model log into a snapshot of {} models in {} ms.",
+        state.size(), System.currentTimeMillis() - start);
+  }
+
+  private NavigableMap<IndexKey, Model> ordered(String orgId, ModelSort sort,
+                                                ModelCursor after) {
+    OrgModels org = orgs.get(orgId);
+    if (org == null) {
+      return Collections.emptyNavigableMap();
+    }
+    NavigableMap<IndexKey, Model> ordered = org.orderedBy(sort);
+    if (after != null) {
+      ordered = ordered.tailMap(new IndexKey(after.getSortKey(), after.getId()), false);
+    }
+    return ordered;
+  }
+
+  // Stored models always have an artifact set, which nobody can change in place
+  private static Model withArtifactSet(Model model) {
+    Set<Artifact> artifacts = model.getArtifacts() == null
+        ? Collections.emptySet() : new LinkedHashSet<>(model.getArtifacts());
+    return model.withArtifacts(Collections.unmodifiableSet(artifacts));
+  }
+
+  private static Model withProperties(Model model, Map<String, Object> propertiesToUpdate)
+      throws ModelStoreException {
+    Model.ModelBuilder updated = Model.builder()
+        .id(model.getId())
+        .orgId(model.getOrgId())
+        .name(model.getName())
+        .revision(model.getRevision())
+        .algorithm(model.getAlgorithm())
+        .creationTool(model.getCreationTool())
+        .description(model.getDescription())
+        .addedBy(model.getAddedBy())
+        .addedOn(model.getAddedOn())
+        .modifiedBy(model.getModifiedBy())
+        .modifiedOn(model.getModifiedOn())
+        .artifacts(model.getArtifacts());
+    for (Map.Entry<String, Object> property : propertiesToUpdate.entrySet()) {
+      Object value = property.getValue();
+      switch (property.getKey()) {
+        case "name":
+          updated.name((String) value);
+          break;
+        case "revision":
+          updated.revision((String) value);
+          break;
+        case "algorithm":
+          updated.algorithm((String) value);
+          break;
+        case "creationTool":
+          updated.creationTool((String) value);
+          break;
+        case "description":
+          updated.description((String) value);
+          break;
+        case "modifiedBy":
+          updated.modifiedBy((String) value);
+          break;
+        case "modifiedOn":
+          updated.modifiedOn((Instant) value);
+          break;
+        default:
+          throw new ModelStoreException("Model has no updatable property " + property.getKey());
+      }
+    }
+    return updated.build();
+  }
+
+  // Position of a model in a list ordered by one of the sort keys, ties broken by id
+  private static final class IndexKey implements Comparable<IndexKey> {
+    private final long sortKey;
+    private final UUID id;
+
+    private IndexKey(Instant sortKey, UUID id) {
+      // Models without the sort key come first, as in MongoDB
+      this.sortKey = sortKey == null ? Long.MIN_VALUE : sortKey.toEpochMilli();
+      this.id = id;
+    }
+
+    @Override
+    public int compareTo(IndexKey other) {
+      int bySortKey = Long.compare(sortKey, other.sortKey);
+      return bySortKey != 0 ? bySortKey : id.compareTo(other.id);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      return o instanceof IndexKey && compareTo((IndexKey) o) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+      return Long.hashCode(sortKey) * 31 + id.hashCode();
+    }
+  }
+
+  // Models of one organization in every order they can be listed in
+  private static final class OrgModels {
+    private final Map<String, ConcurrentNavigableMap<IndexKey, Model>> orderings =
+        new HashMap<>();
+
+    private OrgModels() {
+      for (ModelSort sort : ModelSort.values()) {
+        orderings.putIfAbsent(sort.getProperty(), new ConcurrentSkipListMap<>());
+      }
+    }
+
+    private NavigableMap<IndexKey, Model> orderedBy(ModelSort sort) {
+      ConcurrentNavigableMap<IndexKey, Model> ordering = orderings.get(sort.getProperty());
+      return sort.isAscending() ? ordering : ordering.descendingMap();
+    }
+
+    // The new position is taken before the old one is given up, so that concurrent readers
+    // do not miss the model
+    private void put(Model previous, Model model) {
+      for (ModelSort sort : ascendingSorts()) {
+        ConcurrentNavigableMap<IndexKey, Model> ordering = orderings.get(sort.getProperty());
+        IndexKey key = keyOf(model, sort);
+        ordering.put(key, model);
+        if (previous != null && !keyOf(previous, sort).equals(key)) {
+          ordering.remove(keyOf(previous, sort));
+        }
+      }
+    }
+
+    private void remove(Model model) {
+      for (ModelSort sort : ascendingSorts()) {
+        orderings.get(sort.getProperty()).remove(keyOf(model, sort));
+      }
+    }
+
+    private static List<ModelSort> ascendingSorts() {
+      List<ModelSort> sorts = new ArrayList<>();
+      for (ModelSort sort : ModelSort.values()) {
+        if (sort.isAscending()) {
+          sorts.add(sort);
+        }
+      }
+      return sorts;
+    }
+
+    private static IndexKey keyOf(Model model, ModelSort sort) {
+      return new IndexKey(sort.getSortKey().apply(model), model.getId());
+    }
+  }
+
+}
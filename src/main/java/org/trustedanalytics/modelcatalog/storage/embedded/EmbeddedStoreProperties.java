@@ -0,0 +1,36 @@
+/**
+ * Copyright (c) 2016 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.trustedanalytics.modelcatalog.storage.embedded;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(EmbeddedStoreProperties.PREFIX)
+@Getter
+@Setter
+public class EmbeddedStoreProperties {
+
+  protected static final String PREFIX = "services.store.embedded";
+
+  // Directory holding the log and snapshots
+  private String path;
+  // Whether each write waits for the log to reach the disk, not only the operating system
+  private boolean syncWrites = true;
+  // Number of logged changes after which a snapshot is taken and the older log dropped
+  private long compactAfterRecords = 10000;
+
+}
@@ -0,0 +1,97 @@
+/**
+ * Copyright (c) 2016 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.trustedanalytics.modelcatalog.storage.embedded;
+
+import org.trustedanalytics.modelcatalog.domain.Artifact;
+import org.trustedanalytics.modelcatalog.domain.Model;
+import org.trustedanalytics.modelcatalog.domain.ModelView;
+import org.trustedanalytics.modelcatalog.storage.db.FileReferenceStore;
+import org.trustedanalytics.modelcatalog.storage.db.ModelStore;
+import org.trustedanalytics.modelcatalog.storage.db.ModelStoreException;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Stream;
+import javax.annotation.PostConstruct;
+
+// FileReferenceStore of the embedded store. Counts are not persisted, they are taken from the
+// locations of all artifacts at startup, before any artifact can be deleted. Claims only need to
+// hold within this instance, the only one changing the catalog.
+@Repository
+@ConditionalOnProperty(prefix = "services.store", name = "type", havingValue = "embedded")
+public class InMemoryFileReferenceStore implements FileReferenceStore {
+
+  private static final long MAX_WAIT_MS = 10000;
+
+  private final ModelStore modelStore;
+  private final Map<String, Long> counts = new HashMap<>();
+  private final Set<String> claimed = new HashSet<>();
+
+  @Autowired
+  public InMemoryFileReferenceStore(ModelStore modelStore) {
+    this.modelStore = modelStore;
+  }
+
+  @PostConstruct
+  public synchronized void countReferences() throws ModelStoreException {
+    try (Stream<Model> models = modelStore.streamAllModels(ModelView.FULL)) {
+      models.filter(model -> model.getArtifacts() != null)
+          .flatMap(model -> model.getArtifacts().stream())
+          .map(Artifact::getLocation)
+          .filter(Objects::nonNull)
+          .forEach(location -> counts.merge(location, 1L, Long::sum));
+    }
+  }
+
+  @Override
+  public synchronized long addReference(String location) throws ModelStoreException {
+    long deadline = System.currentTimeMillis() + MAX_WAIT_MS;
+    while (claimed.contains(location)) {
+      long remaining = deadline - System.currentTimeMillis();
+      if (remaining <= 0) {
+        throw new ModelStoreException("File is still being deleted: " + location);
+      }
+      try {
+        wait(remaining);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new ModelStoreException("Interrupted waiting for file deletion.", e);
+      }
+    }
+    return counts.merge(location, 1L, Long::sum);
+  }
+
+  @Override
+  public synchronized boolean removeReference(String location) {
+    Long left = counts.computeIfPresent(location, (key, count) -> count > 1 ? count - 1 : null);
+    if (left != null) {
+      return false;
+    }
+    return claimed.add(location);
+  }
+
+  @Override
+  public synchronized void releaseLocation(String location) {
+    claimed.remove(location);
+    notifyAll();
+  }
+
+}
@@ -0,0 +1,325 @@
+/**
+ * Copyright (c) 2016 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.trustedanalytics.modelcatalog.storage.embedded;
+
+import org.trustedanalytics.modelcatalog.domain.CatalogSnapshotInfo;
+import org.trustedanalytics.modelcatalog.domain.Model;
+import org.trustedanalytics.modelcatalog.domain.ModelCursor;
+import org.trustedanalytics.modelcatalog.domain.ModelSort;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+// Catalog snapshot file mapped into memory, written by CatalogSnapshotWriter. Models are decoded
+// from the mapping on every read, so neither opening the file nor holding it costs heap beyond
+// the organization table. The file is mapped in chunks, since a byte buffer is indexed by int,
+// so its size is not limited. All numbers are big-endian:
+//
+//   header       magic, version, createdOn, model count, organization count, artifact count,
+//                offsets of the id index and of the organization table
+//   models       [int length][ModelRecords.encodeModel] for every model
+//   orderings    per organization and ascending sort, [sort key millis][id][model offset]
+//                sorted by sort key, then id
+//   id index     [id][model offset] sorted by id
+//   org table    [organization id][model count][offset of each ordering] per organization
+final class MappedCatalogSnapshot {
+
+  static final int MAGIC = 0x4d43534e;
+  static final int VERSION = 2;
+  // Version whose artifacts have no size, digest and addition time, still read
+  static final int VERSION_WITHOUT_ARTIFACT_DETAILS = 1;
+  static final int HEADER_SIZE = 48;
+  static final int ID_ENTRY_SIZE = 24;
+  static final int ORDERING_ENTRY_SIZE = 32;
+  static final int CHUNK_SIZE = 1 << 30;
+  // Descending lists are read from the end of the ascending ones
+  static final List<ModelSort> ORDERINGS = Collections.unmodifiableList(
+      Arrays.stream(ModelSort.values()).filter(ModelSort::isAscending)
+          .collect(Collectors.toList()));
+
+  private final Mapping buffer;
+  private final CatalogSnapshotInfo info;
+  private final long idIndex;
+  private final boolean artifactDetails;
+  private final Map<String, OrgSection> orgs;
+
+  private MappedCatalogSnapshot(Mapping buffer) throws IOException {
+    this.buffer = buffer;
+    if (buffer.getInt(0) != MAGIC) {
+      throw new IOException("File is not a catalog snapshot.");
+    }
+    int version = buffer.getInt(4);
+    if (version != VERSION && version != VERSION_WITHOUT_ARTIFACT_DETAILS) {
+      throw new IOException("Unsupported catalog snapshot version " + version);
+    }
+    artifactDetails = version != VERSION_WITHOUT_ARTIFACT_DETAILS;
+    info = CatalogSnapshotInfo.builder()
+        .createdOn(Instant.ofEpochMilli(buffer.getLong(8)))
+        .models(buffer.getInt(16))
+        .artifacts(buffer.getLong(24))
+        .build();
+    int orgCount = buffer.getInt(20);
+    idIndex = checkedPosition(buffer.getLong(32), (long) info.getModels() * ID_ENTRY_SIZE);
+    orgs = readOrgTable(checkedPosition(buffer.getLong(40), 0), orgCount);
+  }
+
+  static MappedCatalogSnapshot open(Path path) throws IOException {
+    return open(path, CHUNK_SIZE);
+  }
+
+  // The mapping outlives the channel, until the snapshot is garbage collected
+  static MappedCatalogSnapshot open(Path path, int chunkSize) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      long size = channel.size();
+      if (size < HEADER_SIZE) {
+        throw new IOException("Catalog snapshot of " + size + " bytes cannot be mapped.");
+      }
+      return new MappedCatalogSnapshot(Mapping.map(channel, size, chunkSize));
+    }
+  }
+
+  CatalogSnapshotInfo getInfo() {
+    return info;
+  }
+
+  Model find(UUID modelId) {
+    int low = 0;
+    int high = info.getModels() - 1;
+    while (low <= high) {
+      int middle = (low + high) >>> 1;
+      long entry = idIndex + (long) middle * ID_ENTRY_SIZE;
+      int comparison = compareIds(buffer.getLong(entry), buffer.getLong(entry + 8),
+          modelId.getMostSignificantBits(), modelId.getLeastSignificantBits());
+      if (comparison == 0) {
+        return modelAt(buffer.getLong(entry + 16));
+      }
+      if (comparison < 0) {
+        low = middle + 1;
+      } else {
+        high = middle - 1;
+      }
+    }
+    return null;
+  }
+
+  Stream<Model> all() {
+    return IntStream.range(0, info.getModels())
+        .mapToObj(i -> modelAt(buffer.getLong(idIndex + (long) i * ID_ENTRY_SIZE + 16)));
+  }
+
+  // Models of the organization in given order, starting past the cursor if there is one
+  Stream<Model> ordered(String orgId, ModelSort sort, ModelCursor after) {
+    OrgSection org = orgs.get(orgId);
+    if (org == null) {
+      return Stream.empty();
+    }
+    long ordering = org.orderings[orderingOf(sort)];
+    IntStream entries;
+    if (sort.isAscending()) {
+      int first = after == null ? 0 : search(ordering, org.count, after, false);
+      entries = IntStream.range(first, org.count);
+    } else {
+      int end = after == null ? org.count : search(ordering, org.count, after, true);
+      entries = IntStream.range(0, end).map(i -> end - 1 - i);
+    }
+    return entries.mapToObj(
+        i -> modelAt(buffer.getLong(ordering + (long) i * ORDERING_ENTRY_SIZE + 24)));
+  }
+
+  static int orderingOf(ModelSort sort) {
+    for (int i = 0; i < ORDERINGS.size(); i++) {
+      if (ORDERINGS.get(i).getProperty().equals(sort.getProperty())) {
+        return i;
+      }
+    }
+    throw new IllegalArgumentException("No ordering for sort " + sort);
+  }
+
+  // Models without the sort key come first, as in MongoDB
+  static long sortKeyOf(Model model, ModelSort sort) {
+    return sortKeyOf(sort.getSortKey().apply(model));
+  }
+
+  private static long sortKeyOf(Instant sortKey) {
+    return sortKey == null ? Long.MIN_VALUE : sortKey.toEpochMilli();
+  }
+
+  static int compareIds(long mostSigBits, long leastSigBits, long otherMostSigBits,
+                        long otherLeastSigBits) {
+    int byMostSigBits = Long.compare(mostSigBits, otherMostSigBits);
+    return byMostSigBits != 0 ? byMostSigBits : Long.compare(leastSigBits, otherLeastSigBits);
+  }
+
+  // Index of the first entry past the cursor, or of the first one not before it when inclusive
+  private int search(long ordering, int count, ModelCursor cursor, boolean inclusive) {
+    long sortKey = sortKeyOf(cursor.getSortKey());
+    UUID id = cursor.getId();
+    int low = 0;
+    int high = count;
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      long entry = ordering + (long) middle * ORDERING_ENTRY_SIZE;
+      int comparison = Long.compare(buffer.getLong(entry), sortKey);
+      if (comparison == 0) {
+        comparison = compareIds(buffer.getLong(entry + 8), buffer.getLong(entry + 16),
+            id.getMostSignificantBits(), id.getLeastSignificantBits());
+      }
+      if (comparison < 0 || comparison == 0 && !inclusive) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return low;
+  }
+
+  private Model modelAt(long offset) {
+    try {
+      byte[] bytes = new byte[buffer.getInt(offset)];
+      buffer.get(offset + Integer.BYTES, bytes);
+      return ModelRecords.decodeModel(bytes, artifactDetails);
+    } catch (IOException | RuntimeException e) {
+      throw new UncheckedIOException(new IOException("Catalog snapshot is corrupted.", e));
+    }
+  }
+
+  private Map<String, OrgSection> readOrgTable(long position, int orgCount) throws IOException {
+    Map<String, OrgSection> sections = new HashMap<>();
+    try {
+      for (int i = 0; i < orgCount; i++) {
+        byte[] orgId = new byte[buffer.getInt(position)];
+        buffer.get(position + Integer.BYTES, orgId);
+        position += Integer.BYTES + orgId.length;
+        int count = buffer.getInt(position);
+        position += Integer.BYTES;
+        long[] orderings = new long[ORDERINGS.size()];
+        for (int j = 0; j < orderings.length; j++) {
+          orderings[j] = checkedPosition(buffer.getLong(position),
+              (long) count * ORDERING_ENTRY_SIZE);
+          position += Long.BYTES;
+        }
+        sections.put(new String(orgId, StandardCharsets.UTF_8), new OrgSection(count, orderings));
+      }
+    } catch (IndexOutOfBoundsException | NegativeArraySizeException e) {
+      throw new IOException("Catalog snapshot is corrupted.", e);
+    }
+    return sections;
+  }
+
+  private long checkedPosition(long position, long length) throws IOException {
+    if (position < HEADER_SIZE || length < 0 || position + length > buffer.size) {
+      throw new IOException("Catalog snapshot is corrupted.");
+    }
+    return position;
+  }
+
+  private static final class OrgSection {
+    private final int count;
+    private final long[] orderings;
+
+    private OrgSection(int count, long[] orderings) {
+      this.count = count;
+      this.orderings = orderings;
+    }
+  }
+
+  // File mapped as consecutive buffers of chunkSize bytes, addressed by long positions. Values
+  // are read from a single buffer where they fit in it, and byte by byte across a boundary.
+  private static final class Mapping {
+    private final ByteBuffer[] chunks;
+    private final int chunkSize;
+    private final long size;
+
+    private Mapping(ByteBuffer[] chunks, int chunkSize, long size) {
+      this.chunks = chunks;
+      this.chunkSize = chunkSize;
+      this.size = size;
+    }
+
+    static Mapping map(FileChannel channel, long size, int chunkSize) throws IOException {
+      ByteBuffer[] chunks = new ByteBuffer[(int) ((size + chunkSize - 1) / chunkSize)];
+      for (int i = 0; i < chunks.length; i++) {
+        long start = (long) i * chunkSize;
+        chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY, start,
+            Math.min(chunkSize, size - start));
+      }
+      return new Mapping(chunks, chunkSize, size);
+    }
+
+    int getInt(long position) {
+      ByteBuffer chunk = chunkAt(position);
+      int offset = offsetOf(position);
+      if (offset + Integer.BYTES <= chunk.limit()) {
+        return chunk.getInt(offset);
+      }
+      return (int) getAcross(position, Integer.BYTES);
+    }
+
+    long getLong(long position) {
+      ByteBuffer chunk = chunkAt(position);
+      int offset = offsetOf(position);
+      if (offset + Long.BYTES <= chunk.limit()) {
+        return chunk.getLong(offset);
+      }
+      return getAcross(position, Long.BYTES);
+    }
+
+    void get(long position, byte[] target) {
+      int copied = 0;
+      while (copied < target.length) {
+        ByteBuffer chunk = chunkAt(position + copied).duplicate();
+        int offset = offsetOf(position + copied);
+        int length = Math.min(target.length - copied, chunk.limit() - offset);
+        chunk.position(offset);
+        chunk.get(target, copied, length);
+        copied += length;
+      }
+    }
+
+    private long getAcross(long position, int bytes) {
+      long value = 0;
+      for (int i = 0; i < bytes; i++) {
+        value = value << 8 | chunkAt(position + i).get(offsetOf(position + i)) & 0xff;
+      }
+      return value;
+    }
+
+    private ByteBuffer chunkAt(long position) {
+      if (position < 0 || position >= size) {
+        throw new IndexOutOfBoundsException("Position " + position + " past " + size);
+      }
+      return chunks[(int) (position / chunkSize)];
+    }
+
+    private int offsetOf(long position) {
+      return (int) (position % chunkSize);
+    }
+  }
+
+}
@@ -0,0 +1,286 @@
+/**
+ * Copyright (c) 2016 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.trustedanalytics.modelcatalog.storage.embedded;
+
+import org.trustedanalytics.modelcatalog.domain.Model;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.CRC32;
+
+// Append-only log of model changes, kept in a directory as numbered generations. Snapshot N
+// holds the state left by all logs before log N, so recovery replays the newest snapshot and
+// the logs from its generation on. Snapshots are written aside and renamed into place, so a
+// snapshot is either complete or missing. Every record is framed with its length and CRC32,
+// and a record cut short by a crash is dropped from the end of the log at the next start.
+class ModelLog implements Closeable {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(ModelLog.class);
+
+  private static final String SNAPSHOT = "snapshot-";
+  private static final String LOG = "log-";
+  private static final String TMP = ".tmp";
+  // Record length and checksum
+  private static final int HEADER_SIZE = 8;
+  // Larger records are taken for garbage left by a crash
+  private static final int MAX_RECORD_SIZE = 64 * 1024 * 1024;
+
+  private final Path directory;
+  private final boolean syncWrites;
+  private FileChannel log;
+  private long generation;
+  private long records;
+
+  ModelLog(Path directory, boolean syncWrites) {
+    this.directory = directory;
+    this.syncWrites = syncWrites;
+  }
+
+  // Replays the stored changes into the handler and opens the newest log for appends.
+  // Returns the number of records replayed.
+  synchronized long open(ModelRecords.Handler handler) throws IOException {
+    Files.createDirectories(directory);
+    TreeMap<Long, Path> snapshots = new TreeMap<>();
+    TreeMap<Long, Path> logs = new TreeMap<>();
+    try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+      for (Path file : files) {
+        String name = file.getFileName().toString();
+        Long fileGeneration = generationOf(name);
+        if (name.endsWith(TMP)) {
+          // Snapshot not finished before a crash
+          Files.delete(file);
+        } else if (name.startsWith(SNAPSHOT) && fileGeneration != null) {
+          snapshots.put(fileGeneration, file);
+        } else if (name.startsWith(LOG) && fileGeneration != null) {
+          logs.put(fileGeneration, file);
+        }
+      }
+    }
+
+    long replayed = 0;
+    generation = snapshots.isEmpty() ? 0 : snapshots.lastKey();
+    if (!snapshots.isEmpty()) {
+      replayed += replay(snapshots.lastEntry().getValue(), handler, false);
+    }
+    records = 0;
+    // Logs older than the snapshot are only left when a crash kept them from being removed
+    for (Map.Entry<Long, Path> entry : logs.tailMap(generation).entrySet()) {
+      long logRecords = replay(entry.getValue(), handler, true);
+      replayed += logRecords;
+      records += logRecords;
+      generation = entry.getKey();
+    }
+    log = openLog(generation);
+    return replayed;
+  }
+
+  synchronized void append(byte[]... payloads) throws IOException {
+    int size = 0;
+    for (byte[] payload : payloads) {
+      size += HEADER_SIZE + payload.length;
+    }
+    ByteBuffer buffer = ByteBuffer.allocate(size);
+    for (byte[] payload : payloads) {
+      buffer.putInt(payload.length).putInt(checksum(payload)).put(payload);
+    }
+    buffer.flip();
+    long start = log.position();
+    try {
+      while (buffer.hasRemaining()) {
+        log.write(buffer);
+      }
+      // Written data outlives a killed process anyway, syncing also outlives a power failure
+      if (syncWrites) {
+        log.force(false);
+      }
+    } catch (IOException e) {
+      // Records appended later must not follow a partly written one, replay would stop there
+      try {
+        log.truncate(start);
+        log.position(start);
+      } catch (IOException truncateFailure) {
+        e.addSuppressed(truncateFailure);
+      }
+      throw e;
+    }
+    records += payloads.length;
+  }
+
+  synchronized long recordsSinceSnapshot() {
+    return records;
+  }
+
+  // Further changes go to a new log. Returns the generation of the snapshot that is to hold
+  // the state up to this point.
+  synchronized long rotate() throws IOException {
+    log.force(false);
+    log.close();
+    generation++;
+    records = 0;
+    log = openLog(generation);
+    return generation;
+  }
+
+  // Once the snapshot is in place, logs and snapshots of earlier generations are removed
+  void writeSnapshot(long snapshotGeneration, Collection<Model> models) throws IOException {
+    Path snapshot = directory.resolve(SNAPSHOT + snapshotGeneration);
+    Path tmp = directory.resolve(SNAPSHOT + snapshotGeneration + TMP);
+    try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE,
+            StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+      ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+      for (Model model : models) {
+        byte[] payload = ModelRecords.put(model);
+        header.clear();
+        header.putInt(payload.length).putInt(checksum(payload)).flip();
+        ByteBuffer[] record = {header, ByteBuffer.wrap(payload)};
+        while (record[1].hasRemaining()) {
+          channel.write(record);
+        }
+      }
+      channel.force(true);
+    }
+    Files.move(tmp, snapshot, StandardCopyOption.ATOMIC_MOVE);
+    syncDirectory();
+
+    try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+      for (Path file : files) {
+        Long fileGeneration = generationOf(file.getFileName().toString());
+        if (fileGeneration != null && fileGeneration < snapshotGeneration) {
+          Files.delete(file);
+        }
+      }
+    }
+  }
+
+  @Override
+  public synchronized void close() throws IOException {
+    if (log != null) {
+      log.force(false);
+      log.close();
+    }
+  }
+
+  private FileChannel openLog(long logGeneration) throws IOException {
+    FileChannel channel = FileChannel.open(directory.resolve(LOG + logGeneration),
+            StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+    channel.position(channel.size());
+    syncDirectory();
+    return channel;
+  }
+
+  // Logs may end with a record cut short, which is cut off. Anything else is corruption.
+  private long replay(Path file, ModelRecords.Handler handler, boolean truncateTornTail)
+          throws IOException {
+    List<byte[]> payloads = new ArrayList<>();
+    long validSize = 0;
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ,
+            StandardOpenOption.WRITE)) {
+      long size = channel.size();
+      ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+      while (validSize < size) {
+        header.clear();
+        if (!readFully(channel, header, validSize)) {
+          break;
+        }
+        header.flip();
+        int length = header.getInt();
+        int checksum = header.getInt();
+        if (length < 0 || length > MAX_RECORD_SIZE) {
+          break;
+        }
+        ByteBuffer payload = ByteBuffer.allocate(length);
+        if (!readFully(channel, payload, validSize + HEADER_SIZE)
+                || checksum(payload.array()) != checksum) {
+          break;
+        }
+        payloads.add(payload.array());
+        validSize += HEADER_SIZE + length;
+      }
+      if (validSize < size) {
+        if (!truncateTornTail) {
+          throw new IOException("Snapshot " + file + " is corrupted at byte " + validSize);
+        }
+        LOGGER.warn("Dropping {} bytes of incomplete records from the end of {}.",
+                size - validSize, file);
+        channel.truncate(validSize);
+        channel.force(true);
+      }
+    }
+    for (byte[] payload : payloads) {
+      ModelRecords.read(payload, handler);
+    }
+    return payloads.size();
+  }
+
+  private static boolean readFully(FileChannel channel, ByteBuffer buffer, long position)
+          throws IOException {
+    long offset = position;
+    while (buffer.hasRemaining()) {
+      int read = channel.read(buffer, offset);
+      if (read < 0) {
+        return false;
+      }
+      offset += read;
+    }
+    return true;
+  }
+
+  // Makes file creations and renames durable, where the platform allows it
+  private void syncDirectory() {
+    try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+      channel.force(true);
+    } catch (IOException e) {
+      LOGGER.debug("Unable to sync directory " + directory, e);
+    }
+  }
+
+  // Returns null for other files
+  private static Long generationOf(String name) {
+    String number;
+    if (name.startsWith(SNAPSHOT)) {
+      number = name.substring(SNAPSHOT.length());
+    } else if (name.startsWith(LOG)) {
+      number = name.substring(LOG.length());
+    } else {
+      return null;
+    }
+    try {
+      return Long.parseLong(number);
+    } catch (NumberFormatException e) {
+      return null;
+    }
+  }
+
+  private static int checksum(byte[] payload) {
+    CRC32 crc = new CRC32();
+    crc.update(payload, 0, payload.length);
+    return (int) crc.getValue();
+  }
+
+}
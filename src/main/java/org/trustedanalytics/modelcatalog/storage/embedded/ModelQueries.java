@@ -0,0 +1,108 @@
+/**
+ * Copyright (c) 2016 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.trustedanalytics.modelcatalog.storage.embedded;
+
+import org.trustedanalytics.modelcatalog.domain.Artifact;
+import org.trustedanalytics.modelcatalog.domain.ArtifactAction;
+import org.trustedanalytics.modelcatalog.domain.CatalogStatistics;
+import org.trustedanalytics.modelcatalog.domain.Model;
+import org.trustedanalytics.modelcatalog.domain.ModelFilter;
+import org.trustedanalytics.modelcatalog.domain.ModelView;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Predicate;
+
+// Filters, views and statistics of the stores in this package, which evaluate them in memory
+// where MongoModelStore leaves them to the database
+final class ModelQueries {
+
+  private ModelQueries() {
+  }
+
+  static Predicate<Model> matches(ModelFilter filter) {
+    return model -> matches(filter.getAlgorithm(), model.getAlgorithm())
+        && matches(filter.getCreationTool(), model.getCreationTool())
+        && matches(filter.getAddedBy(), model.getAddedBy())
+        && inRange(model.getAddedOn(), filter.getAddedAfter(), filter.getAddedBefore())
+        && inRange(model.getModifiedOn(), filter.getModifiedAfter(), filter.getModifiedBefore());
+  }
+
+  static Model inView(Model model, ModelView view) {
+    return view == ModelView.SUMMARY ? model.withArtifacts(null) : model;
+  }
+
+  static CatalogStatistics statistics(Iterable<Model> models) {
+    Map<String, Long> modelsPerOrg = new HashMap<>();
+    Map<String, Long> modelsPerAlgorithm = new HashMap<>();
+    Map<String, Long> artifactsPerAction = new HashMap<>();
+    long total = 0;
+    long artifacts = 0;
+    for (Model model : models) {
+      total++;
+      count(modelsPerOrg, model.getOrgId());
+      count(modelsPerAlgorithm, model.getAlgorithm());
+      if (model.getArtifacts() == null) {
+        continue;
+      }
+      for (Artifact artifact : model.getArtifacts()) {
+        artifacts++;
+        if (artifact.getActions() != null) {
+          for (ArtifactAction action : artifact.getActions()) {
+            count(artifactsPerAction, action.name());
+          }
+        }
+      }
+    }
+    return CatalogStatistics.builder()
+        .models(total)
+        .artifacts(artifacts)
+        .modelsPerOrg(mostFrequentFirst(modelsPerOrg))
+        .modelsPerAlgorithm(mostFrequentFirst(modelsPerAlgorithm))
+        .artifactsPerAction(mostFrequentFirst(artifactsPerAction))
+        .computedOn(Instant.now())
+        .build();
+  }
+
+  private static boolean matches(String expected, String value) {
+    return expected == null || expected.equals(value);
+  }
+
+  // Exclusive at millisecond precision, as in MongoModelStore
+  private static boolean inRange(Instant value, Instant after, Instant before) {
+    if (after == null && before == null) {
+      return true;
+    }
+    return value != null
+        && (after == null || value.toEpochMilli() > after.toEpochMilli())
+        && (before == null || value.toEpochMilli() < before.toEpochMilli());
+  }
+
+  private static void count(Map<String, Long> counts, String key) {
+    if (key != null) {
+      counts.merge(key, 1L, Long::sum);
+    }
+  }
+
+  private static Map<String, Long> mostFrequentFirst(Map<String, Long> counts) {
+    Map<String, Long> sorted = new LinkedHashMap<>();
+    counts.entrySet().stream()
+        .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+        .forEach(entry -> sorted.put(entry.getKey(), entry.getValue()));
+    return sorted;
+  }
+
+}
@@ -0,0 +1,233 @@
+/**
+ * Copyright (c) 2016 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.trustedanalytics.modelcatalog.storage.embedded;
+
+import org.trustedanalytics.modelcatalog.domain.Artifact;
+import org.trustedanalytics.modelcatalog.domain.ArtifactAction;
+import org.trustedanalytics.modelcatalog.domain.Model;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.UUID;
+
+// Binary encoding of the changes kept in ModelLog and of the models in catalog snapshots. A model
+// is always written whole, with its artifacts, so that replaying a change twice leaves the same
+// state as replaying it once.
+final class ModelRecords {
+
+  interface Handler {
+    void put(Model model);
+
+    void delete(UUID modelId);
+  }
+
+  // Models whose artifacts have no size, digest and addition time, only read
+  private static final byte PUT_V1 = 1;
+  private static final byte DELETE = 2;
+  private static final byte PUT = 3;
+  private static final int NULL = -1;
+
+  private ModelRecords() {
+  }
+
+  static byte[] put(Model model) {
+    return encode(out -> {
+      out.writeByte(PUT);
+      writeModel(out, model);
+    });
+  }
+
+  static byte[] delete(UUID modelId) {
+    return encode(out -> {
+      out.writeByte(DELETE);
+      writeUuid(out, modelId);
+    });
+  }
+
+  static byte[] encodeModel(Model model) {
+    return encode(out -> writeModel(out, model));
+  }
+
+  // Records of snapshots written before artifacts had details are read without them
+  static Model decodeModel(byte[] record, boolean artifactDetails) throws IOException {
+    return readModel(new DataInputStream(new ByteArrayInputStream(record)), artifactDetails);
+  }
+
+  static void read(byte[] record, Handler handler) throws IOException {
+    DataInputStream in = new DataInputStream(new ByteArrayInputStream(record));
+    byte type = in.readByte();
+    switch (type) {
+      case PUT:
+        handler.put(readModel(in, true));
+        break;
+      case PUT_V1:
+        handler.put(readModel(in, false));
+        break;
+      case DELETE:
+        handler.delete(readUuid(in));
+        break;
+      default:
+        throw new IOException("Unknown record type " + type);
+    }
+  }
+
+  private interface Writer {
+    void write(DataOutputStream out) throws IOException;
+  }
+
+  private static byte[] encode(Writer writer) {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+    try (DataOutputStream out = new DataOutputStream(bytes)) {
+      writer.write(out);
+    } catch (IOException e) {
+      // Not thrown when writing to memory
+      throw new IllegalStateException(e);
+    }
+    return bytes.toByteArray();
+  }
+
+  private static void writeModel(DataOutputStream out, Model model) throws IOException {
+    writeUuid(out, model.getId());
+    writeString(out, model.getOrgId());
+    writeString(out, model.getName());
+    writeString(out, model.getRevision());
+    writeString(out, model.getAlgorithm());
+    writeString(out, model.getCreationTool());
+    writeString(out, model.getDescription());
+    writeString(out, model.getAddedBy());
+    writeInstant(out, model.getAddedOn());
+    writeString(out, model.getModifiedBy());
+    writeInstant(out, model.getModifiedOn());
+    Set<Artifact> artifacts = model.getArtifacts();
+    out.writeInt(artifacts == null ? NULL : artifacts.size());
+    if (artifacts != null) {
+      for (Artifact artifact : artifacts) {
+        writeArtifact(out, artifact);
+      }
+    }
+  }
+
+  private static Model readModel(DataInputStream in, boolean artifactDetails)
+          throws IOException {
+    Model.ModelBuilder model = Model.builder()
+            .id(readUuid(in))
+            .orgId(readString(in))
+            .name(readString(in))
+            .revision(readString(in))
+            .algorithm(readString(in))
+            .creationTool(readString(in))
+            .description(readString(in))
+            .addedBy(readString(in))
+            .addedOn(readInstant(in))
+            .modifiedBy(readString(in))
+            .modifiedOn(readInstant(in));
+    int artifactCount = in.readInt();
+    if (artifactCount != NULL) {
+      Set<Artifact> artifacts = new LinkedHashSet<>();
+      for (int i = 0; i < artifactCount; i++) {
+        artifacts.add(readArtifact(in, artifactDetails));
+      }
+      model.artifacts(Collections.unmodifiableSet(artifacts));
+    }
+    return model.build();
+  }
+
+  private static void writeArtifact(DataOutputStream out, Artifact artifact) throws IOException {
+    writeUuid(out, artifact.getId());
+    writeString(out, artifact.getFilename());
+    writeString(out, artifact.getLocation());
+    Set<ArtifactAction> actions = artifact.getActions();
+    out.writeInt(actions == null ? NULL : actions.size());
+    if (actions != null) {
+      for (ArtifactAction action : actions) {
+        writeString(out, action.name());
+      }
+    }
+    out.writeLong(artifact.getSize() == null ? NULL : artifact.getSize());
+    writeString(out, artifact.getDigest());
+    writeInstant(out, artifact.getAddedOn());
+  }
+
+  private static Artifact readArtifact(DataInputStream in, boolean details) throws IOException {
+    Artifact.ArtifactBuilder artifact = Artifact.builder()
+            .id(readUuid(in))
+            .filename(readString(in))
+            .location(readString(in));
+    int actionCount = in.readInt();
+    if (actionCount != NULL) {
+      Set<ArtifactAction> actions = new LinkedHashSet<>();
+      for (int i = 0; i < actionCount; i++) {
+        actions.add(ArtifactAction.valueOf(readString(in)));
+      }
+      artifact.actions(actions);
+    }
+    if (details) {
+      long size = in.readLong();
+      artifact.size(size == NULL ? null : size)
+              .digest(readString(in))
+              .addedOn(readInstant(in));
+    }
+    return artifact.build();
+  }
+
+  private static void writeUuid(DataOutputStream out, UUID uuid) throws IOException {
+    out.writeLong(uuid.getMostSignificantBits());
+    out.writeLong(uuid.getLeastSignificantBits());
+  }
+
+  private static UUID readUuid(DataInputStream in) throws IOException {
+    return new UUID(in.readLong(), in.readLong());
+  }
+
+  // Millisecond precision, as in MongoDB
+  private static void writeInstant(DataOutputStream out, Instant instant) throws IOException {
+    out.writeBoolean(instant != null);
+    if (instant != null) {
+      out.writeLong(instant.toEpochMilli());
+    }
+  }
+
+  private static Instant readInstant(DataInputStream in) throws IOException {
+    return in.readBoolean() ? Instant.ofEpochMilli(in.readLong()) : null;
+  }
+
+  private static void writeString(DataOutputStream out, String value) throws IOException {
+    if (value == null) {
+      out.writeInt(NULL);
+      return;
+    }
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  private static String readString(DataInputStream in) throws IOException {
+    int length = in.readInt();
+    if (length == NULL) {
+      return null;
+    }
+    byte[] bytes = new byte[length];
+    in.readFully(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+}
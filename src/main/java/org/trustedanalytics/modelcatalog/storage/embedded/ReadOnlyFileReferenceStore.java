@@ -0,0 +1,47 @@
+/**
+ * Copyright (c) 2016 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.trustedanalytics.modelcatalog.storage.embedded;
+
+import org.trustedanalytics.modelcatalog.storage.db.FileReferenceStore;
+import org.trustedanalytics.modelcatalog.storage.db.ModelStoreException;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+
+// FileReferenceStore of a catalog served from a snapshot. Artifacts are never added or deleted
+// there, so no references are counted, which would take every model onto the heap at startup.
+@Repository
+@ConditionalOnProperty(prefix = "services.store", name = "type", havingValue = "snapshot")
+public class ReadOnlyFileReferenceStore implements FileReferenceStore {
+
+  @Override
+  public long addReference(String location) throws ModelStoreException {
+    throw readOnly();
+  }
+
+  @Override
+  public boolean removeReference(String location) throws ModelStoreException {
+    throw readOnly();
+  }
+
+  @Override
+  public void releaseLocation(String location) throws ModelStoreException {
+    throw readOnly();
+  }
+
+  private static ModelStoreException readOnly() {
+    return new ModelStoreException("Catalog is served read-only from a snapshot.");
+  }
+
+}
@@ -0,0 +1,173 @@
+/**
+ * Copyright (c) 2016 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.trustedanalytics.modelcatalog.storage.files;
+
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.util.zip.GZIPInputStream;
+
+// Compresses files with gzip on their way into another FileStore, when selected with
+// storage.compression.type. A compressed file is kept with a .gz suffix next to where it would
+// be. Files found without the suffix, stored before compression was enabled or compressed
+// already, are read as they are.
+public class CompressingFileStore implements FileStore {
+
+  static final String SUFFIX = ".gz";
+
+  // Leading bytes of gzip, zip (and jar), bzip2, xz and zstd content
+  private static final byte[][] COMPRESSED_MAGIC = {
+      {0x1f, (byte) 0x8b},
+      {'P', 'K', 3, 4},
+      {'B', 'Z', 'h'},
+      {(byte) 0xfd, '7', 'z', 'X'},
+      {0x28, (byte) 0xb5, 0x2f, (byte) 0xfd},
+  };
+  private static final int MAGIC_LENGTH = 4;
+
+  private final FileStore delegate;
+  private final int level;
+
+  public CompressingFileStore(FileStore delegate, int level) {
+    this.delegate = delegate;
+    this.level = level;
+  }
+
+  @Override
+  public boolean containsFile(String location) {
+    return delegate.containsFile(location + SUFFIX) || delegate.containsFile(location);
+  }
+
+  @Override
+  public InputStream retrieveFile(String location) throws FileStoreException {
+    try {
+      return retrieveFileResource(location).getInputStream();
+    } catch (IOException e) {
+      throw new FileStoreException("Unable to read file: " + location, e);
+    }
+  }
+
+  @Override
+  public Resource retrieveFileResource(String location) throws FileStoreException {
+    if (delegate.containsFile(location + SUFFIX)) {
+      return new GzipCompressedResource(delegate.retrieveFileResource(location + SUFFIX));
+    }
+    return delegate.retrieveFileResource(location);
+  }
+
+  @Override
+  public void addFile(String location, InputStream data) throws FileStoreException {
+    PushbackInputStream content = new PushbackInputStream(data, MAGIC_LENGTH);
+    if (isCompressed(content, location)) {
+      delegate.addFile(location, content);
+      return;
+    }
+    GzipCompressingInputStream compressed = new GzipCompressingInputStream(content, level);
+    try {
+      delegate.addFile(location + SUFFIX, compressed);
+    } finally {
+      closeQuietly(compressed);
+    }
+    if (compressed.getUncompressedSize() > GzipCompressingInputStream.MAX_TRAILER_SIZE) {
+      // Too large for its size to be read from the trailer, which is rare enough to afford
+      // another pass
+      storeDecompressed(location);
+    }
+  }
+
+  @Override
+  public void moveFile(String fromLocation, String toLocation) throws FileStoreException {
+    // The target keeps only the form of the moved file
+    if (delegate.containsFile(fromLocation + SUFFIX)) {
+      delegate.moveFile(fromLocation + SUFFIX, toLocation + SUFFIX);
+      deleteIfPresent(toLocation);
+    } else {
+      delegate.moveFile(fromLocation, toLocation);
+      deleteIfPresent(toLocation + SUFFIX);
+    }
+  }
+
+  @Override
+  public void deleteFile(String location) throws FileStoreException {
+    if (!delegate.containsFile(location + SUFFIX)) {
+      delegate.deleteFile(location);
+      return;
+    }
+    delegate.deleteFile(location + SUFFIX);
+    deleteIfPresent(location);
+  }
+
+  private boolean isCompressed(PushbackInputStream content, String location)
+      throws FileStoreException {
+    try {
+      byte[] head = new byte[MAGIC_LENGTH];
+      int length = 0;
+      while (length < head.length) {
+        int read = content.read(head, length, head.length - length);
+        if (read < 0) {
+          break;
+        }
+        length += read;
+      }
+      content.unread(head, 0, length);
+      for (byte[] magic : COMPRESSED_MAGIC) {
+        if (startsWith(head, length, magic)) {
+          return true;
+        }
+      }
+      return false;
+    } catch (IOException e) {
+      throw new FileStoreException("Unable to store file: " + location, e);
+    }
+  }
+
+  private static boolean startsWith(byte[] head, int length, byte[] magic) {
+    if (length < magic.length) {
+      return false;
+    }
+    for (int i = 0; i < magic.length; i++) {
+      if (head[i] != magic[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private void storeDecompressed(String location) throws FileStoreException {
+    try (InputStream decompressed =
+             new GZIPInputStream(delegate.retrieveFile(location + SUFFIX))) {
+      delegate.addFile(location, decompressed);
+    } catch (IOException e) {
+      throw new FileStoreException("Unable to store file: " + location, e);
+    }
+    delegate.deleteFile(location + SUFFIX);
+  }
+
+  private void deleteIfPresent(String location) throws FileStoreException {
+    if (delegate.containsFile(location)) {
+      delegate.deleteFile(location);
+    }
+  }
+
+  private static void closeQuietly(InputStream stream) {
+    try {
+      stream.close();
+    } catch (IOException e) {
+      // Nothing is left to read from it
+    }
+  }
+
+}
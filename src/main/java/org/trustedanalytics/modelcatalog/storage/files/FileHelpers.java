@@ -22,6 +22,7 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.nio.file.StandardOpenOption;
 
 public class FileHelpers {
@@ -48,6 +49,10 @@ public class FileHelpers {
     Files.delete(path);
   }
   
+  public void move(Path source, Path target) throws IOException {
+    Files.move(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+  }
+  
   public void copyStream(InputStream inputStream, OutputStream outputStream) throws IOException {
     IOUtils.copy(inputStream, outputStream);
   }
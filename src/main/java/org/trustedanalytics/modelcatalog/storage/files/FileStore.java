@@ -13,12 +13,23 @@
  */
 package org.trustedanalytics.modelcatalog.storage.files;
 
+import org.springframework.core.io.Resource;
+
 import java.io.InputStream;
 
 public interface FileStore {
+  boolean containsFile(String location);
+
   InputStream retrieveFile(String location) throws FileStoreException;
 
+  // Backed by the file itself where the store keeps it on the local disk, so that it can be
+  // sent without being read into memory
+  Resource retrieveFileResource(String location) throws FileStoreException;
+
   void addFile(String location, InputStream data) throws FileStoreException;
 
+  // Replaces a file already stored under the target location
+  void moveFile(String fromLocation, String toLocation) throws FileStoreException;
+
   void deleteFile(String location) throws FileStoreException;
 }
@@ -0,0 +1,50 @@
+/**
+ * Copyright (c) 2016 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.trustedanalytics.modelcatalog.storage.files;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.util.zip.Deflater;
+
+// Wraps the FileStore of the active profile in a CompressingFileStore
+@Configuration
+@ConditionalOnProperty(prefix = "storage.compression", name = "type", havingValue = "gzip")
+public class FileStoreCompressionConfig {
+
+  // Static, as post processors are created before the beans of their configuration
+  @Bean
+  public static BeanPostProcessor compressingFileStorePostProcessor(Environment environment) {
+    int level = environment.getProperty(
+        "storage.compression.level", Integer.class, Deflater.DEFAULT_COMPRESSION);
+    return new BeanPostProcessor() {
+      @Override
+      public Object postProcessBeforeInitialization(Object bean, String beanName) {
+        return bean;
+      }
+
+      @Override
+      public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof FileStore && !(bean instanceof CompressingFileStore)) {
+          return new CompressingFileStore((FileStore) bean, level);
+        }
+        return bean;
+      }
+    };
+  }
+
+}
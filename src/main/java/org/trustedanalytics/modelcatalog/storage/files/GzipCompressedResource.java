@@ -0,0 +1,92 @@
+/**
+ * Copyright (c) 2016 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.trustedanalytics.modelcatalog.storage.files;
+
+import org.springframework.core.io.AbstractResource;
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.zip.GZIPInputStream;
+
+// File stored gzip-compressed by CompressingFileStore, read decompressed. The compressed file
+// itself can be sent as it is to clients that accept gzip.
+public class GzipCompressedResource extends AbstractResource {
+
+  private static final int SIZE_FIELD_LENGTH = 4;
+  private static final int BUFFER_SIZE = 65536;
+
+  private final Resource compressed;
+
+  public GzipCompressedResource(Resource compressed) {
+    this.compressed = compressed;
+  }
+
+  public Resource getCompressed() {
+    return compressed;
+  }
+
+  @Override
+  public InputStream getInputStream() throws IOException {
+    return new GZIPInputStream(compressed.getInputStream(), BUFFER_SIZE);
+  }
+
+  // Read from the end of the gzip trailer, which is exact as only files under 4 GiB are
+  // stored compressed
+  @Override
+  public long contentLength() throws IOException {
+    long length = compressed.contentLength();
+    if (length < SIZE_FIELD_LENGTH) {
+      throw new IOException("Compressed file is truncated: " + compressed.getDescription());
+    }
+    byte[] sizeField = new byte[SIZE_FIELD_LENGTH];
+    try (InputStream in = compressed.getInputStream()) {
+      long remaining = length - SIZE_FIELD_LENGTH;
+      while (remaining > 0) {
+        long skipped = in.skip(remaining);
+        if (skipped <= 0) {
+          throw new IOException("Compressed file ended early: " + compressed.getDescription());
+        }
+        remaining -= skipped;
+      }
+      int offset = 0;
+      while (offset < sizeField.length) {
+        int read = in.read(sizeField, offset, sizeField.length - offset);
+        if (read < 0) {
+          throw new IOException("Compressed file ended early: " + compressed.getDescription());
+        }
+        offset += read;
+      }
+    }
+    return ByteBuffer.wrap(sizeField).order(ByteOrder.LITTLE_ENDIAN).getInt() & 0xffffffffL;
+  }
+
+  @Override
+  public long lastModified() throws IOException {
+    return compressed.lastModified();
+  }
+
+  @Override
+  public boolean exists() {
+    return compressed.exists();
+  }
+
+  @Override
+  public String getDescription() {
+    return "gzip-compressed " + compressed.getDescription();
+  }
+
+}
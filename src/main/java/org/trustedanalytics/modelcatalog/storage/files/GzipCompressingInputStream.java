@@ -0,0 +1,93 @@
+/**
+ * Copyright (c) 2016 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.trustedanalytics.modelcatalog.storage.files;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterInputStream;
+
+// Reads data as a gzip member, compressed while it is read, so that it can be handed to a
+// FileStore without being buffered. The trailer is made once all of the data has been read.
+final class GzipCompressingInputStream extends InputStream {
+
+  // Sizes of 4 GiB and more do not fit in the trailer
+  static final long MAX_TRAILER_SIZE = 0xffffffffL;
+
+  // No file name, modification time or flags, unknown operating system
+  private static final byte[] HEADER =
+      {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+  private static final int BUFFER_SIZE = 65536;
+
+  private final CRC32 crc = new CRC32();
+  private final Deflater deflater;
+  private final InputStream header = new ByteArrayInputStream(HEADER);
+  private final InputStream body;
+  private InputStream trailer;
+  private InputStream current = header;
+  private long size;
+
+  GzipCompressingInputStream(InputStream data, int level) {
+    deflater = new Deflater(level, true);
+    body = new DeflaterInputStream(new CheckedInputStream(data, crc), deflater, BUFFER_SIZE);
+  }
+
+  // Number of bytes of data read, known once the whole stream has been read
+  long getUncompressedSize() {
+    return size;
+  }
+
+  @Override
+  public int read() throws IOException {
+    byte[] one = new byte[1];
+    int read = read(one, 0, 1);
+    return read < 0 ? -1 : one[0] & 0xff;
+  }
+
+  @Override
+  public int read(byte[] buffer, int offset, int length) throws IOException {
+    while (true) {
+      int read = current.read(buffer, offset, length);
+      if (read >= 0 || current == trailer) {
+        return read;
+      }
+      current = current == header ? body : trailer();
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      body.close();
+    } finally {
+      deflater.end();
+    }
+  }
+
+  private InputStream trailer() {
+    size = deflater.getBytesRead();
+    deflater.end();
+    trailer = new ByteArrayInputStream(ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN)
+        .putInt((int) crc.getValue())
+        .putInt((int) (size & MAX_TRAILER_SIZE))
+        .array());
+    return trailer;
+  }
+
+}
@@ -17,6 +17,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Repository;
 
 import java.io.IOException;
@@ -40,6 +42,11 @@ public class LocalFileStore implements FileStore {
     fileHelpers.ensureDirectoryExists(basePath);
   }
 
+  @Override
+  public boolean containsFile(String location) {
+    return fileHelpers.exists(fileHelpers.resolvePath(basePath, location));
+  }
+
   @Override
   public InputStream retrieveFile(String location) throws FileStoreException {
     Path path = fileHelpers.resolvePath(basePath, location);
@@ -53,6 +60,15 @@ public class LocalFileStore implements FileStore {
     }
   }
 
+  @Override
+  public Resource retrieveFileResource(String location) throws FileStoreException {
+    Path path = fileHelpers.resolvePath(basePath, location);
+    if (!fileHelpers.exists(path)) {
+      throw new FileStoreException("Unable to find file: " + location);
+    }
+    return new FileSystemResource(path.toFile());
+  }
+
   @Override
   public void addFile(String location, InputStream data) throws FileStoreException {
     Path path = fileHelpers.resolvePath(basePath, location);
@@ -60,12 +76,39 @@ public class LocalFileStore implements FileStore {
       fileHelpers.ensureDirectoryExists(path.getParent());
 
       OutputStream outputStream = fileHelpers.createNewFile(path);
-      fileHelpers.copyStream(data, outputStream);
+      try (OutputStream out = outputStream) {
+        fileHelpers.copyStream(data, out);
+      } catch (IOException e) {
+        // Data may come straight from a request, so an interrupted upload leaves no file behind
+        deletePartialFile(path);
+        throw e;
+      }
     } catch (IOException e) {
       throw new FileStoreException("Unable to store file: " + location, e);
     }
   }
 
+  @Override
+  public void moveFile(String fromLocation, String toLocation) throws FileStoreException {
+    Path source = fileHelpers.resolvePath(basePath, fromLocation);
+    Path target = fileHelpers.resolvePath(basePath, toLocation);
+    try {
+      fileHelpers.ensureDirectoryExists(target.getParent());
+      // Readers of a replaced file keep reading it until they close it
+      fileHelpers.move(source, target);
+    } catch (IOException e) {
+      throw new FileStoreException("Unable to move file: " + fromLocation, e);
+    }
+  }
+
+  private void deletePartialFile(Path path) {
+    try {
+      fileHelpers.delete(path);
+    } catch (IOException e) {
+      LOGGER.warn("Unable to delete partially written file: " + path, e);
+    }
+  }
+
   @Override
   public void deleteFile(String location) throws FileStoreException {
     Path path = fileHelpers.resolvePath(basePath, location);
@@ -17,14 +17,16 @@ import org.apache.tomcat.util.http.fileupload.IOUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Repository;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Repository
 @Profile({"in-memory"})
@@ -32,7 +34,12 @@ public class MemoryFileStore implements FileStore {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(MemoryFileStore.class);
 
-  private final Map<String, byte[]> files = new HashMap<>();
+  private final Map<String, byte[]> files = new ConcurrentHashMap<>();
+
+  @Override
+  public boolean containsFile(String location) {
+    return files.containsKey(location);
+  }
 
   @Override
   public InputStream retrieveFile(String location) throws FileStoreException {
@@ -44,6 +51,15 @@ public class MemoryFileStore implements FileStore {
     return new ByteArrayInputStream(bytes);
   }
 
+  @Override
+  public Resource retrieveFileResource(String location) throws FileStoreException {
+    byte[] bytes = files.get(location);
+    if (bytes == null) {
+      throw new FileStoreException("Unable to find file: " + location);
+    }
+    return new ByteArrayResource(bytes);
+  }
+
   @Override
   public void addFile(String location, InputStream data) throws FileStoreException {
     ByteArrayOutputStream ostream = new ByteArrayOutputStream();
@@ -55,6 +71,15 @@ public class MemoryFileStore implements FileStore {
     }
   }
 
+  @Override
+  public void moveFile(String fromLocation, String toLocation) throws FileStoreException {
+    byte[] bytes = files.remove(fromLocation);
+    if (bytes == null) {
+      throw new FileStoreException("Unable to find file: " + fromLocation);
+    }
+    files.put(toLocation, bytes);
+  }
+
   @Override
   public void deleteFile(String location) throws FileStoreException {
     if (!files.containsKey(location)) {
@@ -16,6 +16,7 @@ package org.trustedanalytics.modelcatalog;
 import org.trustedanalytics.modelcatalog.domain.Artifact;
 import org.trustedanalytics.modelcatalog.domain.ArtifactAction;
 
+import java.time.Instant;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.UUID;
@@ -26,6 +27,8 @@ class TestArtifactsBuilder {
   public static final String ARTIFACT_LOCATION =
           String.format("/%s/%s", TestModelsBuilder.ID, ARTIFACT_ID);
   public static final String ARTIFACT_FILENAME = "model-0.0.1.jar";
+  public static final String ARTIFACT_DIGEST =
+          "ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad";
 
   public static Artifact exemplaryArtifact() {
     Set<ArtifactAction> actions = new HashSet<>();
@@ -35,6 +38,9 @@ class TestArtifactsBuilder {
             .filename(ARTIFACT_FILENAME)
             .location(ARTIFACT_LOCATION)
             .actions(actions)
+            .size(1024L)
+            .digest(ARTIFACT_DIGEST)
+            .addedOn(Instant.ofEpochMilli(1480000000000L))
             .build();
   }
 
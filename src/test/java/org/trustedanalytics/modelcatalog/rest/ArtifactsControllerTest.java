@@ -0,0 +1,77 @@
+/**
+ * Copyright (c) 2016 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.trustedanalytics.modelcatalog.rest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+
+import org.trustedanalytics.modelcatalog.domain.Artifact;
+import org.trustedanalytics.modelcatalog.rest.service.ArtifactsRestService;
+import org.trustedanalytics.modelcatalog.service.ArtifactService;
+import org.trustedanalytics.modelcatalog.service.ContentAddressedFiles;
+import org.trustedanalytics.modelcatalog.storage.db.AsyncModelStore;
+import org.trustedanalytics.modelcatalog.storage.db.FileReferenceStore;
+import org.trustedanalytics.modelcatalog.storage.db.ModelStore;
+import org.trustedanalytics.modelcatalog.storage.db.ModelStoreException;
+import org.trustedanalytics.modelcatalog.storage.files.FileStore;
+
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+
+public class ArtifactsControllerTest {
+
+  private static final String DIGEST =
+          "ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad";
+
+  private final ModelStore modelStore = mock(ModelStore.class);
+  private final FileStore fileStore = mock(FileStore.class);
+  private final MockHttpServletRequest request = new MockHttpServletRequest();
+  private final MockHttpServletResponse response = new MockHttpServletResponse();
+
+  @Test
+  public void retrieveArtifactFile_shouldRespondNotModified_withoutTouchingFileStore()
+          throws IOException, ModelStoreException {
+    // given
+    UUID modelId = UUID.randomUUID();
+    Artifact artifact = Artifact.builder()
+            .id(UUID.randomUUID())
+            .location("/blobs/ba/" + DIGEST)
+            .digest(DIGEST)
+            .build();
+    when(modelStore.retrieveArtifact(modelId, artifact.getId())).thenReturn(artifact);
+    request.addHeader("If-None-Match", "\"" + DIGEST + "\"");
+    // when
+    controller("gzip").retrieveArtifactFile(modelId, artifact.getId(), request, response);
+    // then
+    assertThat(response.getStatus()).isEqualTo(304);
+    assertThat(response.getHeader("Vary")).isEqualTo("Accept-Encoding");
+    verifyZeroInteractions(fileStore);
+  }
+
+  private ArtifactsController controller(String compression) {
+    ArtifactService artifactService = new ArtifactService(modelStore,
+            mock(AsyncModelStore.class), fileStore,
+            new ContentAddressedFiles(fileStore, mock(FileReferenceStore.class)),
+            mock(ExecutorService.class));
+    return new ArtifactsController(new ArtifactsRestService(artifactService), "-1", compression);
+  }
+
+}
@@ -0,0 +1,387 @@
+/**
+ * Copyright (c) 2016 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.trustedanalytics.modelcatalog.rest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.trustedanalytics.modelcatalog.storage.files.GzipCompressedResource;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.zip.GZIPOutputStream;
+
+public class FileDownloadsTest {
+
+  // 0123456789012345
+  private static final byte[] CONTENT = "artifact content".getBytes(StandardCharsets.UTF_8);
+  // SHA-256 of "abc", standing for the digest of any file
+  private static final String ABC_SHA256 =
+          "ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad";
+  private static final String ABC_ETAG = "\"" + ABC_SHA256 + "\"";
+  private static final String ABC_GZIP_ETAG = "\"" + ABC_SHA256 + "-gzip\"";
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private MockHttpServletRequest request;
+  private MockHttpServletResponse response;
+  private File file;
+
+  @Before
+  public void setUp() throws IOException {
+    request = new MockHttpServletRequest();
+    response = new MockHttpServletResponse();
+    file = folder.newFile("artifact.jar");
+    Files.write(file.toPath(), CONTENT);
+  }
+
+  @Test
+  public void send_shouldHandFileToConnector_whenSendfileIsSupported() throws IOException {
+    // given
+    request.setAttribute(FileDownloads.SENDFILE_SUPPORTED, Boolean.TRUE);
+    // when
+    FileDownloads.send(new FileSystemResource(file), null, request, response);
+    // then
+    assertThat(request.getAttribute(FileDownloads.SENDFILE_FILENAME))
+            .isEqualTo(file.getAbsolutePath());
+    assertThat(request.getAttribute(FileDownloads.SENDFILE_START)).isEqualTo(0L);
+    assertThat(request.getAttribute(FileDownloads.SENDFILE_END)).isEqualTo((long) CONTENT.length);
+    assertThat(response.getHeader("Content-Length")).isEqualTo(String.valueOf(CONTENT.length));
+    assertThat(response.getContentAsByteArray()).isEmpty();
+  }
+
+  @Test
+  public void send_shouldTransferFile_whenSendfileIsNotSupported() throws IOException {
+    // when
+    FileDownloads.send(new FileSystemResource(file), null, request, response);
+    // then
+    assertThat(request.getAttribute(FileDownloads.SENDFILE_FILENAME)).isNull();
+    assertThat(response.getContentAsByteArray()).isEqualTo(CONTENT);
+    assertThat(response.getContentType()).isEqualTo("application/octet-stream");
+  }
+
+  @Test
+  public void send_shouldCopyContent_whenNotBackedByFile() throws IOException {
+    // given
+    request.setAttribute(FileDownloads.SENDFILE_SUPPORTED, Boolean.TRUE);
+    // when
+    FileDownloads.send(new ByteArrayResource(CONTENT), null, request, response);
+    // then
+    assertThat(request.getAttribute(FileDownloads.SENDFILE_FILENAME)).isNull();
+    assertThat(response.getContentAsByteArray()).isEqualTo(CONTENT);
+    assertThat(response.getHeader("Content-Length")).isEqualTo(String.valueOf(CONTENT.length));
+  }
+
+  @Test
+  public void send_shouldAdvertiseRanges() throws IOException {
+    // when
+    FileDownloads.send(new FileSystemResource(file), null, request, response);
+    // then
+    assertThat(response.getStatus()).isEqualTo(200);
+    assertThat(response.getHeader("Accept-Ranges")).isEqualTo("bytes");
+    assertThat(response.containsHeader("Last-Modified")).isTrue();
+  }
+
+  @Test
+  public void send_shouldHandRangeToConnector_whenSendfileIsSupported() throws IOException {
+    // given
+    request.setAttribute(FileDownloads.SENDFILE_SUPPORTED, Boolean.TRUE);
+    request.addHeader("Range", "bytes=9-15");
+    // when
+    FileDownloads.send(new FileSystemResource(file), null, request, response);
+    // then
+    assertThat(response.getStatus()).isEqualTo(206);
+    assertThat(response.getHeader("Content-Range")).isEqualTo("bytes 9-15/16");
+    assertThat(response.getHeader("Content-Length")).isEqualTo("7");
+    assertThat(request.getAttribute(FileDownloads.SENDFILE_START)).isEqualTo(9L);
+    assertThat(request.getAttribute(FileDownloads.SENDFILE_END)).isEqualTo(16L);
+  }
+
+  @Test
+  public void send_shouldTransferOnlyRequestedRange() throws IOException {
+    // given
+    request.addHeader("Range", "bytes=9-");
+    // when
+    FileDownloads.send(new FileSystemResource(file), null, request, response);
+    // then
+    assertThat(response.getStatus()).isEqualTo(206);
+    assertThat(response.getContentAsString()).isEqualTo("content");
+  }
+
+  @Test
+  public void send_shouldServeSuffixRange_ofContentNotBackedByFile() throws IOException {
+    // given
+    request.addHeader("Range", "bytes=-7");
+    // when
+    FileDownloads.send(new ByteArrayResource(CONTENT), null, request, response);
+    // then
+    assertThat(response.getStatus()).isEqualTo(206);
+    assertThat(response.getHeader("Content-Range")).isEqualTo("bytes 9-15/16");
+    assertThat(response.getContentAsString()).isEqualTo("content");
+  }
+
+  @Test
+  public void send_shouldServeSeveralRangesAsMultipart() throws IOException {
+    // given
+    request.setAttribute(FileDownloads.SENDFILE_SUPPORTED, Boolean.TRUE);
+    request.addHeader("Range", "bytes=0-7, 9-15");
+    // when
+    FileDownloads.send(new FileSystemResource(file), null, request, response);
+    // then
+    assertThat(response.getStatus()).isEqualTo(206);
+    assertThat(response.getContentType()).startsWith("multipart/byteranges; boundary=");
+    String boundary = response.getContentType().substring(
+            "multipart/byteranges; boundary=".length());
+    assertThat(response.getContentAsString()).isEqualTo(
+            "\r\n--" + boundary + "\r\n"
+            + "Content-Type: application/octet-stream\r\n"
+            + "Content-Range: bytes 0-7/16\r\n\r\n"
+            + "artifact"
+            + "\r\n--" + boundary + "\r\n"
+            + "Content-Type: application/octet-stream\r\n"
+            + "Content-Range: bytes 9-15/16\r\n\r\n"
+            + "content"
+            + "\r\n--" + boundary + "--\r\n");
+    assertThat(response.getHeader("Content-Length"))
+            .isEqualTo(String.valueOf(response.getContentAsByteArray().length));
+  }
+
+  @Test
+  public void send_shouldRespondNotSatisfiable_whenRangeStartsPastEnd() throws IOException {
+    // given
+    request.addHeader("Range", "bytes=16-20");
+    // when
+    FileDownloads.send(new FileSystemResource(file), null, request, response);
+    // then
+    assertThat(response.getStatus()).isEqualTo(416);
+    assertThat(response.getHeader("Content-Range")).isEqualTo("bytes */16");
+  }
+
+  @Test
+  public void send_shouldSendWholeFile_whenRangeIsMalformed() throws IOException {
+    // given
+    request.addHeader("Range", "bytes=9-3");
+    // when
+    FileDownloads.send(new FileSystemResource(file), null, request, response);
+    // then
+    assertThat(response.getStatus()).isEqualTo(200);
+    assertThat(response.getContentAsByteArray()).isEqualTo(CONTENT);
+  }
+
+  @Test
+  public void send_shouldSendWholeFile_whenTooManyRangesRequested() throws IOException {
+    // given
+    StringBuilder header = new StringBuilder("bytes=0-0");
+    for (int i = 0; i < FileDownloads.MAX_RANGES; i++) {
+      header.append(", 0-0");
+    }
+    request.addHeader("Range", header.toString());
+    // when
+    FileDownloads.send(new FileSystemResource(file), null, request, response);
+    // then
+    assertThat(response.getStatus()).isEqualTo(200);
+    assertThat(response.getContentAsByteArray()).isEqualTo(CONTENT);
+  }
+
+  @Test
+  public void send_shouldSendWholeFile_whenChangedSinceIfRange() throws IOException {
+    // given
+    request.addHeader("Range", "bytes=9-");
+    request.addHeader("If-Range", file.lastModified() - 60000);
+    // when
+    FileDownloads.send(new FileSystemResource(file), null, request, response);
+    // then
+    assertThat(response.getStatus()).isEqualTo(200);
+    assertThat(response.getContentAsByteArray()).isEqualTo(CONTENT);
+  }
+
+  @Test
+  public void send_shouldSendRange_whenUnchangedSinceIfRange() throws IOException {
+    // given
+    request.addHeader("Range", "bytes=9-");
+    request.addHeader("If-Range", file.lastModified());
+    // when
+    FileDownloads.send(new FileSystemResource(file), null, request, response);
+    // then
+    assertThat(response.getStatus()).isEqualTo(206);
+    assertThat(response.getContentAsString()).isEqualTo("content");
+  }
+
+  @Test
+  public void send_shouldSendRange_whenIfRangeHasFileTag() throws IOException {
+    // given
+    request.addHeader("Range", "bytes=9-");
+    request.addHeader("If-Range", ABC_ETAG);
+    // when
+    FileDownloads.send(new FileSystemResource(file), ABC_SHA256, request, response);
+    // then
+    assertThat(response.getStatus()).isEqualTo(206);
+    assertThat(response.getContentAsString()).isEqualTo("content");
+  }
+
+  @Test
+  public void send_shouldSendWholeFile_whenIfRangeHasOtherTag() throws IOException {
+    // given
+    request.addHeader("Range", "bytes=9-");
+    request.addHeader("If-Range", "\"other\"");
+    // when
+    FileDownloads.send(new FileSystemResource(file), ABC_SHA256, request, response);
+    // then
+    assertThat(response.getStatus()).isEqualTo(200);
+    assertThat(response.getContentAsByteArray()).isEqualTo(CONTENT);
+  }
+
+  @Test
+  public void checkNotModified_shouldTagFileWithItsDigest() {
+    // when
+    boolean notModified = FileDownloads.checkNotModified(ABC_SHA256, false, request, response);
+    // then
+    assertThat(notModified).isFalse();
+    assertThat(response.getHeader("ETag")).isEqualTo(ABC_ETAG);
+  }
+
+  @Test
+  public void send_shouldSetDigest_whenSendingFileAsItIs() throws IOException {
+    // when
+    FileDownloads.send(new FileSystemResource(file), ABC_SHA256, request, response);
+    // then
+    assertThat(response.getHeader("Digest"))
+            .isEqualTo("SHA-256=ungWv48Bz+pBQUDeXa4iI7ADYaOWF3qctBD/YfIAFa0=");
+  }
+
+  @Test
+  public void checkNotModified_shouldRespondNotModified_whenIfNoneMatchHasFileTag() {
+    // given
+    request.addHeader("If-None-Match", "\"other\", W/" + ABC_ETAG);
+    // when
+    boolean notModified = FileDownloads.checkNotModified(ABC_SHA256, false, request, response);
+    // then
+    assertThat(notModified).isTrue();
+    assertThat(response.getStatus()).isEqualTo(304);
+    assertThat(response.getHeader("ETag")).isEqualTo(ABC_ETAG);
+  }
+
+  @Test
+  public void checkNotModified_shouldLeaveResponse_whenDigestIsUnknown() {
+    // given
+    request.addHeader("If-None-Match", "*");
+    // when
+    boolean notModified = FileDownloads.checkNotModified(null, false, request, response);
+    // then
+    assertThat(notModified).isFalse();
+    assertThat(response.containsHeader("ETag")).isFalse();
+  }
+
+  @Test
+  public void checkNotModified_shouldRespondNotModified_whenIfNoneMatchHasGzipTag() {
+    // given
+    request.addHeader("If-None-Match", ABC_GZIP_ETAG);
+    // when
+    boolean notModified = FileDownloads.checkNotModified(ABC_SHA256, false, request, response);
+    // then
+    assertThat(notModified).isTrue();
+    assertThat(response.getHeader("ETag")).isEqualTo(ABC_GZIP_ETAG);
+  }
+
+  @Test
+  public void checkNotModified_shouldVaryNotModifiedResponse_whenFileMayBeCompressed() {
+    // given
+    request.addHeader("If-None-Match", ABC_ETAG);
+    // when
+    boolean notModified = FileDownloads.checkNotModified(ABC_SHA256, true, request, response);
+    // then
+    assertThat(notModified).isTrue();
+    assertThat(response.getHeader("Vary")).isEqualTo("Accept-Encoding");
+  }
+
+  @Test
+  public void checkNotModified_shouldNotVary_whenFilesAreNotCompressed() {
+    // given
+    request.addHeader("If-None-Match", ABC_ETAG);
+    // when
+    boolean notModified = FileDownloads.checkNotModified(ABC_SHA256, false, request, response);
+    // then
+    assertThat(notModified).isTrue();
+    assertThat(response.containsHeader("Vary")).isFalse();
+  }
+
+  @Test
+  public void send_shouldSendCompressedFileAsItIs_whenClientAcceptsGzip() throws IOException {
+    // given
+    byte[] compressed = gzip(CONTENT);
+    request.addHeader("Accept-Encoding", "deflate, gzip");
+    // when
+    FileDownloads.send(new GzipCompressedResource(new ByteArrayResource(compressed)),
+            ABC_SHA256, request, response);
+    // then
+    assertThat(response.getStatus()).isEqualTo(200);
+    assertThat(response.getHeader("Content-Encoding")).isEqualTo("gzip");
+    assertThat(response.getHeader("Vary")).isEqualTo("Accept-Encoding");
+    assertThat(response.getHeader("ETag")).isEqualTo(ABC_GZIP_ETAG);
+    assertThat(response.containsHeader("Digest")).isFalse();
+    assertThat(response.getHeader("Content-Length")).isEqualTo(String.valueOf(compressed.length));
+    assertThat(response.getContentAsByteArray()).isEqualTo(compressed);
+  }
+
+  @Test
+  public void send_shouldDecompressFile_whenClientRefusesGzip() throws IOException {
+    // given
+    request.addHeader("Accept-Encoding", "gzip;q=0, identity");
+    // when
+    FileDownloads.send(new GzipCompressedResource(new ByteArrayResource(gzip(CONTENT))),
+            null, request, response);
+    // then
+    assertThat(response.getStatus()).isEqualTo(200);
+    assertThat(response.containsHeader("Content-Encoding")).isFalse();
+    assertThat(response.getHeader("Vary")).isEqualTo("Accept-Encoding");
+    assertThat(response.getHeader("Content-Length")).isEqualTo(String.valueOf(CONTENT.length));
+    assertThat(response.getContentAsByteArray()).isEqualTo(CONTENT);
+  }
+
+  @Test
+  public void send_shouldSendRangeOfDecompressedFile_whenClientAcceptsGzip() throws IOException {
+    // given
+    request.addHeader("Accept-Encoding", "gzip");
+    request.addHeader("Range", "bytes=9-");
+    // when
+    FileDownloads.send(new GzipCompressedResource(new ByteArrayResource(gzip(CONTENT))),
+            null, request, response);
+    // then
+    assertThat(response.getStatus()).isEqualTo(206);
+    assertThat(response.containsHeader("Content-Encoding")).isFalse();
+    assertThat(response.getHeader("Content-Range")).isEqualTo("bytes 9-15/16");
+    assertThat(response.getContentAsString()).isEqualTo("content");
+  }
+
+  private static byte[] gzip(byte[] content) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+      out.write(content);
+    }
+    return bytes.toByteArray();
+  }
+
+}
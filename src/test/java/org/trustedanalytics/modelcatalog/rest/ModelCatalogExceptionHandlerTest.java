@@ -0,0 +1,107 @@
+/**
+ * Copyright (c) 2016 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.trustedanalytics.modelcatalog.rest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import org.trustedanalytics.modelcatalog.TestModelsBuilder;
+import org.trustedanalytics.modelcatalog.domain.ModelView;
+import org.trustedanalytics.modelcatalog.security.UsernameExtractor;
+import org.trustedanalytics.modelcatalog.service.ArtifactService;
+import org.trustedanalytics.modelcatalog.service.ContentAddressedFiles;
+import org.trustedanalytics.modelcatalog.service.ModelSearchIndex;
+import org.trustedanalytics.modelcatalog.service.ModelService;
+import org.trustedanalytics.modelcatalog.service.ModelServiceException;
+import org.trustedanalytics.modelcatalog.service.ModelServiceExceptionCode;
+import org.trustedanalytics.modelcatalog.service.SizeLimitedInputStream;
+import org.trustedanalytics.modelcatalog.storage.db.AsyncModelStore;
+import org.trustedanalytics.modelcatalog.storage.db.FileReferenceStore;
+import org.trustedanalytics.modelcatalog.storage.db.ModelStore;
+import org.trustedanalytics.modelcatalog.storage.db.ModelStoreException;
+import org.trustedanalytics.modelcatalog.storage.files.FileStore;
+import org.trustedanalytics.modelcatalog.storage.files.MemoryFileStore;
+
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+
+public class ModelCatalogExceptionHandlerTest {
+
+  private final ModelCatalogExceptionHandler handler = new ModelCatalogExceptionHandler();
+  private final MockHttpServletResponse response = new MockHttpServletResponse();
+
+  @Test
+  public void shouldRespondServiceUnavailable_whenStoreRejectsAsynchronousRead()
+          throws IOException {
+    // given
+    Executor saturated = task -> {
+      throw new RejectedExecutionException();
+    };
+    ModelStore modelStore = mock(ModelStore.class);
+    ModelService modelService = new ModelService(modelStore,
+            new AsyncModelStore(modelStore, saturated), mock(ArtifactService.class),
+            mock(ModelSearchIndex.class), mock(UsernameExtractor.class));
+    // when
+    Throwable thrown = catchThrowable(
+            modelService.retrieveModelAsync(TestModelsBuilder.ID, ModelView.FULL)::join);
+    handler.handleCompletionException((CompletionException) thrown, response);
+    // then
+    assertThat(((ModelServiceException) thrown.getCause()).getCode())
+            .isEqualTo(ModelServiceExceptionCode.STORE_OVERLOADED);
+    assertThat(response.getStatus()).isEqualTo(503);
+  }
+
+  @Test
+  public void shouldRespondPayloadTooLarge_whenArtifactFileExceedsLimit()
+          throws IOException, ModelStoreException {
+    // given
+    ModelStore modelStore = mock(ModelStore.class);
+    when(modelStore.retrieveModel(TestModelsBuilder.ID, ModelView.SUMMARY))
+            .thenReturn(TestModelsBuilder.exemplaryModel());
+    FileStore fileStore = new MemoryFileStore();
+    ArtifactService artifactService = new ArtifactService(modelStore, mock(AsyncModelStore.class),
+            fileStore, new ContentAddressedFiles(fileStore, mock(FileReferenceStore.class)),
+            mock(ExecutorService.class));
+    SizeLimitedInputStream content =
+            new SizeLimitedInputStream(new ByteArrayInputStream(new byte[4]), 3);
+    // when
+    Throwable thrown = catchThrowable(() -> artifactService.addArtifact(
+            TestModelsBuilder.ID, Collections.emptySet(), "model.bin", content));
+    handler.handleModelServiceException((ModelServiceException) thrown, response);
+    // then
+    assertThat(((ModelServiceException) thrown).getCode())
+            .isEqualTo(ModelServiceExceptionCode.ARTIFACT_TOO_LARGE);
+    assertThat(response.getStatus()).isEqualTo(413);
+  }
+
+  @Test
+  public void shouldRespondNotFound_whenModelIsMissing() throws IOException {
+    // when
+    handler.handleModelServiceException(new ModelServiceException(
+            ModelServiceExceptionCode.MODEL_NOT_FOUND, "Model not found."), response);
+    // then
+    assertThat(response.getStatus()).isEqualTo(404);
+  }
+
+}
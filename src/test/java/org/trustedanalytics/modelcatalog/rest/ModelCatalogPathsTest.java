@@ -15,8 +15,11 @@ package org.trustedanalytics.modelcatalog.rest;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import org.trustedanalytics.modelcatalog.rest.entities.ModelFilterDTO;
+
 import org.junit.Test;
 
+import java.util.Arrays;
 import java.util.UUID;
 
 public class ModelCatalogPathsTest {
@@ -28,6 +31,27 @@ public class ModelCatalogPathsTest {
             .isEqualTo(ModelCatalogPaths.MODELS + "/" + uuid);
   }
 
+  @Test
+  public void pathToModelsPage_shouldAppendOnlyGivenPagingParameters() {
+    assertThat(ModelCatalogPaths.pathToModelsPage("org", null, null))
+            .isEqualTo(ModelCatalogPaths.MODELS + "?orgId=org");
+    assertThat(ModelCatalogPaths.pathToModelsPage("org", 10, "abc"))
+            .isEqualTo(ModelCatalogPaths.MODELS + "?orgId=org&limit=10&cursor=abc");
+    assertThat(ModelCatalogPaths.pathToModelsPage("org", 10, "abc", "summary"))
+            .isEqualTo(ModelCatalogPaths.MODELS + "?orgId=org&limit=10&cursor=abc&view=summary");
+  }
+
+  @Test
+  public void pathToModelsPage_shouldAppendEncodedSortAndFilterParameters() {
+    ModelFilterDTO filter = ModelFilterDTO.builder()
+            .algorithm("k means")
+            .addedAfter("2016-10-17T10:15:30Z")
+            .build();
+    assertThat(ModelCatalogPaths.pathToModelsPage("org", 10, null, null, "-addedOn", filter))
+            .isEqualTo(ModelCatalogPaths.MODELS + "?orgId=org&limit=10&sort=-addedOn"
+                    + "&algorithm=k+means&addedAfter=2016-10-17T10%3A15%3A30Z");
+  }
+
   @Test
   public void pathToModelArtifacts_shouldConsistOfPathToModelPlusArtifactsString() {
     UUID uuid = UUID.randomUUID();
@@ -35,6 +59,15 @@ public class ModelCatalogPathsTest {
             .isEqualTo(ModelCatalogPaths.pathToModel(uuid) + "/artifacts");
   }
 
+  @Test
+  public void pathToModelArtifactsUpload_shouldAppendEncodedFilenameAndEachAction() {
+    UUID uuid = UUID.randomUUID();
+    assertThat(ModelCatalogPaths.pathToModelArtifactsUpload(
+            uuid, "model v1.jar", Arrays.asList("A", "B")))
+            .isEqualTo(ModelCatalogPaths.pathToModelArtifacts(uuid)
+                    + "?filename=model+v1.jar&artifactActions=A&artifactActions=B");
+  }
+
   @Test
   public void
   pathToModelArtifact_shouldConsistOfPathToModelPlusArtifactStringAndArtifactId() {
@@ -44,4 +77,10 @@ public class ModelCatalogPathsTest {
             .isEqualTo(ModelCatalogPaths.pathToModel(modelId) + "/artifacts/" + artifactId);
   }
 
-}
\ No newline at end of file
+  @Test
+  public void pathToStatistics_shouldTellWhetherEstimatesAreWanted() {
+    assertThat(ModelCatalogPaths.pathToStatistics(true))
+            .isEqualTo("/api/v1/statistics?estimated=true");
+  }
+
+}
@@ -0,0 +1,75 @@
+/**
+ * Copyright (c) 2016 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.trustedanalytics.modelcatalog.rest.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.trustedanalytics.modelcatalog.domain.ModelCursor;
+import org.trustedanalytics.modelcatalog.domain.ModelSort;
+import org.trustedanalytics.modelcatalog.service.ModelServiceException;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.time.Instant;
+import java.util.UUID;
+
+public class ModelCursorFormatterTest {
+
+  @Rule
+  public final ExpectedException thrown = ExpectedException.none();
+
+  @Test
+  public void shouldParseFormattedCursor() {
+    // given
+    ModelCursor cursor = ModelCursor.builder()
+            .sortKey(Instant.ofEpochMilli(1476106424550L))
+            .id(UUID.randomUUID())
+            .build();
+    // when
+    ModelCursor parsedCursor = ModelCursorFormatter.parse(
+            ModelCursorFormatter.format(cursor, ModelSort.ADDED_ON_ASC), ModelSort.ADDED_ON_ASC);
+    // then
+    assertThat(parsedCursor).isEqualToComparingFieldByField(cursor);
+  }
+
+  @Test
+  public void shouldReturnNull_whenCursorIsNull() {
+    assertThat(ModelCursorFormatter.format(null, ModelSort.DEFAULT)).isNull();
+    assertThat(ModelCursorFormatter.parse(null, ModelSort.DEFAULT)).isNull();
+  }
+
+  @Test
+  public void shouldThrowAnException_whenCursorIsMalformed() {
+    thrown.expect(ModelServiceException.class);
+    ModelCursorFormatter.parse("not-a-cursor", ModelSort.DEFAULT);
+  }
+
+  @Test
+  public void shouldThrowAnException_whenCursorWasIssuedForOtherDirection() {
+    // given
+    ModelCursor cursor = ModelCursor.builder()
+            .sortKey(Instant.ofEpochMilli(1476106424550L))
+            .id(UUID.randomUUID())
+            .build();
+    String formatted = ModelCursorFormatter.format(cursor, ModelSort.ADDED_ON_ASC);
+    // then
+    thrown.expect(ModelServiceException.class);
+    thrown.expectMessage("sort");
+    // when
+    ModelCursorFormatter.parse(formatted, ModelSort.ADDED_ON_DESC);
+  }
+
+}
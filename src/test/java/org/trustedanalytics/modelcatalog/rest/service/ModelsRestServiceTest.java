@@ -18,24 +18,44 @@ import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.when;
 
+import java.time.Instant;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.http.HttpStatus;
 import org.trustedanalytics.modelcatalog.TestModelParamsBuilder;
 import org.trustedanalytics.modelcatalog.TestModelsBuilder;
 import org.trustedanalytics.modelcatalog.domain.Model;
+import org.trustedanalytics.modelcatalog.domain.ModelCursor;
+import org.trustedanalytics.modelcatalog.domain.ModelFilter;
+import org.trustedanalytics.modelcatalog.domain.ModelSort;
+import org.trustedanalytics.modelcatalog.domain.ModelView;
+import org.trustedanalytics.modelcatalog.rest.entities.ModelBulkItemDTO;
 import org.trustedanalytics.modelcatalog.rest.entities.ModelDTO;
+import org.trustedanalytics.modelcatalog.rest.entities.ModelFilterDTO;
 import org.trustedanalytics.modelcatalog.rest.entities.ModelModificationParametersDTO;
+import org.trustedanalytics.modelcatalog.rest.entities.ModelSearchResultDTO;
+import org.trustedanalytics.modelcatalog.rest.entities.ModelsPageDTO;
 import org.trustedanalytics.modelcatalog.service.ModelModificationParameters;
+import org.trustedanalytics.modelcatalog.service.ModelSearchResult;
 import org.trustedanalytics.modelcatalog.service.ModelService;
 import org.trustedanalytics.modelcatalog.service.ModelServiceException;
+import org.trustedanalytics.modelcatalog.service.ModelsBulkAddResult;
+import org.trustedanalytics.modelcatalog.service.ModelsBulkDeleteResult;
+import org.trustedanalytics.modelcatalog.service.ModelsPage;
 
 @RunWith(MockitoJUnitRunner.class)
 public class ModelsRestServiceTest {
@@ -50,6 +70,7 @@ public class ModelsRestServiceTest {
   public final ExpectedException thrown = ExpectedException.none();
 
   private static final String DEFAULT_ORG_ID = "defaultorg";
+  private static final int PAGE_LIMIT = 10;
   private final UUID modelId = UUID.randomUUID();
   private final Model model = TestModelsBuilder.exemplaryModel();
   private final ModelDTO modelDTO = ModelMapper.toModelDTO(model);
@@ -57,22 +78,178 @@ public class ModelsRestServiceTest {
       TestModelParamsBuilder.exemplaryParamsDTO();
 
   @Test
-  public void shouldListAndMapModels() {
+  public void shouldStreamAndMapModels() {
     // given
-    when(modelService.listModels(DEFAULT_ORG_ID)).thenReturn(Collections.singletonList(model));
+    when(modelService.streamModels(
+        DEFAULT_ORG_ID, ModelFilter.NONE, ModelSort.DEFAULT, ModelView.FULL))
+        .thenReturn(Stream.of(model));
     // when
-    Collection<ModelDTO> modelDTOs = service.listModels(DEFAULT_ORG_ID);
+    List<ModelDTO> modelDTOs = service.streamModels(DEFAULT_ORG_ID, null, null, null)
+        .collect(Collectors.toList());
     // then
     assertThat(modelDTOs).hasSize(1);
-    assertThat(modelDTOs.contains(modelDTO));
+    assertThat(modelDTOs.get(0)).isEqualToComparingFieldByFieldRecursively(modelDTO);
+  }
+
+  @Test
+  public void shouldListAndMapPageOfModels() {
+    // given
+    ModelsPage page = ModelsPage.builder()
+        .models(Collections.singletonList(model))
+        .nextCursor(ModelCursor.after(model, ModelSort.DEFAULT))
+        .build();
+    when(modelService.listModelsAsync(
+        DEFAULT_ORG_ID, ModelFilter.NONE, ModelSort.DEFAULT, null, PAGE_LIMIT, ModelView.FULL))
+        .thenReturn(CompletableFuture.completedFuture(page));
+    // when
+    ModelsPageDTO pageDTO =
+        service.listModelsAsync(DEFAULT_ORG_ID, null, null, PAGE_LIMIT, null, null).join();
+    // then
+    assertThat(pageDTO.getModels()).hasSize(1);
+    assertThat(pageDTO.getModels().get(0)).isEqualToComparingFieldByFieldRecursively(modelDTO);
+    assertThat(pageDTO.getNextCursor()).isNotEmpty();
+  }
+
+  @Test
+  public void shouldUseDefaultPageLimit_whenLimitNotGiven() {
+    // given
+    ModelsPage page = ModelsPage.builder().models(Collections.emptyList()).build();
+    when(modelService.listModelsAsync(DEFAULT_ORG_ID, ModelFilter.NONE, ModelSort.DEFAULT, null,
+        ModelsRestService.DEFAULT_PAGE_LIMIT, ModelView.FULL))
+        .thenReturn(CompletableFuture.completedFuture(page));
+    // when
+    ModelsPageDTO pageDTO =
+        service.listModelsAsync(DEFAULT_ORG_ID, null, null, null, null, null).join();
+    // then
+    assertThat(pageDTO.getModels()).isEmpty();
+    assertThat(pageDTO.getNextCursor()).isNull();
+  }
+
+  @Test
+  public void shouldPassFilterAndSortToModelService() {
+    // given
+    ModelFilterDTO filter = ModelFilterDTO.builder()
+        .algorithm("k-means")
+        .addedAfter("2016-10-17T10:15:30Z")
+        .modifiedBefore("2016-10-18 10:15:30 GMT")
+        .build();
+    ArgumentCaptor<ModelFilter> filterCaptor = ArgumentCaptor.forClass(ModelFilter.class);
+    when(modelService.listModelsAsync(eq(DEFAULT_ORG_ID), filterCaptor.capture(),
+        eq(ModelSort.ADDED_ON_DESC), eq(null), eq(PAGE_LIMIT), eq(ModelView.FULL)))
+        .thenReturn(CompletableFuture.completedFuture(
+            ModelsPage.builder().models(Collections.emptyList()).build()));
+    // when
+    service.listModelsAsync(DEFAULT_ORG_ID, filter, "-addedOn", PAGE_LIMIT, null, null).join();
+    // then
+    ModelFilter modelFilter = filterCaptor.getValue();
+    assertThat(modelFilter.getAlgorithm()).isEqualTo("k-means");
+    assertThat(modelFilter.getAddedAfter()).isEqualTo(Instant.parse("2016-10-17T10:15:30Z"));
+    assertThat(modelFilter.getModifiedBefore()).isEqualTo(Instant.parse("2016-10-18T10:15:30Z"));
+    assertThat(modelFilter.getCreationTool()).isNull();
+  }
+
+  @Test
+  public void shouldThrowAnExceptionWhenGivenSortIsUnknown() {
+    thrown.expect(ModelServiceException.class);
+    service.listModelsAsync(DEFAULT_ORG_ID, null, "-name", PAGE_LIMIT, null, null);
+  }
+
+  @Test
+  public void shouldThrowAnExceptionWhenCursorWasIssuedForOtherSort() {
+    // given
+    ModelsPage page = ModelsPage.builder()
+        .models(Collections.singletonList(model))
+        .nextCursor(ModelCursor.after(model, ModelSort.DEFAULT))
+        .build();
+    when(modelService.listModelsAsync(
+        DEFAULT_ORG_ID, ModelFilter.NONE, ModelSort.DEFAULT, null, PAGE_LIMIT, ModelView.FULL))
+        .thenReturn(CompletableFuture.completedFuture(page));
+    String cursor = service.listModelsAsync(DEFAULT_ORG_ID, null, null, PAGE_LIMIT, null, null)
+        .join().getNextCursor();
+    // then
+    thrown.expect(ModelServiceException.class);
+    // when
+    service.listModelsAsync(DEFAULT_ORG_ID, null, "modifiedOn", PAGE_LIMIT, cursor, null);
+  }
+
+  @Test
+  public void shouldThrowAnExceptionWhenGivenFilterTimeIsMalformed() {
+    thrown.expect(ModelServiceException.class);
+    service.listModelsAsync(DEFAULT_ORG_ID,
+        ModelFilterDTO.builder().addedBefore("yesterday").build(), null, PAGE_LIMIT, null, null);
+  }
+
+  @Test
+  public void shouldThrowAnExceptionWhenGivenPageLimitAboveMaximum() {
+    thrown.expect(ModelServiceException.class);
+    service.listModelsAsync(
+        DEFAULT_ORG_ID, null, null, ModelsRestService.MAX_PAGE_LIMIT + 1, null, null);
+  }
+
+  @Test
+  public void shouldListSummaryOfModels_withoutArtifacts() {
+    // given
+    ModelsPage page = ModelsPage.builder()
+        .models(Collections.singletonList(model))
+        .build();
+    when(modelService.listModelsAsync(
+        DEFAULT_ORG_ID, ModelFilter.NONE, ModelSort.DEFAULT, null, PAGE_LIMIT, ModelView.SUMMARY))
+        .thenReturn(CompletableFuture.completedFuture(page));
+    // when
+    ModelsPageDTO pageDTO =
+        service.listModelsAsync(DEFAULT_ORG_ID, null, null, PAGE_LIMIT, null, "Summary").join();
+    // then
+    assertThat(pageDTO.getModels()).hasSize(1);
+    assertThat(pageDTO.getModels().get(0).getName()).isEqualTo(model.getName());
+    assertThat(pageDTO.getModels().get(0).getArtifacts()).isNull();
+  }
+
+  @Test
+  public void shouldSearchAndMapSummaryOfModels() {
+    // given
+    ModelSearchResult result = ModelSearchResult.builder()
+        .models(Collections.singletonList(model))
+        .total(1)
+        .algorithms(Collections.singletonMap(model.getAlgorithm(), 1))
+        .creationTools(Collections.singletonMap(model.getCreationTool(), 1))
+        .build();
+    when(modelService.searchModels(
+        DEFAULT_ORG_ID, "fraud", ModelsRestService.DEFAULT_SEARCH_LIMIT)).thenReturn(result);
+    // when
+    ModelSearchResultDTO resultDTO = service.searchModels(DEFAULT_ORG_ID, "fraud", null);
+    // then
+    assertThat(resultDTO.getModels()).hasSize(1);
+    assertThat(resultDTO.getModels().get(0).getArtifacts()).isNull();
+    assertThat(resultDTO.getTotal()).isEqualTo(1);
+    assertThat(resultDTO.getAlgorithms()).containsEntry(model.getAlgorithm(), 1);
+    assertThat(resultDTO.getCreationTools()).containsEntry(model.getCreationTool(), 1);
+  }
+
+  @Test
+  public void shouldThrowAnExceptionWhenGivenSearchQueryIsBlank() {
+    thrown.expect(ModelServiceException.class);
+    service.searchModels(DEFAULT_ORG_ID, "  ", null);
+  }
+
+  @Test
+  public void shouldThrowAnExceptionWhenGivenSearchLimitAboveMaximum() {
+    thrown.expect(ModelServiceException.class);
+    service.searchModels(DEFAULT_ORG_ID, "fraud", ModelsRestService.MAX_SEARCH_LIMIT + 1);
+  }
+
+  @Test
+  public void shouldThrowAnExceptionWhenGivenInvalidView() {
+    thrown.expect(ModelServiceException.class);
+    service.retrieveModelAsync(modelId, "everything");
   }
 
   @Test
   public void shouldRetrieveAndMapModel() {
     // given
-    when(modelService.retrieveModel(modelId)).thenReturn(model);
+    when(modelService.retrieveModelAsync(modelId, ModelView.FULL))
+        .thenReturn(CompletableFuture.completedFuture(model));
     // when
-    ModelDTO retrievedModel = service.retrieveModel(modelId);
+    ModelDTO retrievedModel = service.retrieveModelAsync(modelId, null).join();
     // then
     assertThat(retrievedModel).isEqualToComparingFieldByFieldRecursively(modelDTO);
   }
@@ -88,6 +265,51 @@ public class ModelsRestServiceTest {
     assertThat(addedModel).isEqualToComparingFieldByFieldRecursively(modelDTO);
   }
 
+  @Test
+  public void shouldAddValidModelsAndReportEachResult() {
+    // given
+    Model failedModel = Model.builder().id(UUID.randomUUID()).build();
+    ModelsBulkAddResult result = ModelsBulkAddResult.builder()
+        .models(Arrays.asList(model, failedModel))
+        .failedIds(Collections.singleton(failedModel.getId()))
+        .build();
+    when(modelService.addModels(any(List.class), eq(DEFAULT_ORG_ID))).thenReturn(result);
+    // when
+    List<ModelBulkItemDTO> items = service.addModels(
+        Arrays.asList(paramsDTO, TestModelParamsBuilder.emptyParamsDTO(), paramsDTO),
+        DEFAULT_ORG_ID);
+    // then
+    assertThat(items).extracting(ModelBulkItemDTO::getStatus).containsExactly(
+        HttpStatus.CREATED.value(), HttpStatus.BAD_REQUEST.value(),
+        HttpStatus.INTERNAL_SERVER_ERROR.value());
+    assertThat(items.get(0).getModel()).isEqualToComparingFieldByFieldRecursively(modelDTO);
+    assertThat(items.get(1).getMessage()).isNotEmpty();
+    assertThat(items.get(2).getModel()).isNull();
+  }
+
+  @Test
+  public void shouldThrowAnExceptionWhenGivenTooManyModelsInBulk() {
+    thrown.expect(ModelServiceException.class);
+    service.addModels(
+        Collections.nCopies(ModelsRestService.MAX_BULK_SIZE + 1, paramsDTO), DEFAULT_ORG_ID);
+  }
+
+  @Test
+  public void shouldDeleteModelsAndReportEachResult() {
+    // given
+    UUID missingId = UUID.randomUUID();
+    ModelsBulkDeleteResult result = ModelsBulkDeleteResult.builder()
+        .models(Collections.singletonList(model))
+        .build();
+    when(modelService.deleteModels(any(Collection.class))).thenReturn(result);
+    // when
+    List<ModelBulkItemDTO> items = service.deleteModels(Arrays.asList(missingId, model.getId()));
+    // then
+    assertThat(items).extracting(ModelBulkItemDTO::getStatus).containsExactly(
+        HttpStatus.NOT_FOUND.value(), HttpStatus.OK.value());
+    assertThat(items.get(1).getModel()).isEqualToComparingFieldByFieldRecursively(modelDTO);
+  }
+
   @Test
   public void shouldUpdateAndMapModel() {
     // given
@@ -0,0 +1,180 @@
+/**
+ * Copyright (c) 2016 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.trustedanalytics.modelcatalog.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+
+import org.trustedanalytics.modelcatalog.domain.CatalogSnapshotInfo;
+import org.trustedanalytics.modelcatalog.domain.Model;
+import org.trustedanalytics.modelcatalog.domain.ModelView;
+import org.trustedanalytics.modelcatalog.security.AuthorityChecker;
+import org.trustedanalytics.modelcatalog.storage.db.ModelStore;
+import org.trustedanalytics.modelcatalog.storage.db.ModelStoreException;
+import org.trustedanalytics.modelcatalog.storage.embedded.CatalogSnapshotStore;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+@RunWith(MockitoJUnitRunner.class)
+public class CatalogSnapshotServiceTest {
+
+  private static final String AUTHORITY = "tap.admin";
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Mock
+  private ModelStore modelStore;
+  @Mock
+  private CatalogSnapshotStore snapshotStore;
+  @Mock
+  private ModelSearchIndex searchIndex;
+  @Mock
+  private CatalogStatisticsService statisticsService;
+  @Mock
+  private AuthorityChecker authorityChecker;
+
+  @Before
+  public void setUp() {
+    when(authorityChecker.hasAuthority(AUTHORITY)).thenReturn(true);
+  }
+
+  @Test
+  public void exportSnapshot_shouldWriteAllModels() throws ModelStoreException {
+    // given
+    CatalogSnapshotService service = service(Optional.empty());
+    when(modelStore.streamAllModels(ModelView.FULL)).thenReturn(Stream.of(model(), model()));
+    // when
+    CatalogSnapshotInfo info = service.exportSnapshot();
+    // then
+    assertThat(info.getModels()).isEqualTo(2);
+    assertThat(folder.getRoot().list()).containsExactly("catalog.snapshot");
+  }
+
+  @Test
+  public void exportSnapshot_shouldThrowExportFailed_whenModelsCannotBeRead()
+          throws ModelStoreException {
+    // given
+    CatalogSnapshotService service = service(Optional.empty());
+    when(modelStore.streamAllModels(ModelView.FULL)).thenThrow(new ModelStoreException("error"));
+    // when
+    Throwable thrown = catchThrowable(service::exportSnapshot);
+    // then
+    assertThat(thrown).isInstanceOf(ModelServiceException.class);
+    assertThat(((ModelServiceException) thrown).getCode())
+            .isEqualTo(ModelServiceExceptionCode.SNAPSHOT_EXPORT_FAILED);
+    assertThat(folder.getRoot().list()).isEmpty();
+  }
+
+  @Test
+  public void reloadSnapshot_shouldThrowNotServed_whenStoreIsNotSnapshot() {
+    // given
+    CatalogSnapshotService service = service(Optional.empty());
+    // when
+    Throwable thrown = catchThrowable(service::reloadSnapshot);
+    // then
+    assertThat(thrown).isInstanceOf(ModelServiceException.class);
+    assertThat(((ModelServiceException) thrown).getCode())
+            .isEqualTo(ModelServiceExceptionCode.SNAPSHOT_NOT_SERVED);
+  }
+
+  @Test
+  public void reloadSnapshot_shouldRebuildSearchIndexAndStatistics() throws IOException {
+    // given
+    CatalogSnapshotService service = service(Optional.of(snapshotStore));
+    CatalogSnapshotInfo reloaded = CatalogSnapshotInfo.builder()
+            .models(1)
+            .createdOn(Instant.now())
+            .build();
+    when(snapshotStore.reload()).thenReturn(reloaded);
+    // when
+    CatalogSnapshotInfo info = service.reloadSnapshot();
+    // then
+    assertThat(info).isSameAs(reloaded);
+    verify(searchIndex).rebuildInBackground();
+    verify(statisticsService).refreshInBackground();
+  }
+
+  @Test
+  public void reloadSnapshot_shouldThrowReloadFailed_andKeepIndex_whenSnapshotCannotBeMapped()
+          throws IOException {
+    // given
+    CatalogSnapshotService service = service(Optional.of(snapshotStore));
+    when(snapshotStore.reload()).thenThrow(new IOException("error"));
+    // when
+    Throwable thrown = catchThrowable(service::reloadSnapshot);
+    // then
+    assertThat(thrown).isInstanceOf(ModelServiceException.class);
+    assertThat(((ModelServiceException) thrown).getCode())
+            .isEqualTo(ModelServiceExceptionCode.SNAPSHOT_RELOAD_FAILED);
+    verifyZeroInteractions(searchIndex, statisticsService);
+  }
+
+  @Test
+  public void exportSnapshot_shouldThrowAccessDenied_withoutAuthority() {
+    // given
+    CatalogSnapshotService service = service(Optional.empty());
+    when(authorityChecker.hasAuthority(AUTHORITY)).thenReturn(false);
+    // when
+    Throwable thrown = catchThrowable(service::exportSnapshot);
+    // then
+    assertThat(((ModelServiceException) thrown).getCode())
+            .isEqualTo(ModelServiceExceptionCode.ACCESS_DENIED);
+    verifyZeroInteractions(modelStore);
+    assertThat(folder.getRoot().list()).isEmpty();
+  }
+
+  @Test
+  public void reloadSnapshot_shouldThrowAccessDenied_withoutAuthority() {
+    // given
+    CatalogSnapshotService service = service(Optional.of(snapshotStore));
+    when(authorityChecker.hasAuthority(AUTHORITY)).thenReturn(false);
+    // when
+    Throwable thrown = catchThrowable(service::reloadSnapshot);
+    // then
+    assertThat(((ModelServiceException) thrown).getCode())
+            .isEqualTo(ModelServiceExceptionCode.ACCESS_DENIED);
+    verifyZeroInteractions(snapshotStore, searchIndex, statisticsService);
+  }
+
+  private CatalogSnapshotService service(Optional<CatalogSnapshotStore> snapshotStore) {
+    return new CatalogSnapshotService(modelStore, snapshotStore, searchIndex, statisticsService,
+            authorityChecker, folder.getRoot().toPath().resolve("catalog.snapshot").toString(),
+            AUTHORITY);
+  }
+
+  private static Model model() {
+    return Model.builder()
+            .id(UUID.randomUUID())
+            .orgId("defaultorg")
+            .name("model")
+            .build();
+  }
+
+}
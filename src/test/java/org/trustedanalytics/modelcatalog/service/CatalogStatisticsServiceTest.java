@@ -0,0 +1,126 @@
+/**
+ * Copyright (c) 2016 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.trustedanalytics.modelcatalog.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.trustedanalytics.modelcatalog.domain.CatalogStatistics;
+import org.trustedanalytics.modelcatalog.storage.db.ModelStore;
+import org.trustedanalytics.modelcatalog.storage.db.ModelStoreException;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+@RunWith(MockitoJUnitRunner.class)
+public class CatalogStatisticsServiceTest {
+
+  private static final long MAX_AGE_MS = 60000;
+
+  @Mock
+  private ModelStore modelStore;
+
+  @Test
+  public void getStatistics_shouldThrowNotReady_andStartComputing_whenNoneComputedYet()
+          throws ModelStoreException {
+    // given
+    CatalogStatisticsService service = service(MAX_AGE_MS);
+    when(modelStore.computeStatistics()).thenReturn(statistics(Instant.now()));
+    // when
+    Throwable thrown = catchThrowable(service::getStatistics);
+    // then
+    assertThat(thrown).isInstanceOf(ModelServiceException.class);
+    assertThat(((ModelServiceException) thrown).getCode())
+            .isEqualTo(ModelServiceExceptionCode.STATISTICS_NOT_READY);
+    verify(modelStore).computeStatistics();
+  }
+
+  @Test
+  public void shouldServeComputedStatistics_withoutRecomputing_whileFresh()
+          throws ModelStoreException {
+    // given
+    CatalogStatisticsService service = service(MAX_AGE_MS);
+    CatalogStatistics computed = statistics(Instant.now());
+    when(modelStore.computeStatistics()).thenReturn(computed);
+    service.refreshInBackground();
+    // when
+    CatalogStatistics first = service.getStatistics();
+    CatalogStatistics second = service.getStatistics();
+    // then
+    assertThat(first).isSameAs(computed);
+    assertThat(second).isSameAs(computed);
+    verify(modelStore, times(1)).computeStatistics();
+  }
+
+  @Test
+  public void shouldServeStaleStatistics_andRecomputeThem() throws ModelStoreException {
+    // given
+    CatalogStatisticsService service = service(MAX_AGE_MS);
+    CatalogStatistics stale = statistics(Instant.now().minus(2, ChronoUnit.MINUTES));
+    CatalogStatistics fresh = statistics(Instant.now());
+    when(modelStore.computeStatistics()).thenReturn(stale, fresh);
+    service.refreshInBackground();
+    // when
+    CatalogStatistics served = service.getStatistics();
+    // then
+    assertThat(served).isSameAs(stale);
+    assertThat(service.getStatistics()).isSameAs(fresh);
+  }
+
+  @Test
+  public void shouldKeepPreviousStatistics_whenRecomputingFails() throws ModelStoreException {
+    // given
+    CatalogStatisticsService service = service(MAX_AGE_MS);
+    CatalogStatistics stale = statistics(Instant.now().minus(2, ChronoUnit.MINUTES));
+    when(modelStore.computeStatistics())
+            .thenReturn(stale)
+            .thenThrow(new ModelStoreException("error"));
+    service.refreshInBackground();
+    // when
+    service.getStatistics();
+    // then
+    assertThat(service.getStatistics()).isSameAs(stale);
+  }
+
+  @Test
+  public void estimateStatistics_shouldThrowStatisticsFailed_whenStoreFails()
+          throws ModelStoreException {
+    // given
+    CatalogStatisticsService service = service(MAX_AGE_MS);
+    when(modelStore.estimateStatistics()).thenThrow(new ModelStoreException("error"));
+    // when
+    Throwable thrown = catchThrowable(service::estimateStatistics);
+    // then
+    assertThat(((ModelServiceException) thrown).getCode())
+            .isEqualTo(ModelServiceExceptionCode.STATISTICS_FAILED);
+  }
+
+  // Refreshes run on the calling thread, so that their effects can be checked right away
+  private CatalogStatisticsService service(long maxAgeMs) {
+    return new CatalogStatisticsService(modelStore, Runnable::run, maxAgeMs);
+  }
+
+  private CatalogStatistics statistics(Instant computedOn) {
+    return CatalogStatistics.builder().computedOn(computedOn).build();
+  }
+
+}
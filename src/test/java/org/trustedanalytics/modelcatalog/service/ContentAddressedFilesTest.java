@@ -0,0 +1,175 @@
+/**
+ * Copyright (c) 2016 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.trustedanalytics.modelcatalog.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.trustedanalytics.modelcatalog.domain.ModelView;
+import org.trustedanalytics.modelcatalog.storage.db.ModelStore;
+import org.trustedanalytics.modelcatalog.storage.db.ModelStoreException;
+import org.trustedanalytics.modelcatalog.storage.embedded.InMemoryFileReferenceStore;
+import org.trustedanalytics.modelcatalog.storage.files.FileStore;
+import org.trustedanalytics.modelcatalog.storage.files.FileStoreException;
+import org.trustedanalytics.modelcatalog.storage.files.MemoryFileStore;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ContentAddressedFilesTest {
+
+  // SHA-256 of "abc"
+  private static final String ABC_DIGEST =
+          "ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad";
+  private static final String ABC_LOCATION = "/blobs/ba/" + ABC_DIGEST;
+
+  @Mock
+  private ModelStore modelStore;
+
+  private FileStore fileStore;
+  private InMemoryFileReferenceStore referenceStore;
+  private ContentAddressedFiles files;
+
+  @Before
+  public void setUp() throws ModelStoreException {
+    when(modelStore.streamAllModels(ModelView.FULL)).thenReturn(Stream.empty());
+    referenceStore = new InMemoryFileReferenceStore(modelStore);
+    referenceStore.countReferences();
+    fileStore = spy(new MemoryFileStore());
+    files = new ContentAddressedFiles(fileStore, referenceStore);
+  }
+
+  @Test
+  public void add_shouldStoreContentUnderItsDigest_andMeasureIt() throws Exception {
+    // when
+    StoredFile file = files.add(content("abc"));
+    // then
+    assertThat(file.getLocation()).isEqualTo(ABC_LOCATION);
+    assertThat(file.getDigest()).isEqualTo(ABC_DIGEST);
+    assertThat(file.getSize()).isEqualTo(3);
+    assertThat(read(file.getLocation())).isEqualTo("abc");
+  }
+
+  @Test
+  public void add_shouldStoreIdenticalContentOnce_andKeepItUntilLastReferenceIsRemoved()
+          throws Exception {
+    // given
+    String first = files.add(content("abc")).getLocation();
+    String second = files.add(content("abc")).getLocation();
+    // when
+    files.remove(first);
+    // then
+    assertThat(second).isEqualTo(first);
+    assertThat(read(first)).isEqualTo("abc");
+    // when
+    files.remove(second);
+    // then
+    Throwable thrown = catchThrowable(() -> fileStore.retrieveFile(first));
+    assertThat(thrown).isInstanceOf(FileStoreException.class);
+  }
+
+  @Test
+  public void add_shouldStoreDifferentContentApart() throws Exception {
+    // when
+    String first = files.add(content("abc")).getLocation();
+    String second = files.add(content("abd")).getLocation();
+    // then
+    assertThat(second).isNotEqualTo(first);
+    assertThat(read(second)).isEqualTo("abd");
+  }
+
+  @Test
+  public void remove_shouldDeleteFileStoredPerArtifact_withoutCountingReferences()
+          throws Exception {
+    // given
+    String location = "/model-id/artifact-id";
+    fileStore.addFile(location, content("abc"));
+    // when
+    files.remove(location);
+    // then
+    verify(fileStore).deleteFile(location);
+  }
+
+  @Test
+  public void remove_shouldKeepFileReferredToByExistingArtifacts() throws Exception {
+    // given
+    String location = files.add(content("abc")).getLocation();
+    files.add(content("abc"));
+    // when
+    files.remove(location);
+    // then
+    verify(fileStore, never()).deleteFile(location);
+  }
+
+  @Test
+  public void add_shouldWaitForDeletionOfSameContent_byAnotherInstance() throws Exception {
+    // given
+    ContentAddressedFiles otherInstance = new ContentAddressedFiles(fileStore, referenceStore);
+    String location = files.add(content("abc")).getLocation();
+    AtomicReference<CompletableFuture<StoredFile>> upload = new AtomicReference<>();
+    doAnswer(invocation -> {
+      // The same content is uploaded to the other instance between the last reference being
+      // removed and the file being deleted
+      upload.set(CompletableFuture.supplyAsync(() -> addQuietly(otherInstance, "abc")));
+      Throwable waited = catchThrowable(() -> upload.get().get(200, TimeUnit.MILLISECONDS));
+      assertThat(waited).isInstanceOf(TimeoutException.class);
+      return invocation.callRealMethod();
+    }).when(fileStore).deleteFile(location);
+    // when
+    files.remove(location);
+    StoredFile uploaded = upload.get().get(5, TimeUnit.SECONDS);
+    // then
+    assertThat(uploaded.getLocation()).isEqualTo(location);
+    assertThat(read(location)).isEqualTo("abc");
+  }
+
+  private static StoredFile addQuietly(ContentAddressedFiles files, String text) {
+    try {
+      return files.add(content(text));
+    } catch (Exception e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static InputStream content(String text) {
+    return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private String read(String location) throws Exception {
+    try (InputStream stream = fileStore.retrieveFile(location)) {
+      byte[] bytes = new byte[16];
+      int length = stream.read(bytes);
+      return new String(bytes, 0, length, StandardCharsets.UTF_8);
+    }
+  }
+
+}
@@ -0,0 +1,239 @@
+/**
+ * Copyright (c) 2016 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.trustedanalytics.modelcatalog.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+
+import org.trustedanalytics.modelcatalog.domain.Model;
+import org.trustedanalytics.modelcatalog.domain.ModelView;
+import org.trustedanalytics.modelcatalog.storage.db.ModelStore;
+import org.trustedanalytics.modelcatalog.storage.db.ModelStoreException;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.time.Instant;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ModelSearchIndexTest {
+
+  private static final String ORG_ID = "defaultorg";
+  private static final String OTHER_ORG_ID = "otherorg";
+  private static final int LIMIT = 10;
+
+  @Mock
+  private ModelStore modelStore;
+
+  private ModelSearchIndex searchIndex;
+
+  @Before
+  public void setUp() {
+    searchIndex = new ModelSearchIndex(modelStore, true);
+  }
+
+  @Test
+  public void shouldRankModelsMatchingMoreQueryTermsFirst() {
+    // given
+    Model fraudBoosting = model(ORG_ID, "fraud detector", "gradient boosting", "sklearn");
+    Model fraudForest = model(ORG_ID, "fraud detector", "random forest", "sklearn");
+    Model churn = model(ORG_ID, "churn", "logistic regression", "h2o");
+    searchIndex.index(fraudForest);
+    searchIndex.index(fraudBoosting);
+    searchIndex.index(churn);
+    // when
+    ModelSearchResult result = searchIndex.search(ORG_ID, "Fraud gradient-boosting", LIMIT);
+    // then
+    assertThat(result.getModels()).extracting(Model::getId)
+            .containsExactly(fraudBoosting.getId(), fraudForest.getId());
+    assertThat(result.getTotal()).isEqualTo(2);
+  }
+
+  @Test
+  public void shouldCountFacetsOfAllMatchingModels_whenLimitingResults() {
+    // given
+    searchIndex.index(model(ORG_ID, "fraud a", "gradient boosting", "sklearn"));
+    searchIndex.index(model(ORG_ID, "fraud b", "gradient boosting", "h2o"));
+    searchIndex.index(model(ORG_ID, "fraud c", "random forest", "sklearn"));
+    // when
+    ModelSearchResult result = searchIndex.search(ORG_ID, "fraud", 1);
+    // then
+    assertThat(result.getModels()).hasSize(1);
+    assertThat(result.getTotal()).isEqualTo(3);
+    assertThat(result.getAlgorithms())
+            .containsEntry("gradient boosting", 2)
+            .containsEntry("random forest", 1);
+    assertThat(result.getAlgorithms().keySet()).startsWith("gradient boosting");
+    assertThat(result.getCreationTools())
+            .containsEntry("sklearn", 2)
+            .containsEntry("h2o", 1);
+  }
+
+  @Test
+  public void shouldNotFindModelsOfOtherOrganizations() {
+    // given
+    searchIndex.index(model(OTHER_ORG_ID, "fraud", "gradient boosting", "sklearn"));
+    // when
+    ModelSearchResult result = searchIndex.search(ORG_ID, "fraud", LIMIT);
+    // then
+    assertThat(result.getModels()).isEmpty();
+    assertThat(result.getTotal()).isZero();
+  }
+
+  @Test
+  public void shouldReplaceTermsOfReindexedModel() {
+    // given
+    Model model = model(ORG_ID, "fraud", "gradient boosting", "sklearn");
+    searchIndex.index(model);
+    // when
+    searchIndex.index(model(model.getId(), ORG_ID, "churn", "gradient boosting", "sklearn"));
+    // then
+    assertThat(searchIndex.search(ORG_ID, "fraud", LIMIT).getModels()).isEmpty();
+    assertThat(searchIndex.search(ORG_ID, "churn", LIMIT).getModels()).hasSize(1);
+  }
+
+  @Test
+  public void shouldKeepMoreRecentlyModifiedModel_whenUpdatesComeInOutOfOrder() {
+    // given
+    Model model = model(ORG_ID, "fraud", "gradient boosting", "sklearn");
+    Model newer = Model.builder().id(model.getId()).orgId(ORG_ID).name("churn")
+            .modifiedOn(Instant.ofEpochMilli(2000L)).build();
+    Model older = Model.builder().id(model.getId()).orgId(ORG_ID).name("fraud")
+            .modifiedOn(Instant.ofEpochMilli(1000L)).build();
+    // when
+    searchIndex.index(newer);
+    searchIndex.index(older);
+    // then
+    assertThat(searchIndex.search(ORG_ID, "fraud", LIMIT).getModels()).isEmpty();
+    assertThat(searchIndex.search(ORG_ID, "churn", LIMIT).getModels()).hasSize(1);
+  }
+
+  @Test
+  public void shouldNotFindRemovedModel() {
+    // given
+    Model model = model(ORG_ID, "fraud", "gradient boosting", "sklearn");
+    searchIndex.index(model);
+    // when
+    searchIndex.remove(model.getId());
+    // then
+    assertThat(searchIndex.search(ORG_ID, "fraud", LIMIT).getModels()).isEmpty();
+    assertThat(searchIndex.search(ORG_ID, "fraud", LIMIT).getAlgorithms()).isEmpty();
+  }
+
+  @Test
+  public void shouldIndexScannedModels_andBecomeReady() throws ModelStoreException {
+    // given
+    Model model = model(ORG_ID, "fraud", "gradient boosting", "sklearn");
+    when(modelStore.streamAllModels(ModelView.SUMMARY)).thenReturn(Stream.of(model));
+    // when
+    searchIndex.build();
+    // then
+    assertThat(searchIndex.isReady()).isTrue();
+    assertThat(searchIndex.search(ORG_ID, "fraud", LIMIT).getModels()).hasSize(1);
+  }
+
+  @Test
+  public void shouldNotRestoreModelRemovedDuringScan() throws ModelStoreException {
+    // given
+    Model model = model(ORG_ID, "fraud", "gradient boosting", "sklearn");
+    when(modelStore.streamAllModels(ModelView.SUMMARY)).thenReturn(Stream.of(model));
+    searchIndex.remove(model.getId());
+    // when
+    searchIndex.build();
+    // then
+    assertThat(searchIndex.search(ORG_ID, "fraud", LIMIT).getModels()).isEmpty();
+  }
+
+  @Test
+  public void shouldDropModelsOfStaleScan_whenRebuiltDuringIt() throws Exception {
+    // given
+    Model stale = model(ORG_ID, "fraud", "gradient boosting", "sklearn");
+    Model current = model(ORG_ID, "churn", "random forest", "sklearn");
+    // The catalog is replaced while the first scan is between its models
+    when(modelStore.streamAllModels(ModelView.SUMMARY))
+            .thenReturn(Stream.of(stale).peek(model -> searchIndex.rebuildInBackground()))
+            .thenReturn(Stream.of(current));
+    // when
+    searchIndex.build();
+    // then
+    long deadline = System.currentTimeMillis() + 5000;
+    while (!searchIndex.isReady() && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+    assertThat(searchIndex.isReady()).isTrue();
+    assertThat(searchIndex.search(ORG_ID, "fraud", LIMIT).getModels()).isEmpty();
+    assertThat(searchIndex.search(ORG_ID, "churn", LIMIT).getModels()).hasSize(1);
+  }
+
+  @Test
+  public void shouldRetryScan_untilItSucceeds() throws ModelStoreException {
+    // given
+    ModelSearchIndex retryingIndex = new ModelSearchIndex(modelStore, true, 1);
+    Model model = model(ORG_ID, "fraud", "gradient boosting", "sklearn");
+    when(modelStore.streamAllModels(ModelView.SUMMARY))
+            .thenThrow(new ModelStoreException("error"))
+            .thenThrow(new ModelStoreException("error"))
+            .thenReturn(Stream.of(model));
+    // when
+    retryingIndex.build();
+    // then
+    assertThat(retryingIndex.isReady()).isTrue();
+    assertThat(retryingIndex.search(ORG_ID, "fraud", LIMIT).getModels()).hasSize(1);
+    verify(modelStore, times(3)).streamAllModels(ModelView.SUMMARY);
+  }
+
+  @Test
+  public void shouldNotScanOrHoldModels_whenDisabled() {
+    // given
+    ModelSearchIndex disabledIndex = new ModelSearchIndex(modelStore, false);
+    // when
+    disabledIndex.buildInBackground();
+    disabledIndex.index(model(ORG_ID, "fraud", "gradient boosting", "sklearn"));
+    // then
+    assertThat(disabledIndex.isEnabled()).isFalse();
+    assertThat(disabledIndex.search(ORG_ID, "fraud", LIMIT).getModels()).isEmpty();
+    verifyZeroInteractions(modelStore);
+  }
+
+  @Test
+  public void shouldSplitTextIntoLowerCaseWords() {
+    assertThat(ModelSearchIndex.tokenize("Gradient-Boosting, v2 (XGBoost)"))
+            .containsExactly("gradient", "boosting", "v2", "xgboost");
+    assertThat(ModelSearchIndex.tokenize(null)).isEmpty();
+  }
+
+  private Model model(String orgId, String name, String algorithm, String creationTool) {
+    return model(UUID.randomUUID(), orgId, name, algorithm, creationTool);
+  }
+
+  private Model model(UUID id, String orgId, String name, String algorithm,
+                      String creationTool) {
+    return Model.builder()
+            .id(id)
+            .orgId(orgId)
+            .name(name)
+            .algorithm(algorithm)
+            .creationTool(creationTool)
+            .build();
+  }
+
+}
@@ -14,19 +14,32 @@
 package org.trustedanalytics.modelcatalog.service;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyString;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import org.trustedanalytics.modelcatalog.ModelParamsChecker;
 import org.trustedanalytics.modelcatalog.TestModelParamsBuilder;
 import org.trustedanalytics.modelcatalog.TestModelsBuilder;
+import org.trustedanalytics.modelcatalog.domain.Artifact;
 import org.trustedanalytics.modelcatalog.domain.Model;
+import org.trustedanalytics.modelcatalog.domain.ModelFilter;
+import org.trustedanalytics.modelcatalog.domain.ModelSort;
+import org.trustedanalytics.modelcatalog.domain.ModelView;
 import org.trustedanalytics.modelcatalog.security.UsernameExtractor;
+import org.trustedanalytics.modelcatalog.storage.db.AsyncModelStore;
 import org.trustedanalytics.modelcatalog.storage.db.ModelStore;
 import org.trustedanalytics.modelcatalog.storage.db.ModelStoreException;
+import org.trustedanalytics.modelcatalog.storage.embedded.InMemoryFileReferenceStore;
+import org.trustedanalytics.modelcatalog.storage.files.FileStore;
+import org.trustedanalytics.modelcatalog.storage.files.MemoryFileStore;
 
 import com.google.common.collect.Sets;
 import org.junit.Before;
@@ -34,15 +47,30 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @RunWith(MockitoJUnitRunner.class)
 public class ModelServiceTest {
@@ -50,8 +78,12 @@ public class ModelServiceTest {
   @Mock
   private ModelStore modelStore;
   @Mock
+  private AsyncModelStore asyncModelStore;
+  @Mock
   private ArtifactService artifactService;
   @Mock
+  private ModelSearchIndex searchIndex;
+  @Mock
   private UsernameExtractor usernameExtractor;
   @InjectMocks
   private ModelService modelService;
@@ -75,17 +107,68 @@ public class ModelServiceTest {
   }
 
   @Test
-  public void shouldListModels() throws ModelStoreException {
+  public void shouldStreamModels() throws ModelStoreException {
     // given
     Set<Model> models = Sets.newHashSet(TestModelsBuilder.exemplaryModel(), TestModelsBuilder
             .exemplaryModel());
-    when(modelStore.listModels(any(String.class))).thenReturn(models);
+    when(modelStore.streamModels(any(String.class), any(ModelFilter.class),
+            any(ModelSort.class), any(ModelView.class)))
+            .thenReturn(models.stream());
     // when
-    Collection<Model> returnedModels = modelService.listModels(DEFAULT_ORG_ID);
+    Set<Model> returnedModels = modelService.streamModels(
+            DEFAULT_ORG_ID, ModelFilter.NONE, ModelSort.DEFAULT, ModelView.FULL)
+            .collect(Collectors.toSet());
     // then
     assertThat(models).isEqualTo(returnedModels);
   }
 
+  @Test
+  public void listModelsPage_shouldReturnCursorOfLastModel_whenMoreModelsAvailable()
+          throws ModelStoreException {
+    // given
+    List<Model> models = Arrays.asList(TestModelsBuilder.exemplaryModel(),
+            TestModelsBuilder.exemplaryModel(), TestModelsBuilder.exemplaryModel());
+    when(asyncModelStore.listModels(
+            DEFAULT_ORG_ID, ModelFilter.NONE, ModelSort.DEFAULT, null, 3, ModelView.FULL))
+            .thenReturn(CompletableFuture.completedFuture(models));
+    // when
+    ModelsPage page = modelService.listModelsAsync(DEFAULT_ORG_ID, ModelFilter.NONE,
+            ModelSort.DEFAULT, null, 2, ModelView.FULL).join();
+    // then
+    assertThat(page.getModels()).containsExactly(models.get(0), models.get(1));
+    assertThat(page.getNextCursor().getId()).isEqualTo(models.get(1).getId());
+    assertThat(page.getNextCursor().getSortKey()).isEqualTo(models.get(1).getModifiedOn());
+  }
+
+  @Test
+  public void listModelsPage_shouldReturnCursorAtSortKeyOfLastModel() throws ModelStoreException {
+    // given
+    List<Model> models = Arrays.asList(TestModelsBuilder.exemplaryModel(),
+            TestModelsBuilder.exemplaryModel());
+    when(asyncModelStore.listModels(DEFAULT_ORG_ID, ModelFilter.NONE, ModelSort.ADDED_ON_ASC,
+            null, 2, ModelView.FULL)).thenReturn(CompletableFuture.completedFuture(models));
+    // when
+    ModelsPage page = modelService.listModelsAsync(DEFAULT_ORG_ID, ModelFilter.NONE,
+            ModelSort.ADDED_ON_ASC, null, 1, ModelView.FULL).join();
+    // then
+    assertThat(page.getNextCursor().getSortKey()).isEqualTo(models.get(0).getAddedOn());
+  }
+
+  @Test
+  public void listModelsPage_shouldReturnNoCursor_whenLastPageReached()
+          throws ModelStoreException {
+    // given
+    when(asyncModelStore.listModels(
+            DEFAULT_ORG_ID, ModelFilter.NONE, ModelSort.DEFAULT, null, 3, ModelView.SUMMARY))
+            .thenReturn(CompletableFuture.completedFuture(Arrays.asList(model)));
+    // when
+    ModelsPage page = modelService.listModelsAsync(DEFAULT_ORG_ID, ModelFilter.NONE,
+            ModelSort.DEFAULT, null, 2, ModelView.SUMMARY).join();
+    // then
+    assertThat(page.getModels()).containsExactly(model);
+    assertThat(page.getNextCursor()).isNull();
+  }
+
   @Test
   public void shouldRetrieveExistingModel() throws ModelStoreException {
     // given
@@ -102,6 +185,85 @@ public class ModelServiceTest {
     modelService.retrieveModel(UUID.randomUUID());
   }
 
+  @Test
+  public void shouldRetrieveSummaryOfExistingModel() throws ModelStoreException {
+    // given
+    when(asyncModelStore.retrieveModel(modelId, ModelView.SUMMARY))
+            .thenReturn(CompletableFuture.completedFuture(model));
+    // when
+    Model retrievedModel = modelService.retrieveModelAsync(modelId, ModelView.SUMMARY).join();
+    // then
+    assertThat(retrievedModel).isEqualToComparingFieldByField(model);
+  }
+
+  @Test
+  public void shouldSearchModelsInIndex() {
+    // given
+    ModelSearchResult searchResult = ModelSearchResult.builder().build();
+    when(searchIndex.isEnabled()).thenReturn(true);
+    when(searchIndex.isReady()).thenReturn(true);
+    when(searchIndex.search(DEFAULT_ORG_ID, "fraud", 10)).thenReturn(searchResult);
+    // when
+    ModelSearchResult result = modelService.searchModels(DEFAULT_ORG_ID, "fraud", 10);
+    // then
+    assertThat(result).isSameAs(searchResult);
+  }
+
+  @Test
+  public void searchModels_shouldThrowIndexNotReady_whenIndexIsBeingBuilt() {
+    // given
+    when(searchIndex.isEnabled()).thenReturn(true);
+    when(searchIndex.isReady()).thenReturn(false);
+    // when
+    Throwable thrown = catchThrowable(
+            () -> modelService.searchModels(DEFAULT_ORG_ID, "fraud", 10));
+    // then
+    assertThat(thrown).isInstanceOf(ModelServiceException.class);
+    assertThat(((ModelServiceException) thrown).getCode())
+            .isEqualTo(ModelServiceExceptionCode.SEARCH_INDEX_NOT_READY);
+  }
+
+  @Test
+  public void searchModels_shouldThrowSearchDisabled_whenIndexIsDisabled() {
+    // given
+    when(searchIndex.isEnabled()).thenReturn(false);
+    // when
+    Throwable thrown = catchThrowable(
+            () -> modelService.searchModels(DEFAULT_ORG_ID, "fraud", 10));
+    // then
+    assertThat(thrown).isInstanceOf(ModelServiceException.class);
+    assertThat(((ModelServiceException) thrown).getCode())
+            .isEqualTo(ModelServiceExceptionCode.SEARCH_DISABLED);
+    verify(searchIndex, never()).search(anyString(), anyString(), anyInt());
+  }
+
+  @Test
+  public void retrieveModelAsync_shouldFailWithModelNotFound_whenNoModelFound() {
+    // given
+    when(asyncModelStore.retrieveModel(modelId, ModelView.FULL))
+            .thenReturn(CompletableFuture.completedFuture(null));
+    // when
+    CompletableFuture<Model> retrievedModel =
+            modelService.retrieveModelAsync(modelId, ModelView.FULL);
+    // then
+    assertThatFailedWith(retrievedModel, ModelServiceExceptionCode.MODEL_NOT_FOUND);
+  }
+
+  @Test
+  public void listModelsAsync_shouldFailWithListFailed_whenStoreFails() {
+    // given
+    CompletableFuture<List<Model>> failed = new CompletableFuture<>();
+    failed.completeExceptionally(new ModelStoreException("error"));
+    when(asyncModelStore.listModels(
+            DEFAULT_ORG_ID, ModelFilter.NONE, ModelSort.DEFAULT, null, 3, ModelView.FULL))
+            .thenReturn(failed);
+    // when
+    CompletableFuture<ModelsPage> page = modelService.listModelsAsync(
+            DEFAULT_ORG_ID, ModelFilter.NONE, ModelSort.DEFAULT, null, 2, ModelView.FULL);
+    // then
+    assertThatFailedWith(page, ModelServiceExceptionCode.MODEL_LIST_FAILED);
+  }
+
   @Test
   public void shouldInitiateAddAndReturnModel_withGivenProperties() {
     // when
@@ -111,12 +273,32 @@ public class ModelServiceTest {
     // then
     ModelParamsChecker.checkThatModelDTOContainsParamsDTO(addedModel, params);
     assertThat(addedModel.getId()).isNotNull();
+    assertThat(addedModel.getOrgId()).isEqualTo(DEFAULT_ORG_ID);
     assertThat(addedModel.getAddedBy()).isEqualTo(USERNAME);
     checkThatIsBetween(addedModel.getAddedOn(), before, after);
     assertThat(addedModel.getModifiedBy()).isEqualTo(USERNAME);
     checkThatIsBetween(addedModel.getModifiedOn(), before, after);
   }
 
+  @Test
+  public void addModel_shouldIndexAddedModelForSearch() {
+    // when
+    Model addedModel = modelService.addModel(params, DEFAULT_ORG_ID);
+    // then
+    verify(searchIndex).index(addedModel);
+  }
+
+  @Test
+  public void addModel_shouldNotIndexModel_whenStoreFails() throws ModelStoreException {
+    // given
+    doThrow(new ModelStoreException(""))
+            .when(modelStore).addModel(any(Model.class), any(String.class));
+    // when
+    catchThrowable(() -> modelService.addModel(params, DEFAULT_ORG_ID));
+    // then
+    verify(searchIndex, never()).index(any(Model.class));
+  }
+
   @Test(expected = ModelServiceException.class)
   public void addModel_shouldThrowFailedUpdateException_whenStatusFailure()
           throws ModelStoreException {
@@ -128,19 +310,82 @@ public class ModelServiceTest {
   }
 
   @Test
-  public void shouldUpdateAndReturnRetrievedModel() throws ModelStoreException {
+  public void shouldAddModelsAndReportFailedOnes() throws ModelStoreException {
     // given
-    when(modelStore.retrieveModel(modelId)).thenReturn(model);
+    Set<UUID> failedIds = Sets.newHashSet(UUID.randomUUID());
+    when(modelStore.addModels(any(List.class))).thenReturn(failedIds);
+    // when
+    ModelsBulkAddResult result = modelService.addModels(Arrays.asList(params, params),
+            DEFAULT_ORG_ID);
+    // then
+    assertThat(result.getModels()).hasSize(2);
+    assertThat(result.getModels()).extracting(Model::getOrgId).containsOnly(DEFAULT_ORG_ID);
+    assertThat(result.getFailedIds()).isSameAs(failedIds);
+  }
+
+  @Test(expected = ModelServiceException.class)
+  public void addModels_shouldThrowFailedAddException_whenStoreFails()
+          throws ModelStoreException {
+    // given
+    when(modelStore.addModels(any(List.class))).thenThrow(new ModelStoreException(""));
+    // when
+    modelService.addModels(Arrays.asList(params), DEFAULT_ORG_ID);
+  }
+
+  @Test
+  public void shouldUpdateAndReturnUpdatedModel() throws ModelStoreException {
+    // given
+    when(modelStore.updateModel(eq(modelId), any(Map.class))).thenReturn(model);
     // when
     Model updatedModel = modelService.updateModel(modelId, params);
     // then
     assertThat(updatedModel).isSameAs(model);
+    verify(modelStore, never()).retrieveModel(any(UUID.class));
+  }
+
+  @Test
+  public void updateModel_shouldNotHoldUpOtherUpdates_whileWritingToStore() throws Exception {
+    // given
+    Model firstWritten = TestModelsBuilder.exemplaryModel();
+    Model secondWritten = TestModelsBuilder.exemplaryModel();
+    AtomicInteger writes = new AtomicInteger();
+    when(modelStore.updateModel(eq(modelId), any(Map.class))).thenAnswer(invocation -> {
+      if (writes.incrementAndGet() > 1) {
+        return secondWritten;
+      }
+      // Another update of the model is written and indexed before the first one is written
+      CompletableFuture.supplyAsync(() -> modelService.patchModel(modelId, params))
+              .get(5, TimeUnit.SECONDS);
+      return firstWritten;
+    });
+    // when
+    modelService.updateModel(modelId, params);
+    // then
+    InOrder inOrder = inOrder(searchIndex);
+    inOrder.verify(searchIndex).index(secondWritten);
+    inOrder.verify(searchIndex).index(firstWritten);
+  }
+
+  @Test
+  public void updateModel_shouldNotIndexModel_whenDeletedMeanwhile() throws Exception {
+    // given
+    when(modelStore.retrieveModel(modelId)).thenReturn(model);
+    when(modelStore.updateModel(eq(modelId), any(Map.class))).thenAnswer(invocation -> {
+      modelService.deleteModel(modelId);
+      return model;
+    });
+    when(modelStore.retrieveModel(modelId, ModelView.SUMMARY)).thenReturn(null);
+    // when
+    modelService.updateModel(modelId, params);
+    // then
+    verify(searchIndex).remove(modelId);
+    verify(searchIndex, never()).index(any(Model.class));
   }
 
   @Test(expected = ModelServiceException.class)
   public void updateModel_shouldThrowException_whenModelNotFound() throws ModelStoreException {
     // given
-    when(modelStore.retrieveModel(modelId)).thenReturn(null);
+    when(modelStore.updateModel(eq(modelId), any(Map.class))).thenReturn(null);
     // when
     modelService.updateModel(modelId, params);
   }
@@ -149,7 +394,7 @@ public class ModelServiceTest {
   public void updateModel_shouldPassPropertiesMapContainingNullProperties()
           throws ModelStoreException {
     // given
-    when(modelStore.retrieveModel(modelId)).thenReturn(model);
+    when(modelStore.updateModel(eq(modelId), any(Map.class))).thenReturn(model);
     ModelModificationParameters params = TestModelParamsBuilder.paramsWithNullNameProperty();
     // when
     modelService.updateModel(modelId, params);
@@ -163,7 +408,7 @@ public class ModelServiceTest {
   @Test
   public void updateModel_shouldUpdateModifiedOnAndByProperties() throws ModelStoreException {
     // given
-    when(modelStore.retrieveModel(modelId)).thenReturn(model);
+    when(modelStore.updateModel(eq(modelId), any(Map.class))).thenReturn(model);
     // when
     Instant before = Instant.now();
     modelService.updateModel(modelId, params);
@@ -181,7 +426,6 @@ public class ModelServiceTest {
   public void updateModel_shouldThrowFailedUpdateException_whenUpdateWasNotSuccessful()
           throws ModelStoreException {
     // given
-    when(modelStore.retrieveModel(any(UUID.class))).thenReturn(model);
     doThrow(new ModelStoreException("")).when(modelStore)
             .updateModel(any(UUID.class), any(Map.class));
     // when
@@ -189,9 +433,9 @@ public class ModelServiceTest {
   }
 
   @Test
-  public void shouldPatchAndReturnRetrievedModel() throws ModelStoreException {
+  public void shouldPatchAndReturnUpdatedModel() throws ModelStoreException {
     // given
-    when(modelStore.retrieveModel(modelId)).thenReturn(model);
+    when(modelStore.updateModel(eq(modelId), any(Map.class))).thenReturn(model);
     // when
     Model patchedModel = modelService.patchModel(modelId, params);
     // then
@@ -201,7 +445,7 @@ public class ModelServiceTest {
   @Test(expected = ModelServiceException.class)
   public void patchModel_shouldThrowException_whenModelNotFound() throws ModelStoreException {
     // given
-    when(modelStore.retrieveModel(modelId)).thenReturn(null);
+    when(modelStore.updateModel(eq(modelId), any(Map.class))).thenReturn(null);
     // when
     modelService.patchModel(modelId, params);
   }
@@ -210,7 +454,7 @@ public class ModelServiceTest {
   public void patchModel_shouldPassPropertiesMapOmittingNullProperties()
           throws ModelStoreException {
     // given
-    when(modelStore.retrieveModel(modelId)).thenReturn(model);
+    when(modelStore.updateModel(eq(modelId), any(Map.class))).thenReturn(model);
     ModelModificationParameters params = TestModelParamsBuilder.paramsWithNullNameProperty();
     // when
     modelService.patchModel(modelId, params);
@@ -223,7 +467,7 @@ public class ModelServiceTest {
   @Test
   public void patchModel_shouldUpdateModifiedOnAndByProperties() throws ModelStoreException {
     // given
-    when(modelStore.retrieveModel(modelId)).thenReturn(model);
+    when(modelStore.updateModel(eq(modelId), any(Map.class))).thenReturn(model);
     // when
     Instant before = Instant.now();
     modelService.patchModel(modelId, params);
@@ -241,7 +485,6 @@ public class ModelServiceTest {
   public void patchModel_shouldThrowFailedUpdateException_whenUpdateWasNotSuccessful()
           throws ModelStoreException {
     // given
-    when(modelStore.retrieveModel(any(UUID.class))).thenReturn(model);
     doThrow(new ModelStoreException("")).when(modelStore)
             .updateModel(any(UUID.class), any(Map.class));
     // when
@@ -251,7 +494,6 @@ public class ModelServiceTest {
   @Test(expected = ModelServiceException.class)
   public void patchModel_shouldThrowExceptionIfNothingToUpdate() throws ModelStoreException {
     // given
-    when(modelStore.retrieveModel(any(UUID.class))).thenReturn(model);
     // when
     modelService.patchModel(UUID.randomUUID(), TestModelParamsBuilder.emptyParams());
   }
@@ -265,6 +507,7 @@ public class ModelServiceTest {
     // then
     assertThat(deletedModel).isSameAs(model);
     verify(modelStore).deleteModel(modelId);
+    verify(searchIndex).remove(modelId);
   }
 
   @Test(expected = ModelServiceException.class)
@@ -285,6 +528,100 @@ public class ModelServiceTest {
     modelService.deleteModel(UUID.randomUUID());
   }
 
+  @Test
+  public void deleteModel_shouldKeepArtifactFiles_whenModelRecordNotDeleted()
+          throws ModelStoreException {
+    // given
+    when(modelStore.retrieveModel(modelId)).thenReturn(model);
+    doThrow(new ModelStoreException("")).when(modelStore).deleteModel(modelId);
+    // when
+    Throwable thrown = catchThrowable(() -> modelService.deleteModel(modelId));
+    // then
+    assertThat(thrown).isInstanceOf(ModelServiceException.class);
+    verify(artifactService, never()).deleteArtifactFiles(any(Collection.class));
+  }
+
+  @Test
+  public void shouldDeleteModelsInOneCall_beforeTheirArtifactFiles()
+          throws ModelStoreException {
+    // given
+    Model otherModel = Model.builder().id(UUID.randomUUID()).build();
+    List<UUID> modelIds = Arrays.asList(model.getId(), otherModel.getId(), UUID.randomUUID());
+    when(modelStore.retrieveModels(modelIds)).thenReturn(Arrays.asList(model, otherModel));
+    // when
+    ModelsBulkDeleteResult result = modelService.deleteModels(modelIds);
+    // then
+    assertThat(result.getModels()).containsExactly(model, otherModel);
+    InOrder inOrder = inOrder(modelStore, artifactService);
+    inOrder.verify(modelStore).deleteModels(Arrays.asList(model.getId(), otherModel.getId()));
+    inOrder.verify(artifactService).deleteArtifactFiles(Arrays.asList(model, otherModel));
+  }
+
+  @Test
+  public void deleteModels_shouldKeepFileSharedWithRemainingModel_whenRetriedAfterFailure()
+          throws Exception {
+    // given
+    when(modelStore.streamAllModels(ModelView.FULL)).thenReturn(Stream.empty());
+    InMemoryFileReferenceStore referenceStore = new InMemoryFileReferenceStore(modelStore);
+    referenceStore.countReferences();
+    FileStore fileStore = new MemoryFileStore();
+    ContentAddressedFiles files = new ContentAddressedFiles(fileStore, referenceStore);
+    // One reference of the deleted model, one of a model that stays
+    String sharedLocation = files.add(content("shared")).getLocation();
+    files.add(content("shared"));
+    String ownLocation = files.add(content("own")).getLocation();
+    Model sharing = modelWithArtifactAt(sharedLocation);
+    Model owning = modelWithArtifactAt(ownLocation);
+    List<UUID> modelIds = Arrays.asList(sharing.getId(), owning.getId());
+    when(modelStore.retrieveModels(modelIds)).thenReturn(Arrays.asList(sharing, owning));
+    doThrow(new ModelStoreException("")).doReturn(2L).when(modelStore).deleteModels(modelIds);
+    ExecutorService fileRemovalExecutor = Executors.newSingleThreadExecutor();
+    ModelService service = new ModelService(modelStore, asyncModelStore,
+            new ArtifactService(modelStore, asyncModelStore, fileStore, files,
+                    fileRemovalExecutor),
+            searchIndex, usernameExtractor);
+    // when
+    Throwable thrown = catchThrowable(() -> service.deleteModels(modelIds));
+    service.deleteModels(modelIds);
+    fileRemovalExecutor.shutdown();
+    // then
+    assertThat(thrown).isInstanceOf(ModelServiceException.class);
+    assertThat(fileStore.containsFile(sharedLocation)).isTrue();
+    assertThat(fileStore.containsFile(ownLocation)).isFalse();
+  }
+
+  @Test(expected = ModelServiceException.class)
+  public void deleteModels_shouldThrowFailedDeleteException_whenStoreFails()
+          throws ModelStoreException {
+    // given
+    when(modelStore.retrieveModels(any(Collection.class)))
+            .thenThrow(new ModelStoreException(""));
+    // when
+    modelService.deleteModels(Arrays.asList(modelId));
+  }
+
+  private static Model modelWithArtifactAt(String location) {
+    return Model.builder()
+            .id(UUID.randomUUID())
+            .artifacts(Collections.singleton(Artifact.builder()
+                    .id(UUID.randomUUID())
+                    .location(location)
+                    .build()))
+            .build();
+  }
+
+  private static InputStream content(String text) {
+    return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private void assertThatFailedWith(
+          CompletableFuture<?> future, ModelServiceExceptionCode code) {
+    Throwable thrown = catchThrowable(future::join);
+    assertThat(thrown).isInstanceOf(CompletionException.class)
+            .hasCauseInstanceOf(ModelServiceException.class);
+    assertThat(((ModelServiceException) thrown.getCause()).getCode()).isEqualTo(code);
+  }
+
   private void checkThatIsBetween(Instant instant, Instant start, Instant end) {
     assertThat(instant).isGreaterThanOrEqualTo(start);
     assertThat(instant).isLessThanOrEqualTo(end);
@@ -0,0 +1,64 @@
+/**
+ * Copyright (c) 2016 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.trustedanalytics.modelcatalog.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+public class SizeLimitedInputStreamTest {
+
+  @Test
+  public void shouldReadContent_upToLimit() throws IOException {
+    // given
+    InputStream limited = new SizeLimitedInputStream(content(3), 3);
+    // when
+    byte[] read = IOUtils.toByteArray(limited);
+    // then
+    assertThat(read).hasSize(3);
+  }
+
+  @Test
+  public void shouldFailRead_pastLimit() {
+    // given
+    InputStream limited = new SizeLimitedInputStream(content(4), 3);
+    // when
+    Throwable thrown = catchThrowable(() -> IOUtils.toByteArray(limited));
+    // then
+    assertThat(thrown).isInstanceOf(SizeLimitedInputStream.LimitExceededException.class);
+  }
+
+  @Test
+  public void shouldCountSingleBytesAndSkips() throws IOException {
+    // given
+    InputStream limited = new SizeLimitedInputStream(content(4), 3);
+    limited.read();
+    limited.skip(2);
+    // when
+    Throwable thrown = catchThrowable(limited::read);
+    // then
+    assertThat(thrown).isInstanceOf(SizeLimitedInputStream.LimitExceededException.class);
+  }
+
+  private static InputStream content(int size) {
+    return new ByteArrayInputStream(new byte[size]);
+  }
+
+}
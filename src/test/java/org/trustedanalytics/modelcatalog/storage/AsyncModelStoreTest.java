@@ -0,0 +1,79 @@
+/**
+ * Copyright (c) 2016 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.trustedanalytics.modelcatalog.storage;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import org.trustedanalytics.modelcatalog.TestModelsBuilder;
+import org.trustedanalytics.modelcatalog.domain.Model;
+import org.trustedanalytics.modelcatalog.domain.ModelView;
+import org.trustedanalytics.modelcatalog.storage.db.AsyncModelStore;
+import org.trustedanalytics.modelcatalog.storage.db.ModelStore;
+import org.trustedanalytics.modelcatalog.storage.db.ModelStoreException;
+import org.trustedanalytics.modelcatalog.storage.db.ModelStoreOverloadedException;
+
+import org.junit.Test;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+
+public class AsyncModelStoreTest {
+
+  private final ModelStore modelStore = mock(ModelStore.class);
+  private final AsyncModelStore asyncModelStore = new AsyncModelStore(modelStore, Runnable::run);
+
+  @Test
+  public void shouldCompleteWithStoreResult() throws ModelStoreException {
+    // given
+    Model model = TestModelsBuilder.exemplaryModel();
+    when(modelStore.retrieveModel(model.getId(), ModelView.FULL)).thenReturn(model);
+    // when
+    CompletableFuture<Model> retrieved =
+            asyncModelStore.retrieveModel(model.getId(), ModelView.FULL);
+    // then
+    assertThat(retrieved.join()).isSameAs(model);
+  }
+
+  @Test
+  public void shouldFailWithStoreException() throws ModelStoreException {
+    // given
+    ModelStoreException exception = new ModelStoreException("error");
+    when(modelStore.retrieveModel(TestModelsBuilder.ID, ModelView.FULL)).thenThrow(exception);
+    // when
+    CompletableFuture<Model> retrieved =
+            asyncModelStore.retrieveModel(TestModelsBuilder.ID, ModelView.FULL);
+    // then
+    assertThat(catchThrowable(retrieved::join)).isInstanceOf(CompletionException.class)
+            .hasCause(exception);
+  }
+
+  @Test
+  public void shouldFailWithOverloadedException_whenExecutorSaturated() {
+    // given
+    AsyncModelStore saturatedStore = new AsyncModelStore(modelStore, task -> {
+      throw new RejectedExecutionException();
+    });
+    // when
+    CompletableFuture<Model> retrieved =
+            saturatedStore.retrieveModel(UUID.randomUUID(), ModelView.FULL);
+    // then
+    assertThat(catchThrowable(retrieved::join)).isInstanceOf(CompletionException.class)
+            .hasCauseInstanceOf(ModelStoreOverloadedException.class);
+  }
+}
@@ -0,0 +1,297 @@
+/**
+ * Copyright (c) 2016 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.trustedanalytics.modelcatalog.storage;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+import org.trustedanalytics.modelcatalog.domain.Artifact;
+import org.trustedanalytics.modelcatalog.domain.ArtifactAction;
+import org.trustedanalytics.modelcatalog.domain.CatalogSnapshotInfo;
+import org.trustedanalytics.modelcatalog.domain.CatalogStatistics;
+import org.trustedanalytics.modelcatalog.domain.Model;
+import org.trustedanalytics.modelcatalog.domain.ModelCursor;
+import org.trustedanalytics.modelcatalog.domain.ModelFilter;
+import org.trustedanalytics.modelcatalog.domain.ModelSort;
+import org.trustedanalytics.modelcatalog.domain.ModelView;
+import org.trustedanalytics.modelcatalog.storage.db.ModelStoreException;
+import org.trustedanalytics.modelcatalog.storage.embedded.CatalogSnapshotStore;
+import org.trustedanalytics.modelcatalog.storage.embedded.CatalogSnapshotWriter;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public class CatalogSnapshotStoreTest {
+
+  private static final String DEFAULT_ORG_ID = "defaultorg";
+  private static final String OTHER_ORG_ID = "otherorg";
+  private static final Instant NOW = Instant.ofEpochMilli(1480000000000L);
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private Path path;
+
+  @Before
+  public void setUp() {
+    path = folder.getRoot().toPath().resolve("catalog.snapshot");
+  }
+
+  @Test
+  public void shouldRetrieveExportedModel_withArtifactsOnlyInFullView() throws Exception {
+    // given
+    Artifact artifact = artifact();
+    Model model = model(DEFAULT_ORG_ID, 1, Collections.singleton(artifact));
+    CatalogSnapshotStore store = store(model, model(OTHER_ORG_ID, 2, null));
+    // when
+    Model full = store.retrieveModel(model.getId());
+    Model summary = store.retrieveModel(model.getId(), ModelView.SUMMARY);
+    // then
+    assertThat(full.getName()).isEqualTo(model.getName());
+    assertThat(full.getModifiedOn()).isEqualTo(model.getModifiedOn());
+    assertThat(full.getArtifacts()).containsExactly(artifact);
+    assertThat(summary.getArtifacts()).isNull();
+    assertThat(store.retrieveArtifact(model.getId(), artifact.getId()).getActions())
+            .containsExactly(ArtifactAction.PUBLISH_JAR_SCORING_ENGINE);
+  }
+
+  @Test
+  public void retrieveModel_shouldReturnNull_whenModelNotInSnapshot() throws Exception {
+    // given
+    CatalogSnapshotStore store = store(models(DEFAULT_ORG_ID, 10));
+    // when, then
+    assertThat(store.retrieveModel(UUID.randomUUID())).isNull();
+    assertThat(store.retrieveArtifact(UUID.randomUUID(), UUID.randomUUID())).isNull();
+  }
+
+  @Test
+  public void shouldFindEveryModel() throws Exception {
+    // given
+    Model[] models = models(DEFAULT_ORG_ID, 50);
+    CatalogSnapshotStore store = store(models);
+    // when
+    List<Model> found = store.retrieveModels(ids(Arrays.asList(models)));
+    // then
+    assertThat(ids(found)).containsExactlyElementsOf(ids(Arrays.asList(models)));
+  }
+
+  @Test
+  public void shouldListModelsOfOrganizationPageByPage_inDescendingOrder() throws Exception {
+    // given
+    Model first = model(DEFAULT_ORG_ID, 1, null);
+    Model second = model(DEFAULT_ORG_ID, 2, null);
+    Model third = model(DEFAULT_ORG_ID, 3, null);
+    CatalogSnapshotStore store = store(second, model(OTHER_ORG_ID, 4, null), third, first);
+    // when
+    List<Model> firstPage = store.listModels(DEFAULT_ORG_ID, ModelFilter.NONE,
+            ModelSort.MODIFIED_ON_DESC, null, 2, ModelView.FULL);
+    List<Model> secondPage = store.listModels(DEFAULT_ORG_ID, ModelFilter.NONE,
+            ModelSort.MODIFIED_ON_DESC, ModelCursor.after(second, ModelSort.MODIFIED_ON_DESC), 2,
+            ModelView.FULL);
+    // then
+    assertThat(ids(firstPage)).containsExactly(third.getId(), second.getId());
+    assertThat(ids(secondPage)).containsExactly(first.getId());
+  }
+
+  @Test
+  public void shouldListModelsAfterCursor_inAscendingOrder_withTiesOrderedById()
+          throws Exception {
+    // given
+    Model[] models = models(DEFAULT_ORG_ID, 20);
+    CatalogSnapshotStore store = store(models);
+    List<Model> expected = Arrays.stream(models)
+            .sorted(Comparator.comparing((Model model) -> model.getId().getMostSignificantBits())
+                    .thenComparing(model -> model.getId().getLeastSignificantBits()))
+            .collect(Collectors.toList());
+    // when
+    List<Model> listed = store.listModels(DEFAULT_ORG_ID, ModelFilter.NONE,
+            ModelSort.ADDED_ON_ASC, ModelCursor.after(expected.get(4), ModelSort.ADDED_ON_ASC), 5,
+            ModelView.SUMMARY);
+    // then
+    assertThat(ids(listed)).containsExactlyElementsOf(ids(expected.subList(5, 10)));
+  }
+
+  @Test
+  public void shouldStreamOnlyModelsMatchingFilter() throws Exception {
+    // given
+    Model first = model(DEFAULT_ORG_ID, 1, null);
+    Model second = model(DEFAULT_ORG_ID, 2, null);
+    Model third = model(DEFAULT_ORG_ID, 3, null);
+    CatalogSnapshotStore store = store(first, second, third);
+    ModelFilter filter = ModelFilter.builder().addedAfter(first.getAddedOn()).build();
+    // when
+    List<Model> models = store.streamModels(DEFAULT_ORG_ID, filter, ModelSort.ADDED_ON_ASC,
+            ModelView.SUMMARY).collect(Collectors.toList());
+    // then
+    assertThat(ids(models)).containsExactly(second.getId(), third.getId());
+    assertThat(store.streamModels("unknownorg", ModelFilter.NONE, ModelSort.DEFAULT,
+            ModelView.SUMMARY).count()).isZero();
+  }
+
+  @Test
+  public void shouldRefuseChanges() throws Exception {
+    // given
+    Model model = model(DEFAULT_ORG_ID, 1, null);
+    CatalogSnapshotStore store = store(model);
+    // when, then
+    assertThatExceptionOfType(ModelStoreException.class)
+            .isThrownBy(() -> store.addModel(model(DEFAULT_ORG_ID, 2, null), DEFAULT_ORG_ID));
+    assertThatExceptionOfType(ModelStoreException.class)
+            .isThrownBy(() -> store.deleteModel(model.getId()));
+  }
+
+  @Test
+  public void reload_shouldServeNewSnapshot() throws Exception {
+    // given
+    Model before = model(DEFAULT_ORG_ID, 1, null);
+    Model after = model(DEFAULT_ORG_ID, 2, null);
+    CatalogSnapshotStore store = store(before);
+    CatalogSnapshotWriter.write(path, Stream.of(after));
+    // when
+    CatalogSnapshotInfo info = store.reload();
+    // then
+    assertThat(info.getModels()).isEqualTo(1);
+    assertThat(store.retrieveModel(before.getId())).isNull();
+    assertThat(store.retrieveModel(after.getId())).isNotNull();
+  }
+
+  @Test
+  public void reload_shouldKeepServingPreviousSnapshot_whenFileIsNotSnapshot() throws Exception {
+    // given
+    Model model = model(DEFAULT_ORG_ID, 1, null);
+    CatalogSnapshotStore store = store(model);
+    // Replaced rather than overwritten, as the mapped file must not shrink
+    Files.delete(path);
+    Files.write(path, new byte[100]);
+    // when, then
+    assertThatExceptionOfType(IOException.class).isThrownBy(store::reload);
+    assertThat(store.retrieveModel(model.getId())).isNotNull();
+  }
+
+  @Test
+  public void write_shouldKeepConcurrentExportsApart() throws Exception {
+    // given
+    Model first = model(DEFAULT_ORG_ID, 1, null);
+    Model second = model(DEFAULT_ORG_ID, 2, null);
+    // The second export runs whole while the first is between its models
+    Stream<Model> interrupted = Stream.of(first).peek(model -> {
+      try {
+        CatalogSnapshotWriter.write(path, Stream.of(second));
+      } catch (IOException e) {
+        throw new IllegalStateException(e);
+      }
+    });
+    // when
+    CatalogSnapshotWriter.write(path, interrupted);
+    // then
+    CatalogSnapshotStore store = new CatalogSnapshotStore(path.toString());
+    store.open();
+    assertThat(store.retrieveModel(first.getId())).isNotNull();
+    assertThat(store.retrieveModel(second.getId())).isNull();
+    assertThat(folder.getRoot().list()).containsExactly("catalog.snapshot");
+  }
+
+  @Test
+  public void shouldCountModelsAndArtifacts() throws Exception {
+    // given
+    Model withArtifact = model(DEFAULT_ORG_ID, 1, Collections.singleton(artifact()));
+    CatalogSnapshotStore store = store(withArtifact, model(DEFAULT_ORG_ID, 2, null),
+            model(OTHER_ORG_ID, 3, null), model(null, 4, null));
+    // when
+    CatalogStatistics statistics = store.computeStatistics();
+    CatalogStatistics estimate = store.estimateStatistics();
+    // then
+    assertThat(statistics.getModels()).isEqualTo(4);
+    assertThat(statistics.getModelsPerOrg()).containsOnlyKeys(DEFAULT_ORG_ID, OTHER_ORG_ID)
+            .containsEntry(DEFAULT_ORG_ID, 2L).containsEntry(OTHER_ORG_ID, 1L);
+    assertThat(estimate.getModels()).isEqualTo(4);
+    assertThat(estimate.getArtifacts()).isEqualTo(1);
+  }
+
+  @Test
+  public void shouldReadModelsAcrossMappedChunks() throws Exception {
+    // given
+    Model withArtifact = model(DEFAULT_ORG_ID, 1, Collections.singleton(artifact()));
+    Model[] models = Stream.concat(Stream.of(withArtifact), Arrays.stream(models(OTHER_ORG_ID, 20)))
+            .toArray(Model[]::new);
+    CatalogSnapshotWriter.write(path, Stream.of(models));
+    CatalogSnapshotStore store = new CatalogSnapshotStore(path.toString(), 7);
+    // when
+    store.open();
+    // then
+    assertThat(store.retrieveModel(withArtifact.getId()).getArtifacts())
+            .containsExactlyElementsOf(withArtifact.getArtifacts());
+    assertThat(ids(store.retrieveModels(ids(Arrays.asList(models)))))
+            .containsExactlyElementsOf(ids(Arrays.asList(models)));
+    assertThat(store.listModels(OTHER_ORG_ID, ModelFilter.NONE, ModelSort.ADDED_ON_DESC, null, 50,
+            ModelView.SUMMARY)).hasSize(20);
+  }
+
+  private CatalogSnapshotStore store(Model... models) throws IOException {
+    CatalogSnapshotWriter.write(path, Stream.of(models));
+    CatalogSnapshotStore store = new CatalogSnapshotStore(path.toString());
+    store.open();
+    return store;
+  }
+
+  private static List<UUID> ids(List<Model> models) {
+    return models.stream().map(Model::getId).collect(Collectors.toList());
+  }
+
+  // Models added at the same time, ordered by id only
+  private static Model[] models(String orgId, int count) {
+    Model[] models = new Model[count];
+    for (int i = 0; i < count; i++) {
+      models[i] = model(orgId, 0, null);
+    }
+    return models;
+  }
+
+  private static Model model(String orgId, int minutes, Set<Artifact> artifacts) {
+    return Model.builder()
+            .id(UUID.randomUUID())
+            .orgId(orgId)
+            .name("model " + minutes)
+            .algorithm("GBM")
+            .addedOn(NOW.plusSeconds(60 * minutes))
+            .modifiedOn(NOW.plusSeconds(60 * minutes))
+            .artifacts(artifacts)
+            .build();
+  }
+
+  private static Artifact artifact() {
+    return Artifact.builder()
+            .id(UUID.randomUUID())
+            .filename("model.jar")
+            .location("/models/model.jar")
+            .actions(Collections.singleton(ArtifactAction.PUBLISH_JAR_SCORING_ENGINE))
+            .build();
+  }
+
+}
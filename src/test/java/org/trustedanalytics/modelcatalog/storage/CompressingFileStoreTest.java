@@ -0,0 +1,143 @@
+/**
+ * Copyright (c) 2016 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.trustedanalytics.modelcatalog.storage;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.trustedanalytics.modelcatalog.storage.files.CompressingFileStore;
+import org.trustedanalytics.modelcatalog.storage.files.GzipCompressedResource;
+import org.trustedanalytics.modelcatalog.storage.files.MemoryFileStore;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.core.io.Resource;
+import org.springframework.util.StreamUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.Deflater;
+
+public class CompressingFileStoreTest {
+
+  private static final String LOCATION = "/blobs/ab/abcdef";
+  private static final byte[] CONTENT = repeat("model coefficients 0.125 0.25 0.5 ", 100);
+  // Leading bytes of a zip archive, e.g. a jar
+  private static final byte[] ZIP_CONTENT = {'P', 'K', 3, 4, 20, 0, 8, 0};
+
+  private MemoryFileStore delegate;
+  private CompressingFileStore fileStore;
+
+  @Before
+  public void setUp() {
+    delegate = new MemoryFileStore();
+    fileStore = new CompressingFileStore(delegate, Deflater.DEFAULT_COMPRESSION);
+  }
+
+  @Test
+  public void addFile_shouldStoreCompressedFile_underSuffix() throws Exception {
+    // when
+    fileStore.addFile(LOCATION, new ByteArrayInputStream(CONTENT));
+    // then
+    assertThat(delegate.containsFile(LOCATION)).isFalse();
+    assertThat(delegate.containsFile(LOCATION + ".gz")).isTrue();
+    assertThat(read(delegate.retrieveFile(LOCATION + ".gz")).length)
+        .isLessThan(CONTENT.length);
+  }
+
+  @Test
+  public void retrieveFileResource_shouldReadDecompressedFile() throws Exception {
+    // given
+    fileStore.addFile(LOCATION, new ByteArrayInputStream(CONTENT));
+    // when
+    Resource resource = fileStore.retrieveFileResource(LOCATION);
+    // then
+    assertThat(resource).isInstanceOf(GzipCompressedResource.class);
+    assertThat(resource.contentLength()).isEqualTo(CONTENT.length);
+    assertThat(read(resource.getInputStream())).isEqualTo(CONTENT);
+    assertThat(read(fileStore.retrieveFile(LOCATION))).isEqualTo(CONTENT);
+  }
+
+  @Test
+  public void addFile_shouldStoreEmptyFile() throws Exception {
+    // when
+    fileStore.addFile(LOCATION, new ByteArrayInputStream(new byte[0]));
+    // then
+    assertThat(fileStore.retrieveFileResource(LOCATION).contentLength()).isEqualTo(0);
+    assertThat(read(fileStore.retrieveFile(LOCATION))).isEmpty();
+  }
+
+  @Test
+  public void addFile_shouldStoreCompressedContentAsItIs() throws Exception {
+    // when
+    fileStore.addFile(LOCATION, new ByteArrayInputStream(ZIP_CONTENT));
+    // then
+    assertThat(delegate.containsFile(LOCATION + ".gz")).isFalse();
+    assertThat(read(delegate.retrieveFile(LOCATION))).isEqualTo(ZIP_CONTENT);
+    assertThat(read(fileStore.retrieveFile(LOCATION))).isEqualTo(ZIP_CONTENT);
+  }
+
+  @Test
+  public void retrieveFile_shouldReadFileStoredWithoutCompression() throws Exception {
+    // given
+    delegate.addFile(LOCATION, new ByteArrayInputStream(CONTENT));
+    // when
+    Resource resource = fileStore.retrieveFileResource(LOCATION);
+    // then
+    assertThat(resource).isNotInstanceOf(GzipCompressedResource.class);
+    assertThat(read(resource.getInputStream())).isEqualTo(CONTENT);
+    assertThat(fileStore.containsFile(LOCATION)).isTrue();
+  }
+
+  @Test
+  public void moveFile_shouldMoveCompressedFile_andReplaceTarget() throws Exception {
+    // given
+    String upload = "/uploads/1234";
+    fileStore.addFile(upload, new ByteArrayInputStream(CONTENT));
+    delegate.addFile(LOCATION, new ByteArrayInputStream(ZIP_CONTENT));
+    // when
+    fileStore.moveFile(upload, LOCATION);
+    // then
+    assertThat(fileStore.containsFile(upload)).isFalse();
+    assertThat(delegate.containsFile(LOCATION)).isFalse();
+    assertThat(read(fileStore.retrieveFile(LOCATION))).isEqualTo(CONTENT);
+  }
+
+  @Test
+  public void deleteFile_shouldDeleteCompressedFile() throws Exception {
+    // given
+    fileStore.addFile(LOCATION, new ByteArrayInputStream(CONTENT));
+    // when
+    fileStore.deleteFile(LOCATION);
+    // then
+    assertThat(fileStore.containsFile(LOCATION)).isFalse();
+    assertThat(delegate.containsFile(LOCATION + ".gz")).isFalse();
+  }
+
+  private static byte[] read(InputStream in) throws IOException {
+    try (InputStream stream = in) {
+      return StreamUtils.copyToByteArray(stream);
+    }
+  }
+
+  private static byte[] repeat(String text, int times) {
+    StringBuilder builder = new StringBuilder();
+    for (int i = 0; i < times; i++) {
+      builder.append(text);
+    }
+    return builder.toString().getBytes(StandardCharsets.UTF_8);
+  }
+
+}
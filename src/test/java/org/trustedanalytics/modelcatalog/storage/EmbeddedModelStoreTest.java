@@ -0,0 +1,298 @@
+/**
+ * Copyright (c) 2016 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.trustedanalytics.modelcatalog.storage;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+import org.trustedanalytics.modelcatalog.domain.Artifact;
+import org.trustedanalytics.modelcatalog.domain.ArtifactAction;
+import org.trustedanalytics.modelcatalog.domain.CatalogStatistics;
+import org.trustedanalytics.modelcatalog.domain.Model;
+import org.trustedanalytics.modelcatalog.domain.ModelCursor;
+import org.trustedanalytics.modelcatalog.domain.ModelFilter;
+import org.trustedanalytics.modelcatalog.domain.ModelSort;
+import org.trustedanalytics.modelcatalog.domain.ModelView;
+import org.trustedanalytics.modelcatalog.storage.db.ModelStoreException;
+import org.trustedanalytics.modelcatalog.storage.embedded.EmbeddedModelStore;
+import org.trustedanalytics.modelcatalog.storage.embedded.EmbeddedStoreProperties;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+public class EmbeddedModelStoreTest {
+
+  private static final String DEFAULT_ORG_ID = "defaultorg";
+  private static final String OTHER_ORG_ID = "otherorg";
+  private static final Instant NOW = Instant.ofEpochMilli(1480000000000L);
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private EmbeddedStoreProperties properties;
+  private EmbeddedModelStore store;
+
+  @Before
+  public void setUp() throws IOException {
+    properties = new EmbeddedStoreProperties();
+    properties.setPath(folder.getRoot().getPath());
+    properties.setSyncWrites(false);
+    store = open();
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    store.close();
+  }
+
+  @Test
+  public void shouldRetrieveAddedModel_withArtifactsOnlyInFullView() throws ModelStoreException {
+    // given
+    Model model = model(DEFAULT_ORG_ID, 1);
+    store.addModel(model, DEFAULT_ORG_ID);
+    Artifact artifact = artifact();
+    store.addArtifact(model.getId(), artifact);
+    // when
+    Model full = store.retrieveModel(model.getId());
+    Model summary = store.retrieveModel(model.getId(), ModelView.SUMMARY);
+    // then
+    assertThat(full.getName()).isEqualTo(model.getName());
+    assertThat(full.getArtifacts()).containsExactly(artifact);
+    assertThat(summary.getArtifacts()).isNull();
+    assertThat(store.retrieveArtifact(model.getId(), artifact.getId())).isEqualTo(artifact);
+  }
+
+  @Test
+  public void addModel_shouldThrowException_whenModelAlreadyExists() throws ModelStoreException {
+    // given
+    Model model = model(DEFAULT_ORG_ID, 1);
+    store.addModel(model, DEFAULT_ORG_ID);
+    // when, then
+    assertThatExceptionOfType(ModelStoreException.class)
+            .isThrownBy(() -> store.addModel(model, DEFAULT_ORG_ID));
+  }
+
+  @Test
+  public void addModels_shouldReportAlreadyExistingModels() throws ModelStoreException {
+    // given
+    Model existing = model(DEFAULT_ORG_ID, 1);
+    Model added = model(DEFAULT_ORG_ID, 2);
+    store.addModel(existing, DEFAULT_ORG_ID);
+    // when
+    Set<UUID> failedIds = store.addModels(Arrays.asList(existing, added));
+    // then
+    assertThat(failedIds).containsOnly(existing.getId());
+    assertThat(store.retrieveModel(added.getId())).isNotNull();
+  }
+
+  @Test
+  public void shouldListModelsOfOrganizationPageByPage() throws ModelStoreException {
+    // given
+    Model first = model(DEFAULT_ORG_ID, 1);
+    Model second = model(DEFAULT_ORG_ID, 2);
+    Model third = model(DEFAULT_ORG_ID, 3);
+    store.addModels(Arrays.asList(second, third, first, model(OTHER_ORG_ID, 4)));
+    // when
+    List<Model> firstPage = store.listModels(DEFAULT_ORG_ID, ModelFilter.NONE,
+            ModelSort.MODIFIED_ON_DESC, null, 2, ModelView.FULL);
+    List<Model> secondPage = store.listModels(DEFAULT_ORG_ID, ModelFilter.NONE,
+            ModelSort.MODIFIED_ON_DESC, ModelCursor.after(second, ModelSort.MODIFIED_ON_DESC), 2,
+            ModelView.FULL);
+    // then
+    assertThat(ids(firstPage)).containsExactly(third.getId(), second.getId());
+    assertThat(ids(secondPage)).containsExactly(first.getId());
+  }
+
+  @Test
+  public void shouldListOnlyModelsMatchingFilter_inAscendingOrder() throws ModelStoreException {
+    // given
+    Model first = model(DEFAULT_ORG_ID, 1);
+    Model second = model(DEFAULT_ORG_ID, 2);
+    Model third = model(DEFAULT_ORG_ID, 3);
+    store.addModels(Arrays.asList(first, second, third));
+    ModelFilter filter = ModelFilter.builder().addedAfter(first.getAddedOn()).build();
+    // when
+    List<Model> models = store.streamModels(DEFAULT_ORG_ID, filter, ModelSort.ADDED_ON_ASC,
+            ModelView.SUMMARY).collect(Collectors.toList());
+    // then
+    assertThat(ids(models)).containsExactly(second.getId(), third.getId());
+  }
+
+  @Test
+  public void shouldMoveUpdatedModelInModificationOrder() throws ModelStoreException {
+    // given
+    Model first = model(DEFAULT_ORG_ID, 1);
+    Model second = model(DEFAULT_ORG_ID, 2);
+    store.addModels(Arrays.asList(first, second));
+    // when
+    Model updated = store.updateModel(first.getId(), Collections.singletonMap(
+            "modifiedOn", NOW.plusSeconds(10)));
+    // then
+    assertThat(updated.getModifiedOn()).isEqualTo(NOW.plusSeconds(10));
+    assertThat(ids(store.listModels(DEFAULT_ORG_ID, ModelFilter.NONE, ModelSort.DEFAULT, null,
+            10, ModelView.FULL))).containsExactly(first.getId(), second.getId());
+  }
+
+  @Test
+  public void updateModel_shouldReturnNull_whenNoModelFound() throws ModelStoreException {
+    assertThat(store.updateModel(UUID.randomUUID(),
+            Collections.singletonMap("name", "name"))).isNull();
+  }
+
+  @Test
+  public void deleteModel_shouldThrowException_whenNoModelFound() {
+    assertThatExceptionOfType(ModelStoreException.class)
+            .isThrownBy(() -> store.deleteModel(UUID.randomUUID()));
+  }
+
+  @Test
+  public void shouldRestoreAllChanges_afterRestart() throws Exception {
+    // given
+    Model kept = model(DEFAULT_ORG_ID, 1);
+    Model deleted = model(DEFAULT_ORG_ID, 2);
+    Artifact artifact = artifact();
+    store.addModels(Arrays.asList(kept, deleted));
+    store.updateModel(kept.getId(), Collections.singletonMap("name", "renamed"));
+    store.addArtifact(kept.getId(), artifact);
+    store.deleteModel(deleted.getId());
+    // when
+    store.close();
+    store = open();
+    // then
+    Model restored = store.retrieveModel(kept.getId());
+    assertThat(restored.getName()).isEqualTo("renamed");
+    assertThat(restored.getAddedOn()).isEqualTo(kept.getAddedOn());
+    assertThat(restored.getArtifacts()).containsExactly(artifact);
+    assertThat(restored.getArtifacts().iterator().next())
+            .isEqualToComparingFieldByField(artifact);
+    assertThat(store.retrieveModel(deleted.getId())).isNull();
+    assertThat(ids(store.listModels(DEFAULT_ORG_ID, ModelFilter.NONE, ModelSort.DEFAULT, null,
+            10, ModelView.FULL))).containsExactly(kept.getId());
+  }
+
+  @Test
+  public void shouldDropRecordCutShortByCrash_andKeepWritingAfterIt() throws Exception {
+    // given
+    Model beforeCrash = model(DEFAULT_ORG_ID, 1);
+    store.addModel(beforeCrash, DEFAULT_ORG_ID);
+    store.close();
+    Files.write(logFile(), new byte[] {0, 0, 1, 0, 42}, StandardOpenOption.APPEND);
+    // when
+    store = open();
+    Model afterCrash = model(DEFAULT_ORG_ID, 2);
+    store.addModel(afterCrash, DEFAULT_ORG_ID);
+    store.close();
+    store = open();
+    // then
+    assertThat(store.retrieveModel(beforeCrash.getId())).isNotNull();
+    assertThat(store.retrieveModel(afterCrash.getId())).isNotNull();
+  }
+
+  @Test
+  public void shouldCompactLogIntoSnapshot_andRestoreFromIt() throws Exception {
+    // given
+    properties.setCompactAfterRecords(2);
+    store.close();
+    store = open();
+    Model first = model(DEFAULT_ORG_ID, 1);
+    Model second = model(DEFAULT_ORG_ID, 2);
+    Model third = model(DEFAULT_ORG_ID, 3);
+    store.addModel(first, DEFAULT_ORG_ID);
+    store.addModel(second, DEFAULT_ORG_ID);
+    store.addModel(third, DEFAULT_ORG_ID);
+    store.deleteModel(second.getId());
+    // when
+    store.close();
+    store = open();
+    // then
+    assertThat(folder.getRoot().list()).anyMatch(name -> name.startsWith("snapshot-"));
+    assertThat(store.retrieveModels(Arrays.asList(first.getId(), second.getId(),
+            third.getId()))).extracting(Model::getId).containsOnly(first.getId(), third.getId());
+  }
+
+  @Test
+  public void shouldCountModelsAndArtifacts() throws ModelStoreException {
+    // given
+    Model model = model(DEFAULT_ORG_ID, 1);
+    store.addModels(Arrays.asList(model, model(DEFAULT_ORG_ID, 2), model(OTHER_ORG_ID, 3)));
+    store.addArtifact(model.getId(), artifact());
+    // when
+    CatalogStatistics statistics = store.computeStatistics();
+    CatalogStatistics estimate = store.estimateStatistics();
+    // then
+    assertThat(statistics.getModels()).isEqualTo(3);
+    assertThat(statistics.getModelsPerOrg()).containsEntry(DEFAULT_ORG_ID, 2L)
+            .containsEntry(OTHER_ORG_ID, 1L);
+    assertThat(statistics.getArtifactsPerAction())
+            .containsEntry(ArtifactAction.PUBLISH_JAR_SCORING_ENGINE.name(), 1L);
+    assertThat(estimate.getModels()).isEqualTo(3);
+    assertThat(estimate.getArtifacts()).isEqualTo(1);
+  }
+
+  private EmbeddedModelStore open() throws IOException {
+    EmbeddedModelStore opened = new EmbeddedModelStore(properties);
+    opened.open();
+    return opened;
+  }
+
+  private Path logFile() {
+    File[] logs = folder.getRoot().listFiles((dir, name) -> name.startsWith("log-"));
+    Arrays.sort(logs);
+    return logs[logs.length - 1].toPath();
+  }
+
+  private List<UUID> ids(List<Model> models) {
+    return models.stream().map(Model::getId).collect(Collectors.toList());
+  }
+
+  private Model model(String orgId, int minutes) {
+    return Model.builder()
+            .id(UUID.randomUUID())
+            .orgId(orgId)
+            .name("model " + minutes)
+            .algorithm("GBM")
+            .addedOn(NOW.plusSeconds(60 * minutes))
+            .modifiedOn(NOW.plusSeconds(60 * minutes))
+            .build();
+  }
+
+  private Artifact artifact() {
+    return Artifact.builder()
+            .id(UUID.randomUUID())
+            .filename("model.jar")
+            .location("/models/model.jar")
+            .actions(Collections.singleton(ArtifactAction.PUBLISH_JAR_SCORING_ENGINE))
+            .size(1024L)
+            .digest("ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad")
+            .addedOn(NOW)
+            .build();
+  }
+
+}
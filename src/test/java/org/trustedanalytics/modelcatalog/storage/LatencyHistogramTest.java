@@ -0,0 +1,51 @@
+/**
+ * Copyright (c) 2016 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.trustedanalytics.modelcatalog.storage;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.trustedanalytics.modelcatalog.storage.db.LatencyHistogram;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+public class LatencyHistogramTest {
+
+  private final LatencyHistogram histogram = new LatencyHistogram();
+
+  @Test
+  public void shouldReportZeros_whenNothingRecorded() {
+    assertThat(histogram.getCount()).isZero();
+    assertThat(histogram.percentileMicros(99)).isZero();
+    assertThat(histogram.snapshot().get("maxMicros")).isZero();
+  }
+
+  @Test
+  public void shouldReportPercentilesAsBucketUpperBounds() {
+    // given
+    for (int i = 0; i < 99; i++) {
+      histogram.record(100, TimeUnit.MICROSECONDS);
+    }
+    histogram.record(50, TimeUnit.MILLISECONDS);
+    // when
+    long p50 = histogram.percentileMicros(50);
+    long p100 = histogram.percentileMicros(100);
+    // then
+    assertThat(histogram.getCount()).isEqualTo(100);
+    assertThat(p50).isBetween(100L, 127L);
+    assertThat(p100).isEqualTo(50_000L);
+  }
+
+}
@@ -14,6 +14,8 @@
 package org.trustedanalytics.modelcatalog.storage;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
@@ -26,6 +28,8 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
 import org.trustedanalytics.modelcatalog.storage.files.FileHelpers;
 import org.trustedanalytics.modelcatalog.storage.files.FileStoreException;
 import org.trustedanalytics.modelcatalog.storage.files.LocalFileStore;
@@ -85,6 +89,23 @@ public class LocalFileStoreTest {
     assertEquals(inputStream, result);
   }
   
+  @Test(expected = FileStoreException.class)
+  public void retrieveFileResourceShouldThrowErrorWhenFileDoesNotExist() throws FileStoreException {
+    when(fileHelpers.exists(any(Path.class))).thenReturn(false);
+
+    localFileStore.retrieveFileResource(SAMPLE_FILE);
+  }
+
+  @Test
+  public void retrieveFileResourceShouldReturnResourceBackedByFile() throws FileStoreException {
+    when(fileHelpers.exists(SAMPLE_FILE_PATH)).thenReturn(true);
+
+    Resource result = localFileStore.retrieveFileResource(SAMPLE_FILE);
+
+    assertTrue(result instanceof FileSystemResource);
+    assertEquals(SAMPLE_FILE_PATH.toFile(), ((FileSystemResource) result).getFile());
+  }
+
   @Test
   public void addFileShouldWriteStreamToAFile() throws IOException, FileStoreException {
     InputStream inputStream = mock(InputStream.class);
@@ -136,6 +157,54 @@ public class LocalFileStoreTest {
     verify(fileHelpers).copyStream(inputStream, outputStream);
   }
   
+  @Test
+  public void addFileShouldCloseFileAndDeleteItWhenCopyingStreamFails() throws IOException {
+    InputStream inputStream = mock(InputStream.class);
+    OutputStream outputStream = mock(OutputStream.class);
+    when(fileHelpers.createNewFile(SAMPLE_FILE_PATH)).thenReturn(outputStream);
+    doThrow(new IOException()).when(fileHelpers).copyStream(inputStream, outputStream);
+
+    try {
+      localFileStore.addFile(SAMPLE_FILE, inputStream);
+      fail("FileStoreException expected");
+    } catch (FileStoreException e) {
+      verify(outputStream).close();
+      verify(fileHelpers).delete(SAMPLE_FILE_PATH);
+    }
+  }
+
+  @Test
+  public void addFileShouldCloseWrittenFile() throws IOException, FileStoreException {
+    InputStream inputStream = mock(InputStream.class);
+    OutputStream outputStream = mock(OutputStream.class);
+    when(fileHelpers.createNewFile(SAMPLE_FILE_PATH)).thenReturn(outputStream);
+
+    localFileStore.addFile(SAMPLE_FILE, inputStream);
+
+    verify(outputStream).close();
+    verify(fileHelpers, never()).delete(any(Path.class));
+  }
+
+  @Test
+  public void moveFileShouldMoveFileIntoExistingDirectory() throws IOException, FileStoreException {
+    Path targetPath = Paths.get(BASE_URL + "/target/file");
+    when(fileHelpers.resolvePath(BASE_URL, "/target/file")).thenReturn(targetPath);
+
+    localFileStore.moveFile(SAMPLE_FILE, "/target/file");
+
+    verify(fileHelpers).ensureDirectoryExists(Paths.get(BASE_URL + "/target"));
+    verify(fileHelpers).move(SAMPLE_FILE_PATH, targetPath);
+  }
+
+  @Test(expected = FileStoreException.class)
+  public void moveFileShouldThrowExceptionWhenMovingFails() throws IOException, FileStoreException {
+    Path targetPath = Paths.get(BASE_URL + "/target/file");
+    when(fileHelpers.resolvePath(BASE_URL, "/target/file")).thenReturn(targetPath);
+    doThrow(new IOException()).when(fileHelpers).move(SAMPLE_FILE_PATH, targetPath);
+
+    localFileStore.moveFile(SAMPLE_FILE, "/target/file");
+  }
+
   @Test
   public void deleteFileShouldNotDeleteIfFileDoesNotExist() throws FileStoreException, IOException {
     when(fileHelpers.exists(SAMPLE_FILE_PATH)).thenReturn(false);
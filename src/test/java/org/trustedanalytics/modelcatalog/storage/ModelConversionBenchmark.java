@@ -0,0 +1,104 @@
+/**
+ * Copyright (c) 2016 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.trustedanalytics.modelcatalog.storage;
+
+import org.trustedanalytics.modelcatalog.TestModelsBuilder;
+import org.trustedanalytics.modelcatalog.domain.Model;
+import org.trustedanalytics.modelcatalog.storage.db.AbstractMongoConfigurationWithInstantConverters;
+
+import com.github.fakemongo.Fongo;
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBObject;
+import com.mongodb.Mongo;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.mongodb.core.convert.DefaultDbRefResolver;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+
+// Compares the reflective MappingMongoConverter with ModelMappingMongoConverter, both set up the
+// way the service configures them. Not run by the build, start with main() from the test
+// classpath.
+@State(Scope.Benchmark)
+public class ModelConversionBenchmark {
+
+  private MappingMongoConverter reflectiveConverter;
+  private MappingMongoConverter modelConverter;
+  private Model model;
+  private DBObject document;
+
+  @Setup
+  public void setUp() throws Exception {
+    BenchmarkMongoConfig config = new BenchmarkMongoConfig();
+    modelConverter = config.mappingMongoConverter();
+    modelConverter.afterPropertiesSet();
+    reflectiveConverter = new MappingMongoConverter(
+            new DefaultDbRefResolver(config.mongoDbFactory()), config.mongoMappingContext());
+    reflectiveConverter.setCustomConversions(config.customConversions());
+    reflectiveConverter.afterPropertiesSet();
+
+    model = TestModelsBuilder.exemplaryModel();
+    document = new BasicDBObject();
+    reflectiveConverter.write(model, document);
+  }
+
+  @Benchmark
+  public DBObject writeReflective() {
+    DBObject written = new BasicDBObject();
+    reflectiveConverter.write(model, written);
+    return written;
+  }
+
+  @Benchmark
+  public DBObject writeModelConverter() {
+    DBObject written = new BasicDBObject();
+    modelConverter.write(model, written);
+    return written;
+  }
+
+  @Benchmark
+  public Model readReflective() {
+    return reflectiveConverter.read(Model.class, document);
+  }
+
+  @Benchmark
+  public Model readModelConverter() {
+    return modelConverter.read(Model.class, document);
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder()
+            .include(ModelConversionBenchmark.class.getSimpleName())
+            .forks(1)
+            .build()).run();
+  }
+
+  private static class BenchmarkMongoConfig
+          extends AbstractMongoConfigurationWithInstantConverters {
+
+    @Override
+    protected String getDatabaseName() {
+      return "benchmark";
+    }
+
+    @Override
+    public Mongo mongo() throws Exception {
+      return new Fongo("benchmark").getMongo();
+    }
+  }
+}
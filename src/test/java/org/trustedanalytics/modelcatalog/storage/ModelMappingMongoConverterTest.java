@@ -0,0 +1,120 @@
+/**
+ * Copyright (c) 2016 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.trustedanalytics.modelcatalog.storage;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import org.trustedanalytics.modelcatalog.TestModelsBuilder;
+import org.trustedanalytics.modelcatalog.domain.Artifact;
+import org.trustedanalytics.modelcatalog.domain.ArtifactAction;
+import org.trustedanalytics.modelcatalog.domain.Model;
+import org.trustedanalytics.modelcatalog.storage.db.ArtifactRecord;
+import org.trustedanalytics.modelcatalog.storage.db.ModelMappingMongoConverter;
+
+import com.mongodb.BasicDBList;
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBObject;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.data.mongodb.core.convert.CustomConversions;
+import org.springframework.data.mongodb.core.convert.DbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.time.Instant;
+import java.util.Collections;
+import java.util.UUID;
+
+public class ModelMappingMongoConverterTest {
+
+  private ModelMappingMongoConverter converter;
+
+  @Before
+  public void setUp() {
+    converter = new ModelMappingMongoConverter(
+            mock(DbRefResolver.class), new MongoMappingContext());
+    converter.setCustomConversions(new CustomConversions(Collections.emptyList()));
+    converter.afterPropertiesSet();
+  }
+
+  @Test
+  public void shouldReadWrittenModel() {
+    // given
+    Model model = TestModelsBuilder.exemplaryModel();
+    DBObject document = new BasicDBObject();
+    // when
+    converter.write(model, document);
+    Model read = converter.read(Model.class, document);
+    // then
+    assertThat(read).isEqualToIgnoringGivenFields(model, "addedOn", "modifiedOn", "artifacts");
+    assertThat(read.getAddedOn())
+            .isEqualTo(Instant.ofEpochMilli(model.getAddedOn().toEpochMilli()));
+    assertThat(read.getArtifacts()).hasSize(1);
+    Artifact artifact = read.getArtifacts().iterator().next();
+    Artifact expected = model.getArtifacts().iterator().next();
+    assertThat(artifact).isEqualToComparingFieldByField(expected);
+  }
+
+  @Test
+  public void shouldWriteDocumentInReflectiveMappingLayout() {
+    // given
+    Model model = TestModelsBuilder.exemplaryModel();
+    DBObject document = new BasicDBObject();
+    // when
+    converter.write(model, document);
+    // then
+    assertThat(document.get("_id")).isEqualTo(model.getId());
+    assertThat(document.get("_class")).isEqualTo(Model.class.getName());
+    assertThat(document.get("modifiedOn")).isEqualTo(model.getModifiedOn().toEpochMilli());
+    assertThat(document.containsField("orgId")).isFalse();
+    DBObject artifact = (DBObject) ((BasicDBList) document.get("artifacts")).get(0);
+    assertThat(artifact.containsField("_class")).isFalse();
+    assertThat((BasicDBList) artifact.get("actions"))
+            .containsExactly(ArtifactAction.PUBLISH_JAR_SCORING_ENGINE.name());
+  }
+
+  @Test
+  public void shouldReadDocumentWrittenByReflectiveMapping() {
+    // given
+    UUID modelId = UUID.randomUUID();
+    DBObject document = new BasicDBObject("_id", modelId)
+            .append("_class", Model.class.getName())
+            .append("name", "name")
+            .append("modifiedOn", 1000L);
+    // when
+    Model read = converter.read(Model.class, document);
+    // then
+    assertThat(read.getId()).isEqualTo(modelId);
+    assertThat(read.getName()).isEqualTo("name");
+    assertThat(read.getModifiedOn()).isEqualTo(Instant.ofEpochMilli(1000L));
+    assertThat(read.getArtifacts()).isNull();
+  }
+
+  @Test
+  public void shouldReadWrittenArtifactRecord() {
+    // given
+    UUID modelId = UUID.randomUUID();
+    Artifact artifact = TestModelsBuilder.exemplaryModel().getArtifacts().iterator().next();
+    DBObject document = new BasicDBObject();
+    // when
+    converter.write(ArtifactRecord.of(modelId, artifact), document);
+    ArtifactRecord read = converter.read(ArtifactRecord.class, document);
+    // then
+    assertThat(document.get("_id")).isEqualTo(artifact.getId());
+    assertThat(document.get("modelId")).isEqualTo(modelId);
+    assertThat(document.get("_class")).isEqualTo(ArtifactRecord.class.getName());
+    assertThat(read.getModelId()).isEqualTo(modelId);
+    assertThat(read.toArtifact()).isEqualToComparingFieldByField(artifact);
+  }
+}
@@ -0,0 +1,79 @@
+/**
+ * Copyright (c) 2016 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.trustedanalytics.modelcatalog.storage;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import org.trustedanalytics.modelcatalog.storage.db.MongoCommandLatencyListener;
+import org.trustedanalytics.modelcatalog.storage.db.MongoMetrics;
+
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import org.junit.Test;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+public class MongoCommandLatencyListenerTest {
+
+  private static final long SLOW_QUERY_THRESHOLD_MS = 100;
+
+  private final MongoMetrics mongoMetrics = new MongoMetrics();
+  private final MongoCommandLatencyListener listener =
+          new MongoCommandLatencyListener(mongoMetrics, SLOW_QUERY_THRESHOLD_MS);
+
+  @Test
+  public void shouldRecordLatencyPerCommand() {
+    // when
+    listener.commandSucceeded(succeeded("find", 5));
+    listener.commandSucceeded(succeeded("find", 7));
+    listener.commandSucceeded(succeeded("insert", 3));
+    // then
+    Map<String, Map<String, Long>> commands = commands();
+    assertThat(commands.get("find").get("count")).isEqualTo(2);
+    assertThat(commands.get("insert").get("count")).isEqualTo(1);
+    assertThat(mongoMetrics.snapshot().get("slowCommands")).isEqualTo(0L);
+  }
+
+  @Test
+  public void shouldCountSlowAndFailedCommands() {
+    // given
+    CommandFailedEvent failed = mock(CommandFailedEvent.class);
+    when(failed.getCommandName()).thenReturn("update");
+    when(failed.getElapsedTime(TimeUnit.MICROSECONDS)).thenReturn(1000L);
+    // when
+    listener.commandSucceeded(succeeded("aggregate", SLOW_QUERY_THRESHOLD_MS + 1));
+    listener.commandFailed(failed);
+    // then
+    assertThat(mongoMetrics.snapshot().get("slowCommands")).isEqualTo(1L);
+    assertThat(mongoMetrics.snapshot().get("failedCommands")).isEqualTo(1L);
+    assertThat(commands()).containsKeys("aggregate", "update");
+  }
+
+  private CommandSucceededEvent succeeded(String commandName, long elapsedMs) {
+    CommandSucceededEvent event = mock(CommandSucceededEvent.class);
+    when(event.getCommandName()).thenReturn(commandName);
+    when(event.getElapsedTime(TimeUnit.MICROSECONDS))
+            .thenReturn(TimeUnit.MILLISECONDS.toMicros(elapsedMs));
+    return event;
+  }
+
+  @SuppressWarnings("unchecked")
+  private Map<String, Map<String, Long>> commands() {
+    return (Map<String, Map<String, Long>>) mongoMetrics.snapshot().get("commands");
+  }
+
+}
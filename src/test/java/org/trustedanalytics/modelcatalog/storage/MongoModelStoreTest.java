@@ -15,19 +15,36 @@ package org.trustedanalytics.modelcatalog.storage;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.assertj.core.api.Assertions.catchThrowable;
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.data.mongodb.core.query.Criteria.where;
 
 import org.trustedanalytics.modelcatalog.TestModelsBuilder;
+import org.trustedanalytics.modelcatalog.domain.Artifact;
+import org.trustedanalytics.modelcatalog.domain.CatalogStatistics;
 import org.trustedanalytics.modelcatalog.domain.Model;
+import org.trustedanalytics.modelcatalog.domain.ModelCursor;
+import org.trustedanalytics.modelcatalog.domain.ModelFilter;
+import org.trustedanalytics.modelcatalog.domain.ModelSort;
+import org.trustedanalytics.modelcatalog.domain.ModelView;
 
+import com.mongodb.BasicDBObject;
+import com.mongodb.BulkWriteError;
+import com.mongodb.BulkWriteException;
+import com.mongodb.BulkWriteOperation;
+import com.mongodb.DBCollection;
+import com.mongodb.DBObject;
+import com.mongodb.WriteConcern;
 import com.mongodb.WriteConcernException;
 import com.mongodb.WriteResult;
-import org.assertj.core.api.Assertions;
+import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
@@ -38,26 +55,53 @@ import org.mockito.InjectMocks;
 import org.mockito.Matchers;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.data.mongodb.core.CollectionCallback;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
 import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
 import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.util.CloseableIterator;
+import org.trustedanalytics.modelcatalog.storage.db.ArtifactRecord;
 import org.trustedanalytics.modelcatalog.storage.db.ModelStoreException;
 import org.trustedanalytics.modelcatalog.storage.db.MongoModelStore;
+import org.trustedanalytics.modelcatalog.storage.db.MongoReadRouter;
+import org.trustedanalytics.modelcatalog.storage.db.MongoWriteRouter;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
 
 @RunWith(MockitoJUnitRunner.class)
 public class MongoModelStoreTest {
 
   private static final String ID = "_id";
+  private static final String ORG_ID = "orgId";
+  private static final String ARTIFACTS = "artifacts";
+  private static final String MODEL_ID = "modelId";
+  private static final String OR = "$or";
+  private static final int PAGE_LIMIT = 10;
   private static final String EXEMPLARY_PROPERTY_NAME = "exemplary property name";
   private static final String EXEMPLARY_PROPERTY_VALUE = "exemplary property value";
   private static final String DEFAULT_ORG_ID = "defaultorg";
+  private static final String MODELS_COLLECTION = "model";
+  private static final String ARTIFACTS_COLLECTION = "artifacts";
 
   @Mock
   private MongoOperations mongoOperations;
+  @Mock
+  private MongoReadRouter readRouter;
+  @Mock
+  private MongoWriteRouter writeRouter;
 
   @InjectMocks
   private MongoModelStore mongoModelStore;
@@ -69,13 +113,151 @@ public class MongoModelStoreTest {
   private ArgumentCaptor<Query> queryCaptor;
   @Captor
   private ArgumentCaptor<Update> updateStmtCaptor;
+  @Captor
+  private ArgumentCaptor<FindAndModifyOptions> optionsCaptor;
+
+  @Before
+  public void setUp() {
+    when(readRouter.forRead(anyString())).thenReturn(mongoOperations);
+    when(writeRouter.write(anyString(), any(Function.class))).thenAnswer(invocation ->
+            ((Function<MongoOperations, ?>) invocation.getArguments()[1]).apply(mongoOperations));
+  }
+
+  @Test
+  public void shouldStreamModelsOfGivenOrganization() throws ModelStoreException {
+    // given
+    CloseableIterator<Model> cursor = mock(CloseableIterator.class);
+    when(mongoOperations.stream(any(Query.class), modelClassMatcher())).thenReturn(cursor);
+    // when
+    mongoModelStore.streamModels(
+            DEFAULT_ORG_ID, ModelFilter.NONE, ModelSort.DEFAULT, ModelView.FULL).close();
+    // then
+    verify(mongoOperations).stream(queryCaptor.capture(), modelClassMatcher());
+    assertThat(queryCaptor.getValue().getQueryObject().get(ORG_ID)).isEqualTo(DEFAULT_ORG_ID);
+    verify(cursor).close();
+  }
+
+  @Test
+  public void shouldStreamModelsOfAllOrganizations() throws ModelStoreException {
+    // given
+    CloseableIterator<Model> cursor = mock(CloseableIterator.class);
+    when(mongoOperations.stream(any(Query.class), modelClassMatcher())).thenReturn(cursor);
+    // when
+    mongoModelStore.streamAllModels(ModelView.SUMMARY).close();
+    // then
+    verify(readRouter).forRead("streamAllModels");
+    verify(mongoOperations).stream(queryCaptor.capture(), modelClassMatcher());
+    assertThat(queryCaptor.getValue().getQueryObject().keySet()).isEmpty();
+    verify(cursor).close();
+  }
+
+  @Test
+  public void shouldListPageOfModelsOfGivenOrganization() throws ModelStoreException {
+    // when
+    mongoModelStore.listModels(DEFAULT_ORG_ID, ModelFilter.NONE, ModelSort.DEFAULT, null,
+            PAGE_LIMIT, ModelView.FULL);
+    // then
+    verify(mongoOperations).find(queryCaptor.capture(), modelClassMatcher());
+    Query query = queryCaptor.getValue();
+    assertThat(query.getQueryObject().get(ORG_ID)).isEqualTo(DEFAULT_ORG_ID);
+    assertThat(query.getQueryObject().containsField(OR)).isFalse();
+    assertThat(query.getLimit()).isEqualTo(PAGE_LIMIT);
+    assertThat(query.getFieldsObject()).isNull();
+  }
+
+  @Test
+  public void shouldExcludeArtifacts_whenListingSummaryOfModels() throws ModelStoreException {
+    // when
+    mongoModelStore.listModels(DEFAULT_ORG_ID, ModelFilter.NONE, ModelSort.DEFAULT, null,
+            PAGE_LIMIT, ModelView.SUMMARY);
+    // then
+    verify(mongoOperations).find(queryCaptor.capture(), modelClassMatcher());
+    assertThat(queryCaptor.getValue().getFieldsObject().get(ARTIFACTS)).isEqualTo(0);
+  }
+
+  @Test
+  public void shouldSeekPastCursor_whenListingPageOfModels() throws ModelStoreException {
+    // given
+    ModelCursor cursor = ModelCursor.builder()
+            .sortKey(Instant.now())
+            .id(UUID.randomUUID())
+            .build();
+    // when
+    mongoModelStore.listModels(DEFAULT_ORG_ID, ModelFilter.NONE, ModelSort.DEFAULT, cursor,
+            PAGE_LIMIT, ModelView.FULL);
+    // then
+    verify(mongoOperations).find(queryCaptor.capture(), modelClassMatcher());
+    Query query = queryCaptor.getValue();
+    assertThat(query.getQueryObject().get(ORG_ID)).isEqualTo(DEFAULT_ORG_ID);
+    assertThat(query.getQueryObject().get(OR).toString())
+            .contains(String.valueOf(cursor.getSortKey().toEpochMilli()))
+            .contains("$lt");
+    assertThat(query.getSortObject().keySet()).containsExactly("modifiedOn", ID);
+  }
+
+  @Test
+  public void shouldSeekForwardPastCursor_whenSortedInAscendingOrder() throws ModelStoreException {
+    // given
+    ModelCursor cursor = ModelCursor.builder()
+            .sortKey(Instant.now())
+            .id(UUID.randomUUID())
+            .build();
+    // when
+    mongoModelStore.listModels(DEFAULT_ORG_ID, ModelFilter.NONE, ModelSort.ADDED_ON_ASC, cursor,
+            PAGE_LIMIT, ModelView.FULL);
+    // then
+    verify(mongoOperations).find(queryCaptor.capture(), modelClassMatcher());
+    Query query = queryCaptor.getValue();
+    assertThat(query.getQueryObject().get(OR).toString())
+            .contains("addedOn")
+            .contains("$gt")
+            .doesNotContain("$lt");
+    assertThat(query.getSortObject().get("addedOn")).isEqualTo(1);
+    assertThat(query.getSortObject().get(ID)).isEqualTo(1);
+  }
+
+  @Test
+  public void shouldTranslateFilterIntoQuery_whenListingModels() throws ModelStoreException {
+    // given
+    Instant addedAfter = Instant.ofEpochMilli(1000L);
+    Instant addedBefore = Instant.ofEpochMilli(2000L);
+    ModelFilter filter = ModelFilter.builder()
+            .algorithm("k-means")
+            .creationTool("sklearn")
+            .addedBy("admin")
+            .addedAfter(addedAfter)
+            .addedBefore(addedBefore)
+            .build();
+    // when
+    mongoModelStore.listModels(
+            DEFAULT_ORG_ID, filter, ModelSort.DEFAULT, null, PAGE_LIMIT, ModelView.FULL);
+    // then
+    verify(mongoOperations).find(queryCaptor.capture(), modelClassMatcher());
+    DBObject queryObject = queryCaptor.getValue().getQueryObject();
+    assertThat(queryObject.get(ORG_ID)).isEqualTo(DEFAULT_ORG_ID);
+    assertThat(queryObject.get("algorithm")).isEqualTo("k-means");
+    assertThat(queryObject.get("creationTool")).isEqualTo("sklearn");
+    assertThat(queryObject.get("addedBy")).isEqualTo("admin");
+    DBObject addedOn = (DBObject) queryObject.get("addedOn");
+    assertThat(addedOn.get("$gt")).isEqualTo(1000L);
+    assertThat(addedOn.get("$lt")).isEqualTo(2000L);
+    assertThat(queryObject.containsField("modifiedOn")).isFalse();
+  }
 
   @Test
-  public void shouldListModels() throws ModelStoreException {
+  public void shouldStreamFilteredModels() throws ModelStoreException {
+    // given
+    when(mongoOperations.stream(any(Query.class), modelClassMatcher()))
+            .thenReturn(mock(CloseableIterator.class));
+    ModelFilter filter = ModelFilter.builder().modifiedBefore(Instant.ofEpochMilli(2000L)).build();
     // when
-    mongoModelStore.listModels(DEFAULT_ORG_ID);
+    mongoModelStore.streamModels(DEFAULT_ORG_ID, filter, ModelSort.MODIFIED_ON_ASC,
+            ModelView.SUMMARY).close();
     // then
-    verify(mongoOperations).findAll(Model.class);
+    verify(mongoOperations).stream(queryCaptor.capture(), modelClassMatcher());
+    Query query = queryCaptor.getValue();
+    assertThat(((DBObject) query.getQueryObject().get("modifiedOn")).get("$lt")).isEqualTo(2000L);
+    assertThat(query.getSortObject().get("modifiedOn")).isEqualTo(1);
   }
 
   @Test
@@ -89,11 +271,55 @@ public class MongoModelStoreTest {
     assertThatQueryContainsId(modelId);
   }
 
+  @Test
+  public void shouldReadWithOperationsChosenByReadRouter() throws ModelStoreException {
+    // given
+    MongoOperations secondaryOperations = mock(MongoOperations.class);
+    when(readRouter.forRead("retrieveModel")).thenReturn(secondaryOperations);
+    // when
+    mongoModelStore.retrieveModel(UUID.randomUUID());
+    // then
+    verify(secondaryOperations).findOne(any(Query.class), modelClassMatcher());
+    verify(mongoOperations, times(0)).findOne(any(Query.class), modelClassMatcher());
+  }
+
+  @Test
+  public void shouldExcludeArtifacts_whenRetrievingSummaryOfModel() throws ModelStoreException {
+    // given
+    final UUID modelId = UUID.randomUUID();
+    // when
+    mongoModelStore.retrieveModel(modelId, ModelView.SUMMARY);
+    // then
+    verify(mongoOperations).findOne(queryCaptor.capture(), modelClassMatcher());
+    assertThat(queryCaptor.getValue().getFieldsObject().get(ARTIFACTS)).isEqualTo(0);
+  }
+
+  @Test
+  public void shouldRetrieveModelsWithGivenIds() throws ModelStoreException {
+    // given
+    List<UUID> modelIds = Arrays.asList(UUID.randomUUID(), UUID.randomUUID());
+    // when
+    mongoModelStore.retrieveModels(modelIds);
+    // then
+    verify(mongoOperations).find(queryCaptor.capture(), modelClassMatcher());
+    assertThat(queryCaptor.getValue()).isEqualToComparingFieldByFieldRecursively(
+            new Query(where(ID).in(modelIds)));
+  }
+
   @Test
   public void shouldAddModel_withNoExceptions() throws ModelStoreException {
     mongoModelStore.addModel(TestModelsBuilder.emptyModel(), DEFAULT_ORG_ID);
   }
 
+  @Test
+  public void shouldAddModelWithWriteConcernOfAddModelOperation() throws ModelStoreException {
+    // when
+    mongoModelStore.addModel(TestModelsBuilder.emptyModel(), DEFAULT_ORG_ID);
+    // then
+    verify(writeRouter).write(eq("addModel"), any(Function.class));
+    verify(mongoOperations).insert(any(Model.class));
+  }
+
   @Test
   public void addModel_shouldForwardExceptions() {
     // given
@@ -104,49 +330,237 @@ public class MongoModelStoreTest {
                     TestModelsBuilder.emptyModel(), DEFAULT_ORG_ID));
   }
 
+  @Test
+  public void shouldAddModelsInOneUnorderedBulk() throws ModelStoreException {
+    // given
+    List<Model> models = Arrays.asList(
+            TestModelsBuilder.exemplaryModel(), TestModelsBuilder.emptyModel());
+    BulkWriteOperation bulk = mockBulkWriteOperation();
+    // when
+    Set<UUID> failedIds = mongoModelStore.addModels(models);
+    // then
+    verify(bulk, times(2)).insert(any(DBObject.class));
+    verify(bulk).execute();
+    assertThat(failedIds).isEmpty();
+  }
+
+  @Test
+  public void shouldExecuteBulkWithConfiguredWriteConcern() throws ModelStoreException {
+    // given
+    when(writeRouter.writeConcern("addModels")).thenReturn(WriteConcern.MAJORITY);
+    BulkWriteOperation bulk = mockBulkWriteOperation();
+    // when
+    mongoModelStore.addModels(Collections.singletonList(TestModelsBuilder.emptyModel()));
+    // then
+    verify(bulk).execute(WriteConcern.MAJORITY);
+  }
+
+  @Test
+  public void addModels_shouldReturnIdsOfModelsNotAdded() throws ModelStoreException {
+    // given
+    Model failedModel = TestModelsBuilder.exemplaryModel();
+    List<Model> models = Arrays.asList(TestModelsBuilder.emptyModel(), failedModel);
+    BulkWriteError writeError = mock(BulkWriteError.class);
+    when(writeError.getIndex()).thenReturn(1);
+    BulkWriteException bulkException = mock(BulkWriteException.class);
+    when(bulkException.getWriteErrors()).thenReturn(Collections.singletonList(writeError));
+    when(mockBulkWriteOperation().execute()).thenThrow(bulkException);
+    // when
+    Set<UUID> failedIds = mongoModelStore.addModels(models);
+    // then
+    assertThat(failedIds).containsExactly(failedModel.getId());
+  }
+
   @Test
   public void shouldUpdateModel() throws ModelStoreException {
     // given
     UUID modelId = UUID.randomUUID();
     Map<String, Object> propertiesToUpdate = preparePropertiesToUpdateMap();
-    WriteResult writeResult = mock(WriteResult.class);
-    when(writeResult.getN()).thenReturn(1);
-    when(mongoOperations.updateFirst(any(), any(), modelClassMatcher()))
-            .thenReturn(writeResult);
     // when
     mongoModelStore.updateModel(modelId, propertiesToUpdate);
     // then
-    verify(mongoOperations).updateFirst(
-            queryCaptor.capture(), updateStmtCaptor.capture(), modelClassMatcher());
+    verify(mongoOperations).findAndModify(queryCaptor.capture(), updateStmtCaptor.capture(),
+            optionsCaptor.capture(), modelClassMatcher());
     assertThatQueryContainsId(modelId);
     assertThatUpdateStmtContainsPassedProperty();
+    assertThat(optionsCaptor.getValue().isReturnNew()).isTrue();
   }
 
   @Test
-  public void updateModel_shouldReturnSuccess_whenAtLeastOneDocumentUpdated() {
+  public void updateModel_shouldReturnUpdatedModel() throws ModelStoreException {
     // given
-    WriteResult writeResultMock = mock(WriteResult.class);
-    when(mongoOperations.updateFirst(any(), any(), modelClassMatcher())).thenReturn
-            (writeResultMock);
-    when(writeResultMock.getN()).thenReturn(5);
-    // when/then
-    try {
-      mongoModelStore.updateModel(UUID.randomUUID(), preparePropertiesToUpdateMap());
-    } catch (ModelStoreException e) {
-      Assertions.fail("Unexpected exception", e);
-    }
+    Model updatedModel = TestModelsBuilder.exemplaryModel();
+    when(mongoOperations.findAndModify(any(Query.class), any(Update.class),
+            any(FindAndModifyOptions.class), modelClassMatcher())).thenReturn(updatedModel);
+    // when
+    Model returnedModel = mongoModelStore.updateModel(
+            updatedModel.getId(), preparePropertiesToUpdateMap());
+    // then
+    assertThat(returnedModel).isEqualToIgnoringGivenFields(updatedModel, ARTIFACTS);
+  }
+
+  @Test
+  public void shouldReadArtifactsFromTheirOwnCollection_whenRetrievingFullModel()
+          throws ModelStoreException {
+    // given
+    Model model = TestModelsBuilder.exemplaryModel();
+    Artifact artifact = model.getArtifacts().iterator().next();
+    when(mongoOperations.findOne(any(Query.class), eq(Model.class))).thenReturn(model);
+    when(mongoOperations.find(any(Query.class), eq(ArtifactRecord.class)))
+            .thenReturn(Collections.singletonList(ArtifactRecord.of(model.getId(), artifact)));
+    // when
+    Model retrievedModel = mongoModelStore.retrieveModel(model.getId());
+    // then
+    verify(mongoOperations).find(queryCaptor.capture(), eq(ArtifactRecord.class));
+    assertThat(queryCaptor.getValue().getQueryObject().get(MODEL_ID).toString())
+            .contains(model.getId().toString());
+    assertThat(retrievedModel.getArtifacts()).extracting(Artifact::getId)
+            .containsExactly(artifact.getId());
+  }
+
+  @Test
+  public void shouldNotReadArtifacts_whenRetrievingSummaryOfModel() throws ModelStoreException {
+    // given
+    when(mongoOperations.findOne(any(Query.class), eq(Model.class)))
+            .thenReturn(TestModelsBuilder.exemplaryModel());
+    // when
+    mongoModelStore.retrieveModel(UUID.randomUUID(), ModelView.SUMMARY);
+    // then
+    verify(mongoOperations, times(0)).find(any(Query.class), eq(ArtifactRecord.class));
+  }
+
+  @Test
+  public void shouldInsertArtifactRecord_whenAddingArtifactToExistingModel()
+          throws ModelStoreException {
+    // given
+    UUID modelId = UUID.randomUUID();
+    Artifact artifact = TestModelsBuilder.exemplaryModel().getArtifacts().iterator().next();
+    when(mongoOperations.count(any(Query.class), eq(Model.class))).thenReturn(1L);
+    ArgumentCaptor<ArtifactRecord> recordCaptor = ArgumentCaptor.forClass(ArtifactRecord.class);
+    // when
+    mongoModelStore.addArtifact(modelId, artifact);
+    // then
+    verify(mongoOperations).insert(recordCaptor.capture());
+    assertThat(recordCaptor.getValue().getModelId()).isEqualTo(modelId);
+    assertThat(recordCaptor.getValue().getId()).isEqualTo(artifact.getId());
+    verify(mongoOperations, times(0))
+            .updateFirst(any(Query.class), any(Update.class), eq(Model.class));
   }
 
   @Test(expected = ModelStoreException.class)
-  public void updateModel_shouldReturnFailure_whenNoDocumentsUpdated() throws ModelStoreException {
+  public void addArtifact_shouldThrowException_whenModelNotFound() throws ModelStoreException {
     // given
-    WriteResult writeResultMock = mock(WriteResult.class);
-    when(mongoOperations.updateFirst(any(), any(), modelClassMatcher())).thenReturn
-            (writeResultMock);
-    when(writeResultMock.getN()).thenReturn(0);
+    Artifact artifact = TestModelsBuilder.exemplaryModel().getArtifacts().iterator().next();
+    // when
+    mongoModelStore.addArtifact(UUID.randomUUID(), artifact);
+  }
+
+  @Test
+  public void addArtifact_shouldRemoveAddedRecord_whenModelDeletedMeanwhile() {
+    // given
+    UUID modelId = UUID.randomUUID();
+    Artifact artifact = TestModelsBuilder.exemplaryModel().getArtifacts().iterator().next();
+    when(mongoOperations.count(any(Query.class), eq(Model.class))).thenReturn(1L, 0L);
+    // when
+    Throwable thrown = catchThrowable(() -> mongoModelStore.addArtifact(modelId, artifact));
+    // then
+    assertThat(thrown).isInstanceOf(ModelStoreException.class);
+    verify(mongoOperations).insert(any(ArtifactRecord.class));
+    verify(mongoOperations).remove(queryCaptor.capture(), eq(ArtifactRecord.class));
+    assertThat(queryCaptor.getValue().getQueryObject().get(ID)).isEqualTo(artifact.getId());
+    assertThat(queryCaptor.getValue().getQueryObject().get(MODEL_ID)).isEqualTo(modelId);
+  }
+
+  @Test
+  public void shouldRemoveOnlyArtifactRecord_whenDeletingArtifact() throws ModelStoreException {
+    // given
+    UUID modelId = UUID.randomUUID();
+    UUID artifactId = UUID.randomUUID();
+    WriteResult writeResult = mock(WriteResult.class);
+    when(writeResult.getN()).thenReturn(1);
+    when(mongoOperations.remove(any(Query.class), eq(ArtifactRecord.class)))
+            .thenReturn(writeResult);
+    // when
+    mongoModelStore.deleteArtifact(modelId, artifactId);
+    // then
+    verify(mongoOperations).remove(queryCaptor.capture(), eq(ArtifactRecord.class));
+    assertThat(queryCaptor.getValue().getQueryObject().get(ID)).isEqualTo(artifactId);
+    assertThat(queryCaptor.getValue().getQueryObject().get(MODEL_ID)).isEqualTo(modelId);
+  }
+
+  @Test(expected = ModelStoreException.class)
+  public void deleteArtifact_shouldThrowException_whenNothingRemoved()
+          throws ModelStoreException {
+    // given
+    when(mongoOperations.remove(any(Query.class), eq(ArtifactRecord.class)))
+            .thenReturn(mock(WriteResult.class));
+    // when
+    mongoModelStore.deleteArtifact(UUID.randomUUID(), UUID.randomUUID());
+  }
+
+  @Test
+  public void updateModel_shouldReturnNull_whenNoModelFound() throws ModelStoreException {
+    // when
+    Model returnedModel = mongoModelStore.updateModel(
+            UUID.randomUUID(), preparePropertiesToUpdateMap());
+    // then
+    assertThat(returnedModel).isNull();
+  }
+
+  @Test(expected = ModelStoreException.class)
+  public void updateModel_shouldThrowException_whenUpdateFails() throws ModelStoreException {
+    // given
+    when(mongoOperations.findAndModify(any(Query.class), any(Update.class),
+            any(FindAndModifyOptions.class), modelClassMatcher()))
+            .thenThrow(mock(WriteConcernException.class));
     // when
     mongoModelStore.updateModel(UUID.randomUUID(), preparePropertiesToUpdateMap());
-    Assertions.fail("Expected exception");
+  }
+
+  @Test
+  public void shouldRetrieveOnlyMatchingArtifact() throws ModelStoreException {
+    // given
+    Model model = TestModelsBuilder.exemplaryModel();
+    Artifact artifact = model.getArtifacts().iterator().next();
+    when(mongoOperations.findOne(any(Query.class), eq(ArtifactRecord.class)))
+            .thenReturn(ArtifactRecord.of(model.getId(), artifact));
+    // when
+    Artifact retrievedArtifact = mongoModelStore.retrieveArtifact(model.getId(), artifact.getId());
+    // then
+    assertThat(retrievedArtifact).isEqualToComparingFieldByField(artifact);
+    verify(mongoOperations).findOne(queryCaptor.capture(), eq(ArtifactRecord.class));
+    Query query = queryCaptor.getValue();
+    assertThat(query.getQueryObject().get(ID)).isEqualTo(artifact.getId());
+    assertThat(query.getQueryObject().get(MODEL_ID)).isEqualTo(model.getId());
+    verify(mongoOperations, times(0)).findOne(any(Query.class), eq(Model.class));
+  }
+
+  @Test
+  public void retrieveArtifact_shouldReturnNull_whenNothingMatched() throws ModelStoreException {
+    // when
+    Artifact retrievedArtifact =
+            mongoModelStore.retrieveArtifact(UUID.randomUUID(), UUID.randomUUID());
+    // then
+    assertThat(retrievedArtifact).isNull();
+  }
+
+  @Test
+  public void shouldDeleteModelsWithGivenIdsInOneCall() throws ModelStoreException {
+    // given
+    List<UUID> modelIds = Arrays.asList(UUID.randomUUID(), UUID.randomUUID());
+    WriteResult writeResult = mock(WriteResult.class);
+    when(writeResult.getN()).thenReturn(2);
+    when(mongoOperations.remove(any(), modelClassMatcher())).thenReturn(writeResult);
+    // when
+    long deleted = mongoModelStore.deleteModels(modelIds);
+    // then
+    assertThat(deleted).isEqualTo(2);
+    verify(mongoOperations).remove(queryCaptor.capture(), eq(Model.class));
+    assertThat(queryCaptor.getValue()).isEqualToComparingFieldByFieldRecursively(
+            new Query(where(ID).in(modelIds)));
+    verify(mongoOperations).remove(queryCaptor.capture(), eq(ArtifactRecord.class));
+    assertThat(queryCaptor.getValue()).isEqualToComparingFieldByFieldRecursively(
+            new Query(where(MODEL_ID).in(modelIds)));
   }
 
   @Test
@@ -160,8 +574,10 @@ public class MongoModelStoreTest {
     // when
     mongoModelStore.deleteModel(modelId);
     // then
-    verify(mongoOperations).remove(queryCaptor.capture(), modelClassMatcher());
+    verify(mongoOperations).remove(queryCaptor.capture(), eq(Model.class));
     assertThatQueryContainsId(modelId);
+    verify(mongoOperations).remove(queryCaptor.capture(), eq(ArtifactRecord.class));
+    assertThat(queryCaptor.getValue().getQueryObject().get(MODEL_ID)).isEqualTo(modelId);
   }
 
   @Test
@@ -185,6 +601,76 @@ public class MongoModelStoreTest {
     mongoModelStore.deleteModel(UUID.randomUUID());
   }
 
+  private BulkWriteOperation mockBulkWriteOperation() {
+    DBCollection collection = mock(DBCollection.class);
+    BulkWriteOperation bulk = mock(BulkWriteOperation.class);
+    when(collection.initializeUnorderedBulkOperation()).thenReturn(bulk);
+    when(mongoOperations.getConverter()).thenReturn(mock(MongoConverter.class));
+    when(mongoOperations.execute(modelClassMatcher(), any(CollectionCallback.class)))
+            .thenAnswer(invocation -> ((CollectionCallback<?>) invocation.getArguments()[1])
+                    .doInCollection(collection));
+    return bulk;
+  }
+
+  @Test
+  public void shouldComputeStatisticsByAggregation_countingModelsWithoutGroupedKey()
+          throws ModelStoreException {
+    // given
+    when(mongoOperations.getCollectionName(Model.class)).thenReturn(MODELS_COLLECTION);
+    when(mongoOperations.getCollectionName(ArtifactRecord.class))
+            .thenReturn(ARTIFACTS_COLLECTION);
+    when(mongoOperations.aggregate(any(Aggregation.class), eq(MODELS_COLLECTION),
+            eq(DBObject.class)))
+            .thenReturn(groupCounts(DEFAULT_ORG_ID, 3, null, 1))
+            .thenReturn(groupCounts("GBM", 2, "SVM", 2));
+    when(mongoOperations.aggregate(any(Aggregation.class), eq(ARTIFACTS_COLLECTION),
+            eq(DBObject.class)))
+            .thenReturn(groupCounts("PUBLISH_TAP_SCORING_ENGINE", 5));
+    when(mongoOperations.count(any(Query.class), eq(Model.class))).thenReturn(4L);
+    when(mongoOperations.count(any(Query.class), eq(ArtifactRecord.class))).thenReturn(6L);
+    // when
+    CatalogStatistics statistics = mongoModelStore.computeStatistics();
+    // then
+    assertThat(statistics.getModels()).isEqualTo(4);
+    assertThat(statistics.getArtifacts()).isEqualTo(6);
+    assertThat(statistics.getModelsPerOrg()).containsOnlyKeys(DEFAULT_ORG_ID);
+    assertThat(statistics.getModelsPerAlgorithm()).containsEntry("GBM", 2L)
+            .containsEntry("SVM", 2L);
+    assertThat(statistics.getArtifactsPerAction())
+            .containsEntry("PUBLISH_TAP_SCORING_ENGINE", 5L);
+    assertThat(statistics.isEstimated()).isFalse();
+    verify(readRouter).forRead("computeStatistics");
+  }
+
+  @Test
+  public void shouldEstimateStatisticsFromCollectionCounts() throws ModelStoreException {
+    // given
+    DBCollection models = mock(DBCollection.class);
+    DBCollection artifacts = mock(DBCollection.class);
+    when(mongoOperations.getCollectionName(Model.class)).thenReturn(MODELS_COLLECTION);
+    when(mongoOperations.getCollectionName(ArtifactRecord.class))
+            .thenReturn(ARTIFACTS_COLLECTION);
+    when(mongoOperations.getCollection(MODELS_COLLECTION)).thenReturn(models);
+    when(mongoOperations.getCollection(ARTIFACTS_COLLECTION)).thenReturn(artifacts);
+    when(models.getCount()).thenReturn(4L);
+    when(artifacts.getCount()).thenReturn(6L);
+    // when
+    CatalogStatistics statistics = mongoModelStore.estimateStatistics();
+    // then
+    assertThat(statistics.getModels()).isEqualTo(4);
+    assertThat(statistics.getArtifacts()).isEqualTo(6);
+    assertThat(statistics.getModelsPerOrg()).isNull();
+    assertThat(statistics.isEstimated()).isTrue();
+  }
+
+  private AggregationResults<DBObject> groupCounts(Object... keysAndCounts) {
+    List<DBObject> groups = new ArrayList<>();
+    for (int i = 0; i < keysAndCounts.length; i += 2) {
+      groups.add(new BasicDBObject(ID, keysAndCounts[i]).append("count", keysAndCounts[i + 1]));
+    }
+    return new AggregationResults<>(groups, new BasicDBObject());
+  }
+
   private Class<Model> modelClassMatcher() {
     return Matchers.<Class<Model>>any();
   }
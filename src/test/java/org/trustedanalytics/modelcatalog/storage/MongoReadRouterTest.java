@@ -0,0 +1,112 @@
+/**
+ * Copyright (c) 2016 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.trustedanalytics.modelcatalog.storage;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import org.trustedanalytics.modelcatalog.security.UsernameExtractor;
+import org.trustedanalytics.modelcatalog.storage.db.MongoProperties;
+import org.trustedanalytics.modelcatalog.storage.db.MongoReadRouter;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.data.mongodb.MongoDbFactory;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class MongoReadRouterTest {
+
+  private static final String LIST_MODELS = "listModels";
+  private static final String RETRIEVE_MODEL = "retrieveModel";
+  private static final String ADD_MODEL = "addModel";
+
+  private final MongoOperations primaryOperations = mock(MongoOperations.class);
+  private final UsernameExtractor usernameExtractor = mock(UsernameExtractor.class);
+  private MongoReadRouter readRouter;
+
+  @Before
+  public void setUp() {
+    when(usernameExtractor.obtainUsername()).thenReturn("user");
+    readRouter = readRouter(60000);
+  }
+
+  @Test
+  public void shouldReadFromPrimary_whenNoOtherPreferenceConfigured() {
+    // when, then
+    assertThat(readRouter.forRead(RETRIEVE_MODEL)).isSameAs(primaryOperations);
+    assertThat(readRouter.forRead(ADD_MODEL)).isSameAs(primaryOperations);
+  }
+
+  @Test
+  public void shouldReadWithConfiguredPreference() {
+    // when, then
+    assertThat(readRouter.forRead(LIST_MODELS)).isNotSameAs(primaryOperations);
+  }
+
+  @Test
+  public void shouldReadFromPrimary_afterCallerWrote() {
+    // given
+    readRouter.recordWrite();
+    // when, then
+    assertThat(readRouter.forRead(LIST_MODELS)).isSameAs(primaryOperations);
+  }
+
+  @Test
+  public void shouldReadWithConfiguredPreference_afterAnotherCallerWrote() {
+    // given
+    readRouter.recordWrite();
+    when(usernameExtractor.obtainUsername()).thenReturn("another user");
+    // when, then
+    assertThat(readRouter.forRead(LIST_MODELS)).isNotSameAs(primaryOperations);
+  }
+
+  @Test
+  public void shouldReadWithConfiguredPreference_whenCallerUnknown() {
+    // given
+    when(usernameExtractor.obtainUsername()).thenThrow(new NullPointerException());
+    readRouter.recordWrite();
+    // when, then
+    assertThat(readRouter.forRead(LIST_MODELS)).isNotSameAs(primaryOperations);
+  }
+
+  @Test
+  public void shouldForgetExpiredWrites_ofCallersWhoDoNotReadAgain() throws InterruptedException {
+    // given
+    MongoReadRouter shortWindowRouter = readRouter(1);
+    shortWindowRouter.recordWrite();
+    Thread.sleep(5);
+    when(usernameExtractor.obtainUsername()).thenReturn("other");
+    // when
+    shortWindowRouter.recordWrite();
+    // then
+    assertThat(shortWindowRouter.trackedCallers()).isEqualTo(1);
+  }
+
+  private MongoReadRouter readRouter(long readYourWritesWindowMs) {
+    Map<String, String> readPreferences = new HashMap<>();
+    readPreferences.put(LIST_MODELS, "secondaryPreferred");
+    readPreferences.put(RETRIEVE_MODEL, "primary");
+    MongoProperties mongoProperties = new MongoProperties();
+    mongoProperties.setReadPreferences(readPreferences);
+    mongoProperties.setReadYourWritesWindowMs(readYourWritesWindowMs);
+    return new MongoReadRouter(primaryOperations, mock(MongoDbFactory.class),
+            mock(MongoConverter.class), mongoProperties, usernameExtractor);
+  }
+
+}
@@ -0,0 +1,208 @@
+/**
+ * Copyright (c) 2016 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.trustedanalytics.modelcatalog.storage;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.trustedanalytics.modelcatalog.domain.Model;
+import org.trustedanalytics.modelcatalog.storage.db.ArtifactRecord;
+import org.trustedanalytics.modelcatalog.storage.db.MongoProperties;
+import org.trustedanalytics.modelcatalog.storage.db.MongoSchemaInitializer;
+
+import com.mongodb.WriteResult;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Matchers;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.CollectionCallback;
+import org.springframework.data.mongodb.core.IndexOperations;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@RunWith(MockitoJUnitRunner.class)
+public class MongoSchemaInitializerTest {
+
+  private static final String ORG_ID = "orgId";
+  private static final String MIGRATION_ORG_ID = "defaultorg";
+  private static final String MIGRATIONS = "schemaMigrations";
+
+  @Mock
+  private MongoOperations mongoOperations;
+  @Mock
+  private IndexOperations indexOperations;
+  @Mock
+  private IndexOperations artifactIndexOperations;
+
+  @Captor
+  private ArgumentCaptor<Index> indexCaptor;
+  @Captor
+  private ArgumentCaptor<Update> updateCaptor;
+
+  private final MongoProperties mongoProperties = new MongoProperties();
+  private MongoSchemaInitializer initializer;
+
+  @Before
+  public void setUp() {
+    when(mongoOperations.indexOps(Model.class)).thenReturn(indexOperations);
+    when(mongoOperations.indexOps(ArtifactRecord.class)).thenReturn(artifactIndexOperations);
+    mongoProperties.setMigrateArtifacts(false);
+    initializer = new MongoSchemaInitializer(mongoOperations, mongoProperties);
+  }
+
+  @Test
+  public void shouldCreateIndexForOrgScopedModelList() {
+    // when
+    initializer.initialize();
+    // then
+    assertThat(createdIndexKeys()).contains(Arrays.asList(ORG_ID, "modifiedOn", "_id"));
+  }
+
+  @Test
+  public void shouldCreateIndexesForFilteredAndSortedModelLists() {
+    // when
+    initializer.initialize();
+    // then
+    assertThat(createdIndexKeys()).contains(
+            Arrays.asList(ORG_ID, "addedOn", "_id"),
+            Arrays.asList(ORG_ID, "algorithm", "modifiedOn", "_id"),
+            Arrays.asList(ORG_ID, "creationTool", "modifiedOn", "_id"),
+            Arrays.asList(ORG_ID, "addedBy", "modifiedOn", "_id"),
+            Arrays.asList(ORG_ID, "algorithm", "addedOn", "_id"),
+            Arrays.asList(ORG_ID, "creationTool", "addedOn", "_id"),
+            Arrays.asList(ORG_ID, "addedBy", "addedOn", "_id"));
+  }
+
+  @Test
+  public void shouldCreateIndexForArtifactsOfModel() {
+    // when
+    initializer.initialize();
+    // then
+    verify(artifactIndexOperations).ensureIndex(indexCaptor.capture());
+    assertThat(indexCaptor.getValue().getIndexKeys().keySet())
+            .containsExactly("modelId", "_id");
+  }
+
+  @Test
+  public void shouldMigrateEmbeddedArtifacts_whenEnabled() {
+    // given
+    mongoProperties.setMigrateArtifacts(true);
+    when(mongoOperations.execute(eq(Model.class), any(CollectionCallback.class))).thenReturn(0);
+    // when
+    initializer.initialize();
+    // then
+    verify(mongoOperations).execute(eq(Model.class), any(CollectionCallback.class));
+  }
+
+  @Test
+  public void shouldRecordMigrationOfEmbeddedArtifacts_whenFinished() {
+    // given
+    mongoProperties.setMigrateArtifacts(true);
+    when(mongoOperations.execute(eq(Model.class), any(CollectionCallback.class))).thenReturn(0);
+    // when
+    initializer.initialize();
+    // then
+    verify(mongoOperations).updateFirst(
+            any(Query.class), updateCaptor.capture(), eq(MIGRATIONS));
+    assertThat(updateCaptor.getValue().getUpdateObject().get("$set").toString())
+            .contains("finished");
+  }
+
+  @Test
+  public void shouldNotMigrateEmbeddedArtifacts_whenMigratedBefore() {
+    // given
+    mongoProperties.setMigrateArtifacts(true);
+    when(mongoOperations.exists(any(Query.class), eq(MIGRATIONS))).thenReturn(true);
+    // when
+    initializer.initialize();
+    // then
+    verify(mongoOperations, never()).execute(eq(Model.class), any(CollectionCallback.class));
+  }
+
+  @Test
+  public void shouldNotMigrateEmbeddedArtifacts_whenAnotherInstanceMigrates() {
+    // given
+    mongoProperties.setMigrateArtifacts(true);
+    when(mongoOperations.upsert(any(Query.class), any(Update.class), eq(MIGRATIONS)))
+            .thenThrow(new DuplicateKeyException("claimed"));
+    // when
+    initializer.initialize();
+    // then
+    verify(mongoOperations, never()).execute(eq(Model.class), any(CollectionCallback.class));
+    verify(mongoOperations, never())
+            .updateFirst(any(Query.class), any(Update.class), eq(MIGRATIONS));
+  }
+
+  @Test
+  public void shouldNotMigrateEmbeddedArtifacts_whenDisabled() {
+    // when
+    initializer.initialize();
+    // then
+    verify(mongoOperations, never()).execute(eq(Model.class), any(CollectionCallback.class));
+  }
+
+  @Test
+  public void shouldAssignModelsWithoutOrgId_whenMigrationOrgIdConfigured() {
+    // given
+    mongoProperties.setMigrationOrgId(MIGRATION_ORG_ID);
+    when(mongoOperations.updateMulti(any(Query.class), any(Update.class), modelClassMatcher()))
+            .thenReturn(mock(WriteResult.class));
+    // when
+    initializer.initialize();
+    // then
+    verify(mongoOperations).updateMulti(
+            any(Query.class), updateCaptor.capture(), modelClassMatcher());
+    assertThat(updateCaptor.getValue().getUpdateObject().get("$set").toString())
+            .contains(MIGRATION_ORG_ID);
+  }
+
+  @Test
+  public void shouldNotMigrateModels_whenMigrationOrgIdNotConfigured() {
+    // when
+    initializer.initialize();
+    // then
+    verify(mongoOperations, never())
+            .updateMulti(any(Query.class), any(Update.class), modelClassMatcher());
+  }
+
+  private List<List<String>> createdIndexKeys() {
+    verify(indexOperations, atLeastOnce()).ensureIndex(indexCaptor.capture());
+    return indexCaptor.getAllValues().stream()
+            .<List<String>>map(index -> new ArrayList<>(index.getIndexKeys().keySet()))
+            .collect(Collectors.toList());
+  }
+
+  private Class<Model> modelClassMatcher() {
+    return Matchers.<Class<Model>>any();
+  }
+
+}
@@ -0,0 +1,117 @@
+/**
+ * Copyright (c) 2016 Intel Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.trustedanalytics.modelcatalog.storage;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import org.trustedanalytics.modelcatalog.storage.db.MongoMetrics;
+import org.trustedanalytics.modelcatalog.storage.db.MongoProperties;
+import org.trustedanalytics.modelcatalog.storage.db.MongoReadRouter;
+import org.trustedanalytics.modelcatalog.storage.db.MongoWriteRouter;
+
+import com.mongodb.WriteConcern;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.data.mongodb.MongoDbFactory;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class MongoWriteRouterTest {
+
+  private static final String ADD_MODEL = "addModel";
+  private static final String ADD_ARTIFACT = "addArtifact";
+  private static final String UPDATE_MODEL = "updateModel";
+
+  private final MongoOperations defaultOperations = mock(MongoOperations.class);
+  private final MongoReadRouter readRouter = mock(MongoReadRouter.class);
+  private final MongoMetrics mongoMetrics = new MongoMetrics();
+  private MongoWriteRouter writeRouter;
+
+  @Before
+  public void setUp() {
+    MongoProperties.WriteConcernProperties majorityJournaled =
+            new MongoProperties.WriteConcernProperties();
+    majorityJournaled.setW("majority");
+    majorityJournaled.setJournal(true);
+    // Blank w leaves the operation with the driver default
+    MongoProperties.WriteConcernProperties blank = new MongoProperties.WriteConcernProperties();
+    blank.setW("");
+
+    Map<String, MongoProperties.WriteConcernProperties> writeConcerns = new HashMap<>();
+    writeConcerns.put(ADD_MODEL, majorityJournaled);
+    writeConcerns.put(ADD_ARTIFACT, blank);
+    MongoProperties mongoProperties = new MongoProperties();
+    mongoProperties.setWriteConcerns(writeConcerns);
+
+    writeRouter = new MongoWriteRouter(defaultOperations, mock(MongoDbFactory.class),
+            mock(MongoConverter.class), mongoProperties, readRouter, mongoMetrics);
+  }
+
+  @Test
+  public void shouldWriteWithDefaultOperations_whenNoWriteConcernConfigured() {
+    // when
+    MongoOperations used = writeRouter.write(UPDATE_MODEL, operations -> operations);
+    // then
+    assertThat(used).isSameAs(defaultOperations);
+    assertThat(writeRouter.writeConcern(UPDATE_MODEL)).isNull();
+    assertThat(writeRouter.writeConcern(ADD_ARTIFACT)).isNull();
+  }
+
+  @Test
+  public void shouldWriteWithConfiguredWriteConcern() {
+    // when
+    MongoOperations used = writeRouter.write(ADD_MODEL, operations -> operations);
+    // then
+    assertThat(used).isNotSameAs(defaultOperations);
+    assertThat(writeRouter.writeConcern(ADD_MODEL))
+            .isEqualTo(new WriteConcern("majority", 0, false, true));
+  }
+
+  @Test
+  public void shouldRecordLatencyPerWriteConcernMode() {
+    // when
+    writeRouter.write(ADD_MODEL, operations -> null);
+    writeRouter.write(UPDATE_MODEL, operations -> null);
+    writeRouter.write(ADD_ARTIFACT, operations -> null);
+    // then
+    assertThat(writes()).containsOnlyKeys("w=majority,journal", "default");
+    assertThat(writes().get("default").get("count")).isEqualTo(2);
+    verify(readRouter, times(3)).recordWrite();
+  }
+
+  @Test
+  public void shouldRecordLatency_whenWriteFails() {
+    // when
+    assertThatExceptionOfType(IllegalStateException.class)
+            .isThrownBy(() -> writeRouter.write(UPDATE_MODEL, operations -> {
+              throw new IllegalStateException();
+            }));
+    // then
+    assertThat(writes().get("default").get("count")).isEqualTo(1);
+    verify(readRouter, never()).recordWrite();
+  }
+
+  @SuppressWarnings("unchecked")
+  private Map<String, Map<String, Long>> writes() {
+    return (Map<String, Map<String, Long>>) mongoMetrics.snapshot().get("writes");
+  }
+}